@@ -0,0 +1,468 @@
+package uniandes.dpoo.taller1.rendimiento;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+
+import uniandes.dpoo.taller1.modelo.Categoria;
+import uniandes.dpoo.taller1.modelo.Libreria;
+import uniandes.dpoo.taller1.modelo.Libro;
+import uniandes.dpoo.taller1.modelo.OpcionesCarga;
+
+/**
+ * Esta clase mide el tiempo de las operaciones de la librería sobre catálogos
+ * sintéticos de distintos tamaños, creados con {@link GeneradorCatalogo}.
+ *
+ * Cada medición tiene una fase de calentamiento, para que el compilador JIT
+ * optimice el código, y luego varias rondas cronometradas. Para cada operación
+ * se informa el tiempo promedio y el mejor tiempo por operación, y cuántas
+ * operaciones por segundo se logran en promedio. Los resultados de las
+ * operaciones se acumulan en un atributo volátil para que el JIT no pueda
+ * eliminar las llamadas.
+ *
+ * Las búsquedas usan títulos y autores tomados del mismo catálogo, elegidos con
+ * una semilla fija, más una parte de nombres que no existen. Como los autores
+ * del catálogo siguen una distribución sesgada, las búsquedas por autor incluyen
+ * autores con muchos libros y autores con uno solo.
+ *
+ * El programa se ejecuta desde la carpeta del proyecto, para que las portadas
+ * de los catálogos generados se encuentren en "data/imagenes". Para catálogos
+ * de 10 millones de libros hay que darle a la máquina virtual bastante memoria
+ * (por ejemplo -Xmx12g).
+ *
+ * Este programa sirve para una revisión rápida: todas las mediciones corren en
+ * la misma máquina virtual, así que unas pueden afectar a las otras. Para
+ * comparar cambios se deben usar las mediciones de JMH de la carpeta "jmh",
+ * que usan los mismos catálogos y las mismas consultas y corren cada medición
+ * en una máquina virtual aparte.
+ */
+public class BancoLibreria
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Los tamaños de catálogo que se miden si no se indican otros
+	 */
+	private static final String TAMANOS_POR_DEFECTO = "1000,100000";
+
+	/**
+	 * La carpeta donde se guardan los catálogos generados si no se indica otra
+	 */
+	static final Path CARPETA_POR_DEFECTO = Paths.get(System.getProperty("java.io.tmpdir"), "catalogos-libreria");
+
+	/**
+	 * Tiempo mínimo de calentamiento de cada operación, en nanosegundos
+	 */
+	private static final long CALENTAMIENTO = 500_000_000L;
+
+	/**
+	 * Tiempo mínimo de cada ronda cronometrada, en nanosegundos
+	 */
+	private static final long DURACION_RONDA = 200_000_000L;
+
+	/**
+	 * Cantidad de títulos y autores distintos que se usan en las búsquedas
+	 */
+	static final int CANTIDAD_CONSULTAS = 1024;
+
+	/**
+	 * Proporción de búsquedas con nombres que no existen en el catálogo
+	 */
+	private static final double PROPORCION_FALLIDAS = 0.1;
+
+	/**
+	 * Cantidad de autores cuyos libros se eliminan en cada ronda
+	 */
+	static final int AUTORES_POR_ELIMINACION = 16;
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * Acumula los resultados de las operaciones medidas
+	 */
+	private volatile long sumidero;
+
+	/**
+	 * La cantidad de rondas cronometradas de cada operación
+	 */
+	private int rondas;
+
+	/**
+	 * La semilla con la que se generan los catálogos y se eligen las consultas
+	 */
+	private long semilla;
+
+	/**
+	 * La carpeta donde se guardan los catálogos generados
+	 */
+	private Path carpeta;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Prepara un banco de pruebas
+	 *
+	 * @param lasRondas   La cantidad de rondas cronometradas de cada operación
+	 * @param laSemilla   La semilla de los catálogos y las consultas
+	 * @param laCarpeta   La carpeta donde se guardan los catálogos generados
+	 */
+	public BancoLibreria(int lasRondas, long laSemilla, Path laCarpeta)
+	{
+		this.rondas = lasRondas;
+		this.semilla = laSemilla;
+		this.carpeta = laCarpeta;
+	}
+
+	// ************************************************************************
+	// Métodos
+	// ************************************************************************
+
+	/**
+	 * Genera el catálogo del tamaño indicado, si todavía no existe, y mide todas
+	 * las operaciones sobre él
+	 *
+	 * @param cantidadLibros La cantidad de libros del catálogo
+	 * @throws Exception Si hay un problema generando o cargando el catálogo
+	 */
+	public void medirCatalogo(int cantidadLibros) throws Exception
+	{
+		Path carpetaCatalogo = prepararCatalogo(carpeta, cantidadLibros, semilla);
+		String categorias = carpetaCatalogo.resolve("categorias.csv").toString();
+		String libros = carpetaCatalogo.resolve("libreria.csv").toString();
+
+		System.out.println();
+		System.out.println("== " + cantidadLibros + " libros ==");
+		System.out.println(String.format("%-34s %14s %14s %14s", "operación", "prom ns/op", "mejor ns/op", "ops/s"));
+
+		// Carga
+		medir("cargarCatalogo", () -> new Libreria(categorias, libros).darLibros().size());
+		medir("cargarCatalogo paralelo", () -> new Libreria(categorias, libros,
+				new OpcionesCarga().cambiarCargaParalela(true)).darLibros().size());
+		medir("cargarCatalogo columnar", () -> new Libreria(categorias, libros,
+				new OpcionesCarga().cambiarAlmacenColumnar(true)).darLibros().size());
+
+		// Consultas
+		Libreria libreria = new Libreria(categorias, libros);
+		Random azar = new Random(semilla);
+		String[] titulos = elegirTitulos(libreria, azar);
+		String[] autores = elegirAutores(libreria, azar);
+		Categoria[] lasCategorias = libreria.darCategorias();
+
+		medirPorIndice("buscarLibro", titulos.length, i -> libreria.buscarLibro(titulos[i]) == null ? 0 : 1);
+		medirPorIndice("buscarLibrosAutor", autores.length, i -> libreria.buscarLibrosAutor(autores[i]).size());
+		medirPorIndice("buscarCategoriasAutor", autores.length,
+				i -> libreria.buscarCategoriasAutor(autores[i]).size());
+		medirPorIndice("existenAutores", autores.length, i -> libreria.existenAutores(autores[i]).size());
+		medirPorIndice("darLibros(categoria)", lasCategorias.length,
+				i -> libreria.darLibros(lasCategorias[i].darNombre()).size());
+		medirPorIndice("buscarPosCategoria", lasCategorias.length,
+				i -> libreria.buscarPosCategoria(lasCategorias[i].darNombre()));
+
+		// Agregados
+		medir("darCategorias", () -> libreria.darCategorias().length);
+		medir("calificacionPromedio", () -> (long) (libreria.calificacionPromedio() * 1000));
+		medir("categoriaConMasLibros", () -> libreria.categoriaConMasLibros().darId());
+		medir("categoriaConMejoresLibros", () -> libreria.categoriaConMejoresLibros().darId());
+		medir("contarLibrosSinPortada", () -> libreria.contarLibrosSinPortada());
+		medir("hayAutorEnVariasCategorias", () -> libreria.hayAutorEnVariasCategorias() ? 1 : 0);
+		medirPorIndice("Categoria.calificacionPromedio", lasCategorias.length,
+				i -> (long) (lasCategorias[i].calificacionPromedio() * 1000));
+		medirPorIndice("Categoria.contarLibrosSinPortada", lasCategorias.length,
+				i -> lasCategorias[i].contarLibrosSinPortada());
+
+		// Cambios. El renombramiento va y vuelve para que el catálogo no cambie
+		// entre rondas.
+		String nombreOriginal = lasCategorias[0].darNombre();
+		String nombreTemporal = nombreOriginal + "-Renombrada";
+		medirPorIndice("renombrarCategoria", 2,
+				i -> libreria.renombrarCategoria(0, i == 0 ? nombreTemporal : nombreOriginal) ? 1 : 0);
+		if (!lasCategorias[0].darNombre().equals(nombreOriginal))
+		{
+			libreria.renombrarCategoria(0, nombreOriginal);
+		}
+
+		String autoresEliminados = elegirAutoresParaEliminar(autores);
+		medirEliminacion(categorias, libros, autoresEliminados);
+	}
+
+	/**
+	 * Genera un catálogo, si todavía no existe. Los catálogos se guardan en una
+	 * carpeta por tamaño y semilla, así que se generan una sola vez.
+	 *
+	 * @param carpeta        La carpeta donde se guardan los catálogos generados
+	 * @param cantidadLibros La cantidad de libros del catálogo
+	 * @param semilla        La semilla del catálogo
+	 * @return La carpeta con los archivos categorias.csv y libreria.csv
+	 * @throws IOException Si no se pueden escribir los archivos
+	 */
+	static Path prepararCatalogo(Path carpeta, int cantidadLibros, long semilla) throws IOException
+	{
+		Path carpetaCatalogo = carpeta.resolve(cantidadLibros + "-" + semilla);
+		if (!Files.exists(carpetaCatalogo.resolve("libreria.csv")))
+		{
+			System.out.println("Generando " + cantidadLibros + " libros en " + carpetaCatalogo);
+			new GeneradorCatalogo(cantidadLibros, semilla).generar(carpetaCatalogo);
+		}
+		return carpetaCatalogo;
+	}
+
+	/**
+	 * Mide una operación llamándola tantas veces como quepan en cada ronda
+	 *
+	 * @param nombre    El nombre que se muestra en el informe
+	 * @param operacion La operación
+	 * @throws Exception Si la operación falla
+	 */
+	private void medir(String nombre, Operacion operacion) throws Exception
+	{
+		medirPorIndice(nombre, 1, i -> operacion.ejecutar());
+	}
+
+	/**
+	 * Mide una operación que recibe un índice. En cada llamada el índice avanza
+	 * de forma circular entre 0 y cantidad-1, para que la operación recorra
+	 * distintas entradas.
+	 *
+	 * @param nombre    El nombre que se muestra en el informe
+	 * @param cantidad  La cantidad de índices distintos
+	 * @param operacion La operación
+	 * @throws Exception Si la operación falla
+	 */
+	private void medirPorIndice(String nombre, int cantidad, OperacionIndice operacion) throws Exception
+	{
+		long acumulado = 0;
+		int indice = 0;
+
+		long fin = System.nanoTime() + CALENTAMIENTO;
+		while (System.nanoTime() < fin)
+		{
+			acumulado += operacion.ejecutar(indice);
+			indice = (indice + 1) % cantidad;
+		}
+
+		long totalNanos = 0;
+		long totalOperaciones = 0;
+		double mejor = Double.MAX_VALUE;
+		for (int r = 0; r < rondas; r++)
+		{
+			long operaciones = 0;
+			long inicio = System.nanoTime();
+			long ahora;
+			do
+			{
+				acumulado += operacion.ejecutar(indice);
+				indice = (indice + 1) % cantidad;
+				operaciones++;
+				ahora = System.nanoTime();
+			} while (ahora - inicio < DURACION_RONDA);
+			long nanos = ahora - inicio;
+			totalNanos += nanos;
+			totalOperaciones += operaciones;
+			mejor = Math.min(mejor, (double) nanos / operaciones);
+		}
+		sumidero += acumulado;
+		informar(nombre, (double) totalNanos / totalOperaciones, mejor);
+	}
+
+	/**
+	 * Mide la eliminación de los libros de varios autores. Como la operación
+	 * cambia el catálogo, antes de cada ronda se vuelve a cargar la librería y
+	 * cada ronda hace una sola eliminación. La carga no se cronometra.
+	 *
+	 * @param categorias        El archivo de categorías
+	 * @param libros            El archivo de libros
+	 * @param autoresEliminados Los autores cuyos libros se eliminan, separados por
+	 *                          comas
+	 * @throws IOException Si hay un problema cargando la librería
+	 */
+	private void medirEliminacion(String categorias, String libros, String autoresEliminados) throws IOException
+	{
+		long totalNanos = 0;
+		double mejor = Double.MAX_VALUE;
+		int calentamiento = Math.max(1, rondas / 2);
+		for (int r = -calentamiento; r < rondas; r++)
+		{
+			Libreria libreria = new Libreria(categorias, libros);
+			long inicio = System.nanoTime();
+			sumidero += libreria.eliminarLibros(autoresEliminados);
+			long nanos = System.nanoTime() - inicio;
+			if (r >= 0)
+			{
+				totalNanos += nanos;
+				mejor = Math.min(mejor, nanos);
+			}
+		}
+		informar("eliminarLibros (" + AUTORES_POR_ELIMINACION + " autores)", (double) totalNanos / rondas, mejor);
+	}
+
+	/**
+	 * Muestra una línea del informe
+	 *
+	 * @param nombre   El nombre de la operación
+	 * @param promedio El tiempo promedio por operación, en nanosegundos
+	 * @param mejor    El mejor tiempo por operación, en nanosegundos
+	 */
+	private void informar(String nombre, double promedio, double mejor)
+	{
+		System.out.println(String.format(Locale.ROOT, "%-34s %14.1f %14.1f %14.1f", nombre, promedio, mejor,
+				1e9 / promedio));
+	}
+
+	/**
+	 * Elige títulos del catálogo para las búsquedas, más algunos que no existen
+	 *
+	 * @param libreria La librería
+	 * @param azar     El generador de números aleatorios
+	 * @return Los títulos
+	 */
+	static String[] elegirTitulos(Libreria libreria, Random azar)
+	{
+		ArrayList<Libro> libros = libreria.darLibros();
+		String[] titulos = new String[CANTIDAD_CONSULTAS];
+		for (int i = 0; i < titulos.length; i++)
+		{
+			titulos[i] = azar.nextDouble() < PROPORCION_FALLIDAS ? "Titulo inexistente " + i
+					: libros.get(azar.nextInt(libros.size())).darTitulo();
+		}
+		return titulos;
+	}
+
+	/**
+	 * Elige autores del catálogo para las búsquedas, más algunos que no existen.
+	 * Los autores se toman de libros al azar, así que los autores con muchos
+	 * libros aparecen más veces.
+	 *
+	 * @param libreria La librería
+	 * @param azar     El generador de números aleatorios
+	 * @return Los autores
+	 */
+	static String[] elegirAutores(Libreria libreria, Random azar)
+	{
+		ArrayList<Libro> libros = libreria.darLibros();
+		String[] autores = new String[CANTIDAD_CONSULTAS];
+		for (int i = 0; i < autores.length; i++)
+		{
+			autores[i] = azar.nextDouble() < PROPORCION_FALLIDAS ? "Autor Inexistente " + i
+					: libros.get(azar.nextInt(libros.size())).darAutor();
+		}
+		return autores;
+	}
+
+	/**
+	 * Arma la lista de autores cuyos libros se eliminan
+	 *
+	 * @param autores Los autores elegidos para las búsquedas
+	 * @return Los primeros autores distintos, separados por comas
+	 */
+	static String elegirAutoresParaEliminar(String[] autores)
+	{
+		ArrayList<String> elegidos = new ArrayList<String>();
+		for (int i = 0; i < autores.length && elegidos.size() < AUTORES_POR_ELIMINACION; i++)
+		{
+			if (!elegidos.contains(autores[i]))
+			{
+				elegidos.add(autores[i]);
+			}
+		}
+		return String.join(",", elegidos);
+	}
+
+	// ************************************************************************
+	// Programa principal
+	// ************************************************************************
+
+	/**
+	 * Ejecuta las mediciones. Opciones:
+	 * <ul>
+	 * <li>--libros=1000,100000,10000000 : los tamaños de catálogo que se miden</li>
+	 * <li>--rondas=5 : las rondas cronometradas de cada operación</li>
+	 * <li>--semilla=42 : la semilla de los catálogos y las consultas</li>
+	 * <li>--carpeta=ruta : dónde se guardan los catálogos generados. Por defecto
+	 * una carpeta en el directorio temporal.</li>
+	 * </ul>
+	 *
+	 * @param args Las opciones
+	 * @throws Exception Si hay un problema generando o cargando un catálogo
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		String tamanos = TAMANOS_POR_DEFECTO;
+		int rondas = 5;
+		long semilla = 42;
+		Path carpeta = CARPETA_POR_DEFECTO;
+		for (String arg : args)
+		{
+			if (arg.startsWith("--libros="))
+			{
+				tamanos = arg.substring("--libros=".length());
+			}
+			else if (arg.startsWith("--rondas="))
+			{
+				rondas = Integer.parseInt(arg.substring("--rondas=".length()));
+			}
+			else if (arg.startsWith("--semilla="))
+			{
+				semilla = Long.parseLong(arg.substring("--semilla=".length()));
+			}
+			else if (arg.startsWith("--carpeta="))
+			{
+				carpeta = Paths.get(arg.substring("--carpeta=".length()));
+			}
+			else
+			{
+				System.err.println("Opción desconocida: " + arg);
+				System.exit(2);
+			}
+		}
+
+		BancoLibreria banco = new BancoLibreria(rondas, semilla, carpeta);
+		for (String tamano : tamanos.split(","))
+		{
+			banco.medirCatalogo(Integer.parseInt(tamano.trim()));
+		}
+	}
+
+	// ************************************************************************
+	// Clases anidadas
+	// ************************************************************************
+
+	/**
+	 * Una operación que se mide
+	 */
+	private interface Operacion
+	{
+		/**
+		 * Ejecuta la operación una vez
+		 *
+		 * @return Un valor derivado del resultado, para que no se descarte
+		 * @throws Exception Si la operación falla
+		 */
+		long ejecutar() throws Exception;
+	}
+
+	/**
+	 * Una operación que se mide y que recibe el índice de la entrada que usa
+	 */
+	private interface OperacionIndice
+	{
+		/**
+		 * Ejecuta la operación una vez
+		 *
+		 * @param indice El índice de la entrada que usa la operación
+		 * @return Un valor derivado del resultado, para que no se descarte
+		 * @throws Exception Si la operación falla
+		 */
+		long ejecutar(int indice) throws Exception;
+	}
+
+}
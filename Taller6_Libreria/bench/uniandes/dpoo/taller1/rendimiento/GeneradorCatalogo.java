@@ -0,0 +1,386 @@
+package uniandes.dpoo.taller1.rendimiento;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Esta clase genera archivos categorias.csv y libreria.csv sintéticos, del
+ * tamaño que se quiera, para medir el rendimiento de la librería.
+ *
+ * Los archivos tienen el mismo formato que los de la carpeta "data" y una forma
+ * parecida a la de un catálogo real:
+ * <ul>
+ * <li>Los autores siguen una distribución de Zipf: unos pocos autores tienen
+ * muchos libros y la mayoría tiene uno o dos.</li>
+ * <li>Las categorías también siguen una distribución de Zipf, menos marcada, y
+ * una pequeña parte de los libros usa categorías que no están en el archivo de
+ * categorías, para que la carga tenga que agregarlas.</li>
+ * <li>Las calificaciones se concentran entre 3.5 y 4.5, como en los datos
+ * reales.</li>
+ * <li>Algunos títulos se repiten, otros tienen comas o comillas y por lo tanto
+ * van entre comillas, y algunos libros apuntan a portadas que no existen.</li>
+ * </ul>
+ *
+ * Con la misma semilla y la misma cantidad de libros los archivos generados son
+ * idénticos byte a byte.
+ */
+public class GeneradorCatalogo
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Las categorías del archivo de categorías, con su indicador de ficción
+	 */
+	private static final String[][] CATEGORIAS = { { "Art-Photography", "false" }, { "Biography", "false" },
+			{ "Business-Finance-Law", "false" }, { "Childrens-Books", "true" }, { "Computing", "false" },
+			{ "Crafts-Hobbies", "false" }, { "Crime-Thriller", "true" }, { "Dictionaries-Languages", "false" },
+			{ "Entertainment", "false" }, { "Food-Drink", "false" }, { "Graphic-Novels-Anime-Manga", "true" },
+			{ "Health", "false" }, { "History-Archaeology", "false" }, { "Home-Garden", "false" },
+			{ "Humour", "false" }, { "Medical", "false" }, { "Mind-Body-Spirit", "true" },
+			{ "Natural-History", "false" }, { "Personal-Development", "false" }, { "Poetry-Drama", "true" },
+			{ "Reference", "false" }, { "Religion", "false" }, { "Romance", "true" },
+			{ "Science-Fiction-Fantasy-Horror", "true" }, { "Science-Geography", "false" },
+			{ "Society-Social-Sciences", "false" }, { "Sport", "false" }, { "Teaching-Resources-Education", "false" },
+			{ "Technology-Engineering", "false" }, { "Teen-Young-Adult", "true" }, { "Transport", "false" },
+			{ "Travel-Holiday-Guides", "false" } };
+
+	/**
+	 * Cantidad de categorías que no están en el archivo de categorías
+	 */
+	private static final int CATEGORIAS_NUEVAS = 8;
+
+	/**
+	 * Proporción de libros que usan una categoría que no está en el archivo
+	 */
+	private static final double PROPORCION_CATEGORIAS_NUEVAS = 0.002;
+
+	/**
+	 * Exponente de la distribución de Zipf de los autores
+	 */
+	private static final double EXPONENTE_AUTORES = 1.1;
+
+	/**
+	 * Exponente de la distribución de Zipf de las categorías
+	 */
+	private static final double EXPONENTE_CATEGORIAS = 0.8;
+
+	/**
+	 * Cantidad promedio de libros por autor
+	 */
+	private static final int LIBROS_POR_AUTOR = 6;
+
+	/**
+	 * Cantidad de portadas que existen en "data/imagenes"
+	 */
+	private static final int PORTADAS_EXISTENTES = 1372;
+
+	/**
+	 * Proporción de libros que apuntan a una portada que no existe
+	 */
+	private static final double PROPORCION_SIN_PORTADA = 0.08;
+
+	/**
+	 * Proporción de libros que repiten el título de otro libro
+	 */
+	private static final double PROPORCION_TITULOS_REPETIDOS = 0.02;
+
+	/**
+	 * Proporción de libros cuyo título lleva comas o comillas
+	 */
+	private static final double PROPORCION_TITULOS_CON_COMILLAS = 0.01;
+
+	/**
+	 * Las calificaciones posibles y su peso relativo, parecido al de los datos
+	 * reales
+	 */
+	private static final double[] CALIFICACIONES = { 0.0, 2.5, 3.0, 3.5, 4.0, 4.5, 5.0 };
+
+	/**
+	 * El peso relativo de cada calificación
+	 */
+	private static final int[] PESOS_CALIFICACIONES = { 2, 1, 1, 9, 56, 31, 2 };
+
+	/**
+	 * Palabras con las que se arman los títulos
+	 */
+	private static final String[] PALABRAS = { "The", "Secret", "History", "of", "a", "Garden", "Night", "River",
+			"Last", "City", "Guide", "to", "Modern", "Cooking", "Art", "Lost", "World", "Little", "Book", "Light",
+			"Dark", "House", "Winter", "Summer", "Journey", "Science", "Love", "War", "Stories", "Complete", "Atlas",
+			"Kingdom", "Island", "Mountain", "Ocean", "Children", "Dragon", "Mind", "Body", "Spirit", "Small",
+			"Great", "Hidden", "Wild", "Road", "Song", "Dream", "Fire", "Stone", "Glass" };
+
+	/**
+	 * Nombres con los que se arman los autores
+	 */
+	private static final String[] NOMBRES = { "Ana", "David", "Maria", "John", "Dita", "Julio", "Sofia", "Peter",
+			"Marie", "Jorge", "Elena", "Hiroshi", "Amara", "Lucas", "Ingrid", "Omar", "Chloe", "Mateo", "Yuki",
+			"Björn", "Zoë", "Renée", "Nicolás", "Sean" };
+
+	/**
+	 * Apellidos con los que se arman los autores
+	 */
+	private static final String[] APELLIDOS = { "Mitchell", "von Teese", "Verne", "García", "Smith", "Tanaka",
+			"Söderberg", "Okafor", "Dubois", "Rossi", "Novak", "Kowalski", "Fernández", "O'Brien", "Nguyen", "Müller",
+			"Larsen", "Haddad", "Silva", "Ivanova", "Cohen", "Murphy", "Sato", "Andersson", "Moreau", "Kaur" };
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * El generador de números aleatorios
+	 */
+	private Random azar;
+
+	/**
+	 * La cantidad de libros que se generan
+	 */
+	private int cantidadLibros;
+
+	/**
+	 * Probabilidades acumuladas de cada autor
+	 */
+	private double[] acumuladasAutores;
+
+	/**
+	 * Probabilidades acumuladas de cada categoría
+	 */
+	private double[] acumuladasCategorias;
+
+	/**
+	 * Pesos acumulados de cada calificación
+	 */
+	private int[] acumuladasCalificaciones;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Prepara un generador
+	 *
+	 * @param laCantidadLibros La cantidad de libros que se generan
+	 * @param semilla          La semilla de los números aleatorios
+	 */
+	public GeneradorCatalogo(int laCantidadLibros, long semilla)
+	{
+		this.azar = new Random(semilla);
+		this.cantidadLibros = laCantidadLibros;
+		this.acumuladasAutores = acumularZipf(Math.max(10, laCantidadLibros / LIBROS_POR_AUTOR), EXPONENTE_AUTORES);
+		this.acumuladasCategorias = acumularZipf(CATEGORIAS.length, EXPONENTE_CATEGORIAS);
+		this.acumuladasCalificaciones = new int[PESOS_CALIFICACIONES.length];
+		int suma = 0;
+		for (int i = 0; i < PESOS_CALIFICACIONES.length; i++)
+		{
+			suma += PESOS_CALIFICACIONES[i];
+			acumuladasCalificaciones[i] = suma;
+		}
+	}
+
+	// ************************************************************************
+	// Métodos
+	// ************************************************************************
+
+	/**
+	 * Escribe los dos archivos en una carpeta, creándola si no existe
+	 *
+	 * @param carpeta La carpeta donde quedan categorias.csv y libreria.csv
+	 * @throws IOException Si no se pueden escribir los archivos
+	 */
+	public void generar(Path carpeta) throws IOException
+	{
+		Files.createDirectories(carpeta);
+		try (BufferedWriter salida = Files.newBufferedWriter(carpeta.resolve("categorias.csv"),
+				StandardCharsets.UTF_8))
+		{
+			salida.write("Categoria,ficcion\n");
+			for (String[] categoria : CATEGORIAS)
+			{
+				salida.write(categoria[0] + "," + categoria[1] + "\n");
+			}
+		}
+
+		try (BufferedWriter salida = Files.newBufferedWriter(carpeta.resolve("libreria.csv"), StandardCharsets.UTF_8))
+		{
+			salida.write("Titulo,Autor,Calificacion,Categoria,Portada,Ancho,Alto\n");
+			String ultimoTitulo = "";
+			StringBuilder linea = new StringBuilder(160);
+			for (int i = 0; i < cantidadLibros; i++)
+			{
+				String titulo = azar.nextDouble() < PROPORCION_TITULOS_REPETIDOS && i > 0 ? ultimoTitulo
+						: generarTitulo(i);
+				ultimoTitulo = titulo;
+
+				linea.setLength(0);
+				agregarCampo(linea, titulo).append(',');
+				agregarCampo(linea, nombreAutor(elegir(acumuladasAutores))).append(',');
+				linea.append(elegirCalificacion()).append(',');
+				linea.append(elegirCategoria()).append(',');
+				int portada = azar.nextDouble() < PROPORCION_SIN_PORTADA ? PORTADAS_EXISTENTES + azar.nextInt(100000)
+						: azar.nextInt(PORTADAS_EXISTENTES);
+				linea.append("./imagenes/").append(String.format("%05d", portada)).append(".jpg,");
+				linea.append(120 + azar.nextInt(80)).append(',').append(200 + azar.nextInt(21)).append('\n');
+				salida.append(linea);
+			}
+		}
+	}
+
+	/**
+	 * Genera un título. La mayoría de los títulos son distintos gracias al número
+	 * del libro, pero las palabras se repiten, como en un catálogo real.
+	 *
+	 * @param numero El número del libro
+	 * @return El título
+	 */
+	private String generarTitulo(int numero)
+	{
+		StringBuilder titulo = new StringBuilder();
+		int palabras = 2 + azar.nextInt(4);
+		for (int j = 0; j < palabras; j++)
+		{
+			if (j > 0)
+			{
+				titulo.append(' ');
+			}
+			titulo.append(PALABRAS[azar.nextInt(PALABRAS.length)]);
+		}
+		if (azar.nextDouble() < PROPORCION_TITULOS_CON_COMILLAS)
+		{
+			titulo.append(azar.nextBoolean() ? ", Volume " : ": the \"Annotated\" Edition ");
+		}
+		else
+		{
+			titulo.append(' ');
+		}
+		return titulo.append(Integer.toString(numero, 36).toUpperCase()).toString();
+	}
+
+	/**
+	 * Arma el nombre de un autor a partir de su número. Los autores con números
+	 * pequeños son los que tienen más libros.
+	 *
+	 * @param numero El número del autor
+	 * @return El nombre del autor
+	 */
+	private static String nombreAutor(int numero)
+	{
+		String nombre = NOMBRES[numero % NOMBRES.length] + " " + APELLIDOS[(numero / NOMBRES.length) % APELLIDOS.length];
+		int vuelta = numero / (NOMBRES.length * APELLIDOS.length);
+		return vuelta == 0 ? nombre : nombre + " " + vuelta;
+	}
+
+	/**
+	 * Elige una categoría. Unas pocas veces elige una categoría que no está en el
+	 * archivo de categorías.
+	 *
+	 * @return El nombre de la categoría
+	 */
+	private String elegirCategoria()
+	{
+		if (azar.nextDouble() < PROPORCION_CATEGORIAS_NUEVAS)
+		{
+			return "MadeCategory" + (1 + azar.nextInt(CATEGORIAS_NUEVAS));
+		}
+		return CATEGORIAS[elegir(acumuladasCategorias)][0];
+	}
+
+	/**
+	 * Elige una calificación según su peso
+	 *
+	 * @return La calificación
+	 */
+	private double elegirCalificacion()
+	{
+		int valor = azar.nextInt(acumuladasCalificaciones[acumuladasCalificaciones.length - 1]);
+		int i = 0;
+		while (valor >= acumuladasCalificaciones[i])
+		{
+			i++;
+		}
+		return CALIFICACIONES[i];
+	}
+
+	/**
+	 * Elige una posición según las probabilidades acumuladas
+	 *
+	 * @param acumuladas Las probabilidades acumuladas. La última vale 1.
+	 * @return La posición elegida
+	 */
+	private int elegir(double[] acumuladas)
+	{
+		int posicion = Arrays.binarySearch(acumuladas, azar.nextDouble());
+		return Math.min(acumuladas.length - 1, posicion < 0 ? -posicion - 1 : posicion);
+	}
+
+	/**
+	 * Calcula las probabilidades acumuladas de una distribución de Zipf
+	 *
+	 * @param cantidad  La cantidad de valores posibles
+	 * @param exponente El exponente de la distribución. Entre más grande, más se
+	 *                  concentra en los primeros valores.
+	 * @return Las probabilidades acumuladas
+	 */
+	private static double[] acumularZipf(int cantidad, double exponente)
+	{
+		double[] acumuladas = new double[cantidad];
+		double suma = 0;
+		for (int i = 0; i < cantidad; i++)
+		{
+			suma += 1 / Math.pow(i + 1, exponente);
+			acumuladas[i] = suma;
+		}
+		for (int i = 0; i < cantidad; i++)
+		{
+			acumuladas[i] /= suma;
+		}
+		return acumuladas;
+	}
+
+	/**
+	 * Agrega un campo a una línea CSV, entre comillas si tiene comas o comillas
+	 *
+	 * @param linea La línea
+	 * @param campo El campo
+	 * @return La misma línea
+	 */
+	private static StringBuilder agregarCampo(StringBuilder linea, String campo)
+	{
+		if (campo.indexOf(',') < 0 && campo.indexOf('"') < 0)
+		{
+			return linea.append(campo);
+		}
+		return linea.append('"').append(campo.replace("\"", "\"\"")).append('"');
+	}
+
+	// ************************************************************************
+	// Programa principal
+	// ************************************************************************
+
+	/**
+	 * Genera un catálogo sintético
+	 *
+	 * @param args La cantidad de libros, la carpeta de destino y, opcionalmente,
+	 *             la semilla (por defecto 42)
+	 * @throws IOException Si no se pueden escribir los archivos
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length < 2)
+		{
+			System.err.println("Uso: GeneradorCatalogo cantidadLibros carpeta [semilla]");
+			System.exit(2);
+		}
+		int cantidad = Integer.parseInt(args[0]);
+		long semilla = args.length > 2 ? Long.parseLong(args[2]) : 42;
+		new GeneradorCatalogo(cantidad, semilla).generar(Paths.get(args[1]));
+	}
+
+}
@@ -0,0 +1,123 @@
+package uniandes.dpoo.taller1.rendimiento;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uniandes.dpoo.taller1.modelo.Libreria;
+import uniandes.dpoo.taller1.modelo.OpcionesCarga;
+
+/**
+ * Mide con JMH la carga de una librería desde los archivos CSV de un catálogo
+ * generado con {@link GeneradorCatalogo}, con cada una de las formas de carga:
+ * secuencial, paralela, con el almacén por columnas y desde la copia binaria
+ * del catálogo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = "-Xmx12g")
+public class CargaLibreriaJmh
+{
+	// ************************************************************************
+	// Parámetros
+	// ************************************************************************
+
+	/**
+	 * La cantidad de libros del catálogo. Para medir solamente los catálogos
+	 * pequeños se usa -p cantidadLibros=1000,100000
+	 */
+	@Param({ "1000", "100000", "10000000" })
+	public int cantidadLibros;
+
+	/**
+	 * La forma de carga: secuencial, paralela, columnar o copia
+	 */
+	@Param({ "secuencial", "paralela", "columnar", "copia" })
+	public String modo;
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	private String archivoCategorias;
+
+	private String archivoLibros;
+
+	private String archivoCopia;
+
+	// ************************************************************************
+	// Preparación
+	// ************************************************************************
+
+	/**
+	 * Genera el catálogo si todavía no existe. Para medir la carga desde la copia
+	 * se carga la librería una vez antes, para que la copia quede al día.
+	 *
+	 * @throws Exception Si hay un problema generando o cargando el catálogo
+	 */
+	@Setup
+	public void preparar() throws Exception
+	{
+		Path carpeta = BancoLibreria.prepararCatalogo(BancoLibreria.CARPETA_POR_DEFECTO, cantidadLibros,
+				ConsultasLibreriaJmh.SEMILLA);
+		archivoCategorias = carpeta.resolve("categorias.csv").toString();
+		archivoLibros = carpeta.resolve("libreria.csv").toString();
+		archivoCopia = carpeta.resolve("catalogo.bin").toString();
+		if (modo.equals("copia"))
+		{
+			Files.deleteIfExists(Path.of(archivoCopia));
+			new Libreria(archivoCategorias, archivoLibros, crearOpciones());
+		}
+	}
+
+	/**
+	 * Crea las opciones de carga que corresponden al modo
+	 *
+	 * @return Las opciones
+	 */
+	private OpcionesCarga crearOpciones()
+	{
+		OpcionesCarga opciones = new OpcionesCarga();
+		switch (modo)
+		{
+		case "paralela":
+			opciones.cambiarCargaParalela(true);
+			break;
+		case "columnar":
+			opciones.cambiarAlmacenColumnar(true);
+			break;
+		case "copia":
+			opciones.cambiarArchivoCopia(archivoCopia);
+			break;
+		default:
+			break;
+		}
+		return opciones;
+	}
+
+	// ************************************************************************
+	// Mediciones
+	// ************************************************************************
+
+	@Benchmark
+	public Libreria cargar() throws Exception
+	{
+		return new Libreria(archivoCategorias, archivoLibros, crearOpciones());
+	}
+
+}
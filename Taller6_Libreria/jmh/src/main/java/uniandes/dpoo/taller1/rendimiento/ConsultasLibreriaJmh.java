@@ -0,0 +1,196 @@
+package uniandes.dpoo.taller1.rendimiento;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uniandes.dpoo.taller1.modelo.Categoria;
+import uniandes.dpoo.taller1.modelo.Libreria;
+import uniandes.dpoo.taller1.modelo.Libro;
+import uniandes.dpoo.taller1.modelo.OpcionesCarga;
+
+/**
+ * Mide con JMH las consultas y los valores agregados de una librería cargada
+ * con un catálogo generado con {@link GeneradorCatalogo}.
+ *
+ * Las consultas usan los mismos títulos y autores que {@link BancoLibreria}:
+ * tomados del catálogo con una semilla fija, más una parte que no existe. Cada
+ * llamada usa la entrada siguiente, de forma circular, para que las mediciones
+ * no se queden con un solo título o autor.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx12g")
+public class ConsultasLibreriaJmh
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * La semilla de los catálogos y las consultas, la misma que usa BancoLibreria
+	 * por defecto
+	 */
+	static final long SEMILLA = 42;
+
+	// ************************************************************************
+	// Parámetros
+	// ************************************************************************
+
+	/**
+	 * La cantidad de libros del catálogo. Para medir solamente los catálogos
+	 * pequeños se usa -p cantidadLibros=1000,100000
+	 */
+	@Param({ "1000", "100000", "10000000" })
+	public int cantidadLibros;
+
+	/**
+	 * Indica si los datos de los libros se guardan por columnas
+	 */
+	@Param({ "false", "true" })
+	public boolean columnar;
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	private Libreria libreria;
+
+	private String[] titulos;
+
+	private String[] autores;
+
+	private String[] nombresCategorias;
+
+	private int indice;
+
+	// ************************************************************************
+	// Preparación
+	// ************************************************************************
+
+	/**
+	 * Carga la librería y elige las consultas
+	 *
+	 * @throws Exception Si hay un problema generando o cargando el catálogo
+	 */
+	@Setup
+	public void preparar() throws Exception
+	{
+		Path carpeta = BancoLibreria.prepararCatalogo(BancoLibreria.CARPETA_POR_DEFECTO, cantidadLibros, SEMILLA);
+		libreria = new Libreria(carpeta.resolve("categorias.csv").toString(),
+				carpeta.resolve("libreria.csv").toString(), new OpcionesCarga().cambiarAlmacenColumnar(columnar));
+		Random azar = new Random(SEMILLA);
+		titulos = BancoLibreria.elegirTitulos(libreria, azar);
+		autores = BancoLibreria.elegirAutores(libreria, azar);
+		Categoria[] lasCategorias = libreria.darCategorias();
+		nombresCategorias = new String[lasCategorias.length];
+		for (int i = 0; i < lasCategorias.length; i++)
+		{
+			nombresCategorias[i] = lasCategorias[i].darNombre();
+		}
+	}
+
+	/**
+	 * Avanza a la entrada siguiente de una lista de consultas
+	 *
+	 * @param cantidad La cantidad de entradas de la lista
+	 * @return La posición de la entrada
+	 */
+	private int siguiente(int cantidad)
+	{
+		indice = indice + 1 < cantidad ? indice + 1 : 0;
+		return indice;
+	}
+
+	// ************************************************************************
+	// Consultas
+	// ************************************************************************
+
+	@Benchmark
+	public Libro buscarLibro()
+	{
+		return libreria.buscarLibro(titulos[siguiente(titulos.length)]);
+	}
+
+	@Benchmark
+	public ArrayList<Libro> buscarLibrosAutor()
+	{
+		return libreria.buscarLibrosAutor(autores[siguiente(autores.length)]);
+	}
+
+	@Benchmark
+	public ArrayList<Categoria> buscarCategoriasAutor()
+	{
+		return libreria.buscarCategoriasAutor(autores[siguiente(autores.length)]);
+	}
+
+	@Benchmark
+	public HashMap<String, String> existenAutores()
+	{
+		return libreria.existenAutores(autores[siguiente(autores.length)]);
+	}
+
+	@Benchmark
+	public ArrayList<Libro> darLibrosCategoria()
+	{
+		return libreria.darLibros(nombresCategorias[siguiente(nombresCategorias.length)]);
+	}
+
+	@Benchmark
+	public int buscarPosCategoria()
+	{
+		return libreria.buscarPosCategoria(nombresCategorias[siguiente(nombresCategorias.length)]);
+	}
+
+	// ************************************************************************
+	// Agregados
+	// ************************************************************************
+
+	@Benchmark
+	public double calificacionPromedio()
+	{
+		return libreria.calificacionPromedio();
+	}
+
+	@Benchmark
+	public Categoria categoriaConMasLibros()
+	{
+		return libreria.categoriaConMasLibros();
+	}
+
+	@Benchmark
+	public Categoria categoriaConMejoresLibros()
+	{
+		return libreria.categoriaConMejoresLibros();
+	}
+
+	@Benchmark
+	public int contarLibrosSinPortada()
+	{
+		return libreria.contarLibrosSinPortada();
+	}
+
+	@Benchmark
+	public boolean hayAutorEnVariasCategorias()
+	{
+		return libreria.hayAutorEnVariasCategorias();
+	}
+
+}
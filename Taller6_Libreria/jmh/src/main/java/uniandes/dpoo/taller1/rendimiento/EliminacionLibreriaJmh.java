@@ -0,0 +1,106 @@
+package uniandes.dpoo.taller1.rendimiento;
+
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uniandes.dpoo.taller1.modelo.Libreria;
+
+/**
+ * Mide con JMH la eliminación de los libros de varios autores. Como la
+ * operación cambia el catálogo, la librería se vuelve a cargar antes de cada
+ * llamada, sin que la carga se mida, y cada llamada se mide por separado.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(value = 2, jvmArgsAppend = "-Xmx12g")
+public class EliminacionLibreriaJmh
+{
+	// ************************************************************************
+	// Parámetros
+	// ************************************************************************
+
+	/**
+	 * La cantidad de libros del catálogo. Para medir solamente los catálogos
+	 * pequeños se usa -p cantidadLibros=1000,100000
+	 */
+	@Param({ "1000", "100000", "10000000" })
+	public int cantidadLibros;
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	private String archivoCategorias;
+
+	private String archivoLibros;
+
+	/**
+	 * Los autores cuyos libros se eliminan, separados por comas
+	 */
+	private String autoresEliminados;
+
+	private Libreria libreria;
+
+	// ************************************************************************
+	// Preparación
+	// ************************************************************************
+
+	/**
+	 * Genera el catálogo si todavía no existe y elige los mismos autores que
+	 * BancoLibreria
+	 *
+	 * @throws Exception Si hay un problema generando o cargando el catálogo
+	 */
+	@Setup(Level.Trial)
+	public void prepararCatalogo() throws Exception
+	{
+		Path carpeta = BancoLibreria.prepararCatalogo(BancoLibreria.CARPETA_POR_DEFECTO, cantidadLibros,
+				ConsultasLibreriaJmh.SEMILLA);
+		archivoCategorias = carpeta.resolve("categorias.csv").toString();
+		archivoLibros = carpeta.resolve("libreria.csv").toString();
+
+		Libreria original = new Libreria(archivoCategorias, archivoLibros);
+		Random azar = new Random(ConsultasLibreriaJmh.SEMILLA);
+		BancoLibreria.elegirTitulos(original, azar);
+		autoresEliminados = BancoLibreria.elegirAutoresParaEliminar(BancoLibreria.elegirAutores(original, azar));
+	}
+
+	/**
+	 * Vuelve a cargar la librería antes de cada eliminación
+	 *
+	 * @throws Exception Si hay un problema cargando el catálogo
+	 */
+	@Setup(Level.Invocation)
+	public void cargarLibreria() throws Exception
+	{
+		libreria = new Libreria(archivoCategorias, archivoLibros);
+	}
+
+	// ************************************************************************
+	// Mediciones
+	// ************************************************************************
+
+	@Benchmark
+	public int eliminarLibros()
+	{
+		return libreria.eliminarLibros(autoresEliminados);
+	}
+
+}
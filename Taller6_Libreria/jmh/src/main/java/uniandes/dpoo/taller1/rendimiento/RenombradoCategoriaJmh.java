@@ -0,0 +1,115 @@
+package uniandes.dpoo.taller1.rendimiento;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uniandes.dpoo.taller1.modelo.Libreria;
+import uniandes.dpoo.taller1.modelo.OpcionesCarga;
+
+/**
+ * Mide con JMH el renombramiento de una categoría. Igual que en BancoLibreria,
+ * cada llamada alterna entre un nombre temporal y el nombre original, para que
+ * el catálogo no cambie entre llamadas.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx12g")
+public class RenombradoCategoriaJmh
+{
+	// ************************************************************************
+	// Parámetros
+	// ************************************************************************
+
+	/**
+	 * La cantidad de libros del catálogo. Para medir solamente los catálogos
+	 * pequeños se usa -p cantidadLibros=1000,100000
+	 */
+	@Param({ "1000", "100000", "10000000" })
+	public int cantidadLibros;
+
+	/**
+	 * Indica si los datos de los libros se guardan por columnas
+	 */
+	@Param({ "false", "true" })
+	public boolean columnar;
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	private Libreria libreria;
+
+	private String nombreOriginal;
+
+	private String nombreTemporal;
+
+	/**
+	 * Indica si la próxima llamada usa el nombre temporal
+	 */
+	private boolean usarTemporal;
+
+	// ************************************************************************
+	// Preparación
+	// ************************************************************************
+
+	/**
+	 * Carga la librería y elige los nombres de la primera categoría
+	 *
+	 * @throws Exception Si hay un problema generando o cargando el catálogo
+	 */
+	@Setup
+	public void preparar() throws Exception
+	{
+		Path carpeta = BancoLibreria.prepararCatalogo(BancoLibreria.CARPETA_POR_DEFECTO, cantidadLibros,
+				ConsultasLibreriaJmh.SEMILLA);
+		libreria = new Libreria(carpeta.resolve("categorias.csv").toString(),
+				carpeta.resolve("libreria.csv").toString(), new OpcionesCarga().cambiarAlmacenColumnar(columnar));
+		nombreOriginal = libreria.darCategorias()[0].darNombre();
+		nombreTemporal = nombreOriginal + "-Renombrada";
+		usarTemporal = true;
+	}
+
+	/**
+	 * Verifica que cada renombramiento haya funcionado: si alguno fallara, las
+	 * llamadas siguientes medirían solamente el rechazo
+	 */
+	@TearDown(Level.Iteration)
+	public void verificar()
+	{
+		String esperado = usarTemporal ? nombreOriginal : nombreTemporal;
+		if (!libreria.darCategorias()[0].darNombre().equals(esperado))
+		{
+			throw new IllegalStateException("La categoría no quedó con el nombre " + esperado);
+		}
+	}
+
+	// ************************************************************************
+	// Mediciones
+	// ************************************************************************
+
+	@Benchmark
+	public boolean renombrarCategoria()
+	{
+		boolean renombrada = libreria.renombrarCategoria(0, usarTemporal ? nombreTemporal : nombreOriginal);
+		usarTemporal = !usarTemporal;
+		return renombrada;
+	}
+
+}
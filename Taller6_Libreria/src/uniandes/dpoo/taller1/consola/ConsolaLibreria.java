@@ -0,0 +1,435 @@
+package uniandes.dpoo.taller1.consola;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+import javax.management.JMException;
+
+import uniandes.dpoo.taller1.modelo.Categoria;
+import uniandes.dpoo.taller1.modelo.Imagen;
+import uniandes.dpoo.taller1.modelo.Libreria;
+import uniandes.dpoo.taller1.modelo.Libro;
+import uniandes.dpoo.taller1.modelo.MetricasLibreria;
+import uniandes.dpoo.taller1.modelo.OpcionesCarga;
+import uniandes.dpoo.taller1.modelo.ResumenLatencias;
+
+/**
+ * Esta clase permite usar una librería desde la línea de comandos, sin interfaz
+ * gráfica, por ejemplo en un proceso programado que limpia el catálogo.
+ *
+ * La librería se carga de los archivos indicados y luego se ejecutan las órdenes
+ * de un guion, una por línea. Si no se indica un guion, las órdenes se leen de
+ * la entrada estándar. Los resultados se escriben en la salida estándar, y los
+ * avisos de la librería y los errores en la salida de errores. Las líneas vacías
+ * y las que empiezan con '#' se ignoran.
+ *
+ * Uso:
+ *
+ * <pre>
+ * ConsolaLibreria [--paralela] [--columnar] [--copia=archivo] [--verificar-portadas]
+ *                 [--metricas] categorias.csv libros.csv [guion.txt]
+ * </pre>
+ *
+ * Con --metricas la librería mide la carga y cada operación, publica sus
+ * métricas por JMX mientras el proceso sigue vivo, y la orden "metricas" las
+ * muestra.
+ *
+ * Las órdenes disponibles se describen en {@link #AYUDA}.
+ */
+public class ConsolaLibreria
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Descripción de las órdenes que se pueden usar en un guion
+	 */
+	public static final String AYUDA = String.join(System.lineSeparator(),
+			"categorias                        Lista las categorías y cuántos libros tiene cada una",
+			"libros <categoría>                Lista los libros de una categoría",
+			"libro <título>                    Busca un libro por su título exacto",
+			"autor <parte del nombre>          Lista los libros cuyos autores contienen el texto",
+			"categorias-autor <autor>          Lista las categorías con libros del autor",
+			"promedio                          Calificación promedio de los libros",
+			"mas-libros                        Categoría con más libros",
+			"mejores                           Categoría con la mejor calificación promedio",
+			"sin-portada                       Cantidad de libros sin portada",
+			"autor-varias-categorias           Indica si algún autor está en varias categorías",
+			"revisar-portadas                  Lista las portadas cuyo tamaño declarado es incorrecto",
+			"corregir-portadas                 Corrige el tamaño de esas portadas",
+			"eliminar <autor>,<autor>,...      Elimina los libros de los autores, si todos existen",
+			"renombrar <categoría>|<nombre>    Le cambia el nombre a una categoría",
+			"metricas                          Muestra las métricas de la carga y de las operaciones",
+			"ayuda                             Muestra esta descripción");
+
+	/**
+	 * Código de salida cuando una o más órdenes fallaron
+	 */
+	public static final int SALIDA_ORDENES_FALLIDAS = 1;
+
+	/**
+	 * Código de salida cuando los parámetros son incorrectos o no se pudo cargar
+	 * la librería
+	 */
+	public static final int SALIDA_ERROR_CARGA = 2;
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * La librería sobre la que se ejecutan las órdenes
+	 */
+	private Libreria libreria;
+
+	/**
+	 * El flujo donde se escriben los resultados
+	 */
+	private PrintStream salida;
+
+	/**
+	 * El flujo donde se escriben los errores
+	 */
+	private PrintStream errores;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye una consola sobre una librería ya cargada
+	 *
+	 * @param laLibreria La librería sobre la que se ejecutan las órdenes
+	 * @param laSalida   El flujo donde se escriben los resultados
+	 * @param losErrores El flujo donde se escriben los errores
+	 */
+	public ConsolaLibreria(Libreria laLibreria, PrintStream laSalida, PrintStream losErrores)
+	{
+		this.libreria = laLibreria;
+		this.salida = laSalida;
+		this.errores = losErrores;
+	}
+
+	// ************************************************************************
+	// Métodos
+	// ************************************************************************
+
+	/**
+	 * Ejecuta todas las órdenes de un guion. Si una orden falla se informa el
+	 * error y se sigue con la siguiente.
+	 *
+	 * @param guion El lector con las órdenes, una por línea
+	 * @return La cantidad de órdenes que fallaron
+	 * @throws IOException Si hay un problema leyendo el guion
+	 */
+	public int ejecutar(BufferedReader guion) throws IOException
+	{
+		int fallidas = 0;
+		int numeroLinea = 0;
+		String linea = guion.readLine();
+		while (linea != null)
+		{
+			numeroLinea++;
+			String orden = linea.trim();
+			if (!orden.isEmpty() && !orden.startsWith("#"))
+			{
+				String error = ejecutarOrden(orden);
+				if (error != null)
+				{
+					errores.println("Línea " + numeroLinea + ": " + error);
+					fallidas++;
+				}
+			}
+			linea = guion.readLine();
+		}
+		salida.flush();
+		return fallidas;
+	}
+
+	/**
+	 * Ejecuta una orden y escribe su resultado
+	 *
+	 * @param orden La orden, sin espacios al comienzo ni al final
+	 * @return null si la orden se ejecutó, o la descripción del error
+	 */
+	public String ejecutarOrden(String orden)
+	{
+		int espacio = orden.indexOf(' ');
+		String nombre = espacio < 0 ? orden : orden.substring(0, espacio);
+		String argumento = espacio < 0 ? "" : orden.substring(espacio + 1).trim();
+
+		switch (nombre)
+		{
+			case "categorias":
+				for (Categoria categoria : libreria.darCategorias())
+				{
+					salida.println(categoria.darNombre() + "\t" + categoria.contarLibrosEnCategoria());
+				}
+				return null;
+			case "libros":
+				if (libreria.buscarPosCategoria(argumento) < 0)
+				{
+					return "No existe la categoría " + argumento;
+				}
+				escribirLibros(libreria.darLibros(argumento));
+				return null;
+			case "libro":
+				Libro libro = libreria.buscarLibro(argumento);
+				salida.println(libro == null ? "No se encontró un libro con ese título"
+						: libro + "\t" + libro.darCategoria().darNombre());
+				return null;
+			case "autor":
+				escribirLibros(libreria.buscarLibrosAutor(argumento));
+				return null;
+			case "categorias-autor":
+				for (Categoria categoria : libreria.buscarCategoriasAutor(argumento))
+				{
+					salida.println(categoria.darNombre());
+				}
+				return null;
+			case "promedio":
+				salida.println(String.format(Locale.ROOT, "%.3f", libreria.calificacionPromedio()));
+				return null;
+			case "mas-libros":
+				Categoria masLibros = libreria.categoriaConMasLibros();
+				salida.println(masLibros.darNombre() + "\t" + masLibros.contarLibrosEnCategoria());
+				return null;
+			case "mejores":
+				Categoria mejores = libreria.categoriaConMejoresLibros();
+				salida.println(mejores.darNombre() + "\t"
+						+ String.format(Locale.ROOT, "%.3f", mejores.calificacionPromedio()));
+				return null;
+			case "sin-portada":
+				salida.println(libreria.contarLibrosSinPortada());
+				return null;
+			case "autor-varias-categorias":
+				salida.println(libreria.hayAutorEnVariasCategorias());
+				return null;
+			case "revisar-portadas":
+				for (Map.Entry<Imagen, Imagen> portada : libreria.revisarPortadas().entrySet())
+				{
+					Imagen declarada = portada.getKey();
+					Imagen real = portada.getValue();
+					salida.println(declarada.darRutaArchivo() + "\t" + declarada.darAncho() + "x" + declarada.darAlto()
+							+ "\t" + real.darAncho() + "x" + real.darAlto());
+				}
+				return null;
+			case "corregir-portadas":
+				salida.println(libreria.corregirPortadas());
+				return null;
+			case "eliminar":
+				return eliminar(argumento);
+			case "renombrar":
+				return renombrar(argumento);
+			case "metricas":
+				return escribirMetricas();
+			case "ayuda":
+				salida.println(AYUDA);
+				return null;
+			default:
+				return "Orden desconocida: " + nombre;
+		}
+	}
+
+	/**
+	 * Elimina los libros de unos autores. Igual que en la interfaz gráfica, si
+	 * alguno de los autores no existe no se elimina nada.
+	 *
+	 * @param nombresAutores Los nombres de los autores separados por comas
+	 * @return null si se eliminaron los libros, o la descripción del error
+	 */
+	private String eliminar(String nombresAutores)
+	{
+		if (nombresAutores.isEmpty())
+		{
+			return "Falta la lista de autores";
+		}
+		HashMap<String, String> noExisten = libreria.existenAutores(nombresAutores);
+		if (!noExisten.isEmpty())
+		{
+			return "Los siguientes autores no existen: " + String.join(", ", new TreeSet<String>(noExisten.keySet()));
+		}
+		salida.println(libreria.eliminarLibros(nombresAutores));
+		return null;
+	}
+
+	/**
+	 * Le cambia el nombre a una categoría
+	 *
+	 * @param argumento El nombre actual y el nuevo nombre, separados por '|'
+	 * @return null si se cambió el nombre, o la descripción del error
+	 */
+	private String renombrar(String argumento)
+	{
+		int separador = argumento.indexOf('|');
+		if (separador < 0)
+		{
+			return "Se esperaba <categoría>|<nuevo nombre>";
+		}
+		String actual = argumento.substring(0, separador).trim();
+		String nuevo = argumento.substring(separador + 1).trim();
+
+		int posicion = libreria.buscarPosCategoria(actual);
+		if (posicion < 0)
+		{
+			return "No existe la categoría " + actual;
+		}
+		if (!libreria.renombrarCategoria(posicion, nuevo))
+		{
+			return "Ya existe una categoría con el nombre " + nuevo;
+		}
+		salida.println(actual + " -> " + nuevo);
+		return null;
+	}
+
+	/**
+	 * Escribe las fases de la última carga y el resumen de las operaciones que
+	 * se han invocado
+	 *
+	 * @return null si se escribieron las métricas, o la descripción del error
+	 */
+	private String escribirMetricas()
+	{
+		MetricasLibreria metricas = libreria.darMetricas();
+		if (metricas == null)
+		{
+			return "La librería no tiene métricas. Use la opción --metricas";
+		}
+		salida.println(String.format(Locale.ROOT, "carga\t%.3f ms", metricas.getUltimaCargaMilis()));
+		for (Map.Entry<String, Double> fase : metricas.getFasesUltimaCargaMilis().entrySet())
+		{
+			salida.println(String.format(Locale.ROOT, "  %s\t%.3f ms", fase.getKey(), fase.getValue()));
+		}
+		for (Map.Entry<String, ResumenLatencias> operacion : metricas.getOperaciones().entrySet())
+		{
+			ResumenLatencias resumen = operacion.getValue();
+			if (resumen.getLlamadas() > 0)
+			{
+				salida.println(String.format(Locale.ROOT, "%s\t%d\tp50 %.1f us\tp99 %.1f us\tmax %.1f us",
+						operacion.getKey(), resumen.getLlamadas(), resumen.getP50Micros(), resumen.getP99Micros(),
+						resumen.getMaximoMicros()));
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Escribe la cantidad de libros de una lista y luego cada libro en una línea
+	 *
+	 * @param libros Los libros
+	 */
+	private void escribirLibros(List<Libro> libros)
+	{
+		salida.println(libros.size());
+		for (Libro libro : libros)
+		{
+			salida.println("  " + libro);
+		}
+	}
+
+	// ************************************************************************
+	// Programa principal
+	// ************************************************************************
+
+	/**
+	 * Carga una librería y ejecuta un guion de órdenes sobre ella
+	 *
+	 * @param args Las opciones, los archivos de categorías y de libros, y
+	 *             opcionalmente el guion
+	 */
+	public static void main(String[] args)
+	{
+		System.setProperty("java.awt.headless", "true");
+		PrintStream salida = new PrintStream(System.out, false, StandardCharsets.UTF_8);
+		PrintStream errores = new PrintStream(System.err, true, StandardCharsets.UTF_8);
+
+		OpcionesCarga opciones = new OpcionesCarga().cambiarNotificador(new NotificadorConsola(errores));
+		ArrayList<String> archivos = new ArrayList<String>();
+		for (String argumento : args)
+		{
+			if (argumento.equals("--paralela"))
+			{
+				opciones.cambiarCargaParalela(true);
+			}
+			else if (argumento.equals("--columnar"))
+			{
+				opciones.cambiarAlmacenColumnar(true);
+			}
+			else if (argumento.startsWith("--copia="))
+			{
+				opciones.cambiarArchivoCopia(argumento.substring("--copia=".length()));
+			}
+			else if (argumento.equals("--verificar-portadas"))
+			{
+				opciones.cambiarVerificacionPortadas(true);
+			}
+			else if (argumento.equals("--metricas"))
+			{
+				opciones.cambiarMetricas(new MetricasLibreria());
+			}
+			else if (argumento.startsWith("--"))
+			{
+				errores.println("Opción desconocida: " + argumento);
+				System.exit(SALIDA_ERROR_CARGA);
+			}
+			else
+			{
+				archivos.add(argumento);
+			}
+		}
+		if (archivos.size() < 2 || archivos.size() > 3)
+		{
+			errores.println("Uso: ConsolaLibreria [--paralela] [--columnar] [--copia=archivo] [--verificar-portadas]"
+					+ " [--metricas] categorias.csv libros.csv [guion.txt]");
+			errores.println();
+			errores.println(AYUDA);
+			System.exit(SALIDA_ERROR_CARGA);
+		}
+
+		if (opciones.darMetricas() != null)
+		{
+			try
+			{
+				opciones.darMetricas().registrar("consola");
+			}
+			catch (JMException e)
+			{
+				errores.println("No se pudieron publicar las métricas por JMX: " + e.getMessage());
+			}
+		}
+
+		int fallidas;
+		try
+		{
+			Libreria libreria = new Libreria(archivos.get(0), archivos.get(1), opciones);
+			ConsolaLibreria consola = new ConsolaLibreria(libreria, salida, errores);
+			try (BufferedReader guion = archivos.size() == 3
+					? Files.newBufferedReader(Paths.get(archivos.get(2)), StandardCharsets.UTF_8)
+					: new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)))
+			{
+				fallidas = consola.ejecutar(guion);
+			}
+		}
+		catch (IOException e)
+		{
+			errores.println("Hubo un error leyendo los archivos: " + e.getMessage());
+			System.exit(SALIDA_ERROR_CARGA);
+			return;
+		}
+
+		System.exit(fallidas == 0 ? 0 : SALIDA_ORDENES_FALLIDAS);
+	}
+
+}
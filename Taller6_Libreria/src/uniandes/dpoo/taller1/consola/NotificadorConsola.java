@@ -0,0 +1,80 @@
+package uniandes.dpoo.taller1.consola;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import uniandes.dpoo.taller1.modelo.Categoria;
+import uniandes.dpoo.taller1.modelo.DiferenciaCatalogo;
+import uniandes.dpoo.taller1.modelo.NotificadorLibreria;
+
+/**
+ * Notificador que escribe los avisos de la librería como líneas de texto. Cada
+ * aviso empieza con "* " para distinguirlo de los resultados de las órdenes.
+ */
+public class NotificadorConsola implements NotificadorLibreria
+{
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * El flujo donde se escriben los avisos
+	 */
+	private PrintStream salida;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye un notificador que escribe en el flujo indicado
+	 *
+	 * @param laSalida El flujo donde se escriben los avisos
+	 */
+	public NotificadorConsola(PrintStream laSalida)
+	{
+		this.salida = laSalida;
+	}
+
+	// ************************************************************************
+	// Métodos implementados de la interfaz NotificadorLibreria
+	// ************************************************************************
+
+	@Override
+	public void categoriasAgregadas(List<Categoria> agregadas)
+	{
+		salida.println("* Categorías agregadas al cargar los libros: " + agregadas.size());
+		for (Categoria categoria : agregadas)
+		{
+			salida.println("*   " + categoria.darNombre() + " con " + categoria.contarLibrosEnCategoria() + " libros");
+		}
+	}
+
+	@Override
+	public void librosEliminados(Map<String, Integer> eliminadosPorAutor)
+	{
+		for (Map.Entry<String, Integer> eliminados : new TreeMap<String, Integer>(eliminadosPorAutor).entrySet())
+		{
+			salida.println("* Se eliminaron " + eliminados.getValue() + " libros de " + eliminados.getKey());
+		}
+	}
+
+	@Override
+	public void categoriaRenombrada(String nombreAnterior, Categoria categoria)
+	{
+		salida.println("* La categoría " + nombreAnterior + " ahora se llama " + categoria.darNombre());
+	}
+
+	@Override
+	public void catalogoActualizado(DiferenciaCatalogo diferencia, List<Categoria> agregadas)
+	{
+		salida.println("* Se actualizó el catálogo: " + diferencia);
+		for (Categoria categoria : agregadas)
+		{
+			salida.println("*   Categoría agregada: " + categoria.darNombre());
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+package uniandes.dpoo.taller1.eventos;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Java Flight Recorder que cubre la construcción completa de una
+ * librería a partir de sus archivos.
+ *
+ * Como todos los eventos de este paquete, está desactivado por defecto: sin
+ * activarlo, crearlo y terminarlo no cuesta nada porque el compilador JIT
+ * elimina el objeto. Se activa con el perfil jfr/libreria.jfc.
+ */
+@Name(EventoCargaLibreria.NOMBRE)
+@Label("Carga de la librería")
+@Description("Construcción de una librería a partir de sus archivos")
+@Category({ "Librería", "Carga" })
+@Enabled(false)
+public class EventoCargaLibreria extends Event
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * El nombre del evento en las grabaciones
+	 */
+	public static final String NOMBRE = "uniandes.dpoo.taller1.CargaLibreria";
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * El archivo de categorías
+	 */
+	@Label("Archivo de categorías")
+	String archivoCategorias;
+
+	/**
+	 * El archivo de libros
+	 */
+	@Label("Archivo de libros")
+	String archivoLibros;
+
+	/**
+	 * De dónde se cargaron los libros: "secuencial", "paralela" o "copia"
+	 */
+	@Label("Modo")
+	String modo;
+
+	/**
+	 * Indica si los libros se guardaron en el almacén por columnas
+	 */
+	@Label("Columnar")
+	boolean columnar;
+
+	/**
+	 * La cantidad de libros cargados
+	 */
+	@Label("Libros")
+	int libros;
+
+	/**
+	 * La cantidad de categorías que se agregaron al cargar los libros
+	 */
+	@Label("Categorías agregadas")
+	int categoriasAgregadas;
+
+	// ************************************************************************
+	// Métodos
+	// ************************************************************************
+
+	/**
+	 * Crea el evento y empieza a medir su duración
+	 *
+	 * @param elArchivoCategorias El archivo de categorías
+	 * @param elArchivoLibros     El archivo de libros
+	 * @return El evento
+	 */
+	public static EventoCargaLibreria iniciar(String elArchivoCategorias, String elArchivoLibros)
+	{
+		EventoCargaLibreria evento = new EventoCargaLibreria();
+		evento.archivoCategorias = elArchivoCategorias;
+		evento.archivoLibros = elArchivoLibros;
+		evento.begin();
+		return evento;
+	}
+
+	/**
+	 * Termina el evento y lo guarda en la grabación, si está activado y duró más
+	 * que el umbral configurado
+	 *
+	 * @param elModo            De dónde se cargaron los libros
+	 * @param esColumnar        Indica si se usó el almacén por columnas
+	 * @param cantidadLibros    La cantidad de libros cargados
+	 * @param cantidadAgregadas La cantidad de categorías agregadas
+	 */
+	public void terminar(String elModo, boolean esColumnar, int cantidadLibros, int cantidadAgregadas)
+	{
+		end();
+		if (shouldCommit())
+		{
+			modo = elModo;
+			columnar = esColumnar;
+			libros = cantidadLibros;
+			categoriasAgregadas = cantidadAgregadas;
+			commit();
+		}
+	}
+
+}
@@ -0,0 +1,95 @@
+package uniandes.dpoo.taller1.eventos;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de Java Flight Recorder que cubre una invocación de un método de
+ * consulta de la librería.
+ *
+ * No guarda la pila de llamadas, porque las consultas son muchas y cortas y la
+ * pila costaría más que la consulta.
+ */
+@Name(EventoConsultaLibreria.NOMBRE)
+@Label("Consulta de la librería")
+@Description("Una invocación de un método de consulta de la librería")
+@Category({ "Librería", "Operaciones" })
+@Enabled(false)
+@StackTrace(false)
+public class EventoConsultaLibreria extends Event
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * El nombre del evento en las grabaciones
+	 */
+	public static final String NOMBRE = "uniandes.dpoo.taller1.Consulta";
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * El nombre del método invocado
+	 */
+	@Label("Operación")
+	String operacion;
+
+	/**
+	 * El parámetro de la consulta (título, autor o parte de su nombre,
+	 * categoría), o null si no tiene
+	 */
+	@Label("Parámetro")
+	String parametro;
+
+	/**
+	 * La cantidad de resultados: libros o categorías encontrados, o 1 si la
+	 * consulta calcula un solo valor
+	 */
+	@Label("Resultados")
+	int resultados;
+
+	// ************************************************************************
+	// Métodos
+	// ************************************************************************
+
+	/**
+	 * Crea el evento y empieza a medir su duración
+	 *
+	 * @return El evento
+	 */
+	public static EventoConsultaLibreria iniciar()
+	{
+		EventoConsultaLibreria evento = new EventoConsultaLibreria();
+		evento.begin();
+		return evento;
+	}
+
+	/**
+	 * Termina el evento y lo guarda en la grabación, si está activado y duró más
+	 * que el umbral configurado
+	 *
+	 * @param laOperacion        El nombre del método invocado
+	 * @param elParametro        El parámetro de la consulta, o null
+	 * @param cantidadResultados La cantidad de resultados
+	 */
+	public void terminar(String laOperacion, String elParametro, int cantidadResultados)
+	{
+		end();
+		if (shouldCommit())
+		{
+			operacion = laOperacion;
+			parametro = elParametro;
+			resultados = cantidadResultados;
+			commit();
+		}
+	}
+
+}
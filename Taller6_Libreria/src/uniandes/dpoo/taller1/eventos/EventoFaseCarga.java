@@ -0,0 +1,82 @@
+package uniandes.dpoo.taller1.eventos;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Java Flight Recorder que cubre una fase de la carga de una
+ * librería: leer el archivo de categorías, procesar el archivo de libros, leer
+ * o escribir la copia binaria, o verificar las portadas.
+ */
+@Name(EventoFaseCarga.NOMBRE)
+@Label("Fase de la carga")
+@Description("Una fase de la construcción de una librería")
+@Category({ "Librería", "Carga" })
+@Enabled(false)
+public class EventoFaseCarga extends Event
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * El nombre del evento en las grabaciones
+	 */
+	public static final String NOMBRE = "uniandes.dpoo.taller1.FaseCarga";
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * El nombre de la fase, el mismo que usan las métricas de la librería
+	 */
+	@Label("Fase")
+	String fase;
+
+	/**
+	 * La cantidad de elementos que había al terminar la fase: categorías en la
+	 * lectura de categorías y libros en las demás
+	 */
+	@Label("Elementos")
+	int elementos;
+
+	// ************************************************************************
+	// Métodos
+	// ************************************************************************
+
+	/**
+	 * Crea el evento y empieza a medir su duración
+	 *
+	 * @return El evento
+	 */
+	public static EventoFaseCarga iniciar()
+	{
+		EventoFaseCarga evento = new EventoFaseCarga();
+		evento.begin();
+		return evento;
+	}
+
+	/**
+	 * Termina el evento y lo guarda en la grabación, si está activado y duró más
+	 * que el umbral configurado
+	 *
+	 * @param laFase            El nombre de la fase
+	 * @param cantidadElementos La cantidad de elementos al terminar la fase
+	 */
+	public void terminar(String laFase, int cantidadElementos)
+	{
+		end();
+		if (shouldCommit())
+		{
+			fase = laFase;
+			elementos = cantidadElementos;
+			commit();
+		}
+	}
+
+}
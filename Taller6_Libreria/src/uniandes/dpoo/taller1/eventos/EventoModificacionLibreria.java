@@ -0,0 +1,90 @@
+package uniandes.dpoo.taller1.eventos;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Java Flight Recorder que cubre una invocación de un método que
+ * modifica la librería: eliminar los libros de unos autores, renombrar una
+ * categoría o corregir las portadas.
+ */
+@Name(EventoModificacionLibreria.NOMBRE)
+@Label("Modificación de la librería")
+@Description("Una invocación de un método que modifica la librería")
+@Category({ "Librería", "Operaciones" })
+@Enabled(false)
+public class EventoModificacionLibreria extends Event
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * El nombre del evento en las grabaciones
+	 */
+	public static final String NOMBRE = "uniandes.dpoo.taller1.Modificacion";
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * El nombre del método invocado
+	 */
+	@Label("Operación")
+	String operacion;
+
+	/**
+	 * El parámetro de la modificación (los autores o el nuevo nombre), o null si
+	 * no tiene
+	 */
+	@Label("Parámetro")
+	String parametro;
+
+	/**
+	 * La cantidad de libros afectados, o 1 o 0 si la modificación se hizo o no
+	 */
+	@Label("Afectados")
+	int afectados;
+
+	// ************************************************************************
+	// Métodos
+	// ************************************************************************
+
+	/**
+	 * Crea el evento y empieza a medir su duración
+	 *
+	 * @return El evento
+	 */
+	public static EventoModificacionLibreria iniciar()
+	{
+		EventoModificacionLibreria evento = new EventoModificacionLibreria();
+		evento.begin();
+		return evento;
+	}
+
+	/**
+	 * Termina el evento y lo guarda en la grabación, si está activado y duró más
+	 * que el umbral configurado
+	 *
+	 * @param laOperacion       El nombre del método invocado
+	 * @param elParametro       El parámetro de la modificación, o null
+	 * @param cantidadAfectados La cantidad de libros afectados
+	 */
+	public void terminar(String laOperacion, String elParametro, int cantidadAfectados)
+	{
+		end();
+		if (shouldCommit())
+		{
+			operacion = laOperacion;
+			parametro = elParametro;
+			afectados = cantidadAfectados;
+			commit();
+		}
+	}
+
+}
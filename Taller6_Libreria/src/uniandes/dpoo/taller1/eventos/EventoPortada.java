@@ -0,0 +1,122 @@
+package uniandes.dpoo.taller1.eventos;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Java Flight Recorder que cubre la obtención de una portada para
+ * mostrarla, o la decodificación de un archivo de portada para generar sus
+ * miniaturas. Las decodificaciones ocurren dentro de las cargas que no
+ * encuentran la miniatura en disco, así que en una grabación quedan anidadas.
+ */
+@Name(EventoPortada.NOMBRE)
+@Label("Portada")
+@Description("Carga de una portada para mostrarla, o decodificación de un archivo de portada")
+@Category({ "Librería", "Portadas" })
+@Enabled(false)
+public class EventoPortada extends Event
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * El nombre del evento en las grabaciones
+	 */
+	public static final String NOMBRE = "uniandes.dpoo.taller1.Portada";
+
+	/**
+	 * Origen de una portada que ya estaba decodificada en memoria
+	 */
+	public static final String MEMORIA = "memoria";
+
+	/**
+	 * Origen de una portada que se leyó en el hilo de portadas, de una miniatura
+	 * en disco o del archivo original
+	 */
+	public static final String DISCO = "disco";
+
+	/**
+	 * Origen de la decodificación de un archivo original para generar sus
+	 * miniaturas
+	 */
+	public static final String DECODIFICACION = "decodificacion";
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * La ruta del archivo original de la portada
+	 */
+	@Label("Ruta")
+	String ruta;
+
+	/**
+	 * De dónde salió la imagen: una de las constantes de esta clase
+	 */
+	@Label("Origen")
+	String origen;
+
+	/**
+	 * Indica si se obtuvo una imagen
+	 */
+	@Label("Encontrada")
+	boolean encontrada;
+
+	/**
+	 * El ancho de la imagen obtenida, o 0 si no se obtuvo
+	 */
+	@Label("Ancho")
+	int ancho;
+
+	/**
+	 * El alto de la imagen obtenida, o 0 si no se obtuvo
+	 */
+	@Label("Alto")
+	int alto;
+
+	// ************************************************************************
+	// Métodos
+	// ************************************************************************
+
+	/**
+	 * Crea el evento y empieza a medir su duración
+	 *
+	 * @return El evento
+	 */
+	public static EventoPortada iniciar()
+	{
+		EventoPortada evento = new EventoPortada();
+		evento.begin();
+		return evento;
+	}
+
+	/**
+	 * Termina el evento y lo guarda en la grabación, si está activado y duró más
+	 * que el umbral configurado
+	 *
+	 * @param laRuta   La ruta del archivo original
+	 * @param elOrigen De dónde salió la imagen
+	 * @param elAncho  El ancho de la imagen, o 0 si no se obtuvo
+	 * @param elAlto   El alto de la imagen, o 0 si no se obtuvo
+	 */
+	public void terminar(String laRuta, String elOrigen, int elAncho, int elAlto)
+	{
+		end();
+		if (shouldCommit())
+		{
+			ruta = laRuta;
+			origen = elOrigen;
+			encontrada = elAncho > 0;
+			ancho = elAncho;
+			alto = elAlto;
+			commit();
+		}
+	}
+
+}
@@ -0,0 +1,567 @@
+package uniandes.dpoo.taller1.interfaz;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import uniandes.dpoo.taller1.eventos.EventoPortada;
+
+/**
+ * Esta clase guarda en disco versiones reducidas de las portadas, en los
+ * tamaños en los que se muestran, para no tener que decodificar el archivo
+ * original cada vez que se abre la aplicación.
+ *
+ * Cada miniatura se guarda como PNG en un archivo cuyo nombre depende de la
+ * ruta del original, de su fecha de modificación y de su tamaño en bytes, y del
+ * tamaño de la miniatura. Si el original cambia, el nombre esperado cambia y
+ * la miniatura vieja se reemplaza la próxima vez que se pide. Si el original
+ * ya cabe en un tamaño, no se guarda una copia (decodificar un PNG del mismo
+ * tamaño es más lento que decodificar el JPEG original) sino una marca vacía
+ * que indica que para ese tamaño se usa el original.
+ *
+ * Las miniaturas que faltan o están vencidas se generan cuando se piden, o en
+ * paralelo en segundo plano con el método precalentar. Cada original se
+ * decodifica una sola vez aunque varios hilos pidan sus miniaturas a la vez:
+ * los demás esperan el resultado del primero.
+ */
+public class CacheMiniaturas
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Tamaño de la portada en el panel con la información del libro
+	 */
+	public static final Tamano DETALLE = new Tamano(0, "detalle", 240, 320);
+
+	/**
+	 * Tamaño de la portada en la lista de libros (ver RendererLibros)
+	 */
+	public static final Tamano LISTA = new Tamano(1, "lista", 32, 48);
+
+	/**
+	 * Todos los tamaños que se generan a partir de cada original
+	 */
+	private static final Tamano[] TAMANOS = { DETALLE, LISTA };
+
+	/**
+	 * Extensión de los archivos con las miniaturas
+	 */
+	private static final String EXTENSION_MINIATURA = ".png";
+
+	/**
+	 * Extensión de las marcas que indican que para un tamaño se usa el original
+	 */
+	private static final String EXTENSION_MARCA = ".original";
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * La carpeta donde se guardan las miniaturas
+	 */
+	private Path carpeta;
+
+	/**
+	 * Los hilos en los que se generan las miniaturas en segundo plano
+	 */
+	private ExecutorService generadores;
+
+	/**
+	 * Las generaciones que están en curso, según el prefijo de las miniaturas
+	 * del original
+	 */
+	private ConcurrentHashMap<String, CompletableFuture<BufferedImage[]>> enCurso;
+
+	/**
+	 * Cantidad de miniaturas que se encontraron en disco
+	 */
+	private AtomicInteger aciertos;
+
+	/**
+	 * Cantidad de miniaturas que se tuvieron que generar a partir del original
+	 */
+	private AtomicInteger generadas;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye una cache de miniaturas en la carpeta temporal del sistema
+	 */
+	public CacheMiniaturas()
+	{
+		this(Paths.get(System.getProperty("java.io.tmpdir"), "libreria-miniaturas"));
+	}
+
+	/**
+	 * Construye una cache de miniaturas
+	 *
+	 * @param laCarpeta La carpeta donde se guardan las miniaturas. Se crea si no
+	 *                  existe.
+	 */
+	public CacheMiniaturas(Path laCarpeta)
+	{
+		this.carpeta = laCarpeta;
+		this.generadores = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), tarea -> {
+			Thread hilo = new Thread(tarea, "Miniaturas");
+			hilo.setDaemon(true);
+			hilo.setPriority(Thread.MIN_PRIORITY);
+			return hilo;
+		});
+		this.enCurso = new ConcurrentHashMap<String, CompletableFuture<BufferedImage[]>>();
+		this.aciertos = new AtomicInteger();
+		this.generadas = new AtomicInteger();
+	}
+
+	// ************************************************************************
+	// Métodos para consultar los atributos
+	// ************************************************************************
+
+	/**
+	 * Consulta la cantidad de miniaturas que se encontraron en disco
+	 *
+	 * @return aciertos
+	 */
+	public int darAciertos()
+	{
+		return aciertos.get();
+	}
+
+	/**
+	 * Consulta la cantidad de miniaturas que se generaron a partir del original
+	 *
+	 * @return generadas
+	 */
+	public int darGeneradas()
+	{
+		return generadas.get();
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	/**
+	 * Retorna la miniatura de una portada. Si la miniatura no está en disco o está
+	 * vencida, se decodifica el original y se generan todos sus tamaños. Puede
+	 * tardar, así que no se debe llamar desde el hilo de eventos.
+	 *
+	 * @param rutaOriginal La ruta del archivo original
+	 * @param tamano       El tamaño de la miniatura
+	 * @return La miniatura, o null si el original no existe o no se puede
+	 *         decodificar
+	 */
+	public BufferedImage obtener(String rutaOriginal, Tamano tamano)
+	{
+		Path original = Paths.get(rutaOriginal);
+		String prefijo;
+		try
+		{
+			prefijo = calcularPrefijo(original);
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+
+		Path guardada = carpeta.resolve(prefijo + "-" + tamano.nombre + EXTENSION_MINIATURA);
+		Path marca = carpeta.resolve(prefijo + "-" + tamano.nombre + EXTENSION_MARCA);
+		Path leer = Files.exists(guardada) ? guardada : Files.exists(marca) ? original : null;
+		if (leer != null)
+		{
+			BufferedImage miniatura = leerImagen(leer);
+			if (miniatura != null)
+			{
+				aciertos.incrementAndGet();
+				return miniatura;
+			}
+			// Si la miniatura está dañada se vuelve a generar
+		}
+
+		BufferedImage[] miniaturas = generarUnaVez(original, prefijo);
+		if (miniaturas == null)
+		{
+			return null;
+		}
+		return miniaturas[tamano.posicion];
+	}
+
+	/**
+	 * Genera en segundo plano, en paralelo, las miniaturas que falten o estén
+	 * vencidas para las portadas indicadas. Se encola una sola tarea por cada
+	 * ruta distinta.
+	 *
+	 * @param rutasOriginales Las rutas de los archivos originales. Conviene que
+	 *                        no tengan repetidos, porque se recorren en el hilo
+	 *                        que invoca este método.
+	 */
+	public void precalentar(Collection<String> rutasOriginales)
+	{
+		for (String ruta : new LinkedHashSet<String>(rutasOriginales))
+		{
+			generadores.execute(() -> {
+				Path original = Paths.get(ruta);
+				try
+				{
+					String prefijo = calcularPrefijo(original);
+					if (faltaAlguna(prefijo))
+					{
+						generarUnaVez(original, prefijo);
+					}
+				}
+				catch (IOException e)
+				{
+					// Las portadas que no existen no tienen miniaturas
+				}
+			});
+		}
+	}
+
+	/**
+	 * Indica si falta en disco alguno de los tamaños de un original
+	 *
+	 * @param prefijo El prefijo de las miniaturas del original
+	 * @return Retorna true si falta la miniatura y la marca de algún tamaño
+	 */
+	private boolean faltaAlguna(String prefijo)
+	{
+		for (Tamano tamano : TAMANOS)
+		{
+			String nombre = prefijo + "-" + tamano.nombre;
+			if (!Files.exists(carpeta.resolve(nombre + EXTENSION_MINIATURA))
+					&& !Files.exists(carpeta.resolve(nombre + EXTENSION_MARCA)))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Genera las miniaturas de un original, a menos que otro hilo ya las esté
+	 * generando: en ese caso espera y retorna las de ese hilo
+	 *
+	 * @param original El archivo original
+	 * @param prefijo  El prefijo del nombre de las miniaturas del original
+	 * @return Las miniaturas en el orden de TAMANOS, o null si no se pudo
+	 *         decodificar el original
+	 */
+	private BufferedImage[] generarUnaVez(Path original, String prefijo)
+	{
+		CompletableFuture<BufferedImage[]> propia = new CompletableFuture<BufferedImage[]>();
+		CompletableFuture<BufferedImage[]> otra = enCurso.putIfAbsent(prefijo, propia);
+		if (otra != null)
+		{
+			return otra.join();
+		}
+
+		BufferedImage[] miniaturas = null;
+		try
+		{
+			// Otro hilo pudo terminar de generarlas entre la consulta del disco y
+			// este momento
+			if (!faltaAlguna(prefijo))
+			{
+				miniaturas = leerGuardadas(original, prefijo);
+			}
+			if (miniaturas == null)
+			{
+				miniaturas = generar(original, prefijo);
+			}
+		}
+		finally
+		{
+			// Se quita antes de completar: quien llegue después ya encuentra los
+			// archivos en disco
+			enCurso.remove(prefijo, propia);
+			propia.complete(miniaturas);
+		}
+		return miniaturas;
+	}
+
+	/**
+	 * Lee de disco todos los tamaños de un original
+	 *
+	 * @param original El archivo original
+	 * @param prefijo  El prefijo del nombre de las miniaturas del original
+	 * @return Las miniaturas en el orden de TAMANOS, o null si alguna falta o
+	 *         está dañada
+	 */
+	private BufferedImage[] leerGuardadas(Path original, String prefijo)
+	{
+		BufferedImage[] miniaturas = new BufferedImage[TAMANOS.length];
+		for (int i = 0; i < TAMANOS.length; i++)
+		{
+			String nombre = prefijo + "-" + TAMANOS[i].nombre;
+			Path guardada = carpeta.resolve(nombre + EXTENSION_MINIATURA);
+			miniaturas[i] = leerImagen(Files.exists(guardada) ? guardada : original);
+			if (miniaturas[i] == null)
+			{
+				return null;
+			}
+		}
+		aciertos.incrementAndGet();
+		return miniaturas;
+	}
+
+	/**
+	 * Decodifica un original, genera todos sus tamaños y los guarda en disco.
+	 * Borra las miniaturas de versiones anteriores del mismo original.
+	 *
+	 * @param original El archivo original
+	 * @param prefijo  El prefijo del nombre de las miniaturas del original
+	 * @return Las miniaturas en el orden de TAMANOS, o null si no se pudo
+	 *         decodificar el original
+	 */
+	private BufferedImage[] generar(Path original, String prefijo)
+	{
+		EventoPortada evento = EventoPortada.iniciar();
+		BufferedImage imagen = leerImagen(original);
+		if (imagen == null)
+		{
+			evento.terminar(original.toString(), EventoPortada.DECODIFICACION, 0, 0);
+			return null;
+		}
+		evento.terminar(original.toString(), EventoPortada.DECODIFICACION, imagen.getWidth(), imagen.getHeight());
+
+		BufferedImage[] miniaturas = new BufferedImage[TAMANOS.length];
+		for (int i = 0; i < TAMANOS.length; i++)
+		{
+			miniaturas[i] = escalar(imagen, TAMANOS[i]);
+		}
+		generadas.incrementAndGet();
+
+		try
+		{
+			Files.createDirectories(carpeta);
+			borrarVersionesAnteriores(prefijo);
+			for (int i = 0; i < TAMANOS.length; i++)
+			{
+				String nombre = prefijo + "-" + TAMANOS[i].nombre;
+				if (miniaturas[i] == imagen)
+				{
+					Files.write(carpeta.resolve(nombre + EXTENSION_MARCA), new byte[0]);
+				}
+				else
+				{
+					guardar(miniaturas[i], carpeta.resolve(nombre + EXTENSION_MINIATURA));
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			// Si no se pueden guardar, las miniaturas se vuelven a generar la próxima
+			// vez
+		}
+		return miniaturas;
+	}
+
+	/**
+	 * Guarda una miniatura. Se escribe primero en un archivo temporal y luego se
+	 * mueve, para que otro hilo nunca lea una miniatura a medio escribir.
+	 *
+	 * @param miniatura La miniatura
+	 * @param destino   El archivo donde se guarda
+	 * @throws IOException Se lanza esta excepción si no se puede escribir
+	 */
+	private void guardar(BufferedImage miniatura, Path destino) throws IOException
+	{
+		Path temporal = Files.createTempFile(carpeta, "tmp", ".png");
+		try
+		{
+			try (OutputStream salida = Files.newOutputStream(temporal))
+			{
+				ImageIO.write(miniatura, "png", salida);
+			}
+			Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally
+		{
+			Files.deleteIfExists(temporal);
+		}
+	}
+
+	/**
+	 * Borra las miniaturas guardadas de versiones anteriores de un original
+	 *
+	 * @param prefijo El prefijo de las miniaturas de la versión actual
+	 * @throws IOException Se lanza esta excepción si no se puede leer la carpeta
+	 */
+	private void borrarVersionesAnteriores(String prefijo) throws IOException
+	{
+		String ruta = prefijo.substring(0, prefijo.indexOf('-') + 1);
+		try (DirectoryStream<Path> anteriores = Files.newDirectoryStream(carpeta, ruta + "*"))
+		{
+			for (Path anterior : anteriores)
+			{
+				if (!anterior.getFileName().toString().startsWith(prefijo + "-"))
+				{
+					Files.deleteIfExists(anterior);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Lee y decodifica una imagen
+	 *
+	 * @param archivo El archivo de la imagen
+	 * @return La imagen, o null si no se puede leer o decodificar
+	 */
+	private static BufferedImage leerImagen(Path archivo)
+	{
+		try (InputStream entrada = Files.newInputStream(archivo))
+		{
+			return ImageIO.read(entrada);
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Calcula el prefijo de los nombres de las miniaturas de un original: un
+	 * resumen de su ruta, seguido de su fecha de modificación y su tamaño
+	 *
+	 * @param original El archivo original
+	 * @return El prefijo
+	 * @throws IOException Se lanza esta excepción si el original no existe
+	 */
+	private static String calcularPrefijo(Path original) throws IOException
+	{
+		BasicFileAttributes atributos = Files.readAttributes(original, BasicFileAttributes.class);
+		String ruta = original.toAbsolutePath().normalize().toString();
+		return resumir(ruta) + "-" + atributos.lastModifiedTime().toMillis() + "-" + atributos.size();
+	}
+
+	/**
+	 * Calcula un resumen corto de una cadena, que se puede usar en el nombre de un
+	 * archivo
+	 *
+	 * @param cadena La cadena
+	 * @return Los primeros 16 dígitos hexadecimales del SHA-256 de la cadena
+	 */
+	private static String resumir(String cadena)
+	{
+		try
+		{
+			byte[] resumen = MessageDigest.getInstance("SHA-256").digest(cadena.getBytes(StandardCharsets.UTF_8));
+			StringBuilder hexadecimal = new StringBuilder();
+			for (int i = 0; i < 8; i++)
+			{
+				hexadecimal.append(String.format("%02x", resumen[i]));
+			}
+			return hexadecimal.toString();
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Reduce una imagen para que quepa en un tamaño, conservando sus
+	 * proporciones. Las imágenes que ya caben no se agrandan.
+	 *
+	 * @param imagen La imagen original
+	 * @param tamano El tamaño máximo
+	 * @return La imagen reducida, o la misma imagen si ya cabe en el tamaño
+	 */
+	private static BufferedImage escalar(BufferedImage imagen, Tamano tamano)
+	{
+		if (imagen.getWidth() <= tamano.ancho && imagen.getHeight() <= tamano.alto)
+		{
+			return imagen;
+		}
+
+		double escala = Math.min((double) tamano.ancho / imagen.getWidth(),
+				(double) tamano.alto / imagen.getHeight());
+		int ancho = Math.max(1, (int) Math.round(imagen.getWidth() * escala));
+		int alto = Math.max(1, (int) Math.round(imagen.getHeight() * escala));
+
+		int tipo = imagen.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+		BufferedImage reducida = new BufferedImage(ancho, alto, tipo);
+		Graphics2D g = reducida.createGraphics();
+		g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+		g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+		g.drawImage(imagen, 0, 0, ancho, alto, null);
+		g.dispose();
+		return reducida;
+	}
+
+	// ************************************************************************
+	// Clases anidadas
+	// ************************************************************************
+
+	/**
+	 * El tamaño máximo de una miniatura
+	 */
+	public static final class Tamano
+	{
+		/**
+		 * La posición del tamaño en TAMANOS
+		 */
+		private final int posicion;
+
+		private final String nombre;
+
+		private final int ancho;
+
+		private final int alto;
+
+		private Tamano(int laPosicion, String elNombre, int elAncho, int elAlto)
+		{
+			posicion = laPosicion;
+			nombre = elNombre;
+			ancho = elAncho;
+			alto = elAlto;
+		}
+
+		/**
+		 * Consulta el ancho máximo
+		 *
+		 * @return ancho
+		 */
+		public int darAncho()
+		{
+			return ancho;
+		}
+
+		/**
+		 * Consulta el alto máximo
+		 *
+		 * @return alto
+		 */
+		public int darAlto()
+		{
+			return alto;
+		}
+	}
+
+}
@@ -0,0 +1,220 @@
+package uniandes.dpoo.taller1.interfaz;
+
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Esta clase guarda las portadas ya decodificadas, para no tener que leer y
+ * decodificar el archivo cada vez que se selecciona el mismo libro.
+ *
+ * El tamaño de la cache se mide en bytes: cada imagen pesa lo que ocupan sus
+ * pixeles en memoria. Cuando se supera la capacidad se descartan las imágenes
+ * que llevan más tiempo sin usarse. La cache lleva la cuenta de sus aciertos,
+ * fallos y descartes.
+ *
+ * Los métodos son sincronizados, porque la cache se consulta desde el hilo de
+ * eventos y se llena desde el hilo que decodifica las portadas.
+ */
+public class CachePortadas
+{
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * Cantidad máxima de bytes que pueden ocupar las imágenes guardadas
+	 */
+	private long capacidad;
+
+	/**
+	 * Cantidad de bytes que ocupan las imágenes guardadas
+	 */
+	private long bytesUsados;
+
+	/**
+	 * Las imágenes guardadas según la ruta de su archivo, de la usada hace más
+	 * tiempo a la usada más recientemente
+	 */
+	private LinkedHashMap<String, BufferedImage> imagenes;
+
+	/**
+	 * Cantidad de consultas que encontraron la imagen
+	 */
+	private long aciertos;
+
+	/**
+	 * Cantidad de consultas que no encontraron la imagen
+	 */
+	private long fallos;
+
+	/**
+	 * Cantidad de imágenes descartadas para liberar espacio
+	 */
+	private long descartes;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye una cache vacía
+	 *
+	 * @param laCapacidad Cantidad máxima de bytes que pueden ocupar las imágenes
+	 */
+	public CachePortadas(long laCapacidad)
+	{
+		this.capacidad = laCapacidad;
+		this.bytesUsados = 0;
+		this.imagenes = new LinkedHashMap<String, BufferedImage>(16, 0.75f, true);
+		this.aciertos = 0;
+		this.fallos = 0;
+		this.descartes = 0;
+	}
+
+	// ************************************************************************
+	// Métodos para consultar los atributos
+	// ************************************************************************
+
+	/**
+	 * Consulta la capacidad de la cache
+	 *
+	 * @return capacidad
+	 */
+	public synchronized long darCapacidad()
+	{
+		return capacidad;
+	}
+
+	/**
+	 * Consulta cuántos bytes ocupan las imágenes guardadas
+	 *
+	 * @return bytesUsados
+	 */
+	public synchronized long darBytesUsados()
+	{
+		return bytesUsados;
+	}
+
+	/**
+	 * Consulta la cantidad de imágenes guardadas
+	 *
+	 * @return La cantidad de imágenes
+	 */
+	public synchronized int darCantidad()
+	{
+		return imagenes.size();
+	}
+
+	/**
+	 * Consulta la cantidad de consultas que encontraron la imagen
+	 *
+	 * @return aciertos
+	 */
+	public synchronized long darAciertos()
+	{
+		return aciertos;
+	}
+
+	/**
+	 * Consulta la cantidad de consultas que no encontraron la imagen
+	 *
+	 * @return fallos
+	 */
+	public synchronized long darFallos()
+	{
+		return fallos;
+	}
+
+	/**
+	 * Consulta la cantidad de imágenes descartadas para liberar espacio
+	 *
+	 * @return descartes
+	 */
+	public synchronized long darDescartes()
+	{
+		return descartes;
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	/**
+	 * Busca una imagen en la cache. Si la encuentra, la marca como la usada más
+	 * recientemente.
+	 *
+	 * @param ruta La ruta del archivo de la imagen
+	 * @return La imagen o null si no está en la cache
+	 */
+	public synchronized BufferedImage buscar(String ruta)
+	{
+		BufferedImage imagen = imagenes.get(ruta);
+		if (imagen == null)
+		{
+			fallos++;
+		}
+		else
+		{
+			aciertos++;
+		}
+		return imagen;
+	}
+
+	/**
+	 * Guarda una imagen en la cache, descartando las usadas hace más tiempo si no
+	 * hay espacio. Una imagen más grande que toda la cache no se guarda.
+	 *
+	 * @param ruta   La ruta del archivo de la imagen
+	 * @param imagen La imagen decodificada
+	 */
+	public synchronized void guardar(String ruta, BufferedImage imagen)
+	{
+		long peso = calcularPeso(imagen);
+		if (peso > capacidad)
+		{
+			return;
+		}
+
+		BufferedImage anterior = imagenes.put(ruta, imagen);
+		if (anterior != null)
+		{
+			bytesUsados -= calcularPeso(anterior);
+		}
+		bytesUsados += peso;
+
+		Iterator<Map.Entry<String, BufferedImage>> viejas = imagenes.entrySet().iterator();
+		while (bytesUsados > capacidad)
+		{
+			Map.Entry<String, BufferedImage> vieja = viejas.next();
+			bytesUsados -= calcularPeso(vieja.getValue());
+			viejas.remove();
+			descartes++;
+		}
+	}
+
+	/**
+	 * Calcula la proporción de consultas que encontraron la imagen
+	 *
+	 * @return Un número entre 0 y 1, o 0 si no se ha consultado nada
+	 */
+	public synchronized double calcularProporcionAciertos()
+	{
+		long consultas = aciertos + fallos;
+		return consultas == 0 ? 0 : (double) aciertos / consultas;
+	}
+
+	/**
+	 * Calcula cuántos bytes ocupan los pixeles de una imagen en memoria
+	 *
+	 * @param imagen La imagen
+	 * @return La cantidad de bytes
+	 */
+	private static long calcularPeso(BufferedImage imagen)
+	{
+		int bitsPorPixel = imagen.getColorModel().getPixelSize();
+		return (long) imagen.getWidth() * imagen.getHeight() * Math.max(1, (bitsPorPixel + 7) / 8);
+	}
+
+}
@@ -0,0 +1,200 @@
+package uniandes.dpoo.taller1.interfaz;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
+
+import uniandes.dpoo.taller1.modelo.Libreria;
+import uniandes.dpoo.taller1.modelo.MonitorCarga;
+import uniandes.dpoo.taller1.modelo.OpcionesCarga;
+import uniandes.dpoo.taller1.modelo.VigilanteArchivos;
+
+/**
+ * Esta clase carga una librería en un hilo distinto al hilo de eventos, para
+ * que la ventana siga respondiendo durante la carga.
+ *
+ * El avance que informa la librería se publica hacia el hilo de eventos, donde
+ * se muestra en un DialogoCarga. Si el usuario cancela, la librería deja de
+ * cargarse en el siguiente aviso de avance. Solamente cuando la carga termina
+ * bien se le entrega la librería completa a la ventana, de una sola vez y desde
+ * el hilo de eventos, junto con el vigilante de sus archivos.
+ */
+public class CargaLibreria extends SwingWorker<Libreria, long[]> implements MonitorCarga
+{
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * La ventana principal de la aplicación
+	 */
+	private InterfazLibreria ventana;
+
+	/**
+	 * El archivo con las categorías
+	 */
+	private File archivoCategorias;
+
+	/**
+	 * El archivo con los libros
+	 */
+	private File archivoLibros;
+
+	/**
+	 * La ventana donde se muestra el avance
+	 */
+	private DialogoCarga dialogo;
+
+	/**
+	 * El vigilante de los archivos, que se construye en el hilo de fondo antes
+	 * de cargar la librería, o null si no se pudieron vigilar
+	 */
+	private volatile VigilanteArchivos vigilante;
+
+	/**
+	 * Las rutas distintas de las portadas de la librería cargada, que se
+	 * calculan en el hilo de fondo para no recorrer el catálogo en el hilo de
+	 * eventos
+	 */
+	private volatile ArrayList<String> rutasPortadas;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Prepara la carga de una librería. La carga empieza al invocar iniciar.
+	 *
+	 * @param laVentana           La ventana principal de la aplicación
+	 * @param elArchivoCategorias El archivo con las categorías
+	 * @param elArchivoLibros     El archivo con los libros
+	 */
+	public CargaLibreria(InterfazLibreria laVentana, File elArchivoCategorias, File elArchivoLibros)
+	{
+		this.ventana = laVentana;
+		this.archivoCategorias = elArchivoCategorias;
+		this.archivoLibros = elArchivoLibros;
+		this.dialogo = new DialogoCarga(laVentana, this);
+	}
+
+	// ************************************************************************
+	// Métodos
+	// ************************************************************************
+
+	/**
+	 * Muestra la ventana de avance y empieza la carga
+	 */
+	public void iniciar()
+	{
+		dialogo.setVisible(true);
+		execute();
+	}
+
+	/**
+	 * Empieza a vigilar los archivos y carga la librería. Se ejecuta en un hilo
+	 * de fondo.
+	 */
+	@Override
+	protected Libreria doInBackground() throws Exception
+	{
+		try
+		{
+			vigilante = new VigilanteArchivos(archivoCategorias.getPath(), archivoLibros.getPath());
+		}
+		catch (IOException e)
+		{
+			// Sin vigilante la librería se carga igual, pero solamente se actualiza
+			// volviéndola a abrir
+		}
+		OpcionesCarga opciones = new OpcionesCarga().cambiarMonitor(this);
+		Libreria libreria = new Libreria(archivoCategorias.getPath(), archivoLibros.getPath(), opciones);
+		rutasPortadas = PanelLibro.calcularRutasPortadas(libreria.darLibros());
+		return libreria;
+	}
+
+	/**
+	 * Muestra el último avance publicado. Se ejecuta en el hilo de eventos.
+	 */
+	@Override
+	protected void process(List<long[]> avances)
+	{
+		long[] ultimo = avances.get(avances.size() - 1);
+		dialogo.mostrarAvance(ultimo[0], ultimo[1], ultimo[2]);
+	}
+
+	/**
+	 * Cierra la ventana de avance y, si la carga terminó bien, le entrega la
+	 * librería a la ventana principal. Se ejecuta en el hilo de eventos.
+	 */
+	@Override
+	protected void done()
+	{
+		dialogo.dispose();
+		ventana.terminarCarga();
+		if (isCancelled())
+		{
+			cerrarVigilante();
+			return;
+		}
+
+		try
+		{
+			ventana.mostrarLibreria(get(), rutasPortadas);
+			ventana.vigilarArchivos(vigilante);
+		}
+		catch (InterruptedException e)
+		{
+			cerrarVigilante();
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e)
+		{
+			cerrarVigilante();
+			Throwable causa = e.getCause() != null ? e.getCause() : e;
+			String detalle = causa.getMessage() != null ? causa.getMessage() : causa.getClass().getSimpleName();
+			JOptionPane.showMessageDialog(ventana, "Hubo un error leyendo los archivos:\n" + detalle,
+					"Error de lectura", JOptionPane.ERROR_MESSAGE);
+		}
+	}
+
+	/**
+	 * Deja de vigilar los archivos de una carga que no terminó bien
+	 */
+	private void cerrarVigilante()
+	{
+		VigilanteArchivos elVigilante = vigilante;
+		if (elVigilante != null)
+		{
+			try
+			{
+				elVigilante.close();
+			}
+			catch (IOException e)
+			{
+				// El vigilante no se va a usar
+			}
+		}
+	}
+
+	// ************************************************************************
+	// Métodos implementados de la interfaz MonitorCarga
+	// ************************************************************************
+
+	@Override
+	public void avanzar(long filas, long bytes, long bytesTotales)
+	{
+		publish(new long[] { filas, bytes, bytesTotales });
+	}
+
+	@Override
+	public boolean estaCancelada()
+	{
+		return isCancelled();
+	}
+
+}
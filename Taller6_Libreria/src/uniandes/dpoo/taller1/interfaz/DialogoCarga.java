@@ -0,0 +1,136 @@
+package uniandes.dpoo.taller1.interfaz;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.SwingWorker;
+
+/**
+ * Ventana que muestra el avance de la carga de una librería y permite
+ * cancelarla.
+ *
+ * La ventana no es modal: mientras se carga la nueva librería se puede seguir
+ * usando la que ya estaba abierta.
+ */
+@SuppressWarnings("serial")
+public class DialogoCarga extends JDialog
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Valor máximo de la barra de avance
+	 */
+	private static final int MAXIMO_BARRA = 1000;
+
+	/**
+	 * Cantidad de bytes en un megabyte
+	 */
+	private static final double BYTES_POR_MEGA = 1024 * 1024;
+
+	// ************************************************************************
+	// Componentes gráficos
+	// ************************************************************************
+
+	/**
+	 * Barra con la proporción del archivo que se ha leído
+	 */
+	private JProgressBar barraAvance;
+
+	/**
+	 * Etiqueta con la cantidad de libros y de bytes leídos
+	 */
+	private JLabel labAvance;
+
+	/**
+	 * Botón para cancelar la carga
+	 */
+	private JButton butCancelar;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye la ventana de avance de una carga
+	 *
+	 * @param ventana La ventana principal de la aplicación
+	 * @param carga   La carga cuyo avance se muestra, que se cancela con el botón
+	 *                o al cerrar la ventana
+	 */
+	public DialogoCarga(JFrame ventana, SwingWorker<?, ?> carga)
+	{
+		super(ventana, "Cargando la librería", false);
+
+		barraAvance = new JProgressBar(0, MAXIMO_BARRA);
+		barraAvance.setIndeterminate(true);
+		labAvance = new JLabel("Leyendo los archivos...");
+		butCancelar = new JButton("Cancelar");
+		butCancelar.addActionListener(new ActionListener()
+		{
+			@Override
+			public void actionPerformed(ActionEvent e)
+			{
+				butCancelar.setEnabled(false);
+				carga.cancel(true);
+			}
+		});
+
+		setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+		addWindowListener(new WindowAdapter()
+		{
+			@Override
+			public void windowClosing(WindowEvent e)
+			{
+				carga.cancel(true);
+			}
+		});
+
+		JPanel panel = new JPanel(new BorderLayout(0, 8));
+		panel.setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+		panel.add(labAvance, BorderLayout.NORTH);
+		panel.add(barraAvance, BorderLayout.CENTER);
+		JPanel panelBoton = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
+		panelBoton.add(butCancelar);
+		panel.add(panelBoton, BorderLayout.SOUTH);
+		add(panel);
+
+		setSize(380, 140);
+		setLocationRelativeTo(ventana);
+	}
+
+	// ************************************************************************
+	// Métodos
+	// ************************************************************************
+
+	/**
+	 * Muestra el avance de la carga
+	 *
+	 * @param libros       La cantidad de libros leídos
+	 * @param bytes        La cantidad de bytes leídos
+	 * @param bytesTotales El tamaño del archivo que se está leyendo
+	 */
+	public void mostrarAvance(long libros, long bytes, long bytesTotales)
+	{
+		if (bytesTotales > 0)
+		{
+			barraAvance.setIndeterminate(false);
+			barraAvance.setValue((int) (MAXIMO_BARRA * Math.min(bytes, bytesTotales) / bytesTotales));
+		}
+		labAvance.setText(String.format("%,d libros leídos (%.1f de %.1f MB)", libros, bytes / BYTES_POR_MEGA,
+				bytesTotales / BYTES_POR_MEGA));
+	}
+
+}
@@ -8,7 +8,10 @@ import java.awt.event.KeyEvent;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 
 import javax.swing.JFrame;
 import javax.swing.JMenu;
@@ -17,13 +20,16 @@ import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
 import javax.swing.UnsupportedLookAndFeelException;
 
 import com.formdev.flatlaf.FlatLightLaf;
 
 import uniandes.dpoo.taller1.modelo.Categoria;
+import uniandes.dpoo.taller1.modelo.DiferenciaCatalogo;
 import uniandes.dpoo.taller1.modelo.Libreria;
 import uniandes.dpoo.taller1.modelo.Libro;
+import uniandes.dpoo.taller1.modelo.VigilanteArchivos;
 
 /**
  * Esta clase representa a la ventana principal de la aplicación
@@ -41,6 +47,30 @@ public class InterfazLibreria extends JFrame
 	 */
 	private Libreria libreria;
 
+	/**
+	 * La carga de una librería que está en curso, o null si no se está cargando
+	 * ninguna
+	 */
+	private CargaLibreria carga;
+
+	/**
+	 * El vigilante de los archivos de la librería que se muestra, o null si no
+	 * se están vigilando
+	 */
+	private VigilanteArchivos vigilante;
+
+	/**
+	 * La categoría cuyos libros se muestran en panelLibros, o null si se muestra
+	 * el resultado de una búsqueda
+	 */
+	private Categoria categoriaMostrada;
+
+	/**
+	 * La parte del nombre del autor cuyos libros se muestran en panelLibros, o
+	 * null si se muestran los libros de una categoría
+	 */
+	private String autorBuscado;
+
 	// ************************************************************************
 	// Elementos de la interfaz
 	// ************************************************************************
@@ -134,12 +164,13 @@ public class InterfazLibreria extends JFrame
 		panelCategorias = new PanelCategorias(this);
 		panelIzquierdo.add(panelCategorias, BorderLayout.NORTH);
 
-		panelLibros = new PanelLibros(this);
+		CacheMiniaturas miniaturas = new CacheMiniaturas();
+		panelLibros = new PanelLibros(this, miniaturas);
 		panelIzquierdo.add(panelLibros, BorderLayout.CENTER);
 
 		JPanel panelDerecha = new JPanel(new BorderLayout());
 		panelArriba.add(panelDerecha);
-		panelLibro = new PanelLibro();
+		panelLibro = new PanelLibro(miniaturas);
 		panelDerecha.add(panelLibro, BorderLayout.CENTER);
 
 		JPanel panelAbajo = new JPanel(new BorderLayout());
@@ -158,28 +189,128 @@ public class InterfazLibreria extends JFrame
 	// ************************************************************************
 
 	/**
-	 * Carga la información de una librería a partir de los archivos datos,
-	 * construye un objeto Librería con esa información y lo deja en el atributo
-	 * llamado 'libreria'
+	 * Empieza a cargar la información de una librería a partir de los archivos
+	 * dados. La carga se hace en un hilo de fondo y muestra su avance en una
+	 * ventana desde la que se puede cancelar. Cuando termina, la nueva librería
+	 * queda en el atributo llamado 'libreria'.
+	 * 
+	 * Mientras haya una carga en curso no se puede empezar otra.
 	 * 
 	 * @param archivo_categorias El archivo que tiene la información de las
 	 *                           categorías que se usarán para los libros
 	 * @param archivo_libros     El archivo que tiene la información de los libros
 	 */
 	public void cargarArchivos(File archivo_categorias, File archivo_libros)
-	{	
-		try
+	{
+		if (carga != null)
+		{
+			return;
+		}
+		menuAbrir.setEnabled(false);
+		carga = new CargaLibreria(this, archivo_categorias, archivo_libros);
+		carga.iniciar();
+	}
+
+	/**
+	 * Registra que terminó la carga en curso, bien o mal, para que se pueda
+	 * empezar otra
+	 */
+	public void terminarCarga()
+	{
+		carga = null;
+		menuAbrir.setEnabled(true);
+	}
+
+	/**
+	 * Reemplaza la librería que se muestra por una recién cargada y le informa al
+	 * usuario cuáles categorías se agregaron al cargar los libros
+	 * 
+	 * @param nuevaLibreria La librería que se cargó
+	 * @param rutasPortadas Las rutas distintas de las portadas de la librería,
+	 *                      cuyas miniaturas se preparan en segundo plano
+	 */
+	public void mostrarLibreria(Libreria nuevaLibreria, Collection<String> rutasPortadas)
+	{
+		libreria = nuevaLibreria;
+		panelCategorias.actualizarCategorias(libreria.darCategorias());
+		panelLibro.precalentarPortadas(rutasPortadas);
+
+		String mensaje = "Las categorias agregadas cargando los libros fueron:" + System.lineSeparator();
+		for (Categoria catAgregada : libreria.darCategoriasAgregadas())
+		{
+			mensaje += catAgregada.darNombre() + " con " + catAgregada.contarLibrosEnCategoria() + " libros."
+					+ System.lineSeparator();
+		}
+		JOptionPane.showMessageDialog(this, mensaje);
+	}
+
+	/**
+	 * Empieza a vigilar los archivos de la librería que se muestra, para
+	 * aplicarle los cambios que tengan sin volver a cargarla. Deja de vigilar los
+	 * archivos de la librería anterior.
+	 * 
+	 * @param nuevoVigilante El vigilante de los archivos de la librería que se
+	 *                       muestra, o null para no vigilar ningún archivo
+	 */
+	public void vigilarArchivos(VigilanteArchivos nuevoVigilante)
+	{
+		if (vigilante != null)
 		{
-			libreria = new Libreria(archivo_categorias.getPath(), archivo_libros.getPath());
-			panelCategorias.actualizarCategorias(libreria.darCategorias());
+			try
+			{
+				vigilante.close();
+			}
+			catch (IOException e)
+			{
+				// El vigilante anterior ya no se usa
+			}
 		}
-		catch (Exception e)
+		vigilante = nuevoVigilante;
+		if (nuevoVigilante != null)
 		{
-			JOptionPane.showMessageDialog(this, "Hubo un error leyendo los archivos", "Error de lectura",
-					JOptionPane.ERROR_MESSAGE);
-			e.printStackTrace();
+			nuevoVigilante.iniciar(diferencia -> SwingUtilities.invokeLater(() -> {
+				// Una diferencia que llega después de abrir otra librería no es de ella
+				if (vigilante == nuevoVigilante)
+				{
+					actualizarCatalogo(diferencia);
+				}
+			}));
 		}
+	}
 
+	/**
+	 * Aplica a la librería los cambios de sus archivos y actualiza los paneles
+	 * sin cambiar lo que el usuario tiene seleccionado: la categoría, la lista de
+	 * libros (de la categoría o de la búsqueda por autor) y el libro que se
+	 * muestra siguen siendo los mismos, con sus datos nuevos. Si el libro que se
+	 * muestra se eliminó, el panel del libro queda vacío.
+	 * 
+	 * @param diferencia Los cambios de los archivos
+	 */
+	private void actualizarCatalogo(DiferenciaCatalogo diferencia)
+	{
+		HashSet<Libro> eliminados = new HashSet<Libro>(libreria.aplicarDiferencia(diferencia));
+		panelCategorias.refrescarCategorias(libreria.darCategorias());
+
+		List<Libro> libros = null;
+		if (categoriaMostrada != null)
+		{
+			libros = libreria.darLibros(categoriaMostrada.darNombre());
+		}
+		else if (autorBuscado != null)
+		{
+			libros = libreria.buscarLibrosAutor(autorBuscado);
+		}
+		if (libros != null)
+		{
+			panelLibros.refrescarLibros(libros);
+		}
+
+		Libro mostrado = panelLibro.darLibro();
+		if (mostrado != null)
+		{
+			panelLibro.actualizarLibro(eliminados.contains(mostrado) ? null : mostrado);
+		}
 	}
 
 	/**
@@ -190,11 +321,25 @@ public class InterfazLibreria extends JFrame
 	 */
 	public void cambiarCategoria(Categoria categoria)
 	{
+		categoriaMostrada = categoria;
+		autorBuscado = null;
 		ArrayList<Libro> libros = libreria.darLibros(categoria.darNombre());
 		panelLibros.actualizarLibros(libros);
 		mostrarLibro(libros.get(0));
 	}
 
+	/**
+	 * Muestra los libros de la primera categoría en el panel panelLibros y la
+	 * deja como la categoría mostrada, para que los cambios que lleguen después
+	 * desde los archivos no vuelvan a mostrar la categoría o el autor anterior
+	 */
+	private void mostrarPrimeraCategoria()
+	{
+		categoriaMostrada = libreria.darCategorias()[0];
+		autorBuscado = null;
+		panelLibros.actualizarLibros(categoriaMostrada.darLibros());
+	}
+
 	/**
 	 * Cambia el libro para el cual se debe mostrar la información en el panel
 	 * panelLibro
@@ -230,8 +375,7 @@ public class InterfazLibreria extends JFrame
 				JOptionPane.showMessageDialog(null,mensaje);	
 				
 				panelCategorias.actualizarCategorias(libreria.darCategorias());
-				ArrayList<Libro> librosCategoria = libreria.darCategorias()[0].darLibros();
-				panelLibros.actualizarLibros(librosCategoria);
+				mostrarPrimeraCategoria();
 			}
 			else 
 			{
@@ -273,8 +417,7 @@ public class InterfazLibreria extends JFrame
 					else 
 					{
 						panelCategorias.actualizarCategorias(libreria.darCategorias());
-						ArrayList<Libro> librosCategoria = libreria.darCategorias()[0].darLibros();
-						panelLibros.actualizarLibros(librosCategoria);
+						mostrarPrimeraCategoria();
 					}
 				}
 			}
@@ -329,6 +472,8 @@ public class InterfazLibreria extends JFrame
 			}
 			else
 			{
+				categoriaMostrada = null;
+				autorBuscado = autor;
 				panelLibros.actualizarLibros(libros);
 				mostrarLibro(libros.get(0));
 			}
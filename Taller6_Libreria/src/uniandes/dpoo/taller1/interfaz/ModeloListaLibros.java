@@ -0,0 +1,74 @@
+package uniandes.dpoo.taller1.interfaz;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.AbstractListModel;
+
+import uniandes.dpoo.taller1.modelo.Libro;
+
+/**
+ * Modelo de la lista de libros que se muestra en PanelLibros.
+ *
+ * El modelo no copia los libros: consulta directamente la lista que recibe.
+ * Cambiar la lista produce un solo evento de cambio, sin importar cuántos
+ * libros tenga, en lugar de un evento por cada libro agregado o retirado. Si
+ * la lista recibida se modifica, se debe volver a llamar cambiarLibros para que
+ * el componente gráfico se entere.
+ */
+@SuppressWarnings("serial")
+public class ModeloListaLibros extends AbstractListModel<Libro>
+{
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * Los libros que se muestran
+	 */
+	private List<Libro> libros;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye un modelo sin libros
+	 */
+	public ModeloListaLibros()
+	{
+		libros = new ArrayList<Libro>();
+	}
+
+	// ************************************************************************
+	// Métodos
+	// ************************************************************************
+
+	/**
+	 * Cambia los libros que se muestran
+	 *
+	 * @param nuevosLibros La lista con los libros que se deben mostrar
+	 */
+	public void cambiarLibros(List<Libro> nuevosLibros)
+	{
+		int cantidadAnterior = libros.size();
+		libros = nuevosLibros;
+		int mayor = Math.max(cantidadAnterior, libros.size());
+		if (mayor > 0)
+		{
+			fireContentsChanged(this, 0, mayor - 1);
+		}
+	}
+
+	@Override
+	public int getSize()
+	{
+		return libros.size();
+	}
+
+	@Override
+	public Libro getElementAt(int index)
+	{
+		return libros.get(index);
+	}
+}
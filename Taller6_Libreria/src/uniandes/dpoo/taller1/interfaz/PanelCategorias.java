@@ -72,6 +72,32 @@ public class PanelCategorias extends JPanel implements ItemListener
 		}
 	}
 
+	/**
+	 * Actualiza las categorías que se muestran en el combo box sin cambiar la
+	 * categoría seleccionada, y sin avisarle a la ventana
+	 * 
+	 * @param categorias Las categorías de la librería, entre las que sigue
+	 *                   estando la seleccionada
+	 */
+	public void refrescarCategorias(Categoria[] categorias)
+	{
+		Object seleccionada = cbbCategorias.getSelectedItem();
+		cbbCategorias.removeItemListener(this);
+		try
+		{
+			cbbCategorias.removeAllItems();
+			for (Categoria categoria : categorias)
+			{
+				cbbCategorias.addItem(categoria);
+			}
+			cbbCategorias.setSelectedItem(seleccionada);
+		}
+		finally
+		{
+			cbbCategorias.addItemListener(this);
+		}
+	}
+
 	// ************************************************************************
 	// Métodos implementados de la interfaz ItemListener
 	// ************************************************************************
@@ -1,26 +1,54 @@
 package uniandes.dpoo.taller1.interfaz;
 
+import java.awt.Component;
 import java.awt.Font;
+import java.awt.Graphics;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import javax.swing.Icon;
 import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
 import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
 import javax.swing.border.TitledBorder;
 
+import uniandes.dpoo.taller1.eventos.EventoPortada;
 import uniandes.dpoo.taller1.modelo.Imagen;
 import uniandes.dpoo.taller1.modelo.Libro;
 
 /**
  * Panel donde se muestran la información de un libro
+ * 
+ * Las portadas se leen y decodifican en un hilo aparte, para que el hilo de
+ * eventos no se detenga mientras se recorre la lista de libros. Mientras tanto
+ * se muestra un espacio vacío del tamaño de la portada. Las portadas se leen
+ * de una CacheMiniaturas en disco, ya reducidas al tamaño del panel, y las
+ * decodificadas se guardan en memoria en una CachePortadas.
  */
 @SuppressWarnings("serial")
 public class PanelLibro extends JPanel
 {
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Cantidad máxima de bytes que pueden ocupar las portadas decodificadas
+	 */
+	private static final long CAPACIDAD_CACHE = 32L * 1024 * 1024;
+
 	// ************************************************************************
 	// Atributos
 	// ************************************************************************
@@ -30,6 +58,33 @@ public class PanelLibro extends JPanel
 	 */
 	private Libro libro;
 
+	/**
+	 * Las portadas ya decodificadas
+	 */
+	private CachePortadas cache;
+
+	/**
+	 * Las miniaturas de las portadas guardadas en disco
+	 */
+	private CacheMiniaturas miniaturas;
+
+	/**
+	 * El hilo en el que se leen y decodifican las portadas
+	 */
+	private ExecutorService decodificador;
+
+	/**
+	 * La lectura de la portada que se está esperando, o null si no hay ninguna
+	 */
+	private Future<?> lecturaPendiente;
+
+	/**
+	 * Número de la última portada pedida. Una portada que termina de leerse
+	 * solamente se muestra si su número es este, es decir, si el usuario no
+	 * seleccionó otro libro mientras tanto.
+	 */
+	private long solicitudActual;
+
 	// ************************************************************************
 	// Componentes gráficos
 	// ************************************************************************
@@ -71,11 +126,24 @@ public class PanelLibro extends JPanel
 
 	/**
 	 * Construye un nuevo panel para mostrar la información de un libro
+	 * 
+	 * @param lasMiniaturas Las miniaturas de las portadas guardadas en disco,
+	 *                      que comparte con la lista de libros
 	 */
-	public PanelLibro()
+	public PanelLibro(CacheMiniaturas lasMiniaturas)
 	{
 		setBorder(new TitledBorder("Libro"));
 
+		cache = new CachePortadas(CAPACIDAD_CACHE);
+		miniaturas = lasMiniaturas;
+		decodificador = Executors.newSingleThreadExecutor(tarea -> {
+			Thread hilo = new Thread(tarea, "Portadas");
+			hilo.setDaemon(true);
+			return hilo;
+		});
+		lecturaPendiente = null;
+		solicitudActual = 0;
+
 		txtTitulo = new JTextField(" ");
 		txtTitulo.setEditable(false);
 		txtAutor = new JTextField(" ");
@@ -146,6 +214,13 @@ public class PanelLibro extends JPanel
 	public void actualizarLibro(Libro nuevolibro)
 	{
 		libro = nuevolibro;
+		solicitudActual++;
+		if (lecturaPendiente != null)
+		{
+			lecturaPendiente.cancel(false);
+			lecturaPendiente = null;
+		}
+
 		if (libro != null)
 		{
 			txtTitulo.setText(nuevolibro.darTitulo());
@@ -153,7 +228,7 @@ public class PanelLibro extends JPanel
 			txtCategoria.setText(nuevolibro.darCategoria().darNombre());
 			txtCalificacion.setText("" + nuevolibro.darCalificacion());
 			Imagen portada = nuevolibro.darPortada();
-			labPortada.setIcon(new ImageIcon("./data/" + portada.darRutaArchivo()));
+			mostrarPortada(portada);
 			labDetallesImagen.setText(portada.darRutaArchivo() + ": " + portada.darAncho() + "x" + portada.darAlto());
 		}
 		else
@@ -166,4 +241,166 @@ public class PanelLibro extends JPanel
 			labDetallesImagen.setText("");
 		}
 	}
+
+	/**
+	 * Consulta el libro cuya información se muestra en el panel
+	 * 
+	 * @return libro, o null si no se muestra ninguno
+	 */
+	public Libro darLibro()
+	{
+		return libro;
+	}
+
+	/**
+	 * Consulta la cache con las portadas decodificadas
+	 * 
+	 * @return cache
+	 */
+	public CachePortadas darCachePortadas()
+	{
+		return cache;
+	}
+
+	/**
+	 * Genera en segundo plano las miniaturas que falten para unas portadas, para
+	 * que después se puedan mostrar sin decodificar los originales
+	 * 
+	 * @param rutas Las rutas de las portadas, sin repetidos (ver
+	 *              calcularRutasPortadas)
+	 */
+	public void precalentarPortadas(Collection<String> rutas)
+	{
+		miniaturas.precalentar(rutas);
+	}
+
+	/**
+	 * Calcula las rutas distintas de las portadas de unos libros. Recorre todos
+	 * los libros, así que no se debe llamar desde el hilo de eventos.
+	 * 
+	 * @param libros Los libros
+	 * @return Las rutas de los archivos de las portadas, sin repetidos, en el
+	 *         orden de los libros
+	 */
+	public static ArrayList<String> calcularRutasPortadas(List<Libro> libros)
+	{
+		// Las portadas iguales son la misma imagen, así que hay muchas menos
+		// rutas distintas que libros
+		LinkedHashSet<String> distintas = new LinkedHashSet<String>();
+		for (Libro unLibro : libros)
+		{
+			if (unLibro.tienePortada())
+			{
+				distintas.add(unLibro.darPortada().darRutaArchivo());
+			}
+		}
+		ArrayList<String> rutas = new ArrayList<String>(distintas.size());
+		for (String ruta : distintas)
+		{
+			rutas.add(darRuta(ruta));
+		}
+		return rutas;
+	}
+
+	/**
+	 * Calcula la ruta del archivo de una portada
+	 * 
+	 * @param rutaPortada La ruta de la portada, relativa a la carpeta "data"
+	 * @return La ruta del archivo
+	 */
+	static String darRuta(String rutaPortada)
+	{
+		return "./data/" + rutaPortada;
+	}
+
+	/**
+	 * Muestra una portada. Si ya está decodificada se muestra de inmediato; si
+	 * no, se muestra un espacio vacío y se pide leerla en el hilo de portadas.
+	 * 
+	 * @param portada La portada del libro
+	 */
+	private void mostrarPortada(Imagen portada)
+	{
+		String ruta = darRuta(portada.darRutaArchivo());
+		EventoPortada evento = EventoPortada.iniciar();
+		BufferedImage decodificada = cache.buscar(ruta);
+		if (decodificada != null)
+		{
+			labPortada.setIcon(new ImageIcon(decodificada));
+			evento.terminar(ruta, EventoPortada.MEMORIA, decodificada.getWidth(), decodificada.getHeight());
+			return;
+		}
+
+		labPortada.setIcon(new IconoVacio(portada.darAncho(), portada.darAlto()));
+		long solicitud = solicitudActual;
+		lecturaPendiente = decodificador.submit(() -> {
+			EventoPortada lectura = EventoPortada.iniciar();
+			BufferedImage leida = miniaturas.obtener(ruta, CacheMiniaturas.DETALLE);
+			if (leida != null)
+			{
+				cache.guardar(ruta, leida);
+				lectura.terminar(ruta, EventoPortada.DISCO, leida.getWidth(), leida.getHeight());
+			}
+			else
+			{
+				lectura.terminar(ruta, EventoPortada.DISCO, 0, 0);
+			}
+			SwingUtilities.invokeLater(() -> terminarLectura(solicitud, leida));
+		});
+	}
+
+	/**
+	 * Muestra una portada que se terminó de leer, si todavía es la que se está
+	 * esperando. Se ejecuta en el hilo de eventos.
+	 * 
+	 * @param solicitud El número de la solicitud de la portada
+	 * @param leida     La portada decodificada, o null si no se pudo leer
+	 */
+	private void terminarLectura(long solicitud, BufferedImage leida)
+	{
+		if (solicitud == solicitudActual)
+		{
+			lecturaPendiente = null;
+			labPortada.setIcon(leida == null ? null : new ImageIcon(leida));
+		}
+	}
+
+	// ************************************************************************
+	// Clases anidadas
+	// ************************************************************************
+
+	/**
+	 * Un ícono vacío con el tamaño de una portada, que ocupa su lugar mientras se
+	 * lee
+	 */
+	private static final class IconoVacio implements Icon
+	{
+		private final int ancho;
+
+		private final int alto;
+
+		IconoVacio(int elAncho, int elAlto)
+		{
+			ancho = elAncho;
+			alto = elAlto;
+		}
+
+		@Override
+		public void paintIcon(Component c, Graphics g, int x, int y)
+		{
+			// El espacio se deja vacío
+		}
+
+		@Override
+		public int getIconWidth()
+		{
+			return ancho;
+		}
+
+		@Override
+		public int getIconHeight()
+		{
+			return alto;
+		}
+	}
 }
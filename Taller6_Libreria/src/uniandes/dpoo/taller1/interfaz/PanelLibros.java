@@ -1,9 +1,8 @@
 package uniandes.dpoo.taller1.interfaz;
 
 import java.awt.BorderLayout;
-import java.util.ArrayList;
+import java.util.List;
 
-import javax.swing.DefaultListModel;
 import javax.swing.JList;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
@@ -16,11 +15,21 @@ import uniandes.dpoo.taller1.modelo.Libro;
 
 /**
  * Panel donde se muestran una lista de libros: pueden ser los libros de una
- * categoría pero también pueden ser los libros resultado de una búsqueda.
+ * categoría pero también pueden ser los libros resultado de una búsqueda. Cada
+ * libro se muestra con una miniatura de su portada (ver RendererLibros).
  */
 @SuppressWarnings("serial")
 public class PanelLibros extends JPanel implements ListSelectionListener
 {
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Ancho de las celdas de la lista cuando el panel es muy angosto
+	 */
+	private static final int ANCHO_MINIMO_CELDA = 120;
+
 	// ************************************************************************
 	// Atributos
 	// ************************************************************************
@@ -42,7 +51,7 @@ public class PanelLibros extends JPanel implements ListSelectionListener
 	/**
 	 * El modelo con la información que se muestra en el componente listaLibros
 	 */
-	private DefaultListModel<Libro> modeloLibros;
+	private ModeloListaLibros modeloLibros;
 
 	// ************************************************************************
 	// Constructores
@@ -52,16 +61,27 @@ public class PanelLibros extends JPanel implements ListSelectionListener
 	 * Construye un nuevo panel para mostrar la lista de libros en una categoría
 	 * 
 	 * @param interfazLibreria La ventana dentro de la que se encuentra el panel
+	 * @param miniaturas       Las miniaturas de las portadas guardadas en disco
 	 */
-	public PanelLibros(InterfazLibreria interfazLibreria)
+	public PanelLibros(InterfazLibreria interfazLibreria, CacheMiniaturas miniaturas)
 	{
 
 		ventana = interfazLibreria;
 		setBorder(new TitledBorder("Libros"));
 		setLayout(new BorderLayout());
-		modeloLibros = new DefaultListModel<Libro>();
+		modeloLibros = new ModeloListaLibros();
 		listaLibros = new JList<>(modeloLibros);
 		listaLibros.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		RendererLibros renderer = new RendererLibros(miniaturas);
+		listaLibros.setCellRenderer(renderer);
+
+		// Con un alto y un ancho fijos, la lista no le pide su tamaño al renderer
+		// para cada libro. El ancho fijo es pequeño para que la lista ocupe el ancho
+		// del panel y los títulos largos se recorten. El alto incluye el espacio de
+		// la miniatura.
+		listaLibros.setFixedCellHeight(renderer
+				.getListCellRendererComponent(listaLibros, "Título", 0, false, false).getPreferredSize().height);
+		listaLibros.setFixedCellWidth(ANCHO_MINIMO_CELDA);
 		listaLibros.addListSelectionListener(this);
 
 		JScrollPane panel = new JScrollPane(listaLibros);
@@ -77,12 +97,37 @@ public class PanelLibros extends JPanel implements ListSelectionListener
 	 * 
 	 * @param libros La nueva lista de libros que se debe mostrar.
 	 */
-	public void actualizarLibros(ArrayList<Libro> libros)
+	public void actualizarLibros(List<Libro> libros)
 	{
-		modeloLibros.clear();
-		for (Libro libro : libros)
+		listaLibros.clearSelection();
+		modeloLibros.cambiarLibros(libros);
+		listaLibros.ensureIndexIsVisible(0);
+	}
+
+	/**
+	 * Actualiza la lista de libros que se muestran sin mover la lista y sin
+	 * cambiar el libro seleccionado, si sigue en la lista. No le avisa a la
+	 * ventana.
+	 * 
+	 * @param libros La nueva lista de libros que se debe mostrar.
+	 */
+	public void refrescarLibros(List<Libro> libros)
+	{
+		Libro seleccionado = listaLibros.getSelectedValue();
+		listaLibros.removeListSelectionListener(this);
+		try
+		{
+			listaLibros.clearSelection();
+			modeloLibros.cambiarLibros(libros);
+			int posicion = seleccionado == null ? -1 : libros.indexOf(seleccionado);
+			if (posicion >= 0)
+			{
+				listaLibros.setSelectedIndex(posicion);
+			}
+		}
+		finally
 		{
-			modeloLibros.addElement(libro);
+			listaLibros.addListSelectionListener(this);
 		}
 	}
 
@@ -0,0 +1,166 @@
+package uniandes.dpoo.taller1.interfaz;
+
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.HashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
+import javax.swing.JList;
+import javax.swing.SwingUtilities;
+
+import uniandes.dpoo.taller1.modelo.Libro;
+
+/**
+ * Esta clase dibuja cada libro de la lista de libros con una miniatura de su
+ * portada junto al texto.
+ *
+ * Las miniaturas se leen de la CacheMiniaturas, en el tamaño LISTA, en un hilo
+ * aparte. Mientras se leen se deja un espacio vacío del mismo tamaño y, cuando
+ * llegan, se vuelve a dibujar la lista. Las miniaturas leídas se guardan en
+ * memoria en una CachePortadas.
+ */
+@SuppressWarnings("serial")
+public class RendererLibros extends DefaultListCellRenderer
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Cantidad máxima de bytes que pueden ocupar las miniaturas decodificadas
+	 */
+	private static final long CAPACIDAD_CACHE = 8L * 1024 * 1024;
+
+	/**
+	 * El espacio que ocupa una miniatura mientras se lee, o cuando el libro no
+	 * tiene portada
+	 */
+	private static final Icon ESPACIO_VACIO = new Icon()
+	{
+		@Override
+		public void paintIcon(Component c, Graphics g, int x, int y)
+		{
+			// El espacio se deja vacío
+		}
+
+		@Override
+		public int getIconWidth()
+		{
+			return CacheMiniaturas.LISTA.darAncho();
+		}
+
+		@Override
+		public int getIconHeight()
+		{
+			return CacheMiniaturas.LISTA.darAlto();
+		}
+	};
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * Las miniaturas de las portadas guardadas en disco
+	 */
+	private CacheMiniaturas miniaturas;
+
+	/**
+	 * Las miniaturas ya decodificadas
+	 */
+	private CachePortadas cache;
+
+	/**
+	 * Las rutas cuyas miniaturas se están leyendo, o que no se pudieron leer.
+	 * Solamente se usa desde el hilo de eventos.
+	 */
+	private HashSet<String> pedidas;
+
+	/**
+	 * El hilo donde se leen las miniaturas
+	 */
+	private ExecutorService lector;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye el renderer
+	 *
+	 * @param lasMiniaturas Las miniaturas de las portadas guardadas en disco
+	 */
+	public RendererLibros(CacheMiniaturas lasMiniaturas)
+	{
+		this.miniaturas = lasMiniaturas;
+		this.cache = new CachePortadas(CAPACIDAD_CACHE);
+		this.pedidas = new HashSet<String>();
+		this.lector = Executors.newSingleThreadExecutor(tarea -> {
+			Thread hilo = new Thread(tarea, "Miniaturas de la lista");
+			hilo.setDaemon(true);
+			return hilo;
+		});
+	}
+
+	// ************************************************************************
+	// Métodos
+	// ************************************************************************
+
+	@Override
+	public Component getListCellRendererComponent(JList<?> lista, Object valor, int posicion, boolean seleccionado,
+			boolean conFoco)
+	{
+		super.getListCellRendererComponent(lista, valor, posicion, seleccionado, conFoco);
+		Icon icono = ESPACIO_VACIO;
+		if (valor instanceof Libro && ((Libro) valor).tienePortada())
+		{
+			String ruta = PanelLibro.darRuta(((Libro) valor).darPortada().darRutaArchivo());
+			BufferedImage miniatura = cache.buscar(ruta);
+			if (miniatura != null)
+			{
+				icono = new ImageIcon(miniatura);
+			}
+			else
+			{
+				pedir(lista, ruta);
+			}
+		}
+		setIcon(icono);
+		return this;
+	}
+
+	/**
+	 * Pide leer una miniatura en el hilo de lectura, si no se ha pedido antes.
+	 * Cuando llega se vuelve a dibujar la lista.
+	 *
+	 * @param lista La lista que muestra la miniatura
+	 * @param ruta  La ruta del archivo de la portada
+	 */
+	private void pedir(JList<?> lista, String ruta)
+	{
+		if (!pedidas.add(ruta))
+		{
+			return;
+		}
+
+		lector.execute(() -> {
+			BufferedImage leida = miniaturas.obtener(ruta, CacheMiniaturas.LISTA);
+			SwingUtilities.invokeLater(() -> {
+				// Las que no se pudieron leer se quedan entre las pedidas para no
+				// volver a intentarlo en cada dibujo
+				if (leida != null)
+				{
+					cache.guardar(ruta, leida);
+					pedidas.remove(ruta);
+					lista.repaint();
+				}
+			});
+		});
+	}
+
+}
@@ -0,0 +1,626 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Esta clase guarda los datos de los libros de un catálogo por columnas, en
+ * arreglos de tipos primitivos, en lugar de tener un objeto con sus propias
+ * cadenas e imágenes por cada libro.
+ *
+ * Cada libro ocupa una posición en todas las columnas. Los autores y las
+ * portadas se guardan una sola vez en una tabla y las columnas guardan su
+ * posición en ella. Los títulos se guardan en UTF-8, uno detrás de otro, en un
+ * mismo arreglo de bytes. Las calificaciones se guardan en centésimas en un
+ * short; las que no se pueden representar así se guardan aparte, sin perder
+ * precisión.
+ *
+ * Los libros que usan este almacén (ver LibroColumnar) son vistas livianas que
+ * consultan sus datos aquí. La categoría no se guarda en una columna porque la
+ * vista ya la tiene. Los datos de los libros que se eliminan del catálogo
+ * permanecen en el almacén hasta que la librería lo compacta: entonces copia
+ * los libros que siguen en el catálogo a un almacén nuevo (ver copiar) y deja
+ * de usar el anterior.
+ */
+public class AlmacenColumnar
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Capacidad inicial de las columnas
+	 */
+	private static final int CAPACIDAD_INICIAL = 1024;
+
+	/**
+	 * Valor de la columna de calificaciones para las calificaciones que se
+	 * guardan aparte
+	 */
+	private static final short CALIFICACION_APARTE = Short.MIN_VALUE;
+
+	/**
+	 * Valor de la columna de portadas para los libros que no tienen portada
+	 */
+	private static final int SIN_PORTADA = -1;
+
+	/**
+	 * Cantidad de títulos que se recuerdan después de consultarlos. Debe ser una
+	 * potencia de 2.
+	 */
+	private static final int TITULOS_RECIENTES = 1024;
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * Cantidad de libros guardados
+	 */
+	private int cantidad;
+
+	/**
+	 * Los títulos de los libros
+	 */
+	private Arena titulos;
+
+	/**
+	 * El identificador de cada libro
+	 */
+	private long[] ids;
+
+	/**
+	 * La posición del autor de cada libro en la tabla de autores
+	 */
+	private int[] autores;
+
+	/**
+	 * La posición de cada libro en el orden del catálogo, o -1 si todavía no
+	 * se ha agregado a un catálogo
+	 */
+	private int[] ordenes;
+
+	/**
+	 * La calificación de cada libro, en centésimas
+	 */
+	private short[] calificaciones;
+
+	/**
+	 * Las calificaciones que no se pueden guardar en centésimas, según la
+	 * posición del libro
+	 */
+	private HashMap<Integer, Double> calificacionesAparte;
+
+	/**
+	 * La posición de la portada de cada libro en la tabla de portadas, o
+	 * SIN_PORTADA
+	 */
+	private int[] portadas;
+
+	/**
+	 * La tabla de autores distintos
+	 */
+	private String[] tablaAutores;
+
+	/**
+	 * La posición de cada autor en la tabla de autores
+	 */
+	private HashMap<String, Integer> posicionesAutores;
+
+	/**
+	 * Cantidad de autores en la tabla
+	 */
+	private int cantidadAutores;
+
+	/**
+	 * La tabla de portadas distintas. Todos los libros con la misma portada
+	 * comparten la misma imagen.
+	 */
+	private Imagen[] tablaPortadas;
+
+	/**
+	 * La posición de cada portada en la tabla de portadas
+	 */
+	private HashMap<Imagen, Integer> posicionesPortadas;
+
+	/**
+	 * Cantidad de portadas en la tabla
+	 */
+	private int cantidadPortadas;
+
+	/**
+	 * Los últimos títulos consultados, en la posición que les corresponde según
+	 * la posición del libro. Como las entradas no cambian después de
+	 * construirlas, varios hilos pueden consultar y reemplazar entradas al mismo
+	 * tiempo sin sincronizarse: en el peor caso un título se vuelve a construir.
+	 */
+	private TituloReciente[] titulosRecientes;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye un almacén vacío
+	 */
+	public AlmacenColumnar()
+	{
+		this.cantidad = 0;
+		this.titulos = new Arena();
+		this.ids = new long[CAPACIDAD_INICIAL];
+		this.autores = new int[CAPACIDAD_INICIAL];
+		this.ordenes = new int[CAPACIDAD_INICIAL];
+		this.calificaciones = new short[CAPACIDAD_INICIAL];
+		this.calificacionesAparte = new HashMap<Integer, Double>();
+		this.portadas = new int[CAPACIDAD_INICIAL];
+		this.tablaAutores = new String[CAPACIDAD_INICIAL];
+		this.posicionesAutores = new HashMap<String, Integer>();
+		this.cantidadAutores = 0;
+		this.tablaPortadas = new Imagen[CAPACIDAD_INICIAL];
+		this.posicionesPortadas = new HashMap<Imagen, Integer>();
+		this.cantidadPortadas = 0;
+		this.titulosRecientes = new TituloReciente[TITULOS_RECIENTES];
+	}
+
+	// ************************************************************************
+	// Métodos para consultar los atributos
+	// ************************************************************************
+
+	/**
+	 * Consulta la cantidad de libros guardados, incluidos los que ya no están en
+	 * el catálogo
+	 *
+	 * @return cantidad
+	 */
+	public int darCantidad()
+	{
+		return cantidad;
+	}
+
+	/**
+	 * Consulta el identificador de un libro
+	 *
+	 * @param posicion La posición del libro en el almacén
+	 * @return El identificador del libro
+	 */
+	public long darId(int posicion)
+	{
+		return ids[posicion];
+	}
+
+	/**
+	 * Consulta la posición de un libro en el orden del catálogo
+	 *
+	 * @param posicion La posición del libro en el almacén
+	 * @return El orden del libro, o -1 si todavía no se ha agregado a un
+	 *         catálogo
+	 */
+	public int darOrden(int posicion)
+	{
+		return ordenes[posicion];
+	}
+
+	/**
+	 * Consulta el título de un libro. Los títulos que se consultaron hace poco
+	 * se retornan sin volver a construirlos.
+	 *
+	 * @param posicion La posición del libro en el almacén
+	 * @return El título del libro
+	 */
+	public String darTitulo(int posicion)
+	{
+		int entrada = posicion & (TITULOS_RECIENTES - 1);
+		TituloReciente reciente = titulosRecientes[entrada];
+		if (reciente != null && reciente.posicion == posicion)
+		{
+			return reciente.titulo;
+		}
+		String titulo = titulos.dar(posicion);
+		titulosRecientes[entrada] = new TituloReciente(posicion, titulo);
+		return titulo;
+	}
+
+	/**
+	 * Verifica si un libro tiene el título indicado, comparando los bytes
+	 * guardados sin construir el título
+	 *
+	 * @param posicion La posición del libro en el almacén
+	 * @param titulo   El título con el que se compara
+	 * @return Retorna true si el título del libro es igual al indicado
+	 */
+	public boolean tieneTitulo(int posicion, String titulo)
+	{
+		return titulos.esIgual(posicion, titulo);
+	}
+
+	/**
+	 * Consulta el autor de un libro
+	 *
+	 * @param posicion La posición del libro en el almacén
+	 * @return El autor del libro
+	 */
+	public String darAutor(int posicion)
+	{
+		return tablaAutores[autores[posicion]];
+	}
+
+	/**
+	 * Consulta la calificación de un libro
+	 *
+	 * @param posicion La posición del libro en el almacén
+	 * @return La calificación del libro
+	 */
+	public double darCalificacion(int posicion)
+	{
+		short centesimas = calificaciones[posicion];
+		if (centesimas == CALIFICACION_APARTE)
+		{
+			return calificacionesAparte.get(posicion);
+		}
+		return centesimas / 100.0;
+	}
+
+	/**
+	 * Consulta si un libro tiene portada
+	 *
+	 * @param posicion La posición del libro en el almacén
+	 * @return Retorna true si el libro tiene portada
+	 */
+	public boolean tienePortada(int posicion)
+	{
+		return portadas[posicion] != SIN_PORTADA;
+	}
+
+	/**
+	 * Consulta la portada de un libro
+	 *
+	 * @param posicion La posición del libro en el almacén
+	 * @return La portada del libro o null si no tiene
+	 */
+	public Imagen darPortada(int posicion)
+	{
+		int portada = portadas[posicion];
+		return portada == SIN_PORTADA ? null : tablaPortadas[portada];
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	/**
+	 * Agrega un libro sin portada al almacén
+	 *
+	 * @param id           El identificador del libro
+	 * @param titulo       El título del libro
+	 * @param autor        El autor del libro
+	 * @param calificacion La calificación del libro
+	 * @return La posición del libro en el almacén
+	 */
+	public int agregar(long id, String titulo, String autor, double calificacion)
+	{
+		crecerSiEstaLleno();
+		int posicion = cantidad;
+		titulos.agregar(titulo);
+		ids[posicion] = id;
+		autores[posicion] = posicionAutor(autor);
+		ordenes[posicion] = -1;
+		calificaciones[posicion] = centesimas(calificacion);
+		if (calificaciones[posicion] == CALIFICACION_APARTE)
+		{
+			calificacionesAparte.put(posicion, calificacion);
+		}
+		portadas[posicion] = SIN_PORTADA;
+		cantidad++;
+		return posicion;
+	}
+
+	/**
+	 * Copia un libro de otro almacén a este. El título se copia en UTF-8, sin
+	 * construirlo, y el autor y la portada se agregan a las tablas de este
+	 * almacén si todavía no están.
+	 *
+	 * @param otro     El almacén que tiene el libro
+	 * @param posicion La posición del libro en el otro almacén
+	 * @return La posición del libro en este almacén
+	 */
+	public int copiar(AlmacenColumnar otro, int posicion)
+	{
+		crecerSiEstaLleno();
+		int nueva = cantidad;
+		titulos.copiar(otro.titulos, posicion);
+		ids[nueva] = otro.ids[posicion];
+		autores[nueva] = posicionAutor(otro.darAutor(posicion));
+		ordenes[nueva] = otro.ordenes[posicion];
+		calificaciones[nueva] = otro.calificaciones[posicion];
+		if (calificaciones[nueva] == CALIFICACION_APARTE)
+		{
+			calificacionesAparte.put(nueva, otro.calificacionesAparte.get(posicion));
+		}
+		portadas[nueva] = otro.tienePortada(posicion) ? posicionPortada(otro.darPortada(posicion)) : SIN_PORTADA;
+		cantidad++;
+		return nueva;
+	}
+
+	/**
+	 * Cambia la posición de un libro en el orden del catálogo
+	 *
+	 * @param posicion   La posición del libro en el almacén
+	 * @param nuevoOrden El nuevo orden del libro
+	 */
+	public void cambiarOrden(int posicion, int nuevoOrden)
+	{
+		ordenes[posicion] = nuevoOrden;
+	}
+
+	/**
+	 * Cambia la portada de un libro. Si otro libro ya tiene una portada igual,
+	 * los dos comparten la misma entrada de la tabla de portadas.
+	 *
+	 * @param posicion     La posición del libro en el almacén
+	 * @param nuevaPortada La nueva portada, o null para quitarla
+	 */
+	public void cambiarPortada(int posicion, Imagen nuevaPortada)
+	{
+		portadas[posicion] = nuevaPortada == null ? SIN_PORTADA : posicionPortada(nuevaPortada);
+	}
+
+	/**
+	 * Cambia la calificación de un libro
+	 *
+	 * @param posicion          La posición del libro en el almacén
+	 * @param nuevaCalificacion La nueva calificación
+	 */
+	public void cambiarCalificacion(int posicion, double nuevaCalificacion)
+	{
+		calificaciones[posicion] = centesimas(nuevaCalificacion);
+		if (calificaciones[posicion] == CALIFICACION_APARTE)
+		{
+			calificacionesAparte.put(posicion, nuevaCalificacion);
+		}
+		else
+		{
+			calificacionesAparte.remove(posicion);
+		}
+	}
+
+	/**
+	 * Reduce la capacidad de las columnas a la cantidad de datos que tienen. Se
+	 * debe llamar al terminar de cargar un lote grande de libros, porque las
+	 * columnas crecen al doble cada vez que se llenan.
+	 */
+	public void ajustarCapacidad()
+	{
+		ids = Arrays.copyOf(ids, cantidad);
+		autores = Arrays.copyOf(autores, cantidad);
+		ordenes = Arrays.copyOf(ordenes, cantidad);
+		calificaciones = Arrays.copyOf(calificaciones, cantidad);
+		portadas = Arrays.copyOf(portadas, cantidad);
+		tablaAutores = Arrays.copyOf(tablaAutores, cantidadAutores);
+		tablaPortadas = Arrays.copyOf(tablaPortadas, cantidadPortadas);
+		titulos.ajustarCapacidad();
+	}
+
+	/**
+	 * Duplica la capacidad de las columnas si ya están llenas
+	 */
+	private void crecerSiEstaLleno()
+	{
+		if (cantidad == autores.length)
+		{
+			int capacidad = Math.max(CAPACIDAD_INICIAL, cantidad * 2);
+			ids = Arrays.copyOf(ids, capacidad);
+			autores = Arrays.copyOf(autores, capacidad);
+			ordenes = Arrays.copyOf(ordenes, capacidad);
+			calificaciones = Arrays.copyOf(calificaciones, capacidad);
+			portadas = Arrays.copyOf(portadas, capacidad);
+		}
+	}
+
+	/**
+	 * Busca o agrega un autor en la tabla de autores
+	 *
+	 * @param autor El autor
+	 * @return La posición del autor en la tabla
+	 */
+	private int posicionAutor(String autor)
+	{
+		Integer posicion = posicionesAutores.get(autor);
+		if (posicion == null)
+		{
+			if (cantidadAutores == tablaAutores.length)
+			{
+				tablaAutores = Arrays.copyOf(tablaAutores, Math.max(CAPACIDAD_INICIAL, cantidadAutores * 2));
+			}
+			posicion = cantidadAutores++;
+			tablaAutores[posicion] = autor;
+			posicionesAutores.put(autor, posicion);
+		}
+		return posicion;
+	}
+
+	/**
+	 * Busca o agrega una portada en la tabla de portadas
+	 *
+	 * @param portada La portada
+	 * @return La posición de la portada en la tabla
+	 */
+	private int posicionPortada(Imagen portada)
+	{
+		Integer posicion = posicionesPortadas.get(portada);
+		if (posicion == null)
+		{
+			if (cantidadPortadas == tablaPortadas.length)
+			{
+				tablaPortadas = Arrays.copyOf(tablaPortadas, Math.max(CAPACIDAD_INICIAL, cantidadPortadas * 2));
+			}
+			posicion = cantidadPortadas++;
+			tablaPortadas[posicion] = portada;
+			posicionesPortadas.put(portada, posicion);
+		}
+		return posicion;
+	}
+
+	/**
+	 * Convierte una calificación a centésimas, si se puede hacer sin perder
+	 * precisión
+	 *
+	 * @param calificacion La calificación
+	 * @return La calificación en centésimas o CALIFICACION_APARTE si la
+	 *         calificación no se puede representar así
+	 */
+	private static short centesimas(double calificacion)
+	{
+		long centesimas = Math.round(calificacion * 100);
+		if (centesimas > CALIFICACION_APARTE && centesimas <= Short.MAX_VALUE
+				&& Double.doubleToLongBits(centesimas / 100.0) == Double.doubleToLongBits(calificacion))
+		{
+			return (short) centesimas;
+		}
+		return CALIFICACION_APARTE;
+	}
+
+	// ************************************************************************
+	// Clases anidadas
+	// ************************************************************************
+
+	/**
+	 * Una secuencia de cadenas guardadas en UTF-8, una detrás de otra, en un
+	 * mismo arreglo de bytes
+	 */
+	private static final class Arena
+	{
+		private byte[] bytes = new byte[CAPACIDAD_INICIAL * 16];
+
+		/**
+		 * La posición en la que termina cada cadena
+		 */
+		private int[] finales = new int[CAPACIDAD_INICIAL];
+
+		private int cantidad = 0;
+
+		int agregar(String cadena)
+		{
+			byte[] nueva = cadena.getBytes(StandardCharsets.UTF_8);
+			return agregar(nueva, 0, nueva.length);
+		}
+
+		/**
+		 * Agrega una cadena de otra arena, copiando sus bytes
+		 */
+		int copiar(Arena otra, int posicion)
+		{
+			int inicio = posicion == 0 ? 0 : otra.finales[posicion - 1];
+			return agregar(otra.bytes, inicio, otra.finales[posicion] - inicio);
+		}
+
+		private int agregar(byte[] origen, int desde, int longitud)
+		{
+			int inicio = cantidad == 0 ? 0 : finales[cantidad - 1];
+			if (inicio + longitud > bytes.length)
+			{
+				bytes = Arrays.copyOf(bytes, Math.max(inicio + longitud, bytes.length * 2));
+			}
+			if (cantidad == finales.length)
+			{
+				finales = Arrays.copyOf(finales, Math.max(CAPACIDAD_INICIAL, cantidad * 2));
+			}
+			System.arraycopy(origen, desde, bytes, inicio, longitud);
+			finales[cantidad] = inicio + longitud;
+			return cantidad++;
+		}
+
+		void ajustarCapacidad()
+		{
+			bytes = Arrays.copyOf(bytes, cantidad == 0 ? 0 : finales[cantidad - 1]);
+			finales = Arrays.copyOf(finales, cantidad);
+		}
+
+		String dar(int posicion)
+		{
+			int inicio = posicion == 0 ? 0 : finales[posicion - 1];
+			return new String(bytes, inicio, finales[posicion] - inicio, StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * Compara una cadena guardada con otra, codificando la otra en UTF-8 a
+		 * medida que avanza, sin construir ninguna de las dos. Una cadena con un
+		 * carácter sustituto sin pareja nunca es igual, porque getBytes guarda
+		 * esos caracteres como '?' y el título guardado ya no los tiene.
+		 */
+		boolean esIgual(int posicion, String cadena)
+		{
+			int i = posicion == 0 ? 0 : finales[posicion - 1];
+			int fin = finales[posicion];
+			for (int j = 0; j < cadena.length(); j++)
+			{
+				int c = cadena.charAt(j);
+				if (c < 0x80)
+				{
+					if (i == fin || bytes[i++] != c)
+					{
+						return false;
+					}
+					continue;
+				}
+
+				int longitud;
+				if (c < 0x800)
+				{
+					longitud = 2;
+				}
+				else if (Character.isHighSurrogate((char) c) && j + 1 < cadena.length()
+						&& Character.isLowSurrogate(cadena.charAt(j + 1)))
+				{
+					c = Character.toCodePoint((char) c, cadena.charAt(++j));
+					longitud = 4;
+				}
+				else if (Character.isSurrogate((char) c))
+				{
+					return false;
+				}
+				else
+				{
+					longitud = 3;
+				}
+				if (fin - i < longitud)
+				{
+					return false;
+				}
+
+				// El primer byte lleva la longitud y los más altos bits del código,
+				// y los siguientes llevan 6 bits cada uno
+				int primero = (0xFF00 >> longitud) & 0xFF | (c >> (6 * (longitud - 1)));
+				if ((bytes[i++] & 0xFF) != primero)
+				{
+					return false;
+				}
+				for (int k = longitud - 2; k >= 0; k--)
+				{
+					if ((bytes[i++] & 0xFF) != (0x80 | ((c >> (6 * k)) & 0x3F)))
+					{
+						return false;
+					}
+				}
+			}
+			return i == fin;
+		}
+	}
+
+	/**
+	 * Un título consultado hace poco y la posición del libro al que pertenece
+	 */
+	private static final class TituloReciente
+	{
+		private final int posicion;
+
+		private final String titulo;
+
+		TituloReciente(int laPosicion, String elTitulo)
+		{
+			this.posicion = laPosicion;
+			this.titulo = elTitulo;
+		}
+	}
+
+}
@@ -0,0 +1,159 @@
+package uniandes.dpoo.taller1.modelo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AlmacenColumnarTest
+{
+	private AlmacenColumnar almacen;
+
+	@BeforeEach
+	void setUp() throws Exception
+	{
+		almacen = new AlmacenColumnar();
+	}
+
+	/**
+	 * La comparación de títulos sin construir cadenas debe coincidir con equals
+	 * para textos en ASCII, con tildes, con caracteres de tres y cuatro bytes y
+	 * con sustitutos sin pareja
+	 */
+	@Test
+	void testTieneTitulo()
+	{
+		String[] titulos = { "", "Rayuela", "Cien años de soledad", "Ñandú", "東京物語", "Emoji 😀 fin", "Sin pareja \ud800",
+				"\udc00 al comienzo", "Rayuel", "Rayuelas", "rayuela", "Cien anos de soledad", "東京物", "Emoji 😁 fin",
+				"Sin pareja ?", "? al comienzo", "€", "ü", "ü\u0000" };
+		int[] posiciones = new int[titulos.length];
+		for (int i = 0; i < titulos.length; i++)
+		{
+			posiciones[i] = almacen.agregar(Libro.generarId(), titulos[i], "Autor", 4.0);
+		}
+
+		for (int i = 0; i < titulos.length; i++)
+		{
+			String guardado = almacen.darTitulo(posiciones[i]);
+			for (String titulo : titulos)
+			{
+				assertEquals(guardado.equals(titulo), almacen.tieneTitulo(posiciones[i], titulo),
+						"'" + guardado + "' contra '" + titulo + "'");
+			}
+		}
+		assertTrue(almacen.tieneTitulo(posiciones[6], "Sin pareja ?"));
+	}
+
+	/**
+	 * Los títulos recientes se guardan según la posición del libro, así que
+	 * libros cuyas posiciones caen en la misma entrada se reemplazan entre ellos
+	 */
+	@Test
+	void testTitulosRecientes()
+	{
+		for (int i = 0; i < 3000; i++)
+		{
+			almacen.agregar(Libro.generarId(), "Libro " + i, "Autor " + (i % 7), i % 500 / 100.0);
+		}
+		for (int vuelta = 0; vuelta < 2; vuelta++)
+		{
+			for (int i = 0; i < 3000; i += 1024)
+			{
+				assertEquals("Libro " + i, almacen.darTitulo(i));
+			}
+		}
+		assertSame(almacen.darTitulo(2047), almacen.darTitulo(2047));
+		assertEquals("Autor 3", almacen.darAutor(10));
+		assertSame(almacen.darAutor(3), almacen.darAutor(10));
+	}
+
+	@Test
+	void testCalificaciones()
+	{
+		int exacta = almacen.agregar(Libro.generarId(), "Uno", "Autor", 4.25);
+		int aparte = almacen.agregar(Libro.generarId(), "Dos", "Autor", 3.14159);
+		int negativa = almacen.agregar(Libro.generarId(), "Tres", "Autor", -1.5);
+		assertEquals(4.25, almacen.darCalificacion(exacta));
+		assertEquals(3.14159, almacen.darCalificacion(aparte));
+		assertEquals(-1.5, almacen.darCalificacion(negativa));
+
+		almacen.cambiarCalificacion(exacta, 1e9);
+		almacen.cambiarCalificacion(aparte, 2.5);
+		assertEquals(1e9, almacen.darCalificacion(exacta));
+		assertEquals(2.5, almacen.darCalificacion(aparte));
+	}
+
+	/**
+	 * Los libros con portadas iguales comparten la misma imagen, y cambiar la
+	 * portada varias veces no agrega entradas a la tabla de portadas
+	 */
+	@Test
+	void testPortadasCompartidas()
+	{
+		int primero = almacen.agregar(Libro.generarId(), "Uno", "Autor", 4.0);
+		int segundo = almacen.agregar(Libro.generarId(), "Dos", "Autor", 4.0);
+		assertFalse(almacen.tienePortada(primero));
+		assertNull(almacen.darPortada(primero));
+
+		Imagen portada = new Imagen("./imagenes/00001.jpg", 100, 150);
+		almacen.cambiarPortada(primero, portada);
+		almacen.cambiarPortada(segundo, new Imagen("./imagenes/00001.jpg", 100, 150));
+		assertSame(portada, almacen.darPortada(primero));
+		assertSame(portada, almacen.darPortada(segundo));
+
+		almacen.cambiarPortada(segundo, new Imagen("./imagenes/00001.jpg", 90, 150));
+		assertEquals(90, almacen.darPortada(segundo).darAncho());
+		assertSame(portada, almacen.darPortada(primero));
+
+		almacen.cambiarPortada(primero, null);
+		assertFalse(almacen.tienePortada(primero));
+	}
+
+	@Test
+	void testLibroColumnar()
+	{
+		Categoria categoria = new Categoria("Novela", true);
+		Libro libro = new LibroColumnar(almacen, "Rayuela", "Julio Cortázar", 4.5, categoria);
+		assertEquals(-1, libro.darOrden());
+		libro.asignarOrden(7);
+		assertEquals(7, libro.darOrden());
+		assertEquals("Rayuela (Julio Cortázar)", libro.toString());
+		assertSame(Imagen.PORTADA_FALTANTE, libro.darPortada());
+		assertEquals(1, categoria.contarLibrosSinPortada());
+
+		libro.cambiarPortada(new Imagen("./imagenes/00002.jpg", 85, 85));
+		assertEquals(0, categoria.contarLibrosSinPortada());
+		assertEquals(4.5, categoria.calificacionPromedio());
+	}
+
+	/**
+	 * Al mover un libro a otro almacén conserva todos sus datos, y el almacén
+	 * anterior sigue respondiendo por los libros que no se movieron
+	 */
+	@Test
+	void testMover()
+	{
+		Categoria categoria = new Categoria("Novela", true);
+		LibroColumnar eliminado = new LibroColumnar(almacen, "Eliminado", "Otro autor", 1.0, categoria);
+		LibroColumnar libro = new LibroColumnar(almacen, "Cien años de soledad", "Gabriel García Márquez",
+				Math.PI, categoria);
+		libro.asignarOrden(32);
+		Imagen portada = new Imagen("./imagenes/00003.jpg", 80, 120);
+		libro.cambiarPortada(portada);
+		long id = libro.darId();
+
+		AlmacenColumnar nuevo = new AlmacenColumnar();
+		libro.mover(nuevo);
+		assertEquals(1, nuevo.darCantidad());
+		assertEquals(id, libro.darId());
+		assertEquals(32, libro.darOrden());
+		assertEquals("Cien años de soledad (Gabriel García Márquez)", libro.toString());
+		assertTrue(libro.tieneTitulo("Cien años de soledad"));
+		assertEquals(Math.PI, libro.darCalificacion());
+		assertSame(portada, libro.darPortada());
+
+		assertEquals("Eliminado (Otro autor)", eliminado.toString());
+		assertEquals(2, almacen.darCantidad());
+	}
+
+}
@@ -0,0 +1,395 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Predicate;
+
+/**
+ * Esta clase procesa en paralelo el archivo CSV con los libros de una librería.
+ *
+ * El archivo se mapea en memoria y se divide en partes que terminan al final de
+ * un registro. Cada parte se procesa en un ForkJoinPool con su propio LectorCSV,
+ * y el resultado es una lista de filas por parte, en el mismo orden del
+ * archivo. Quien usa esta clase recorre las filas en ese orden para crear los
+ * libros, así que el catálogo y las categorías quedan igual que con una carga
+ * secuencial.
+ *
+ * Cada vez que termina una parte se informa el avance a las opciones de carga,
+ * y si se pidió cancelar la carga se cancelan las partes pendientes.
+ */
+public class CargadorParalelo
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Tamaño mínimo de cada parte, para que no valga la pena dividir archivos
+	 * pequeños
+	 */
+	private static final int TAMANO_MINIMO_PARTE = 1 << 20;
+
+	/**
+	 * Cantidad de partes por cada hilo del pool, para repartir mejor la carga
+	 */
+	private static final int PARTES_POR_HILO = 4;
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * Pool en el que se procesan las partes del archivo
+	 */
+	private ForkJoinPool pool;
+
+	/**
+	 * Registro con las categorías conocidas antes de cargar los libros. Durante
+	 * el procesamiento en paralelo solamente se consulta.
+	 */
+	private RegistroCategorias categorias;
+
+	/**
+	 * Función que indica si existe el archivo de una portada
+	 */
+	private Predicate<String> existePortada;
+
+	/**
+	 * Las opciones de la carga, a las que se informa el avance
+	 */
+	private OpcionesCarga opciones;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye un cargador que procesa las partes en el pool común
+	 *
+	 * @param lasCategorias    Registro con las categorías ya cargadas. No se
+	 *                         modifica durante la carga.
+	 * @param elExistePortada Función que indica si existe el archivo de una
+	 *                         portada. Se invoca desde varios hilos.
+	 * @param lasOpciones      Las opciones de la carga, a las que se informa el
+	 *                         avance
+	 */
+	public CargadorParalelo(RegistroCategorias lasCategorias, Predicate<String> elExistePortada,
+			OpcionesCarga lasOpciones)
+	{
+		this.pool = ForkJoinPool.commonPool();
+		this.categorias = lasCategorias;
+		this.existePortada = elExistePortada;
+		this.opciones = lasOpciones;
+	}
+
+	// ************************************************************************
+	// Métodos
+	// ************************************************************************
+
+	/**
+	 * Consulta si un archivo se puede procesar en paralelo. Los archivos mapeados
+	 * en memoria con un solo buffer no pueden pasar de 2 GB.
+	 *
+	 * @param nombreArchivo El nombre del archivo
+	 * @return Retorna true si el archivo se puede procesar con esta clase
+	 * @throws IOException Se lanza esta excepción si no se puede consultar el
+	 *                     archivo
+	 */
+	public static boolean puedeProcesar(String nombreArchivo) throws IOException
+	{
+		try (FileChannel canal = FileChannel.open(Paths.get(nombreArchivo), StandardOpenOption.READ))
+		{
+			return canal.size() <= Integer.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Lee todas las filas del archivo de libros, ignorando la primera línea que
+	 * tiene los títulos.
+	 *
+	 * @param nombreArchivoLibros El nombre del archivo CSV con los libros
+	 * @return Una lista con las filas de cada parte, en el orden del archivo
+	 * @throws IOException Se lanza esta excepción si hay algún problema leyendo el
+	 *                     archivo, o una InterruptedIOException si se canceló la
+	 *                     carga
+	 */
+	public ArrayList<ArrayList<FilaLibro>> leerFilas(String nombreArchivoLibros) throws IOException
+	{
+		MappedByteBuffer datos;
+		try (FileChannel canal = FileChannel.open(Paths.get(nombreArchivoLibros), StandardOpenOption.READ))
+		{
+			datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+		}
+
+		int[] cortes = calcularCortes(datos);
+
+		ArrayList<ForkJoinTask<ArrayList<FilaLibro>>> tareas = new ArrayList<ForkJoinTask<ArrayList<FilaLibro>>>();
+		for (int i = 0; i + 1 < cortes.length; i++)
+		{
+			ByteBuffer parte = datos.duplicate();
+			parte.limit(cortes[i + 1]);
+			parte.position(cortes[i]);
+			tareas.add(pool.submit(() -> leerParte(parte)));
+		}
+
+		ArrayList<ArrayList<FilaLibro>> resultado = new ArrayList<ArrayList<FilaLibro>>();
+		long filas = 0;
+		try
+		{
+			for (int i = 0; i < tareas.size(); i++)
+			{
+				ArrayList<FilaLibro> parte = esperar(tareas.get(i));
+				resultado.add(parte);
+				filas += parte.size();
+				opciones.informarAvance(filas, cortes[i + 1], datos.limit());
+			}
+		}
+		catch (IOException | RuntimeException e)
+		{
+			for (ForkJoinTask<ArrayList<FilaLibro>> tarea : tareas)
+			{
+				tarea.cancel(true);
+			}
+			throw e;
+		}
+		return resultado;
+	}
+
+	/**
+	 * Calcula dónde empieza cada parte del archivo. Cada corte está justo después
+	 * de un salto de línea que no está dentro de comillas, así que ningún
+	 * registro queda dividido entre dos partes. El primer corte está después de la
+	 * línea de títulos.
+	 *
+	 * Primero se divide el archivo en bloques del mismo tamaño y se cuentan en
+	 * paralelo las comillas de cada bloque. Con la paridad de las cuentas de los
+	 * bloques anteriores se sabe si el comienzo de cada bloque está dentro de
+	 * comillas, y el corte se ubica en el primer salto de línea que no está
+	 * dentro de comillas desde ese comienzo. Así el único recorrido completo del
+	 * archivo se hace en paralelo; en este hilo solamente se recorre el final de
+	 * la línea en la que cae cada bloque.
+	 *
+	 * @param datos Los bytes del archivo
+	 * @return Las posiciones de los cortes. El último es el tamaño del archivo.
+	 * @throws IOException Se lanza esta excepción si no se pudieron contar las
+	 *                     comillas, o una InterruptedIOException si se
+	 *                     interrumpió la carga
+	 */
+	private int[] calcularCortes(ByteBuffer datos) throws IOException
+	{
+		int tamano = datos.limit();
+		int inicio = buscarFinDeLinea(datos, 0, false);
+		int partes = Math.max(1,
+				Math.min(pool.getParallelism() * PARTES_POR_HILO, (tamano - inicio) / TAMANO_MINIMO_PARTE));
+		int tamanoParte = Math.max(1, (tamano - inicio) / partes);
+
+		int[] bloques = new int[partes + 1];
+		for (int i = 0; i < partes; i++)
+		{
+			bloques[i] = inicio + i * tamanoParte;
+		}
+		bloques[partes] = tamano;
+
+		ArrayList<ForkJoinTask<Integer>> conteos = new ArrayList<ForkJoinTask<Integer>>();
+		for (int i = 1; i < partes; i++)
+		{
+			int desde = bloques[i - 1];
+			int hasta = bloques[i];
+			conteos.add(pool.submit(() -> contarComillas(datos, desde, hasta)));
+		}
+
+		ArrayList<Integer> cortes = new ArrayList<Integer>();
+		cortes.add(inicio);
+		boolean enComillas = false;
+		for (int i = 1; i < partes; i++)
+		{
+			enComillas ^= (esperar(conteos.get(i - 1)) & 1) == 1;
+			int corte = buscarFinDeLinea(datos, bloques[i], enComillas);
+			if (corte > cortes.get(cortes.size() - 1) && corte < tamano)
+			{
+				cortes.add(corte);
+			}
+		}
+		if (cortes.get(cortes.size() - 1) != tamano)
+		{
+			cortes.add(tamano);
+		}
+
+		int[] resultado = new int[cortes.size()];
+		for (int i = 0; i < resultado.length; i++)
+		{
+			resultado[i] = cortes.get(i);
+		}
+		return resultado;
+	}
+
+	/**
+	 * Busca el final de la línea en la que está una posición del archivo: el
+	 * primer salto de línea desde esa posición que no está dentro de comillas.
+	 *
+	 * @param datos      Los bytes del archivo
+	 * @param desde      La posición desde la que se busca
+	 * @param enComillas Indica si la posición está dentro de comillas
+	 * @return La posición siguiente al salto de línea, o el tamaño del archivo si
+	 *         no hay ninguno
+	 */
+	private static int buscarFinDeLinea(ByteBuffer datos, int desde, boolean enComillas)
+	{
+		int tamano = datos.limit();
+		for (int i = desde; i < tamano; i++)
+		{
+			byte b = datos.get(i);
+			if (b == '"')
+			{
+				enComillas = !enComillas;
+			}
+			else if (b == '\n' && !enComillas)
+			{
+				return i + 1;
+			}
+		}
+		return tamano;
+	}
+
+	/**
+	 * Cuenta las comillas de un bloque del archivo, leyendo los bytes por lotes.
+	 * Se ejecuta en un hilo del pool.
+	 *
+	 * @param datos Los bytes del archivo
+	 * @param desde La posición donde empieza el bloque
+	 * @param hasta La posición donde termina el bloque, sin incluirla
+	 * @return La cantidad de comillas del bloque
+	 */
+	private static int contarComillas(ByteBuffer datos, int desde, int hasta)
+	{
+		byte[] lote = new byte[64 * 1024];
+		int comillas = 0;
+		for (int posicion = desde; posicion < hasta; posicion += lote.length)
+		{
+			int longitud = Math.min(lote.length, hasta - posicion);
+			datos.get(posicion, lote, 0, longitud);
+			for (int i = 0; i < longitud; i++)
+			{
+				if (lote[i] == '"')
+				{
+					comillas++;
+				}
+			}
+		}
+		return comillas;
+	}
+
+	/**
+	 * Procesa una parte del archivo. Se ejecuta en un hilo del pool.
+	 *
+	 * @param parte Los bytes de la parte
+	 * @return Las filas de la parte, en orden
+	 */
+	private ArrayList<FilaLibro> leerParte(ByteBuffer parte)
+	{
+		ArrayList<FilaLibro> filas = new ArrayList<FilaLibro>();
+		LectorCSV lector = new LectorCSV(parte);
+		try
+		{
+			while (lector.siguienteRegistro())
+			{
+				FilaLibro fila = new FilaLibro();
+				fila.titulo = lector.darTexto(0);
+				fila.autor = lector.darTexto(1);
+				fila.calificacion = lector.darDouble(2);
+				fila.nombreCategoria = lector.darTexto(3);
+				fila.categoria = categorias.buscar(fila.nombreCategoria);
+				fila.portada = lector.darTexto(4);
+				fila.ancho = lector.darEntero(5);
+				fila.alto = lector.darEntero(6);
+				fila.tienePortada = existePortada.test(fila.portada);
+				filas.add(fila);
+			}
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		return filas;
+	}
+
+	/**
+	 * Espera a que termine una tarea y retorna su resultado, relanzando los
+	 * errores de la tarea
+	 *
+	 * @param tarea La tarea
+	 * @return El resultado de la tarea
+	 * @throws IOException Se lanza esta excepción si la tarea tuvo un problema
+	 *                     leyendo el archivo
+	 */
+	private static <T> T esperar(ForkJoinTask<T> tarea) throws IOException
+	{
+		try
+		{
+			return tarea.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			InterruptedIOException interrumpida = new InterruptedIOException("Se interrumpió la carga del catálogo");
+			interrumpida.initCause(e);
+			throw interrumpida;
+		}
+		catch (ExecutionException e)
+		{
+			Throwable causa = e.getCause();
+			if (causa instanceof UncheckedIOException)
+			{
+				throw ((UncheckedIOException) causa).getCause();
+			}
+			if (causa instanceof RuntimeException)
+			{
+				throw (RuntimeException) causa;
+			}
+			throw new IOException(causa);
+		}
+	}
+
+	// ************************************************************************
+	// Clases anidadas
+	// ************************************************************************
+
+	/**
+	 * Los datos de una fila del archivo de libros
+	 */
+	public static final class FilaLibro
+	{
+		String titulo;
+
+		String autor;
+
+		double calificacion;
+
+		String nombreCategoria;
+
+		/**
+		 * La categoría de la fila si ya existía antes de la carga, o null si la
+		 * categoría se tiene que crear
+		 */
+		Categoria categoria;
+
+		String portada;
+
+		int ancho;
+
+		int alto;
+
+		boolean tienePortada;
+	}
+
+}
@@ -0,0 +1,87 @@
+package uniandes.dpoo.taller1.modelo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CargadorParaleloTest
+{
+	@TempDir
+	Path carpeta;
+
+	private String archivoCategorias;
+
+	private String archivoLibros;
+
+	@BeforeEach
+	void setUp() throws Exception
+	{
+		archivoCategorias = carpeta.resolve("categorias.csv").toString();
+		archivoLibros = carpeta.resolve("libros.csv").toString();
+		Files.write(Path.of(archivoCategorias),
+				"Categoria,ficcion\nNovela,true\nHistoria,false\n".getBytes(StandardCharsets.UTF_8));
+	}
+
+	private String describir(Libreria libreria)
+	{
+		StringBuilder descripcion = new StringBuilder();
+		for (Libro libro : libreria.darLibros())
+		{
+			descripcion.append(libro).append(' ').append(libro.darCalificacion()).append(' ')
+					.append(libro.darCategoria().darNombre()).append('\n');
+		}
+		return descripcion.toString();
+	}
+
+	/**
+	 * Un archivo de varias partes, con títulos entre comillas que tienen saltos
+	 * de línea y comillas dobles, y con líneas largas, se carga en paralelo igual
+	 * que en secuencia aunque los bloques empiecen dentro de comillas
+	 */
+	@Test
+	void testCortesDentroDeComillas() throws Exception
+	{
+		StringBuilder contenido = new StringBuilder("Titulo,Autor,Calificacion,Categoria,Portada,Ancho,Alto\n");
+		String relleno = "x".repeat(3000);
+		int i = 0;
+		while (contenido.length() < 12 * 1024 * 1024)
+		{
+			String titulo;
+			switch (i % 4)
+			{
+			case 0:
+				titulo = "\"Libro " + i + "\nsegunda línea, con \"\"comillas\"\"\n" + relleno + "\"";
+				break;
+			case 1:
+				titulo = "\"Libro " + i + " con \"\"\n\"\" en medio\"";
+				break;
+			case 2:
+				titulo = "Libro " + i + " " + relleno;
+				break;
+			default:
+				titulo = "Libro " + i;
+				break;
+			}
+			contenido.append(titulo).append(",Autor ").append(i % 97).append(',').append(i % 5)
+					.append(i % 2 == 0 ? ",Novela" : ",Historia").append(",,0,0\n");
+			i++;
+		}
+		Files.write(Path.of(archivoLibros), contenido.toString().getBytes(StandardCharsets.UTF_8));
+
+		Libreria secuencial = new Libreria(archivoCategorias, archivoLibros);
+		Libreria paralela = new Libreria(archivoCategorias, archivoLibros,
+				new OpcionesCarga().cambiarCargaParalela(true));
+		assertEquals(i, secuencial.darLibros().size());
+		assertEquals(describir(secuencial), describir(paralela));
+		ArrayList<Libro> libros = paralela.darLibros();
+		assertTrue(libros.get(0).darTitulo().contains("\nsegunda línea, con \"comillas\"\n"));
+	}
+
+}
@@ -1,6 +1,8 @@
 package uniandes.dpoo.taller1.modelo;
 
 import java.util.ArrayList;
+import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * Esta clase representa a una categoría de libros dentro de la librería. Cada
@@ -28,6 +30,28 @@ public class Categoria
 	 */
 	private ArrayList<Libro> libros;
 
+	/**
+	 * Identificador de la categoría dentro del registro de la librería. Vale -1
+	 * mientras la categoría no se haya registrado.
+	 */
+	private int id;
+
+	/**
+	 * Suma de las calificaciones de los libros de la categoría
+	 */
+	private double sumaCalificaciones;
+
+	/**
+	 * Cantidad de libros de la categoría que no tienen portada
+	 */
+	private int librosSinPortada;
+
+	/**
+	 * Estadísticas del catálogo al que pertenece la categoría. Vale null mientras
+	 * la categoría no se haya registrado en una librería.
+	 */
+	private EstadisticasCatalogo estadisticas;
+
 	// ************************************************************************
 	// Constructores
 	// ************************************************************************
@@ -37,6 +61,10 @@ public class Categoria
 		this.nombre = nombre;
 		this.ficcion = ficcion;
 		this.libros = new ArrayList<Libro>();
+		this.id = -1;
+		this.sumaCalificaciones = 0;
+		this.librosSinPortada = 0;
+		this.estadisticas = null;
 	}
 
 	// ************************************************************************
@@ -64,6 +92,61 @@ public class Categoria
 		return ficcion;
 	}
 
+	/**
+	 * Consulta el identificador de la categoría, que corresponde a su posición
+	 * dentro del registro de categorías de la librería.
+	 * 
+	 * @return id
+	 */
+	public int darId()
+	{
+		return id;
+	}
+
+	/**
+	 * Cambia el nombre de la categoría. Solamente lo usa el registro de categorías,
+	 * que es el que verifica que el nombre no esté repetido.
+	 * 
+	 * @param nuevoNombre El nuevo nombre de la categoría
+	 */
+	void cambiarNombre(String nuevoNombre)
+	{
+		this.nombre = nuevoNombre;
+	}
+
+	/**
+	 * Cambia el identificador de la categoría. Solamente lo usa el registro de
+	 * categorías al registrarla.
+	 * 
+	 * @param nuevoId El identificador asignado por el registro
+	 */
+	void asignarId(int nuevoId)
+	{
+		this.id = nuevoId;
+	}
+
+	/**
+	 * Conecta la categoría con las estadísticas del catálogo en el que se
+	 * registró, que desde ese momento reciben cada cambio en sus libros.
+	 * 
+	 * @param lasEstadisticas Las estadísticas del catálogo
+	 */
+	void asignarEstadisticas(EstadisticasCatalogo lasEstadisticas)
+	{
+		this.estadisticas = lasEstadisticas;
+		lasEstadisticas.registrarCategoria(this);
+	}
+
+	/**
+	 * Consulta la suma de las calificaciones de los libros de la categoría
+	 * 
+	 * @return sumaCalificaciones
+	 */
+	public double darSumaCalificaciones()
+	{
+		return sumaCalificaciones;
+	}
+
 	/**
 	 * Retorna la lista de libros que hacen parte de la categoría
 	 * 
@@ -85,7 +168,141 @@ public class Categoria
 	 */
 	public void agregarLibro(Libro nuevoLibro)
 	{
+		int sinPortada = nuevoLibro.tienePortada() ? 0 : 1;
+		antesDeCambiar();
 		libros.add(nuevoLibro);
+		actualizarTotales(1, nuevoLibro.darCalificacion(), sinPortada);
+	}
+
+	/**
+	 * Ordena los libros de la categoría según su orden en el catálogo. Lo usa la
+	 * librería después de agregar o mover libros que no van al final.
+	 */
+	void ordenarLibros()
+	{
+		libros.sort(Libro.ORDEN_CATALOGO);
+	}
+
+	/**
+	 * Elimina de la categoría todos los libros de los autores indicados. La lista
+	 * de libros se compacta en una sola pasada.
+	 * 
+	 * @param autores Los nombres exactos de los autores
+	 * @return La cantidad de libros eliminados
+	 */
+	public int eliminarLibrosDeAutores(Set<String> autores)
+	{
+		return eliminarSi(libro -> autores.contains(libro.darAutor()));
+	}
+
+	/**
+	 * Elimina de la categoría los libros indicados. La lista de libros se
+	 * compacta en una sola pasada.
+	 * 
+	 * @param eliminados Los libros que se van a eliminar. Puede incluir libros de
+	 *                   otras categorías, que se ignoran.
+	 * @return La cantidad de libros eliminados
+	 */
+	public int eliminarLibros(Set<Libro> eliminados)
+	{
+		return eliminarSi(eliminados::contains);
+	}
+
+	/**
+	 * Elimina de la categoría los libros que cumplen una condición, en una sola
+	 * pasada, y actualiza los totales
+	 * 
+	 * @param condicion La condición que cumplen los libros que se eliminan
+	 * @return La cantidad de libros eliminados
+	 */
+	private int eliminarSi(Predicate<Libro> condicion)
+	{
+		double sumaEliminada = 0;
+		int sinPortadaEliminados = 0;
+		for (Libro libro : libros)
+		{
+			if (condicion.test(libro))
+			{
+				sumaEliminada += libro.darCalificacion();
+				sinPortadaEliminados += libro.tienePortada() ? 0 : 1;
+			}
+		}
+
+		int antes = libros.size();
+		antesDeCambiar();
+		libros.removeIf(condicion);
+		int eliminados = antes - libros.size();
+		actualizarTotales(-eliminados, -sumaEliminada, -sinPortadaEliminados);
+
+		return eliminados;
+	}
+
+	/**
+	 * Registra que uno de los libros de la categoría cambió de portada
+	 * 
+	 * @param teniaPortada Indica si el libro tenía portada antes del cambio
+	 * @param tienePortada Indica si el libro tiene portada después del cambio
+	 */
+	void cambioPortada(boolean teniaPortada, boolean tienePortada)
+	{
+		if (teniaPortada != tienePortada)
+		{
+			antesDeCambiar();
+			actualizarTotales(0, 0, tienePortada ? -1 : 1);
+		}
+	}
+
+	/**
+	 * Registra que uno de los libros de la categoría cambió de calificación
+	 * 
+	 * @param anterior La calificación que tenía el libro
+	 * @param nueva    La calificación que tiene el libro ahora
+	 */
+	void cambioCalificacion(double anterior, double nueva)
+	{
+		if (Double.compare(anterior, nueva) != 0)
+		{
+			antesDeCambiar();
+			actualizarTotales(0, nueva - anterior, 0);
+		}
+	}
+
+	/**
+	 * Le avisa a las estadísticas del catálogo que los libros de la categoría van
+	 * a cambiar
+	 */
+	private void antesDeCambiar()
+	{
+		if (estadisticas != null)
+		{
+			estadisticas.antesDeCambiar(this);
+		}
+	}
+
+	/**
+	 * Actualiza los totales de la categoría después de un cambio en sus libros y
+	 * se los informa a las estadísticas del catálogo.
+	 * 
+	 * La suma de las calificaciones solamente se ajusta con diferencias, que
+	 * pueden dejar un residuo de redondeo. Por eso, cuando la categoría queda
+	 * vacía, la suma vuelve a ser exactamente 0 y su promedio vuelve a ser NaN.
+	 * 
+	 * @param deltaLibros     Cambio en la cantidad de libros
+	 * @param deltaSuma       Cambio en la suma de las calificaciones
+	 * @param deltaSinPortada Cambio en la cantidad de libros sin portada
+	 */
+	private void actualizarTotales(int deltaLibros, double deltaSuma, int deltaSinPortada)
+	{
+		if (libros.isEmpty())
+		{
+			deltaSuma = -sumaCalificaciones;
+		}
+		sumaCalificaciones += deltaSuma;
+		librosSinPortada += deltaSinPortada;
+		if (estadisticas != null)
+		{
+			estadisticas.despuesDeCambiar(this, deltaLibros, deltaSuma, deltaSinPortada);
+		}
 	}
 
 	/**
@@ -98,6 +315,16 @@ public class Categoria
 		return libros.size();
 	}
 
+	/**
+	 * Cuenta la cantidad de libros de la categoría que no tienen portada
+	 * 
+	 * @return Cantidad de libros sin portada
+	 */
+	public int contarLibrosSinPortada()
+	{
+		return librosSinPortada;
+	}
+
 	/**
 	 * Calcula la calificación promedio de los libros que pertenecen a la categoría
 	 * 
@@ -105,14 +332,7 @@ public class Categoria
 	 */
 	public double calificacionPromedio()
 	{
-		double total = 0;
-
-		for (Libro libro : libros)
-		{
-			total += libro.darCalificacion();
-		}
-
-		return total / (double) libros.size();
+		return sumaCalificaciones / (double) libros.size();
 	}
 
 	/**
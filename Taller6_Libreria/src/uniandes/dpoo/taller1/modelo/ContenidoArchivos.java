@@ -0,0 +1,348 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Esta clase guarda lo que dicen los archivos CSV de una librería en un momento
+ * dado, fila por fila, sin construir libros ni índices. Sirve para comparar dos
+ * versiones de los archivos y encontrar qué cambió (ver DiferenciaCatalogo).
+ *
+ * Cada fila del archivo de libros se identifica por su clave: el título, el
+ * autor y cuántas filas anteriores tienen ese mismo título y autor. Así las
+ * filas repetidas también tienen una clave distinta, y la primera aparición de
+ * un libro conserva su clave aunque después aparezcan otras. Cada fila también
+ * recuerda su posición en el archivo, que es el orden que tiene su libro en el
+ * catálogo.
+ */
+public class ContenidoArchivos
+{
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * Las categorías del archivo de categorías, en el orden del archivo, con un
+	 * valor que indica si son de ficción
+	 */
+	private LinkedHashMap<String, Boolean> categorias;
+
+	/**
+	 * Las filas del archivo de libros, en el orden del archivo
+	 */
+	private ArrayList<Fila> filas;
+
+	/**
+	 * Las filas del archivo de libros según su clave. Cada fila es su propia
+	 * clave.
+	 */
+	private HashMap<Fila, Fila> porClave;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye un contenido vacío
+	 */
+	private ContenidoArchivos()
+	{
+		this.categorias = new LinkedHashMap<String, Boolean>();
+		this.filas = new ArrayList<Fila>();
+		this.porClave = new HashMap<Fila, Fila>();
+	}
+
+	// ************************************************************************
+	// Métodos para consultar los atributos
+	// ************************************************************************
+
+	/**
+	 * Retorna las categorías del archivo de categorías
+	 *
+	 * @return Un mapa que no se puede modificar, con un valor que indica si cada
+	 *         categoría es de ficción
+	 */
+	public Map<String, Boolean> darCategorias()
+	{
+		return Collections.unmodifiableMap(categorias);
+	}
+
+	/**
+	 * Retorna las filas del archivo de libros
+	 *
+	 * @return Una lista que no se puede modificar, en el orden del archivo
+	 */
+	public List<Fila> darFilas()
+	{
+		return Collections.unmodifiableList(filas);
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	/**
+	 * Lee los archivos CSV de una librería. Las categorías repetidas se cuentan
+	 * una sola vez, como al cargar la librería.
+	 *
+	 * @param nombreArchivoCategorias El nombre del archivo CSV de categorías
+	 * @param nombreArchivoLibros     El nombre del archivo CSV de libros
+	 * @return El contenido de los archivos
+	 * @throws IOException Se lanza esta excepción si hay algún problema leyendo
+	 *                     alguno de los archivos
+	 */
+	public static ContenidoArchivos leer(String nombreArchivoCategorias, String nombreArchivoLibros)
+			throws IOException
+	{
+		ContenidoArchivos contenido = new ContenidoArchivos();
+
+		LectorCSV lector = new LectorCSV(nombreArchivoCategorias);
+		try
+		{
+			lector.siguienteRegistro(); // Ignorar la primera línea porque tiene los títulos
+			while (lector.siguienteRegistro())
+			{
+				contenido.categorias.putIfAbsent(lector.darTexto(0), lector.esIgual(1, "true"));
+			}
+		}
+		finally
+		{
+			lector.close();
+		}
+
+		// Los autores se repiten mucho más que los títulos, así que se guarda una
+		// sola cadena por autor.
+		DiccionarioCarga diccionario = new DiccionarioCarga();
+		HashMap<Fila, Integer> ocurrencias = new HashMap<Fila, Integer>();
+		lector = new LectorCSV(nombreArchivoLibros);
+		try
+		{
+			lector.siguienteRegistro(); // Ignorar la primera línea porque tiene los títulos
+			while (lector.siguienteRegistro())
+			{
+				String elTitulo = lector.darTexto(0);
+				String elAutor = diccionario.internarAutor(lector.darTexto(1));
+				Fila primera = new Fila(elTitulo, elAutor, 0);
+				int ocurrencia = ocurrencias.merge(primera, 1, Integer::sum) - 1;
+
+				Fila fila = new Fila(elTitulo, elAutor, ocurrencia);
+				if (ocurrencia == 1)
+				{
+					contenido.porClave.get(primera).repetida = true;
+				}
+				fila.posicion = contenido.filas.size();
+				fila.calificacion = lector.darDouble(2);
+				fila.categoria = lector.darTexto(3);
+				fila.portada = lector.darTexto(4);
+				fila.ancho = lector.darEntero(5);
+				fila.alto = lector.darEntero(6);
+				contenido.filas.add(fila);
+				contenido.porClave.put(fila, fila);
+			}
+		}
+		finally
+		{
+			lector.close();
+		}
+		return contenido;
+	}
+
+	/**
+	 * Busca la fila que tiene la misma clave que otra fila
+	 *
+	 * @param clave La fila con la clave que se busca, que puede ser de otro
+	 *              contenido
+	 * @return La fila de este contenido con esa clave, o null si no hay ninguna
+	 */
+	public Fila buscar(Fila clave)
+	{
+		return porClave.get(clave);
+	}
+
+	/**
+	 * Calcula la posición en el archivo de la fila de cada libro de una lista.
+	 * La clave de cada libro se calcula como la de las filas: su título, su autor
+	 * y cuántos libros anteriores de la lista tienen ese mismo título y autor.
+	 *
+	 * @param libros Los libros, en el orden del catálogo
+	 * @return La posición de la fila de cada libro, o -1 para los libros cuya
+	 *         clave no está en el archivo
+	 */
+	int[] calcularPosiciones(List<Libro> libros)
+	{
+		// Solamente se cuentan las apariciones de los títulos y autores repetidos,
+		// que son pocos
+		HashMap<Fila, Integer> apariciones = new HashMap<Fila, Integer>();
+		int[] posiciones = new int[libros.size()];
+		for (int i = 0; i < posiciones.length; i++)
+		{
+			Libro libro = libros.get(i);
+			Fila clave = new Fila(libro.darTitulo(), libro.darAutor(), 0);
+			Fila fila = porClave.get(clave);
+			if (fila != null && fila.repetida)
+			{
+				int ocurrencia = apariciones.merge(clave, 1, Integer::sum) - 1;
+				if (ocurrencia > 0)
+				{
+					fila = porClave.get(new Fila(clave.titulo, clave.autor, ocurrencia));
+				}
+			}
+			posiciones[i] = fila == null ? -1 : fila.posicion;
+		}
+		return posiciones;
+	}
+
+	// ************************************************************************
+	// Clases anidadas
+	// ************************************************************************
+
+	/**
+	 * Una fila del archivo de libros. Dos filas son iguales si tienen la misma
+	 * clave, aunque tengan datos distintos.
+	 */
+	public static final class Fila
+	{
+		private final String titulo;
+
+		private final String autor;
+
+		/**
+		 * Cuántas filas anteriores del archivo tienen el mismo título y autor
+		 */
+		private final int ocurrencia;
+
+		/**
+		 * La posición de la fila en el archivo, sin contar la primera línea
+		 */
+		private int posicion;
+
+		/**
+		 * Indica si hay más filas con el mismo título y autor. Solamente se marca
+		 * en la primera de ellas.
+		 */
+		private boolean repetida;
+
+		private double calificacion;
+
+		/**
+		 * El nombre de la categoría
+		 */
+		private String categoria;
+
+		/**
+		 * La ruta del archivo de la portada, relativa a la carpeta "data"
+		 */
+		private String portada;
+
+		private int ancho;
+
+		private int alto;
+
+		/**
+		 * Construye una fila sin datos, que sirve como clave
+		 *
+		 * @param elTitulo     El título del libro
+		 * @param elAutor      El autor del libro
+		 * @param laOcurrencia Cuántas filas anteriores tienen el mismo título y
+		 *                     autor
+		 */
+		private Fila(String elTitulo, String elAutor, int laOcurrencia)
+		{
+			this.titulo = elTitulo;
+			this.autor = elAutor;
+			this.ocurrencia = laOcurrencia;
+		}
+
+		public String darTitulo()
+		{
+			return titulo;
+		}
+
+		public String darAutor()
+		{
+			return autor;
+		}
+
+		public int darOcurrencia()
+		{
+			return ocurrencia;
+		}
+
+		public int darPosicion()
+		{
+			return posicion;
+		}
+
+		public double darCalificacion()
+		{
+			return calificacion;
+		}
+
+		public String darCategoria()
+		{
+			return categoria;
+		}
+
+		public String darPortada()
+		{
+			return portada;
+		}
+
+		public int darAncho()
+		{
+			return ancho;
+		}
+
+		public int darAlto()
+		{
+			return alto;
+		}
+
+		/**
+		 * Compara los datos de esta fila con los de otra, sin tener en cuenta la
+		 * clave
+		 *
+		 * @param otra La otra fila
+		 * @return Retorna true si la calificación, la categoría y la portada son
+		 *         iguales
+		 */
+		public boolean tieneMismosDatos(Fila otra)
+		{
+			return Double.compare(calificacion, otra.calificacion) == 0 && categoria.equals(otra.categoria)
+					&& portada.equals(otra.portada) && ancho == otra.ancho && alto == otra.alto;
+		}
+
+		@Override
+		public String toString()
+		{
+			return titulo + " (" + autor + ")";
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+			{
+				return true;
+			}
+			if (!(obj instanceof Fila))
+			{
+				return false;
+			}
+			Fila otra = (Fila) obj;
+			return ocurrencia == otra.ocurrencia && titulo.equals(otra.titulo) && autor.equals(otra.autor);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return (titulo.hashCode() * 31 + autor.hashCode()) * 31 + ocurrencia;
+		}
+	}
+
+}
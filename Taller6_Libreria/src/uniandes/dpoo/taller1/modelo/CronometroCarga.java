@@ -0,0 +1,231 @@
+package uniandes.dpoo.taller1.modelo;
+
+/**
+ * Esta clase mide cuánto tiempo se va en cada fase del procesamiento de las
+ * filas de un archivo durante la carga de la librería.
+ *
+ * Medir todas las filas costaría varias llamadas a System.nanoTime por fila,
+ * así que solamente se mide una de cada cierta cantidad de filas. El tiempo
+ * total del recorrido sí se mide completo, y se reparte entre las fases en la
+ * proporción que se observó en las filas medidas. La primera fila nunca se
+ * mide, porque carga con costos que ocurren una sola vez, como leer la carpeta
+ * de las portadas, y tampoco se tienen en cuenta las filas medidas que tardan
+ * más de {@link #FILA_DEMORADA} nanosegundos, que casi siempre coinciden con
+ * una pausa del recolector de basura: una sola de ellas pesaría más que miles
+ * de filas normales en el reparto. Un cronómetro inactivo no mide nada y sus
+ * métodos no hacen más que revisar un atributo.
+ *
+ * Las fases de cada fila se marcan en orden: al marcar una fase se le asigna el
+ * tiempo transcurrido desde la marca anterior, o desde el inicio de la fila.
+ */
+class CronometroCarga
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Leer la siguiente fila del archivo y separar sus campos
+	 */
+	static final int LECTURA = 0;
+
+	/**
+	 * Convertir los campos en cadenas y números
+	 */
+	static final int CONVERSION = 1;
+
+	/**
+	 * Buscar la categoría de la fila, o crearla si no existe
+	 */
+	static final int CATEGORIAS = 2;
+
+	/**
+	 * Crear el libro y agregarlo al catálogo y a los índices
+	 */
+	static final int REGISTRO = 3;
+
+	/**
+	 * Verificar que exista el archivo de la portada y asignársela al libro
+	 */
+	static final int PORTADAS = 4;
+
+	/**
+	 * Duración a partir de la cual una fila medida no se usa para repartir el
+	 * tiempo entre las fases
+	 */
+	static final long FILA_DEMORADA = 1_000_000L;
+
+	/**
+	 * Los nombres de las fases, en el orden de sus constantes
+	 */
+	static final String[] NOMBRES = { "lectura", "conversion", "categorias", "registro", "portadas" };
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * Cada cuántas filas se mide una, o 0 si el cronómetro está inactivo
+	 */
+	private int muestreo;
+
+	/**
+	 * Cantidad de filas iniciadas
+	 */
+	private long filas;
+
+	/**
+	 * Indica si se está midiendo la fila actual
+	 */
+	private boolean midiendo;
+
+	/**
+	 * El momento de la última marca de la fila actual
+	 */
+	private long ultimaMarca;
+
+	/**
+	 * Los nanosegundos medidos en cada fase, en las filas medidas
+	 */
+	private long[] medidos;
+
+	/**
+	 * Los nanosegundos medidos en cada fase de la fila actual
+	 */
+	private long[] medidosFila;
+
+	/**
+	 * El momento en el que empezó el recorrido
+	 */
+	private long inicio;
+
+	/**
+	 * La duración total del recorrido en nanosegundos
+	 */
+	private long total;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye un cronómetro
+	 *
+	 * @param elMuestreo Cada cuántas filas se mide una. Con 1 se miden todas, y
+	 *                   con 0 el cronómetro queda inactivo.
+	 */
+	CronometroCarga(int elMuestreo)
+	{
+		this.muestreo = elMuestreo;
+		this.medidos = new long[NOMBRES.length];
+		this.medidosFila = new long[NOMBRES.length];
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	/**
+	 * Indica que empieza el recorrido de las filas
+	 */
+	void iniciar()
+	{
+		if (muestreo > 0)
+		{
+			inicio = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Indica que terminó el recorrido de las filas
+	 */
+	void terminar()
+	{
+		if (muestreo > 0)
+		{
+			total += System.nanoTime() - inicio;
+			terminarFila();
+		}
+	}
+
+	/**
+	 * Indica que empieza una fila nueva, y decide si se mide
+	 */
+	void iniciarFila()
+	{
+		if (midiendo)
+		{
+			terminarFila();
+		}
+		midiendo = muestreo > 0 && ++filas % muestreo == 0;
+		if (midiendo)
+		{
+			ultimaMarca = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Le asigna a una fase el tiempo transcurrido desde la marca anterior de la
+	 * fila, si la fila se está midiendo
+	 *
+	 * @param fase La fase que acaba de terminar
+	 */
+	void marcar(int fase)
+	{
+		if (midiendo)
+		{
+			long ahora = System.nanoTime();
+			medidosFila[fase] += ahora - ultimaMarca;
+			ultimaMarca = ahora;
+		}
+	}
+
+	/**
+	 * Suma las fases de la fila medida a las de las filas anteriores, a menos
+	 * que la fila se haya demorado demasiado
+	 */
+	private void terminarFila()
+	{
+		long duracion = 0;
+		for (long medido : medidosFila)
+		{
+			duracion += medido;
+		}
+		for (int i = 0; i < medidosFila.length; i++)
+		{
+			if (duracion < FILA_DEMORADA)
+			{
+				medidos[i] += medidosFila[i];
+			}
+			medidosFila[i] = 0;
+		}
+		midiendo = false;
+	}
+
+	/**
+	 * Consulta la duración total del recorrido
+	 *
+	 * @return Los nanosegundos entre iniciar y terminar
+	 */
+	long darTotalNanos()
+	{
+		return total;
+	}
+
+	/**
+	 * Estima el tiempo total de una fase en todas las filas
+	 *
+	 * @param fase La fase
+	 * @return Los nanosegundos estimados, o 0 si no se midió ninguna fila
+	 */
+	long estimarNanos(int fase)
+	{
+		long medidoTotal = 0;
+		for (long medido : medidos)
+		{
+			medidoTotal += medido;
+		}
+		return medidoTotal == 0 ? 0 : Math.round((double) total * medidos[fase] / medidoTotal);
+	}
+
+}
@@ -0,0 +1,188 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.util.HashMap;
+
+/**
+ * Esta clase evita que la carga del catálogo deje en memoria copias repetidas
+ * de los mismos datos.
+ *
+ * Cada fila del archivo de libros produce una cadena nueva con el nombre del
+ * autor y una imagen nueva para la portada, aunque haya muchos menos autores
+ * que libros. El diccionario guarda la primera instancia de cada valor y la
+ * entrega en lugar de las siguientes, que quedan libres para el recolector de
+ * basura. Como todos los libros de un autor comparten la misma cadena, las
+ * comparaciones entre nombres de autores se resuelven por referencia (equals
+ * compara primero las referencias) y el hash de cada nombre se calcula una
+ * sola vez.
+ *
+ * El diccionario se usa solamente durante la carga. Al terminar se libera, y
+ * conserva las cifras de cuántas consultas encontraron un valor repetido.
+ */
+public class DiccionarioCarga
+{
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * La instancia que se conserva de cada nombre de autor
+	 */
+	private HashMap<String, String> autores;
+
+	/**
+	 * La instancia que se conserva de cada imagen (misma ruta y mismo tamaño)
+	 */
+	private HashMap<Imagen, Imagen> imagenes;
+
+	/**
+	 * Cantidad de autores consultados
+	 */
+	private long consultasAutores;
+
+	/**
+	 * Cantidad de autores consultados que ya estaban en el diccionario
+	 */
+	private long aciertosAutores;
+
+	/**
+	 * Cantidad de imágenes consultadas
+	 */
+	private long consultasImagenes;
+
+	/**
+	 * Cantidad de imágenes consultadas que ya estaban en el diccionario
+	 */
+	private long aciertosImagenes;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye un diccionario vacío
+	 */
+	public DiccionarioCarga()
+	{
+		this.autores = new HashMap<String, String>();
+		this.imagenes = new HashMap<Imagen, Imagen>();
+		this.consultasAutores = 0;
+		this.aciertosAutores = 0;
+		this.consultasImagenes = 0;
+		this.aciertosImagenes = 0;
+	}
+
+	// ************************************************************************
+	// Métodos para consultar los atributos
+	// ************************************************************************
+
+	/**
+	 * Consulta la cantidad de autores consultados
+	 *
+	 * @return consultasAutores
+	 */
+	public long darConsultasAutores()
+	{
+		return consultasAutores;
+	}
+
+	/**
+	 * Consulta la cantidad de autores consultados que estaban repetidos
+	 *
+	 * @return aciertosAutores
+	 */
+	public long darAciertosAutores()
+	{
+		return aciertosAutores;
+	}
+
+	/**
+	 * Consulta la cantidad de imágenes consultadas
+	 *
+	 * @return consultasImagenes
+	 */
+	public long darConsultasImagenes()
+	{
+		return consultasImagenes;
+	}
+
+	/**
+	 * Consulta la cantidad de imágenes consultadas que estaban repetidas
+	 *
+	 * @return aciertosImagenes
+	 */
+	public long darAciertosImagenes()
+	{
+		return aciertosImagenes;
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	/**
+	 * Calcula la proporción de consultas, de autores y de imágenes, que
+	 * encontraron un valor repetido
+	 *
+	 * @return Un número entre 0 y 1, o 0 si no se ha consultado nada
+	 */
+	public double calcularProporcionAciertos()
+	{
+		long consultas = consultasAutores + consultasImagenes;
+		return consultas == 0 ? 0 : (double) (aciertosAutores + aciertosImagenes) / consultas;
+	}
+
+	/**
+	 * Retorna la instancia que se conserva del nombre de un autor
+	 *
+	 * @param autor El nombre del autor
+	 * @return La primera instancia con ese nombre que se consultó
+	 */
+	public String internarAutor(String autor)
+	{
+		consultasAutores++;
+		String conservado = autores.putIfAbsent(autor, autor);
+		if (conservado == null)
+		{
+			return autor;
+		}
+		aciertosAutores++;
+		return conservado;
+	}
+
+	/**
+	 * Retorna la instancia que se conserva de una imagen
+	 *
+	 * @param imagen La imagen
+	 * @return La primera imagen con la misma ruta y el mismo tamaño que se
+	 *         consultó
+	 */
+	public Imagen internarImagen(Imagen imagen)
+	{
+		consultasImagenes++;
+		Imagen conservada = imagenes.putIfAbsent(imagen, imagen);
+		if (conservada == null)
+		{
+			return imagen;
+		}
+		aciertosImagenes++;
+		return conservada;
+	}
+
+	/**
+	 * Libera las instancias guardadas. Las cifras de consultas y aciertos se
+	 * conservan.
+	 */
+	public void liberar()
+	{
+		autores = new HashMap<String, String>();
+		imagenes = new HashMap<Imagen, Imagen>();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "autores " + aciertosAutores + "/" + consultasAutores + ", imágenes " + aciertosImagenes + "/"
+				+ consultasImagenes;
+	}
+
+}
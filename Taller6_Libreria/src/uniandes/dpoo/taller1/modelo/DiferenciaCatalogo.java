@@ -0,0 +1,251 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Esta clase describe qué cambió entre dos versiones de los archivos CSV de una
+ * librería: las filas de libros que aparecieron, las que desaparecieron, las
+ * que cambiaron de datos y las categorías nuevas del archivo de categorías.
+ *
+ * Las filas se comparan por su clave (ver ContenidoArchivos), así que una
+ * diferencia se calcula en un tiempo proporcional al tamaño de los archivos y
+ * no depende del orden de las filas. Además se registra si las filas que
+ * siguen en el archivo cambiaron de posición, porque los libros se ordenan en
+ * el catálogo según la posición de su fila. Se puede calcular en cualquier
+ * hilo, porque no usa la librería; después se aplica con
+ * Libreria.aplicarDiferencia.
+ */
+public class DiferenciaCatalogo
+{
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * Las categorías que aparecieron en el archivo de categorías, con un valor
+	 * que indica si son de ficción
+	 */
+	private LinkedHashMap<String, Boolean> categoriasNuevas;
+
+	/**
+	 * Las filas de libros que aparecieron, en el orden del archivo nuevo
+	 */
+	private ArrayList<ContenidoArchivos.Fila> agregadas;
+
+	/**
+	 * Las filas de libros que desaparecieron, en el orden del archivo anterior
+	 */
+	private ArrayList<ContenidoArchivos.Fila> eliminadas;
+
+	/**
+	 * Las filas de libros que cambiaron de datos, con sus datos nuevos
+	 */
+	private ArrayList<ContenidoArchivos.Fila> cambiadas;
+
+	/**
+	 * Indica si alguna fila que sigue en el archivo quedó en otra posición
+	 */
+	private boolean filasMovidas;
+
+	/**
+	 * Indica si las filas que siguen en el archivo quedaron en otro orden entre
+	 * ellas
+	 */
+	private boolean filasReordenadas;
+
+	/**
+	 * El contenido nuevo de los archivos
+	 */
+	private ContenidoArchivos contenido;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye una diferencia vacía
+	 *
+	 * @param elContenido El contenido nuevo de los archivos
+	 */
+	private DiferenciaCatalogo(ContenidoArchivos elContenido)
+	{
+		this.categoriasNuevas = new LinkedHashMap<String, Boolean>();
+		this.agregadas = new ArrayList<ContenidoArchivos.Fila>();
+		this.eliminadas = new ArrayList<ContenidoArchivos.Fila>();
+		this.cambiadas = new ArrayList<ContenidoArchivos.Fila>();
+		this.filasMovidas = false;
+		this.filasReordenadas = false;
+		this.contenido = elContenido;
+	}
+
+	// ************************************************************************
+	// Métodos para consultar los atributos
+	// ************************************************************************
+
+	/**
+	 * Retorna las categorías que aparecieron en el archivo de categorías
+	 *
+	 * @return Un mapa que no se puede modificar, con un valor que indica si cada
+	 *         categoría es de ficción
+	 */
+	public Map<String, Boolean> darCategoriasNuevas()
+	{
+		return Collections.unmodifiableMap(categoriasNuevas);
+	}
+
+	/**
+	 * Retorna las filas de libros que aparecieron
+	 *
+	 * @return Una lista que no se puede modificar
+	 */
+	public List<ContenidoArchivos.Fila> darAgregadas()
+	{
+		return Collections.unmodifiableList(agregadas);
+	}
+
+	/**
+	 * Retorna las filas de libros que desaparecieron
+	 *
+	 * @return Una lista que no se puede modificar
+	 */
+	public List<ContenidoArchivos.Fila> darEliminadas()
+	{
+		return Collections.unmodifiableList(eliminadas);
+	}
+
+	/**
+	 * Retorna las filas de libros que cambiaron de datos
+	 *
+	 * @return Una lista que no se puede modificar, con los datos nuevos
+	 */
+	public List<ContenidoArchivos.Fila> darCambiadas()
+	{
+		return Collections.unmodifiableList(cambiadas);
+	}
+
+	/**
+	 * Indica si alguna fila que sigue en el archivo quedó en otra posición, por
+	 * ejemplo porque antes de ella se agregaron o eliminaron filas
+	 *
+	 * @return filasMovidas
+	 */
+	public boolean hayFilasMovidas()
+	{
+		return filasMovidas;
+	}
+
+	/**
+	 * Indica si las filas que siguen en el archivo quedaron en otro orden entre
+	 * ellas
+	 *
+	 * @return filasReordenadas
+	 */
+	public boolean hayFilasReordenadas()
+	{
+		return filasReordenadas;
+	}
+
+	/**
+	 * Retorna el contenido nuevo de los archivos, con el que se calculan las
+	 * posiciones de los libros
+	 *
+	 * @return contenido
+	 */
+	public ContenidoArchivos darContenido()
+	{
+		return contenido;
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	/**
+	 * Cuenta las categorías y las filas de libros que cambiaron
+	 *
+	 * @return La cantidad de cambios
+	 */
+	public int contarCambios()
+	{
+		return categoriasNuevas.size() + agregadas.size() + eliminadas.size() + cambiadas.size();
+	}
+
+	/**
+	 * Indica si no cambió nada
+	 *
+	 * @return Retorna true si la diferencia no tiene ningún cambio y ninguna
+	 *         fila cambió de posición
+	 */
+	public boolean estaVacia()
+	{
+		return contarCambios() == 0 && !filasMovidas;
+	}
+
+	/**
+	 * Calcula qué cambió entre dos versiones de los archivos de una librería.
+	 *
+	 * Las categorías que desaparecen del archivo de categorías no se tienen en
+	 * cuenta: la librería las conserva mientras no se vuelva a cargar completa.
+	 *
+	 * @param anterior El contenido anterior de los archivos
+	 * @param nuevo    El contenido nuevo de los archivos
+	 * @return La diferencia, que puede estar vacía
+	 */
+	public static DiferenciaCatalogo calcular(ContenidoArchivos anterior, ContenidoArchivos nuevo)
+	{
+		DiferenciaCatalogo diferencia = new DiferenciaCatalogo(nuevo);
+		Map<String, Boolean> categoriasAnteriores = anterior.darCategorias();
+		for (Map.Entry<String, Boolean> categoria : nuevo.darCategorias().entrySet())
+		{
+			if (!categoriasAnteriores.containsKey(categoria.getKey()))
+			{
+				diferencia.categoriasNuevas.put(categoria.getKey(), categoria.getValue());
+			}
+		}
+
+		int posicionAnterior = -1;
+		for (ContenidoArchivos.Fila fila : nuevo.darFilas())
+		{
+			ContenidoArchivos.Fila filaAnterior = anterior.buscar(fila);
+			if (filaAnterior == null)
+			{
+				diferencia.agregadas.add(fila);
+				continue;
+			}
+
+			if (!fila.tieneMismosDatos(filaAnterior))
+			{
+				diferencia.cambiadas.add(fila);
+			}
+			if (filaAnterior.darPosicion() != fila.darPosicion())
+			{
+				diferencia.filasMovidas = true;
+			}
+			if (filaAnterior.darPosicion() < posicionAnterior)
+			{
+				diferencia.filasReordenadas = true;
+			}
+			posicionAnterior = filaAnterior.darPosicion();
+		}
+		for (ContenidoArchivos.Fila filaAnterior : anterior.darFilas())
+		{
+			if (nuevo.buscar(filaAnterior) == null)
+			{
+				diferencia.eliminadas.add(filaAnterior);
+			}
+		}
+		return diferencia;
+	}
+
+	@Override
+	public String toString()
+	{
+		return agregadas.size() + " libros agregados, " + eliminadas.size() + " eliminados, " + cambiadas.size()
+				+ " cambiados y " + categoriasNuevas.size() + " categorías nuevas";
+	}
+
+}
@@ -0,0 +1,271 @@
+package uniandes.dpoo.taller1.modelo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DiferenciaCatalogoTest
+{
+	private static final String ENCABEZADO = "Titulo,Autor,Calificacion,Categoria,Portada,Ancho,Alto\n";
+
+	private static final String[] AUTORES = { "Ana Ruiz", "Beatriz Gil", "Carlos Paz", "Diana Mora" };
+
+	private static final String[] TITULOS = { "Alba", "Bruma", "Cauce", "Duna", "Eco", "Faro", "Greda" };
+
+	/**
+	 * El archivo anterior: "Alba" de Ana Ruiz está repetido y "Alba" también es
+	 * un título de Diana Mora
+	 */
+	private static final String ANTERIOR = ENCABEZADO + "Alba,Ana Ruiz,4.0,Novela,,0,0\n"
+			+ "Bruma,Beatriz Gil,3.0,Historia,,0,0\n" + "Alba,Ana Ruiz,2.0,Novela,,0,0\n"
+			+ "Cauce,Ana Ruiz,5.0,Historia,,0,0\n" + "Duna,Carlos Paz,1.0,Novela,,0,0\n"
+			+ "Alba,Diana Mora,3.5,Historia,,0,0\n";
+
+	/**
+	 * El archivo nuevo: se eliminó "Duna", se agregaron libros al comienzo, en
+	 * medio y al final, "Cauce" cambió de categoría, de calificación y quedó
+	 * antes de la segunda "Alba", y "Bruma" quedó después de los demás
+	 */
+	private static final String NUEVO = ENCABEZADO + "Eco,Carlos Paz,2.5,Historia,,0,0\n"
+			+ "Alba,Ana Ruiz,4.0,Novela,,0,0\n" + "Cauce,Ana Ruiz,4.5,Novela,,0,0\n"
+			+ "Alba,Ana Ruiz,2.0,Novela,,0,0\n" + "Faro,Ana Ruiz,3.0,Historia,,0,0\n"
+			+ "Alba,Diana Mora,3.5,Historia,,0,0\n" + "Bruma,Beatriz Gil,3.0,Historia,,0,0\n"
+			+ "Greda,Beatriz Gil,4.0,Novela,,0,0\n";
+
+	/**
+	 * Un archivo nuevo donde las filas que siguen conservan su orden, pero
+	 * cambian de posición porque se eliminaron y se agregaron filas antes de
+	 * ellas
+	 */
+	private static final String NUEVO_SIN_REORDENAR = ENCABEZADO + "Eco,Carlos Paz,2.5,Historia,,0,0\n"
+			+ "Alba,Ana Ruiz,4.0,Novela,,0,0\n" + "Alba,Ana Ruiz,2.0,Novela,,0,0\n"
+			+ "Faro,Ana Ruiz,3.0,Historia,,0,0\n" + "Cauce,Ana Ruiz,5.0,Historia,,0,0\n"
+			+ "Alba,Diana Mora,3.5,Historia,,0,0\n" + "Greda,Beatriz Gil,4.0,Novela,,0,0\n";
+
+	@TempDir
+	Path carpeta;
+
+	private String archivoCategorias;
+
+	private String archivoLibros;
+
+	@BeforeEach
+	void setUp() throws Exception
+	{
+		archivoCategorias = carpeta.resolve("categorias.csv").toString();
+		archivoLibros = carpeta.resolve("libros.csv").toString();
+		Files.write(Path.of(archivoCategorias),
+				"Categoria,ficcion\nNovela,true\nHistoria,false\n".getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void escribirLibros(String contenido) throws IOException
+	{
+		Files.write(Path.of(archivoLibros), contenido.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Describe todo lo que depende del orden de los libros: el catálogo, los
+	 * libros de cada categoría, los libros de cada autor y el libro que se
+	 * encuentra con cada título
+	 */
+	private String describir(Libreria libreria)
+	{
+		StringBuilder descripcion = new StringBuilder();
+		ArrayList<Libro> libros = libreria.darLibros();
+		for (int i = 0; i < libros.size(); i++)
+		{
+			Libro libro = libros.get(i);
+			if (i > 0)
+			{
+				assertTrue(libros.get(i - 1).darOrden() < libro.darOrden());
+			}
+			descripcion.append(libro).append(' ').append(libro.darCalificacion()).append(' ')
+					.append(libro.darCategoria().darNombre()).append('\n');
+		}
+		for (Categoria categoria : libreria.darCategorias())
+		{
+			descripcion.append(categoria.darNombre()).append(": ").append(categoria.darLibros())
+					.append(categoria.contarLibrosSinPortada()).append('\n');
+		}
+		for (String autor : AUTORES)
+		{
+			descripcion.append(autor).append(": ").append(libreria.buscarLibrosAutor(autor))
+					.append(libreria.buscarCategoriasAutor(autor)).append('\n');
+		}
+		for (String titulo : TITULOS)
+		{
+			Libro libro = libreria.buscarLibro(titulo);
+			descripcion.append(titulo).append(": ").append(libro == null ? "-" : libros.indexOf(libro)).append('\n');
+		}
+		return descripcion.toString();
+	}
+
+	/**
+	 * Carga la librería con el archivo anterior, aplica la diferencia con el
+	 * archivo nuevo dos veces y la compara con la librería cargada del archivo
+	 * nuevo
+	 */
+	private void verificarIgualACargar(String nuevo, boolean columnar) throws Exception
+	{
+		escribirLibros(ANTERIOR);
+		OpcionesCarga opciones = new OpcionesCarga().cambiarAlmacenColumnar(columnar);
+		Libreria libreria = new Libreria(archivoCategorias, archivoLibros, opciones);
+		ContenidoArchivos contenidoAnterior = ContenidoArchivos.leer(archivoCategorias, archivoLibros);
+
+		escribirLibros(nuevo);
+		ContenidoArchivos contenidoNuevo = ContenidoArchivos.leer(archivoCategorias, archivoLibros);
+		Libreria recargada = new Libreria(archivoCategorias, archivoLibros,
+				new OpcionesCarga().cambiarAlmacenColumnar(columnar));
+
+		DiferenciaCatalogo diferencia = DiferenciaCatalogo.calcular(contenidoAnterior, contenidoNuevo);
+		assertFalse(diferencia.estaVacia());
+		libreria.aplicarDiferencia(diferencia);
+		assertEquals(describir(recargada), describir(libreria));
+
+		libreria.aplicarDiferencia(diferencia);
+		assertEquals(describir(recargada), describir(libreria));
+		assertTrue(DiferenciaCatalogo.calcular(contenidoNuevo, contenidoNuevo).estaVacia());
+	}
+
+	@Test
+	void testAplicarIgualACargar() throws Exception
+	{
+		verificarIgualACargar(NUEVO, false);
+	}
+
+	@Test
+	void testAplicarIgualACargarColumnar() throws Exception
+	{
+		verificarIgualACargar(NUEVO, true);
+	}
+
+	@Test
+	void testAplicarSinReordenar() throws Exception
+	{
+		verificarIgualACargar(NUEVO_SIN_REORDENAR, false);
+		verificarIgualACargar(NUEVO_SIN_REORDENAR, true);
+	}
+
+	/**
+	 * Agregar y eliminar filas sin cambiar el orden de las demás no cambia el
+	 * orden de los libros que siguen, aunque sus filas cambien de posición
+	 */
+	@Test
+	void testAgregarSinCambiarOrden() throws Exception
+	{
+		escribirLibros(ANTERIOR);
+		Libreria libreria = new Libreria(archivoCategorias, archivoLibros);
+		ContenidoArchivos anterior = ContenidoArchivos.leer(archivoCategorias, archivoLibros);
+		HashMap<Libro, Integer> ordenes = new HashMap<Libro, Integer>();
+		for (Libro libro : libreria.darLibros())
+		{
+			ordenes.put(libro, libro.darOrden());
+		}
+
+		escribirLibros(NUEVO_SIN_REORDENAR);
+		ContenidoArchivos nuevo = ContenidoArchivos.leer(archivoCategorias, archivoLibros);
+		ArrayList<Libro> eliminados = libreria.aplicarDiferencia(DiferenciaCatalogo.calcular(anterior, nuevo));
+		for (Libro libro : libreria.darLibros())
+		{
+			Integer orden = ordenes.get(libro);
+			if (orden != null)
+			{
+				assertEquals(orden.intValue(), libro.darOrden(), libro.toString());
+			}
+		}
+		assertEquals(2, eliminados.size());
+	}
+
+	/**
+	 * Muchas filas agregadas en el mismo lugar, una diferencia a la vez, llenan el
+	 * hueco entre dos libros y obligan a repartir de nuevo los órdenes cercanos
+	 */
+	@Test
+	void testAgregarMuchasVecesEnElMismoLugar() throws Exception
+	{
+		for (boolean columnar : new boolean[] { false, true })
+		{
+			StringBuilder filas = new StringBuilder();
+			escribirLibros(ENCABEZADO + "Alba,Ana Ruiz,4.0,Novela,,0,0\n" + "Bruma,Beatriz Gil,3.0,Historia,,0,0\n");
+			OpcionesCarga opciones = new OpcionesCarga().cambiarAlmacenColumnar(columnar);
+			Libreria libreria = new Libreria(archivoCategorias, archivoLibros, opciones);
+			ContenidoArchivos anterior = ContenidoArchivos.leer(archivoCategorias, archivoLibros);
+			for (int i = 0; i < 60; i++)
+			{
+				// Cada fila nueva va justo antes de la anterior, entre "Alba" y ellas
+				filas.insert(0, "Nueva " + i + ",Carlos Paz,2.0,Novela,,0,0\n");
+				escribirLibros(ENCABEZADO + "Alba,Ana Ruiz,4.0,Novela,,0,0\n" + filas
+						+ "Bruma,Beatriz Gil,3.0,Historia,,0,0\n");
+				ContenidoArchivos nuevo = ContenidoArchivos.leer(archivoCategorias, archivoLibros);
+				libreria.aplicarDiferencia(DiferenciaCatalogo.calcular(anterior, nuevo));
+				anterior = nuevo;
+			}
+			Libreria recargada = new Libreria(archivoCategorias, archivoLibros, opciones);
+			assertEquals(describir(recargada), describir(libreria));
+			assertEquals(recargada.buscarLibrosAutor("Carlos Paz").toString(),
+					libreria.buscarLibrosAutor("Carlos Paz").toString());
+		}
+	}
+
+	/**
+	 * Aplicar muchas veces diferencias que eliminan y agregan libros hace que la
+	 * librería compacte su almacén por columnas. Los libros del catálogo y los
+	 * que se eliminaron siguen teniendo sus datos.
+	 */
+	@Test
+	void testAplicarMuchasVecesColumnar() throws Exception
+	{
+		escribirLibros(ANTERIOR);
+		OpcionesCarga opciones = new OpcionesCarga().cambiarAlmacenColumnar(true);
+		Libreria libreria = new Libreria(archivoCategorias, archivoLibros, opciones);
+		ContenidoArchivos contenidoAnterior = ContenidoArchivos.leer(archivoCategorias, archivoLibros);
+		escribirLibros(NUEVO);
+		ContenidoArchivos contenidoNuevo = ContenidoArchivos.leer(archivoCategorias, archivoLibros);
+		DiferenciaCatalogo ida = DiferenciaCatalogo.calcular(contenidoAnterior, contenidoNuevo);
+		DiferenciaCatalogo vuelta = DiferenciaCatalogo.calcular(contenidoNuevo, contenidoAnterior);
+
+		ArrayList<Libro> eliminados = new ArrayList<Libro>();
+		for (int i = 0; i < 20; i++)
+		{
+			eliminados.addAll(libreria.aplicarDiferencia(ida));
+			eliminados.addAll(libreria.aplicarDiferencia(vuelta));
+		}
+		escribirLibros(ANTERIOR);
+		assertEquals(describir(new Libreria(archivoCategorias, archivoLibros, opciones)), describir(libreria));
+		for (Libro libro : eliminados)
+		{
+			assertTrue(libro.toString().contains(" ("), libro.toString());
+		}
+	}
+
+	/**
+	 * Cambiar solamente el orden de las filas también es un cambio, aunque no
+	 * haya filas agregadas, eliminadas ni cambiadas
+	 */
+	@Test
+	void testSoloOrden() throws Exception
+	{
+		escribirLibros(ANTERIOR);
+		ContenidoArchivos anterior = ContenidoArchivos.leer(archivoCategorias, archivoLibros);
+		escribirLibros(ENCABEZADO + "Bruma,Beatriz Gil,3.0,Historia,,0,0\n" + "Alba,Ana Ruiz,4.0,Novela,,0,0\n"
+				+ "Alba,Ana Ruiz,2.0,Novela,,0,0\n" + "Cauce,Ana Ruiz,5.0,Historia,,0,0\n"
+				+ "Duna,Carlos Paz,1.0,Novela,,0,0\n" + "Alba,Diana Mora,3.5,Historia,,0,0\n");
+		ContenidoArchivos nuevo = ContenidoArchivos.leer(archivoCategorias, archivoLibros);
+
+		DiferenciaCatalogo diferencia = DiferenciaCatalogo.calcular(anterior, nuevo);
+		assertEquals(0, diferencia.contarCambios());
+		assertTrue(diferencia.hayFilasMovidas());
+		assertTrue(diferencia.hayFilasReordenadas());
+		assertFalse(diferencia.estaVacia());
+	}
+
+}
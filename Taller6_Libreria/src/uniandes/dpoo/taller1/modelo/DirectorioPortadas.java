@@ -0,0 +1,171 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Esta clase permite saber si existen los archivos de las portadas sin
+ * consultar el sistema de archivos por cada libro.
+ *
+ * La primera vez que se pregunta por un archivo de una carpeta, se lee el
+ * contenido completo de esa carpeta y se guardan los nombres en un conjunto. Las
+ * siguientes preguntas sobre la misma carpeta se responden con ese conjunto. Se
+ * puede usar desde varios hilos a la vez.
+ */
+public class DirectorioPortadas
+{
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * La carpeta respecto a la cual se resuelven las rutas de las portadas
+	 */
+	private Path carpetaBase;
+
+	/**
+	 * Los nombres de los archivos de cada carpeta que ya se leyó
+	 */
+	private ConcurrentHashMap<Path, Set<String>> contenidos;
+
+	/**
+	 * Cantidad de archivos por los que se ha preguntado
+	 */
+	private LongAdder consultas;
+
+	/**
+	 * Cantidad de veces que se ha leído el contenido de una carpeta
+	 */
+	private LongAdder lecturas;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye un directorio de portadas
+	 *
+	 * @param rutaCarpetaBase La carpeta respecto a la cual se resuelven las rutas
+	 *                        de las portadas, por ejemplo "./data"
+	 */
+	public DirectorioPortadas(String rutaCarpetaBase)
+	{
+		this.carpetaBase = Paths.get(rutaCarpetaBase);
+		this.contenidos = new ConcurrentHashMap<Path, Set<String>>();
+		this.consultas = new LongAdder();
+		this.lecturas = new LongAdder();
+	}
+
+	// ************************************************************************
+	// Métodos para consultar los atributos
+	// ************************************************************************
+
+	/**
+	 * Consulta por cuántos archivos se ha preguntado
+	 *
+	 * @return La cantidad de consultas
+	 */
+	public long darConsultas()
+	{
+		return consultas.sum();
+	}
+
+	/**
+	 * Consulta cuántas veces se ha leído el contenido de una carpeta. Las demás
+	 * consultas se respondieron con lo que ya se había leído.
+	 *
+	 * @return La cantidad de lecturas
+	 */
+	public long darLecturas()
+	{
+		return lecturas.sum();
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	/**
+	 * Verifica si existe el archivo indicado
+	 *
+	 * @param nombreArchivo La ruta del archivo, relativa a la carpeta base
+	 * @return Retorna true si el archivo existe
+	 */
+	public boolean existe(String nombreArchivo)
+	{
+		consultas.increment();
+		Path ruta = carpetaBase.resolve(nombreArchivo).normalize();
+		Path carpeta = ruta.getParent();
+		Path nombre = ruta.getFileName();
+		if (carpeta == null || nombre == null)
+		{
+			lecturas.increment();
+			return Files.exists(ruta);
+		}
+		return contenidos.computeIfAbsent(carpeta, this::listarContando).contains(nombre.toString());
+	}
+
+	/**
+	 * Consulta las carpetas cuyo contenido ya se leyó
+	 *
+	 * @return Las rutas de las carpetas
+	 */
+	public Set<Path> darCarpetasLeidas()
+	{
+		return new HashSet<Path>(contenidos.keySet());
+	}
+
+	/**
+	 * Olvida el contenido de las carpetas leídas, para que se vuelvan a leer la
+	 * próxima vez que se consulten
+	 */
+	public void olvidar()
+	{
+		contenidos.clear();
+	}
+
+	/**
+	 * Lee los nombres de los archivos de una carpeta y cuenta la lectura
+	 *
+	 * @param carpeta La carpeta
+	 * @return Los nombres de los archivos de la carpeta
+	 */
+	private Set<String> listarContando(Path carpeta)
+	{
+		lecturas.increment();
+		return listar(carpeta);
+	}
+
+	/**
+	 * Lee los nombres de los archivos de una carpeta
+	 *
+	 * @param carpeta La carpeta
+	 * @return Los nombres de los archivos de la carpeta. Si la carpeta no existe o
+	 *         no se puede leer, el conjunto es vacío.
+	 */
+	private static Set<String> listar(Path carpeta)
+	{
+		HashSet<String> nombres = new HashSet<String>();
+		try (DirectoryStream<Path> archivos = Files.newDirectoryStream(carpeta))
+		{
+			for (Path archivo : archivos)
+			{
+				nombres.add(archivo.getFileName().toString());
+			}
+		}
+		catch (IOException e)
+		{
+			return Collections.emptySet();
+		}
+		return nombres;
+	}
+
+}
@@ -0,0 +1,257 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.TreeSet;
+
+/**
+ * Esta clase mantiene al día las estadísticas del catálogo de una librería: la
+ * cantidad de libros, la suma de sus calificaciones, cuántos no tienen portada
+ * y qué categorías tienen más libros y mejor calificación promedio.
+ *
+ * Las categorías registradas le informan a esta clase cada cambio en sus
+ * libros, así que las consultas no tienen que recorrer el catálogo.
+ */
+public class EstadisticasCatalogo
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Ordena las categorías de la que tiene más libros a la que tiene menos. Si
+	 * hay empate, va primero la que está antes en la librería.
+	 */
+	private static final Comparator<Categoria> POR_CANTIDAD = Comparator
+			.comparingInt(Categoria::contarLibrosEnCategoria).reversed().thenComparingInt(Categoria::darId);
+
+	/**
+	 * Ordena las categorías de la que tiene mejor calificación promedio a la que
+	 * tiene peor. Si hay empate, va primero la que está antes en la librería.
+	 */
+	private static final Comparator<Categoria> POR_PROMEDIO = Comparator
+			.comparingDouble(Categoria::calificacionPromedio).reversed().thenComparingInt(Categoria::darId);
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * Cantidad de libros en el catálogo
+	 */
+	private int cantidadLibros;
+
+	/**
+	 * Suma de las calificaciones de todos los libros del catálogo
+	 */
+	private double sumaCalificaciones;
+
+	/**
+	 * Cantidad de libros del catálogo que no tienen portada
+	 */
+	private int librosSinPortada;
+
+	/**
+	 * Las categorías registradas, ordenadas por cantidad de libros
+	 */
+	private TreeSet<Categoria> porCantidad;
+
+	/**
+	 * Las categorías que tienen al menos un libro, ordenadas por calificación
+	 * promedio
+	 */
+	private TreeSet<Categoria> porPromedio;
+
+	/**
+	 * Todas las categorías registradas, en el orden en que se registraron
+	 */
+	private ArrayList<Categoria> registradas;
+
+	/**
+	 * Indica si se está cargando un lote de libros. Mientras tanto solamente se
+	 * acumulan los totales, y las estructuras ordenadas se reconstruyen al
+	 * terminar el lote.
+	 */
+	private boolean enLote;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye las estadísticas de un catálogo vacío
+	 */
+	public EstadisticasCatalogo()
+	{
+		this.cantidadLibros = 0;
+		this.sumaCalificaciones = 0;
+		this.librosSinPortada = 0;
+		this.porCantidad = new TreeSet<Categoria>(POR_CANTIDAD);
+		this.porPromedio = new TreeSet<Categoria>(POR_PROMEDIO);
+		this.registradas = new ArrayList<Categoria>();
+		this.enLote = false;
+	}
+
+	// ************************************************************************
+	// Métodos para consultar los atributos
+	// ************************************************************************
+
+	/**
+	 * Consulta la cantidad de libros del catálogo
+	 *
+	 * @return cantidadLibros
+	 */
+	public int darCantidadLibros()
+	{
+		return cantidadLibros;
+	}
+
+	/**
+	 * Consulta la cantidad de libros del catálogo sin portada
+	 *
+	 * @return librosSinPortada
+	 */
+	public int darLibrosSinPortada()
+	{
+		return librosSinPortada;
+	}
+
+	/**
+	 * Calcula la calificación promedio de los libros del catálogo
+	 *
+	 * @return Calificación promedio del catálogo
+	 */
+	public double calificacionPromedio()
+	{
+		return sumaCalificaciones / (double) cantidadLibros;
+	}
+
+	/**
+	 * Retorna la categoría con más libros. Si hay empate, retorna la que está
+	 * antes en la librería.
+	 *
+	 * @return La categoría con más libros o null si no hay categorías
+	 */
+	public Categoria categoriaConMasLibros()
+	{
+		return porCantidad.isEmpty() ? null : porCantidad.first();
+	}
+
+	/**
+	 * Retorna la categoría con la mejor calificación promedio. Si hay empate,
+	 * retorna la que está antes en la librería.
+	 *
+	 * @return La categoría con los mejores libros o null si ninguna categoría
+	 *         tiene libros
+	 */
+	public Categoria categoriaConMejoresLibros()
+	{
+		return porPromedio.isEmpty() ? null : porPromedio.first();
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	/**
+	 * Empieza un lote de cambios, por ejemplo la carga del catálogo. Durante el
+	 * lote las categorías no se reubican en las estructuras ordenadas después de
+	 * cada cambio, así que las consultas de categorías no son válidas hasta que
+	 * se llame terminarLote.
+	 */
+	public void iniciarLote()
+	{
+		enLote = true;
+	}
+
+	/**
+	 * Termina un lote de cambios y reconstruye las estructuras ordenadas con el
+	 * estado final de las categorías
+	 */
+	public void terminarLote()
+	{
+		if (enLote)
+		{
+			enLote = false;
+			porCantidad.clear();
+			porPromedio.clear();
+			for (Categoria categoria : registradas)
+			{
+				agregarOrdenada(categoria);
+			}
+		}
+	}
+
+	// ************************************************************************
+	// Métodos que usan las categorías para informar sus cambios
+	// ************************************************************************
+
+	/**
+	 * Incluye una categoría recién registrada en las estadísticas
+	 *
+	 * @param categoria La categoría registrada
+	 */
+	void registrarCategoria(Categoria categoria)
+	{
+		registradas.add(categoria);
+		if (!enLote)
+		{
+			agregarOrdenada(categoria);
+		}
+		cantidadLibros += categoria.contarLibrosEnCategoria();
+		sumaCalificaciones += categoria.darSumaCalificaciones();
+		librosSinPortada += categoria.contarLibrosSinPortada();
+	}
+
+	/**
+	 * Saca temporalmente a una categoría de las estructuras ordenadas. Se debe
+	 * llamar antes de que cambien sus libros.
+	 *
+	 * @param categoria La categoría que va a cambiar
+	 */
+	void antesDeCambiar(Categoria categoria)
+	{
+		if (!enLote)
+		{
+			porCantidad.remove(categoria);
+			porPromedio.remove(categoria);
+		}
+	}
+
+	/**
+	 * Vuelve a ubicar a una categoría en las estructuras ordenadas y acumula sus
+	 * cambios en los totales del catálogo. Se debe llamar después de que cambien
+	 * sus libros. Si el catálogo queda vacío, la suma de las calificaciones
+	 * vuelve a ser exactamente 0, sin el residuo de redondeo de las diferencias.
+	 *
+	 * @param categoria       La categoría que cambió
+	 * @param deltaLibros     Cambio en la cantidad de libros
+	 * @param deltaSuma       Cambio en la suma de las calificaciones
+	 * @param deltaSinPortada Cambio en la cantidad de libros sin portada
+	 */
+	void despuesDeCambiar(Categoria categoria, int deltaLibros, double deltaSuma, int deltaSinPortada)
+	{
+		cantidadLibros += deltaLibros;
+		sumaCalificaciones = cantidadLibros == 0 ? 0 : sumaCalificaciones + deltaSuma;
+		librosSinPortada += deltaSinPortada;
+		if (!enLote)
+		{
+			agregarOrdenada(categoria);
+		}
+	}
+
+	/**
+	 * Agrega una categoría a las estructuras ordenadas que le corresponden
+	 *
+	 * @param categoria La categoría
+	 */
+	private void agregarOrdenada(Categoria categoria)
+	{
+		porCantidad.add(categoria);
+		if (categoria.contarLibrosEnCategoria() > 0)
+		{
+			porPromedio.add(categoria);
+		}
+	}
+
+}
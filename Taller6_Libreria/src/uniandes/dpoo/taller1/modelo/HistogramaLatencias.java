@@ -0,0 +1,293 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Esta clase cuenta cuántas veces se midió cada duración, agrupando las
+ * duraciones en intervalos, para poder calcular percentiles sin guardar cada
+ * medición.
+ *
+ * Los intervalos siguen el esquema de los histogramas HDR: cada potencia de dos
+ * se divide en 16 intervalos del mismo ancho, así que el error relativo de
+ * cualquier percentil es menor al 6,25% tanto para duraciones de nanosegundos
+ * como de minutos, y el histograma ocupa siempre lo mismo. Registrar una
+ * duración cuesta un par de operaciones atómicas y no reserva memoria. Se
+ * puede usar desde varios hilos a la vez.
+ */
+public class HistogramaLatencias
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Cantidad de bits con los que se divide cada potencia de dos
+	 */
+	private static final int BITS_SUBINTERVALO = 4;
+
+	/**
+	 * Cantidad de intervalos en los que se divide cada potencia de dos
+	 */
+	private static final int SUBINTERVALOS = 1 << BITS_SUBINTERVALO;
+
+	/**
+	 * El exponente de la mayor potencia de dos que se distingue. Las duraciones
+	 * mayores (más de 18 minutos en nanosegundos) se cuentan en el último
+	 * intervalo.
+	 */
+	private static final int EXPONENTE_MAXIMO = 40;
+
+	/**
+	 * Cantidad total de intervalos
+	 */
+	private static final int INTERVALOS = (EXPONENTE_MAXIMO - BITS_SUBINTERVALO + 2) * SUBINTERVALOS;
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * Cantidad de mediciones en cada intervalo
+	 */
+	private AtomicLongArray cuentas;
+
+	/**
+	 * La suma de todas las duraciones medidas
+	 */
+	private LongAdder suma;
+
+	/**
+	 * La mayor duración medida
+	 */
+	private AtomicLong maximo;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye un histograma vacío
+	 */
+	public HistogramaLatencias()
+	{
+		this.cuentas = new AtomicLongArray(INTERVALOS);
+		this.suma = new LongAdder();
+		this.maximo = new AtomicLong();
+	}
+
+	// ************************************************************************
+	// Métodos para consultar los atributos
+	// ************************************************************************
+
+	/**
+	 * Consulta la mayor duración medida
+	 *
+	 * @return La duración, o 0 si no hay mediciones
+	 */
+	public long darMaximo()
+	{
+		return maximo.get();
+	}
+
+	/**
+	 * Consulta la suma de todas las duraciones medidas
+	 *
+	 * @return La suma
+	 */
+	public long darSuma()
+	{
+		return suma.sum();
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	/**
+	 * Registra una duración
+	 *
+	 * @param duracion La duración. Las duraciones negativas se cuentan como 0.
+	 */
+	public void registrar(long duracion)
+	{
+		if (duracion < 0)
+		{
+			duracion = 0;
+		}
+		cuentas.incrementAndGet(calcularIntervalo(duracion));
+		suma.add(duracion);
+		long anterior = maximo.get();
+		while (duracion > anterior && !maximo.compareAndSet(anterior, duracion))
+		{
+			anterior = maximo.get();
+		}
+	}
+
+	/**
+	 * Cuenta las mediciones registradas
+	 *
+	 * @return La cantidad de mediciones
+	 */
+	public long contar()
+	{
+		long total = 0;
+		for (int i = 0; i < INTERVALOS; i++)
+		{
+			total += cuentas.get(i);
+		}
+		return total;
+	}
+
+	/**
+	 * Calcula un percentil de las duraciones registradas. El resultado es el
+	 * límite superior del intervalo donde cae el percentil, así que nunca es
+	 * menor que el valor exacto.
+	 *
+	 * @param percentil El percentil, entre 0 y 100
+	 * @return La duración, o 0 si no hay mediciones
+	 */
+	public long calcularPercentil(double percentil)
+	{
+		long[] copia = copiarCuentas();
+		long total = 0;
+		for (long cuenta : copia)
+		{
+			total += cuenta;
+		}
+		if (total == 0)
+		{
+			return 0;
+		}
+
+		long posicion = Math.max(1, (long) Math.ceil(total * percentil / 100));
+		long acumulado = 0;
+		for (int i = 0; i < copia.length; i++)
+		{
+			acumulado += copia[i];
+			if (acumulado >= posicion)
+			{
+				return Math.min(darLimiteSuperior(i), maximo.get());
+			}
+		}
+		return maximo.get();
+	}
+
+	/**
+	 * Describe los intervalos que tienen mediciones, uno por línea, con sus
+	 * límites, su cantidad y el porcentaje acumulado
+	 *
+	 * @param unidad      La cantidad de nanosegundos de la unidad en la que se
+	 *                    muestran los límites, por ejemplo 1000 para microsegundos
+	 * @param nombreUnidad El nombre de la unidad
+	 * @return La descripción
+	 */
+	public String describir(double unidad, String nombreUnidad)
+	{
+		long[] copia = copiarCuentas();
+		long total = 0;
+		for (long cuenta : copia)
+		{
+			total += cuenta;
+		}
+
+		StringBuilder texto = new StringBuilder();
+		long acumulado = 0;
+		for (int i = 0; i < copia.length; i++)
+		{
+			if (copia[i] > 0)
+			{
+				acumulado += copia[i];
+				texto.append(String.format("%12.3f - %12.3f %s  %10d  %7.3f%%%n", darLimiteInferior(i) / unidad,
+						darLimiteSuperior(i) / unidad, nombreUnidad, copia[i], 100.0 * acumulado / total));
+			}
+		}
+		return texto.toString();
+	}
+
+	/**
+	 * Borra todas las mediciones
+	 */
+	public void reiniciar()
+	{
+		for (int i = 0; i < INTERVALOS; i++)
+		{
+			cuentas.set(i, 0);
+		}
+		suma.reset();
+		maximo.set(0);
+	}
+
+	/**
+	 * Toma una copia de las cuentas de los intervalos, para calcular sobre ella
+	 * aunque otros hilos sigan registrando
+	 *
+	 * @return Las cuentas
+	 */
+	private long[] copiarCuentas()
+	{
+		long[] copia = new long[INTERVALOS];
+		for (int i = 0; i < INTERVALOS; i++)
+		{
+			copia[i] = cuentas.get(i);
+		}
+		return copia;
+	}
+
+	/**
+	 * Calcula el intervalo en el que se cuenta una duración. Las duraciones
+	 * menores a 16 tienen un intervalo cada una; las demás se ubican por su bit
+	 * más alto y por los 4 bits que lo siguen.
+	 *
+	 * @param duracion La duración, mayor o igual a 0
+	 * @return La posición del intervalo
+	 */
+	private static int calcularIntervalo(long duracion)
+	{
+		if (duracion < SUBINTERVALOS)
+		{
+			return (int) duracion;
+		}
+		int exponente = 63 - Long.numberOfLeadingZeros(duracion);
+		if (exponente > EXPONENTE_MAXIMO)
+		{
+			return INTERVALOS - 1;
+		}
+		int subintervalo = (int) (duracion >>> (exponente - BITS_SUBINTERVALO)) & (SUBINTERVALOS - 1);
+		return (exponente - BITS_SUBINTERVALO + 1) * SUBINTERVALOS + subintervalo;
+	}
+
+	/**
+	 * Calcula la menor duración que se cuenta en un intervalo
+	 *
+	 * @param intervalo La posición del intervalo
+	 * @return La duración
+	 */
+	private static long darLimiteInferior(int intervalo)
+	{
+		if (intervalo < SUBINTERVALOS)
+		{
+			return intervalo;
+		}
+		int exponente = intervalo / SUBINTERVALOS + BITS_SUBINTERVALO - 1;
+		long subintervalo = intervalo % SUBINTERVALOS;
+		return (SUBINTERVALOS + subintervalo) << (exponente - BITS_SUBINTERVALO);
+	}
+
+	/**
+	 * Calcula la mayor duración que se cuenta en un intervalo
+	 *
+	 * @param intervalo La posición del intervalo
+	 * @return La duración
+	 */
+	private static long darLimiteSuperior(int intervalo)
+	{
+		if (intervalo == INTERVALOS - 1)
+		{
+			return Long.MAX_VALUE;
+		}
+		return darLimiteInferior(intervalo + 1) - 1;
+	}
+
+}
@@ -5,6 +5,16 @@ package uniandes.dpoo.taller1.modelo;
  */
 public class Imagen
 {
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * La imagen de 85x85 pixeles que se muestra para los libros que no tienen
+	 * portada. La comparten todos esos libros.
+	 */
+	public static final Imagen PORTADA_FALTANTE = new Imagen("./imagenes/missing.png", 85, 85);
+
 	// ************************************************************************
 	// Atributos
 	// ************************************************************************
@@ -76,4 +86,29 @@ public class Imagen
 		return alto;
 	}
 
+	/**
+	 * Dos imágenes son iguales si tienen la misma ruta y el mismo tamaño
+	 */
+	@Override
+	public boolean equals(Object obj)
+	{
+		if (this == obj)
+		{
+			return true;
+		}
+		if (!(obj instanceof Imagen))
+		{
+			return false;
+		}
+		Imagen otraImagen = (Imagen) obj;
+
+		return ancho == otraImagen.ancho && alto == otraImagen.alto && rutaArchivo.equals(otraImagen.rutaArchivo);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return (rutaArchivo.hashCode() * 31 + ancho) * 31 + alto;
+	}
+
 }
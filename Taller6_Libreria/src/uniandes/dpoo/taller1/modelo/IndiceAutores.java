@@ -0,0 +1,411 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+
+/**
+ * Esta clase mantiene un índice de los autores de los libros del catálogo: para
+ * cada autor distinto guarda sus libros, cuántos de ellos hay en cada categoría
+ * y su nombre normalizado. Además lleva la cuenta de cuántos autores tienen
+ * libros en más de una categoría.
+ *
+ * Los nombres normalizados de los autores se indexan por trigramas, de modo que
+ * las búsquedas por una parte del nombre solo revisan a los autores que podrían
+ * coincidir, en lugar de revisar cada libro del catálogo.
+ */
+public class IndiceAutores
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Orden en el que se entregan los libros de una búsqueda: primero por la
+	 * posición de su categoría y luego por su orden en el catálogo. Es el mismo
+	 * orden que se obtiene recorriendo las categorías.
+	 */
+	private static final Comparator<Libro> ORDEN_CATEGORIAS = Comparator
+			.comparingInt((Libro libro) -> libro.darCategoria().darId()).thenComparingInt(Libro::darOrden);
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * Mapa que relaciona el nombre exacto de cada autor con su entrada
+	 */
+	private HashMap<String, EntradaAutor> porNombre;
+
+	/**
+	 * Arreglo con las entradas de los autores indexadas por su identificador. Las
+	 * posiciones de los autores que ya no tienen libros quedan en null hasta que
+	 * otro autor nuevo reutiliza su identificador, así que el arreglo no crece
+	 * más allá de la mayor cantidad de autores que ha tenido el índice.
+	 */
+	private EntradaAutor[] porId;
+
+	/**
+	 * Identificador que se le asignará al próximo autor nuevo si no hay
+	 * identificadores libres
+	 */
+	private int siguienteId;
+
+	/**
+	 * Los identificadores de los autores que se retiraron, que se reutilizan
+	 * antes de crear identificadores nuevos
+	 */
+	private int[] idsLibres;
+
+	/**
+	 * Cantidad de identificadores libres
+	 */
+	private int cantidadLibres;
+
+	/**
+	 * Índice de trigramas sobre los nombres normalizados de los autores
+	 */
+	private IndiceTrigramas trigramas;
+
+	/**
+	 * Cantidad de autores que tienen libros en al menos dos categorías
+	 */
+	private int autoresEnVariasCategorias;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye un índice vacío
+	 */
+	public IndiceAutores()
+	{
+		this.porNombre = new HashMap<String, EntradaAutor>();
+		this.porId = new EntradaAutor[16];
+		this.siguienteId = 0;
+		this.idsLibres = new int[16];
+		this.cantidadLibres = 0;
+		this.trigramas = new IndiceTrigramas();
+		this.autoresEnVariasCategorias = 0;
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	/**
+	 * Agrega un libro al índice
+	 *
+	 * @param libro El libro que se agregó al catálogo
+	 */
+	public void agregar(Libro libro)
+	{
+		String autor = libro.darAutor();
+		EntradaAutor entrada = porNombre.get(autor);
+		if (entrada == null)
+		{
+			entrada = new EntradaAutor(cantidadLibres > 0 ? idsLibres[--cantidadLibres] : siguienteId++, autor);
+			porNombre.put(autor, entrada);
+			if (entrada.id == porId.length)
+			{
+				porId = Arrays.copyOf(porId, porId.length * 2);
+			}
+			porId[entrada.id] = entrada;
+			trigramas.agregar(entrada.id, entrada.plegado);
+		}
+		insertarEnOrden(entrada.libros, libro);
+
+		int categoriasAntes = entrada.librosPorCategoria.size();
+		entrada.librosPorCategoria.merge(libro.darCategoria(), 1, Integer::sum);
+		if (categoriasAntes == 1 && entrada.librosPorCategoria.size() == 2)
+		{
+			autoresEnVariasCategorias++;
+		}
+	}
+
+	/**
+	 * Vuelve a ordenar los libros de cada autor según su orden en el catálogo.
+	 * Se usa cuando los libros del catálogo cambian de orden entre ellos.
+	 */
+	void ordenar()
+	{
+		for (EntradaAutor entrada : porNombre.values())
+		{
+			entrada.libros.sort(Libro.ORDEN_CATALOGO);
+		}
+	}
+
+	/**
+	 * Retira un libro del índice. Si era el último libro de su autor, el autor
+	 * también se retira.
+	 *
+	 * @param libro El libro que se retiró del catálogo
+	 */
+	public void eliminar(Libro libro)
+	{
+		EntradaAutor entrada = porNombre.get(libro.darAutor());
+		if (entrada == null || !entrada.libros.remove(libro))
+		{
+			return;
+		}
+
+		int categoriasAntes = entrada.librosPorCategoria.size();
+		entrada.librosPorCategoria.computeIfPresent(libro.darCategoria(),
+				(cat, cantidad) -> cantidad == 1 ? null : cantidad - 1);
+		if (categoriasAntes == 2 && entrada.librosPorCategoria.size() == 1)
+		{
+			autoresEnVariasCategorias--;
+		}
+
+		if (entrada.libros.isEmpty())
+		{
+			porNombre.remove(entrada.nombre);
+			liberar(entrada);
+		}
+	}
+
+	/**
+	 * Registra que un libro del índice cambió de categoría. El libro conserva su
+	 * lugar entre los libros de su autor.
+	 *
+	 * @param libro    El libro, ya con su nueva categoría
+	 * @param anterior La categoría que tenía el libro
+	 */
+	public void cambioCategoria(Libro libro, Categoria anterior)
+	{
+		EntradaAutor entrada = porNombre.get(libro.darAutor());
+		if (entrada == null || anterior == libro.darCategoria())
+		{
+			return;
+		}
+
+		int categoriasAntes = entrada.librosPorCategoria.size();
+		entrada.librosPorCategoria.computeIfPresent(anterior, (cat, cantidad) -> cantidad == 1 ? null : cantidad - 1);
+		entrada.librosPorCategoria.merge(libro.darCategoria(), 1, Integer::sum);
+		int categoriasDespues = entrada.librosPorCategoria.size();
+		if (categoriasAntes == 1 && categoriasDespues == 2)
+		{
+			autoresEnVariasCategorias++;
+		}
+		else if (categoriasAntes == 2 && categoriasDespues == 1)
+		{
+			autoresEnVariasCategorias--;
+		}
+	}
+
+	/**
+	 * Retira del índice a un autor con todos sus libros
+	 *
+	 * @param nombreAutor El nombre exacto del autor
+	 */
+	public void eliminarAutor(String nombreAutor)
+	{
+		EntradaAutor entrada = porNombre.remove(nombreAutor);
+		if (entrada != null)
+		{
+			if (entrada.librosPorCategoria.size() > 1)
+			{
+				autoresEnVariasCategorias--;
+			}
+			liberar(entrada);
+		}
+	}
+
+	/**
+	 * Retira un autor que ya no está en el mapa de nombres del arreglo por
+	 * identificador y de los trigramas, y deja su identificador libre para el
+	 * próximo autor nuevo
+	 *
+	 * @param entrada La entrada del autor
+	 */
+	private void liberar(EntradaAutor entrada)
+	{
+		porId[entrada.id] = null;
+		trigramas.eliminar(entrada.id, entrada.plegado);
+		if (cantidadLibres == idsLibres.length)
+		{
+			idsLibres = Arrays.copyOf(idsLibres, cantidadLibres * 2);
+		}
+		idsLibres[cantidadLibres++] = entrada.id;
+	}
+
+	/**
+	 * Retorna los libros del autor indicado. El nombre debe ser exacto.
+	 *
+	 * @param nombreAutor El nombre del autor
+	 * @return Una lista nueva con los libros del autor, en el orden del
+	 *         catálogo. Si el autor no tiene libros, la lista es vacía.
+	 */
+	public ArrayList<Libro> darLibros(String nombreAutor)
+	{
+		EntradaAutor entrada = porNombre.get(nombreAutor);
+		return entrada == null ? new ArrayList<Libro>() : new ArrayList<Libro>(entrada.libros);
+	}
+
+	/**
+	 * Cuenta los autores que tienen libros en el catálogo
+	 *
+	 * @return La cantidad de autores
+	 */
+	public int contarAutores()
+	{
+		return porNombre.size();
+	}
+
+	/**
+	 * Consulta si hay algún libro del autor indicado. El nombre debe ser exacto.
+	 *
+	 * @param nombreAutor El nombre del autor
+	 * @return Retorna true si el autor tiene al menos un libro en el catálogo
+	 */
+	public boolean existe(String nombreAutor)
+	{
+		return porNombre.containsKey(nombreAutor);
+	}
+
+	/**
+	 * Busca las categorías en las que hay libros del autor indicado. El nombre
+	 * debe ser exacto.
+	 *
+	 * @param nombreAutor El nombre del autor
+	 * @return Una lista con las categorías del autor, en el orden en el que están
+	 *         en la librería. Si el autor no tiene libros, la lista es vacía.
+	 */
+	public ArrayList<Categoria> buscarCategorias(String nombreAutor)
+	{
+		ArrayList<Categoria> resultado = new ArrayList<Categoria>();
+		EntradaAutor entrada = porNombre.get(nombreAutor);
+		if (entrada != null)
+		{
+			resultado.addAll(entrada.librosPorCategoria.keySet());
+			resultado.sort(Comparator.comparingInt(Categoria::darId));
+		}
+		return resultado;
+	}
+
+	/**
+	 * Consulta si hay algún autor con libros en más de una categoría
+	 *
+	 * @return Retorna true si hay al menos un autor con libros en dos categorías
+	 *         diferentes
+	 */
+	public boolean hayAutorEnVariasCategorias()
+	{
+		return autoresEnVariasCategorias > 0;
+	}
+
+	/**
+	 * Busca los libros cuyo autor contiene la cadena indicada, sin tener en cuenta
+	 * mayúsculas y minúsculas.
+	 *
+	 * Primero se usan los trigramas para descartar a los autores que no pueden
+	 * coincidir y luego se verifica cada candidato con la misma comparación que
+	 * hacía Categoria.buscarLibrosDeAutor, así que los resultados son idénticos.
+	 *
+	 * @param cadenaAutor La cadena que se usará para consultar el autor
+	 * @return Una lista con los libros cuyo autor coincide, ordenados por
+	 *         categoría
+	 */
+	public ArrayList<Libro> buscarLibros(String cadenaAutor)
+	{
+		String cadena = cadenaAutor.toLowerCase();
+		ArrayList<Libro> resultado = new ArrayList<Libro>();
+
+		int[] candidatos = trigramas.buscarCandidatos(IndiceTrigramas.plegar(cadena));
+		if (candidatos == null)
+		{
+			for (EntradaAutor entrada : porNombre.values())
+			{
+				entrada.agregarSiCoincide(cadena, resultado);
+			}
+		}
+		else
+		{
+			for (int id : candidatos)
+			{
+				porId[id].agregarSiCoincide(cadena, resultado);
+			}
+		}
+
+		resultado.sort(ORDEN_CATEGORIAS);
+		return resultado;
+	}
+
+	/**
+	 * Agrega un libro a una lista ordenada según el orden del catálogo. Durante
+	 * la carga los libros llegan en orden y se agregan al final.
+	 *
+	 * @param libros La lista, ordenada
+	 * @param libro  El libro que se agrega
+	 */
+	static void insertarEnOrden(ArrayList<Libro> libros, Libro libro)
+	{
+		int posicion = libros.size();
+		while (posicion > 0 && libros.get(posicion - 1).darOrden() > libro.darOrden())
+		{
+			posicion--;
+		}
+		libros.add(posicion, libro);
+	}
+
+	// ************************************************************************
+	// Clases anidadas
+	// ************************************************************************
+
+	/**
+	 * La información que el índice guarda sobre un autor
+	 */
+	private static final class EntradaAutor
+	{
+		/**
+		 * Identificador del autor dentro del índice
+		 */
+		private final int id;
+
+		/**
+		 * Nombre exacto del autor
+		 */
+		private final String nombre;
+
+		/**
+		 * Nombre del autor en minúsculas
+		 */
+		private final String minusculas;
+
+		/**
+		 * Nombre del autor en minúsculas y sin tildes
+		 */
+		private final String plegado;
+
+		/**
+		 * Libros del autor, en el orden del catálogo
+		 */
+		private final ArrayList<Libro> libros;
+
+		/**
+		 * Cantidad de libros del autor en cada una de sus categorías
+		 */
+		private final HashMap<Categoria, Integer> librosPorCategoria;
+
+		private EntradaAutor(int id, String nombre)
+		{
+			this.id = id;
+			this.nombre = nombre;
+			this.minusculas = nombre.toLowerCase();
+			this.plegado = IndiceTrigramas.plegar(minusculas);
+			this.libros = new ArrayList<Libro>(2);
+			this.librosPorCategoria = new HashMap<Categoria, Integer>(2);
+		}
+
+		private void agregarSiCoincide(String cadena, ArrayList<Libro> resultado)
+		{
+			if (minusculas.contains(cadena))
+			{
+				resultado.addAll(libros);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,268 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Esta clase permite encontrar los libros de la librería a partir de su título
+ * sin tener que recorrer todo el catálogo.
+ *
+ * Puede haber varios libros con el mismo título. En ese caso el índice
+ * responde con el primero de ellos en el orden del catálogo, que es el mismo
+ * libro que se encontraría recorriendo el catálogo desde el principio.
+ *
+ * El índice no guarda los títulos: guarda el código hash de cada título y el
+ * primer libro que lo tiene, en una tabla de direccionamiento abierto, y
+ * compara con el título del libro (ver Libro.tieneTitulo) cuando los códigos
+ * coinciden. Así el índice no retiene una cadena por cada libro, lo que
+ * importa cuando los libros guardan sus títulos en un AlmacenColumnar.
+ */
+public class IndiceTitulos
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Capacidad inicial de la tabla. Debe ser una potencia de 2.
+	 */
+	private static final int CAPACIDAD_INICIAL = 64;
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * El primer libro del catálogo con cada título, o null en las posiciones
+	 * libres de la tabla
+	 */
+	private Libro[] primeros;
+
+	/**
+	 * El código hash del título del libro en la misma posición de 'primeros'
+	 */
+	private int[] hashes;
+
+	/**
+	 * Cantidad de títulos distintos en la tabla
+	 */
+	private int cantidad;
+
+	/**
+	 * Mapa que relaciona el primer libro de cada título repetido con los demás
+	 * libros que tienen ese título, en el orden del catálogo. Solamente tiene entradas para los títulos que están repetidos.
+	 */
+	private HashMap<Libro, ArrayList<Libro>> repetidos;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye un índice vacío
+	 */
+	public IndiceTitulos()
+	{
+		this.primeros = new Libro[CAPACIDAD_INICIAL];
+		this.hashes = new int[CAPACIDAD_INICIAL];
+		this.cantidad = 0;
+		this.repetidos = new HashMap<Libro, ArrayList<Libro>>();
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	/**
+	 * Busca un libro a partir de su título
+	 *
+	 * @param titulo El título del libro buscado
+	 * @return El primer libro del catálogo con ese título o null si no hay ninguno
+	 *         o el título es null
+	 */
+	public Libro buscar(String titulo)
+	{
+		if (titulo == null)
+		{
+			return null;
+		}
+		int posicion = posicion(titulo, titulo.hashCode());
+		return primeros[posicion];
+	}
+
+	/**
+	 * Agrega un libro al índice. Los libros se ubican entre los que tienen su
+	 * mismo título según su orden en el catálogo (ver Libro.darOrden), así que
+	 * se pueden agregar en cualquier orden; durante la carga llegan en orden y
+	 * se agregan al final.
+	 *
+	 * @param libro El libro que se agregó al catálogo
+	 */
+	public void agregar(Libro libro)
+	{
+		String titulo = libro.darTitulo();
+		int hash = titulo.hashCode();
+		int posicion = posicion(titulo, hash);
+		Libro primero = primeros[posicion];
+		if (primero == null)
+		{
+			primeros[posicion] = libro;
+			hashes[posicion] = hash;
+			cantidad++;
+			if (cantidad * 2 > primeros.length)
+			{
+				crecer();
+			}
+		}
+		else if (libro.darOrden() < primero.darOrden())
+		{
+			ArrayList<Libro> otros = repetidos.remove(primero);
+			if (otros == null)
+			{
+				otros = new ArrayList<Libro>(2);
+			}
+			otros.add(0, primero);
+			repetidos.put(libro, otros);
+			primeros[posicion] = libro;
+		}
+		else
+		{
+			ArrayList<Libro> otros = repetidos.get(primero);
+			if (otros == null)
+			{
+				otros = new ArrayList<Libro>(2);
+				repetidos.put(primero, otros);
+			}
+			IndiceAutores.insertarEnOrden(otros, libro);
+		}
+	}
+
+	/**
+	 * Retira un libro del índice. Si era el primero con su título, su lugar lo
+	 * toma el siguiente libro con el mismo título.
+	 *
+	 * @param libro El libro que se retiró del catálogo
+	 */
+	public void eliminar(Libro libro)
+	{
+		String titulo = libro.darTitulo();
+		int posicion = posicion(titulo, titulo.hashCode());
+		Libro primero = primeros[posicion];
+		if (primero == null)
+		{
+			return;
+		}
+
+		ArrayList<Libro> otros = repetidos.get(primero);
+		if (libro.equals(primero))
+		{
+			if (otros == null)
+			{
+				quitar(posicion);
+			}
+			else
+			{
+				repetidos.remove(primero);
+				Libro siguiente = otros.remove(0);
+				primeros[posicion] = siguiente;
+				if (!otros.isEmpty())
+				{
+					repetidos.put(siguiente, otros);
+				}
+			}
+		}
+		else if (otros != null && otros.remove(libro) && otros.isEmpty())
+		{
+			repetidos.remove(primero);
+		}
+	}
+
+	/**
+	 * Busca la posición de la tabla que le corresponde a un título: la posición
+	 * donde está el título o, si no está, la posición libre donde se debe poner.
+	 *
+	 * @param titulo El título
+	 * @param hash   El código hash del título
+	 * @return La posición en la tabla
+	 */
+	private int posicion(String titulo, int hash)
+	{
+		int mascara = primeros.length - 1;
+		int posicion = mezclar(hash) & mascara;
+		while (primeros[posicion] != null
+				&& (hashes[posicion] != hash || !primeros[posicion].tieneTitulo(titulo)))
+		{
+			posicion = (posicion + 1) & mascara;
+		}
+		return posicion;
+	}
+
+	/**
+	 * Libera una posición de la tabla, moviendo hacia atrás los títulos que
+	 * quedarían inalcanzables, para no tener que marcar posiciones borradas
+	 *
+	 * @param libre La posición que se libera
+	 */
+	private void quitar(int libre)
+	{
+		int mascara = primeros.length - 1;
+		primeros[libre] = null;
+		cantidad--;
+
+		int posicion = (libre + 1) & mascara;
+		while (primeros[posicion] != null)
+		{
+			int ideal = mezclar(hashes[posicion]) & mascara;
+			// El título se puede mover a la posición libre si esta queda entre su
+			// posición ideal y su posición actual, recorriendo la tabla en círculo
+			if (((posicion - ideal) & mascara) >= ((posicion - libre) & mascara))
+			{
+				primeros[libre] = primeros[posicion];
+				hashes[libre] = hashes[posicion];
+				primeros[posicion] = null;
+				libre = posicion;
+			}
+			posicion = (posicion + 1) & mascara;
+		}
+	}
+
+	/**
+	 * Duplica la capacidad de la tabla
+	 */
+	private void crecer()
+	{
+		Libro[] anteriores = primeros;
+		int[] hashesAnteriores = hashes;
+		primeros = new Libro[anteriores.length * 2];
+		hashes = new int[anteriores.length * 2];
+
+		int mascara = primeros.length - 1;
+		for (int i = 0; i < anteriores.length; i++)
+		{
+			if (anteriores[i] != null)
+			{
+				int posicion = mezclar(hashesAnteriores[i]) & mascara;
+				while (primeros[posicion] != null)
+				{
+					posicion = (posicion + 1) & mascara;
+				}
+				primeros[posicion] = anteriores[i];
+				hashes[posicion] = hashesAnteriores[i];
+			}
+		}
+	}
+
+	/**
+	 * Mezcla los bits de un código hash para que los códigos parecidos queden en
+	 * posiciones lejanas de la tabla
+	 *
+	 * @param hash El código hash
+	 * @return El código mezclado
+	 */
+	static int mezclar(int hash)
+	{
+		int mezcla = hash * 0x9E3779B9;
+		return mezcla ^ (mezcla >>> 16);
+	}
+
+}
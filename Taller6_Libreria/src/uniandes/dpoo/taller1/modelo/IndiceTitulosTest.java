@@ -0,0 +1,178 @@
+package uniandes.dpoo.taller1.modelo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IndiceTitulosTest
+{
+	private IndiceTitulos indice;
+
+	private Categoria categoria;
+
+	@BeforeEach
+	void setUp() throws Exception
+	{
+		indice = new IndiceTitulos();
+		categoria = new Categoria("Pruebas", false);
+	}
+
+	private Libro agregar(String titulo)
+	{
+		Libro libro = new LibroSimple(titulo, "Autor", 4.0, categoria);
+		indice.agregar(libro);
+		return libro;
+	}
+
+	@Test
+	void testBuscar()
+	{
+		Libro libro = agregar("El túnel");
+		agregar("Sobre héroes y tumbas");
+
+		assertSame(libro, indice.buscar("El túnel"));
+		assertNull(indice.buscar("El tunel"));
+		assertNull(indice.buscar(""));
+		assertNull(indice.buscar(null));
+	}
+
+	@Test
+	void testTitulosRepetidos()
+	{
+		Libro primero = agregar("Rayuela");
+		Libro segundo = agregar("Rayuela");
+		Libro tercero = agregar("Rayuela");
+		assertSame(primero, indice.buscar("Rayuela"));
+
+		// Si se elimina el primero, lo reemplaza el siguiente en el orden del
+		// catálogo
+		indice.eliminar(primero);
+		assertSame(segundo, indice.buscar("Rayuela"));
+
+		indice.eliminar(tercero);
+		assertSame(segundo, indice.buscar("Rayuela"));
+
+		indice.eliminar(segundo);
+		assertNull(indice.buscar("Rayuela"));
+	}
+
+	@Test
+	void testEliminarLibroQueNoEsta()
+	{
+		Libro libro = agregar("Ficciones");
+		indice.eliminar(new LibroSimple("Ficciones", "Otro autor", 3.0, categoria));
+		indice.eliminar(new LibroSimple("El Aleph", "Otro autor", 3.0, categoria));
+
+		assertSame(libro, indice.buscar("Ficciones"));
+	}
+
+	/**
+	 * Busca títulos cuya posición ideal en la tabla inicial, de 64 posiciones,
+	 * es la indicada
+	 */
+	private static ArrayList<String> titulosEnPosicion(int posicion, int cantidad)
+	{
+		ArrayList<String> titulos = new ArrayList<String>();
+		for (int i = 0; titulos.size() < cantidad; i++)
+		{
+			String titulo = "Título " + i;
+			if ((IndiceTitulos.mezclar(titulo.hashCode()) & 63) == posicion)
+			{
+				titulos.add(titulo);
+			}
+		}
+		return titulos;
+	}
+
+	/**
+	 * Los títulos que chocan al final de la tabla siguen al comienzo. Al
+	 * eliminar uno, los que estaban después se mueven hacia atrás, pero nunca a
+	 * una posición anterior a su posición ideal.
+	 */
+	@Test
+	void testEliminarAlFinalDeLaTabla()
+	{
+		ArrayList<String> alFinal = titulosEnPosicion(62, 4);
+		ArrayList<String> alComienzo = titulosEnPosicion(0, 2);
+		HashMap<String, Libro> libros = new HashMap<String, Libro>();
+		for (String titulo : alFinal)
+		{
+			libros.put(titulo, agregar(titulo));
+		}
+		for (String titulo : alComienzo)
+		{
+			libros.put(titulo, agregar(titulo));
+		}
+
+		indice.eliminar(libros.remove(alFinal.get(0)));
+		indice.eliminar(libros.remove(alFinal.get(2)));
+		assertNull(indice.buscar(alFinal.get(0)));
+		assertNull(indice.buscar(alFinal.get(2)));
+		for (Libro libro : libros.values())
+		{
+			assertSame(libro, indice.buscar(libro.darTitulo()), libro.darTitulo());
+		}
+
+		indice.eliminar(libros.remove(alComienzo.get(0)));
+		for (Libro libro : libros.values())
+		{
+			assertSame(libro, indice.buscar(libro.darTitulo()), libro.darTitulo());
+		}
+	}
+
+	/**
+	 * Con muchos títulos la tabla crece y se forman grupos de posiciones
+	 * ocupadas seguidas. Al eliminar títulos del medio de esos grupos, los
+	 * siguientes se deben mover hacia atrás sin quedar inalcanzables.
+	 */
+	@Test
+	void testEliminarConColisiones()
+	{
+		Random azar = new Random(42);
+		HashMap<String, Libro> esperados = new HashMap<String, Libro>();
+		ArrayList<String> titulos = new ArrayList<String>();
+		for (int i = 0; i < 2000; i++)
+		{
+			String titulo = "Libro " + i;
+			titulos.add(titulo);
+			esperados.put(titulo, agregar(titulo));
+		}
+
+		for (int ronda = 0; ronda < 3; ronda++)
+		{
+			for (int i = 0; i < 600; i++)
+			{
+				String titulo = titulos.get(azar.nextInt(titulos.size()));
+				Libro libro = esperados.remove(titulo);
+				if (libro != null)
+				{
+					indice.eliminar(libro);
+				}
+			}
+			for (String titulo : titulos)
+			{
+				assertSame(esperados.get(titulo), indice.buscar(titulo), titulo);
+			}
+
+			// Los títulos eliminados se pueden volver a agregar
+			for (int i = 0; i < 300; i++)
+			{
+				String titulo = titulos.get(azar.nextInt(titulos.size()));
+				if (!esperados.containsKey(titulo))
+				{
+					esperados.put(titulo, agregar(titulo));
+				}
+			}
+		}
+		for (String titulo : titulos)
+		{
+			assertSame(esperados.get(titulo), indice.buscar(titulo), titulo);
+		}
+	}
+
+}
@@ -0,0 +1,300 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Esta clase es un índice de trigramas: para cada secuencia de tres caracteres
+ * guarda la lista ordenada de los identificadores de los textos que la
+ * contienen.
+ *
+ * El índice sirve para encontrar rápidamente los textos que podrían contener
+ * una cadena: un texto que contiene la cadena necesariamente contiene todos sus
+ * trigramas, así que basta con intersectar las listas de esos trigramas. El
+ * resultado es un conjunto de candidatos que luego se debe verificar.
+ *
+ * Los textos se indexan plegados (ver el método plegar), de modo que las
+ * mayúsculas y las tildes no afectan a los candidatos.
+ */
+public class IndiceTrigramas
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Cantidad de caracteres de cada gramo
+	 */
+	public static final int LONGITUD_GRAMO = 3;
+
+	/**
+	 * Tabla con la versión sin tildes de los caracteres latinos más comunes. Los
+	 * caracteres por fuera de la tabla se dejan como están.
+	 */
+	private static final char[] SIN_TILDE = construirTablaSinTilde();
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * Mapa que relaciona cada trigrama (empacado en un long) con la lista de
+	 * identificadores de los textos que lo contienen
+	 */
+	private HashMap<Long, ListaEnteros> publicaciones;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye un índice vacío
+	 */
+	public IndiceTrigramas()
+	{
+		this.publicaciones = new HashMap<Long, ListaEnteros>();
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	/**
+	 * Agrega un texto al índice. Agregar los identificadores en orden creciente
+	 * es lo más barato, porque cada uno queda al final de sus listas; un
+	 * identificador menor (por ejemplo uno reutilizado) se inserta en su lugar.
+	 *
+	 * @param id            El identificador del texto
+	 * @param textoPlegado El texto, ya plegado con el método plegar
+	 */
+	public void agregar(int id, String textoPlegado)
+	{
+		for (long gramo : gramos(textoPlegado))
+		{
+			ListaEnteros lista = publicaciones.get(gramo);
+			if (lista == null)
+			{
+				lista = new ListaEnteros();
+				publicaciones.put(gramo, lista);
+			}
+			lista.agregar(id);
+		}
+	}
+
+	/**
+	 * Retira un texto del índice
+	 *
+	 * @param id            El identificador del texto
+	 * @param textoPlegado El texto, plegado igual que cuando se agregó
+	 */
+	public void eliminar(int id, String textoPlegado)
+	{
+		for (long gramo : gramos(textoPlegado))
+		{
+			ListaEnteros lista = publicaciones.get(gramo);
+			if (lista != null && lista.eliminar(id) && lista.estaVacia())
+			{
+				publicaciones.remove(gramo);
+			}
+		}
+	}
+
+	/**
+	 * Calcula los identificadores de los textos que podrían contener la cadena
+	 * indicada.
+	 *
+	 * @param consultaPlegada La cadena buscada, ya plegada con el método plegar
+	 * @return Un arreglo ordenado con los candidatos, o null si la cadena es más
+	 *         corta que un trigrama y por lo tanto cualquier texto es candidato
+	 */
+	public int[] buscarCandidatos(String consultaPlegada)
+	{
+		if (consultaPlegada.length() < LONGITUD_GRAMO)
+		{
+			return null;
+		}
+
+		HashSet<Long> gramosConsulta = gramos(consultaPlegada);
+		ListaEnteros[] listas = new ListaEnteros[gramosConsulta.size()];
+		int i = 0;
+		for (long gramo : gramosConsulta)
+		{
+			ListaEnteros lista = publicaciones.get(gramo);
+			if (lista == null)
+			{
+				return new int[0];
+			}
+			listas[i++] = lista;
+		}
+
+		// Se empieza por la lista más corta para que las intersecciones sean baratas
+		Arrays.sort(listas, (a, b) -> Integer.compare(a.tamano, b.tamano));
+		int[] candidatos = Arrays.copyOf(listas[0].datos, listas[0].tamano);
+		int cantidad = candidatos.length;
+		for (int j = 1; j < listas.length && cantidad > 0; j++)
+		{
+			cantidad = intersectar(candidatos, cantidad, listas[j]);
+		}
+
+		return Arrays.copyOf(candidatos, cantidad);
+	}
+
+	/**
+	 * Deja en las primeras posiciones del arreglo de candidatos los que también
+	 * están en la lista indicada. Ambos están ordenados.
+	 *
+	 * @param candidatos Arreglo ordenado con los candidatos actuales
+	 * @param cantidad   Cantidad de posiciones ocupadas en el arreglo
+	 * @param lista      Lista ordenada con la que se intersecta
+	 * @return La cantidad de candidatos que quedan
+	 */
+	private static int intersectar(int[] candidatos, int cantidad, ListaEnteros lista)
+	{
+		int quedan = 0;
+		int j = 0;
+		for (int i = 0; i < cantidad && j < lista.tamano; i++)
+		{
+			int candidato = candidatos[i];
+			while (j < lista.tamano && lista.datos[j] < candidato)
+			{
+				j++;
+			}
+			if (j < lista.tamano && lista.datos[j] == candidato)
+			{
+				candidatos[quedan++] = candidato;
+			}
+		}
+		return quedan;
+	}
+
+	/**
+	 * Calcula los trigramas distintos de un texto, cada uno empacado en un long
+	 *
+	 * @param texto El texto
+	 * @return El conjunto de trigramas del texto
+	 */
+	private static HashSet<Long> gramos(String texto)
+	{
+		HashSet<Long> resultado = new HashSet<Long>();
+		for (int i = 0; i + LONGITUD_GRAMO <= texto.length(); i++)
+		{
+			long gramo = ((long) texto.charAt(i) << 32) | ((long) texto.charAt(i + 1) << 16) | texto.charAt(i + 2);
+			resultado.add(gramo);
+		}
+		return resultado;
+	}
+
+	/**
+	 * Pliega un texto que ya está en minúsculas: le quita las tildes y demás
+	 * diacríticos a cada caracter.
+	 *
+	 * El plegado se hace caracter por caracter y conserva la longitud del texto,
+	 * así que si un texto contiene a otro, el texto plegado también contiene al
+	 * otro texto plegado. Por eso los candidatos del índice nunca dejan por fuera
+	 * un texto que contenga la cadena buscada.
+	 *
+	 * @param textoMinusculas El texto en minúsculas
+	 * @return El texto plegado
+	 */
+	public static String plegar(String textoMinusculas)
+	{
+		char[] caracteres = null;
+		for (int i = 0; i < textoMinusculas.length(); i++)
+		{
+			char c = textoMinusculas.charAt(i);
+			if (c < SIN_TILDE.length && SIN_TILDE[c] != c)
+			{
+				if (caracteres == null)
+				{
+					caracteres = textoMinusculas.toCharArray();
+				}
+				caracteres[i] = SIN_TILDE[c];
+			}
+		}
+		return caracteres == null ? textoMinusculas : new String(caracteres);
+	}
+
+	/**
+	 * Construye la tabla de caracteres sin tilde para los bloques latinos de
+	 * Unicode (hasta Latín extendido B)
+	 *
+	 * @return La tabla
+	 */
+	private static char[] construirTablaSinTilde()
+	{
+		char[] tabla = new char[0x250];
+		for (char c = 0; c < tabla.length; c++)
+		{
+			tabla[c] = c;
+			String descompuesto = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+			if (descompuesto.length() > 1)
+			{
+				boolean soloMarcas = true;
+				for (int i = 1; i < descompuesto.length(); i++)
+				{
+					soloMarcas &= Character.getType(descompuesto.charAt(i)) == Character.NON_SPACING_MARK;
+				}
+				if (soloMarcas)
+				{
+					tabla[c] = descompuesto.charAt(0);
+				}
+			}
+		}
+		return tabla;
+	}
+
+	// ************************************************************************
+	// Clases anidadas
+	// ************************************************************************
+
+	/**
+	 * Lista ordenada de enteros sin objetos intermedios
+	 */
+	private static final class ListaEnteros
+	{
+		private int[] datos = new int[4];
+
+		private int tamano = 0;
+
+		private void agregar(int valor)
+		{
+			int pos = tamano;
+			if (tamano > 0 && datos[tamano - 1] >= valor)
+			{
+				pos = Arrays.binarySearch(datos, 0, tamano, valor);
+				if (pos >= 0)
+				{
+					return;
+				}
+				pos = -pos - 1;
+			}
+			if (tamano == datos.length)
+			{
+				datos = Arrays.copyOf(datos, tamano * 2);
+			}
+			System.arraycopy(datos, pos, datos, pos + 1, tamano - pos);
+			datos[pos] = valor;
+			tamano++;
+		}
+
+		private boolean eliminar(int valor)
+		{
+			int pos = Arrays.binarySearch(datos, 0, tamano, valor);
+			if (pos < 0)
+			{
+				return false;
+			}
+			System.arraycopy(datos, pos + 1, datos, pos, tamano - pos - 1);
+			tamano--;
+			return true;
+		}
+
+		private boolean estaVacia()
+		{
+			return tamano == 0;
+		}
+	}
+
+}
@@ -0,0 +1,121 @@
+package uniandes.dpoo.taller1.modelo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IndiceTrigramasTest
+{
+	private IndiceTrigramas indice;
+
+	@BeforeEach
+	void setUp() throws Exception
+	{
+		indice = new IndiceTrigramas();
+		agregar(0, "Gabriel García Márquez");
+		agregar(1, "Julio Verne");
+		agregar(2, "Ñuño Müller");
+		agregar(3, "Jules Verne");
+	}
+
+	private void agregar(int id, String texto)
+	{
+		indice.agregar(id, IndiceTrigramas.plegar(texto.toLowerCase()));
+	}
+
+	private int[] buscar(String consulta)
+	{
+		return indice.buscarCandidatos(IndiceTrigramas.plegar(consulta.toLowerCase()));
+	}
+
+	@Test
+	void testPlegar()
+	{
+		assertEquals("garcia marquez", IndiceTrigramas.plegar("garcía márquez"));
+		assertEquals("nuno muller", IndiceTrigramas.plegar("ñuño müller"));
+		assertEquals("cedille a", IndiceTrigramas.plegar("cédillé à"));
+
+		// Los caracteres sin diacríticos se dejan como están, y el texto conserva
+		// su longitud
+		assertEquals("æøß", IndiceTrigramas.plegar("æøß"));
+		assertEquals("東京", IndiceTrigramas.plegar("東京"));
+		String sinTildes = "julio verne";
+		assertSame(sinTildes, IndiceTrigramas.plegar(sinTildes));
+	}
+
+	@Test
+	void testBuscarSinTenerEnCuentaTildes()
+	{
+		assertArrayEquals(new int[] { 0 }, buscar("garcia"));
+		assertArrayEquals(new int[] { 0 }, buscar("GARCÍA"));
+		assertArrayEquals(new int[] { 0 }, buscar("marquez"));
+		assertArrayEquals(new int[] { 2 }, buscar("muller"));
+		assertArrayEquals(new int[] { 2 }, buscar("ñuñ"));
+	}
+
+	@Test
+	void testBuscarVariosCandidatos()
+	{
+		assertArrayEquals(new int[] { 1, 3 }, buscar("verne"));
+		assertArrayEquals(new int[] { 1, 3 }, buscar("jul"));
+		assertArrayEquals(new int[] { 1 }, buscar("julio"));
+		assertArrayEquals(new int[0], buscar("cortázar"));
+	}
+
+	/**
+	 * Los candidatos solamente garantizan que están todos los trigramas, no que
+	 * estén seguidos: la verificación le corresponde a quien usa el índice
+	 */
+	@Test
+	void testCandidatosConTodosLosTrigramas()
+	{
+		agregar(4, "abcxbcd");
+		assertArrayEquals(new int[] { 4 }, buscar("abcd"));
+	}
+
+	@Test
+	void testConsultasCortas()
+	{
+		assertNull(buscar(""));
+		assertNull(buscar("j"));
+		assertNull(buscar("ve"));
+		assertNotNull(buscar("ver"));
+	}
+
+	@Test
+	void testEliminar()
+	{
+		indice.eliminar(1, IndiceTrigramas.plegar("julio verne"));
+		assertArrayEquals(new int[] { 3 }, buscar("verne"));
+		assertArrayEquals(new int[0], buscar("julio"));
+
+		indice.eliminar(3, IndiceTrigramas.plegar("jules verne"));
+		assertArrayEquals(new int[0], buscar("verne"));
+
+		// Eliminar un texto que no está no cambia nada
+		indice.eliminar(7, IndiceTrigramas.plegar("julio verne"));
+		assertArrayEquals(new int[] { 0 }, buscar("garcia"));
+	}
+
+	/**
+	 * Un identificador que se libera y se vuelve a usar queda en su lugar en las
+	 * listas, aunque ya haya identificadores mayores
+	 */
+	@Test
+	void testReutilizarIdentificador()
+	{
+		indice.eliminar(1, IndiceTrigramas.plegar("julio verne"));
+		agregar(1, "Verne Julio");
+		assertArrayEquals(new int[] { 1, 3 }, buscar("verne"));
+		assertArrayEquals(new int[] { 1 }, buscar("julio"));
+
+		indice.eliminar(0, IndiceTrigramas.plegar("gabriel garcía márquez"));
+		agregar(0, "Julia Verner");
+		agregar(5, "Julieta Vernet");
+		assertArrayEquals(new int[] { 0, 1, 3, 5 }, buscar("verne"));
+		assertArrayEquals(new int[] { 0, 1, 5 }, buscar("juli"));
+		assertArrayEquals(new int[0], buscar("garcia"));
+	}
+
+}
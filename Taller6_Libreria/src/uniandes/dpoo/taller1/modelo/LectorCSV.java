@@ -0,0 +1,531 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Esta clase lee un archivo CSV registro por registro, sin construir una cadena
+ * por cada línea ni usar expresiones regulares.
+ *
+ * Los bytes se leen por bloques en un buffer que se reutiliza, y los campos del
+ * registro actual se copian en un arreglo que también se reutiliza. Los campos
+ * se pueden consultar como texto o convertirse directamente en números a partir
+ * de los bytes.
+ *
+ * El lector sigue el formato RFC 4180: los campos pueden estar entre comillas,
+ * y dentro de las comillas pueden aparecer comas, saltos de línea y comillas
+ * dobles (escritas como dos comillas seguidas). Los archivos deben estar en
+ * UTF-8. Las líneas vacías se ignoran.
+ *
+ * Los registros pueden terminar en LF o en CRLF. Un CR que no está seguido de
+ * un LF es parte del campo, y dentro de las comillas todos los bytes se
+ * conservan tal como están.
+ */
+public class LectorCSV implements Closeable
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Tamaño del buffer con el que se lee el archivo
+	 */
+	private static final int TAMANO_BUFFER = 64 * 1024;
+
+	/**
+	 * Potencias de 10 que se pueden representar exactamente como double
+	 */
+	private static final double[] POTENCIAS_10 = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/**
+	 * Mayor mantisa que se puede representar exactamente como double (2^53)
+	 */
+	private static final long MAXIMA_MANTISA_EXACTA = 1L << 53;
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * Canal del que se leen los bytes. Vale null cuando los datos completos se
+	 * entregaron en un buffer.
+	 */
+	private ReadableByteChannel canal;
+
+	/**
+	 * Buffer con los bytes leídos que aún no se han procesado
+	 */
+	private ByteBuffer buffer;
+
+	/**
+	 * Bytes de los campos del registro actual, uno detrás de otro
+	 */
+	private byte[] datos;
+
+	/**
+	 * Posición en el arreglo 'datos' donde empieza cada campo del registro actual.
+	 * La posición cantidadCampos indica dónde termina el último campo.
+	 */
+	private int[] limites;
+
+	/**
+	 * Cantidad de campos del registro actual
+	 */
+	private int cantidadCampos;
+
+	/**
+	 * Cantidad de bytes usados en el arreglo 'datos'
+	 */
+	private int longitudDatos;
+
+	/**
+	 * Cantidad de registros leídos hasta el momento
+	 */
+	private long registrosLeidos;
+
+	/**
+	 * Cantidad de bytes procesados hasta el momento
+	 */
+	private long bytesLeidos;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Abre un lector sobre el archivo indicado
+	 *
+	 * @param nombreArchivo El nombre del archivo CSV
+	 * @throws IOException Se lanza esta excepción si no se puede abrir el archivo
+	 */
+	public LectorCSV(String nombreArchivo) throws IOException
+	{
+		this(FileChannel.open(Paths.get(nombreArchivo), StandardOpenOption.READ), ByteBuffer.allocate(TAMANO_BUFFER));
+		buffer.flip();
+	}
+
+	/**
+	 * Construye un lector sobre bytes que ya están en memoria, por ejemplo una
+	 * parte de un archivo mapeado en memoria. El lector procesa los bytes entre la
+	 * posición y el límite del buffer.
+	 *
+	 * @param bytes El buffer con los datos
+	 */
+	public LectorCSV(ByteBuffer bytes)
+	{
+		this(null, bytes);
+	}
+
+	/**
+	 * Inicializa los atributos comunes a todos los lectores
+	 *
+	 * @param elCanal  El canal del que se lee, o null
+	 * @param elBuffer El buffer de lectura
+	 */
+	private LectorCSV(ReadableByteChannel elCanal, ByteBuffer elBuffer)
+	{
+		this.canal = elCanal;
+		this.buffer = elBuffer;
+		this.datos = new byte[256];
+		this.limites = new int[16];
+		this.cantidadCampos = 0;
+		this.longitudDatos = 0;
+		this.registrosLeidos = 0;
+		this.bytesLeidos = 0;
+	}
+
+	// ************************************************************************
+	// Métodos para consultar los atributos
+	// ************************************************************************
+
+	/**
+	 * Consulta la cantidad de campos del registro actual
+	 *
+	 * @return cantidadCampos
+	 */
+	public int contarCampos()
+	{
+		return cantidadCampos;
+	}
+
+	/**
+	 * Consulta cuántos registros se han leído, incluyendo el actual
+	 *
+	 * @return registrosLeidos
+	 */
+	public long darRegistrosLeidos()
+	{
+		return registrosLeidos;
+	}
+
+	/**
+	 * Consulta cuántos bytes del archivo se han procesado
+	 *
+	 * @return bytesLeidos
+	 */
+	public long darBytesLeidos()
+	{
+		return bytesLeidos;
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	/**
+	 * Avanza al siguiente registro del archivo
+	 *
+	 * @return Retorna true si se pudo leer un registro; false si se llegó al final
+	 *         del archivo
+	 * @throws IOException Se lanza esta excepción si hay algún problema leyendo del
+	 *                     archivo, o una EOFException si el archivo termina dentro
+	 *                     de un campo entre comillas
+	 */
+	public boolean siguienteRegistro() throws IOException
+	{
+		cantidadCampos = 0;
+		longitudDatos = 0;
+		limites[0] = 0;
+
+		boolean enComillas = false;
+		boolean registroIniciado = false;
+		boolean comillaPendiente = false;
+		boolean retornoPendiente = false;
+
+		while (true)
+		{
+			if (!buffer.hasRemaining() && !llenarBuffer())
+			{
+				if (enComillas)
+				{
+					throw new EOFException("El registro " + (registrosLeidos + 1)
+							+ " tiene un campo entre comillas que no termina antes del final del archivo");
+				}
+				if (retornoPendiente)
+				{
+					agregarByte((byte) '\r');
+				}
+				break;
+			}
+
+			byte b = buffer.get();
+			bytesLeidos++;
+
+			if (retornoPendiente)
+			{
+				// El CR anterior solamente termina el registro si lo sigue un LF
+				retornoPendiente = false;
+				if (b != '\n')
+				{
+					agregarByte((byte) '\r');
+					registroIniciado = true;
+				}
+			}
+
+			if (enComillas)
+			{
+				if (b == '"')
+				{
+					enComillas = false;
+					comillaPendiente = true;
+				}
+				else
+				{
+					agregarByte(b);
+				}
+				continue;
+			}
+
+			if (b == '"')
+			{
+				if (comillaPendiente)
+				{
+					// Dos comillas seguidas dentro de un campo entre comillas son una
+					// comilla escapada
+					agregarByte(b);
+					enComillas = true;
+				}
+				else if (longitudDatos == limites[cantidadCampos])
+				{
+					enComillas = true;
+				}
+				else
+				{
+					// Una comilla en medio de un campo sin comillas se toma literal
+					agregarByte(b);
+				}
+				comillaPendiente = false;
+				registroIniciado = true;
+				continue;
+			}
+
+			comillaPendiente = false;
+			if (b == ',')
+			{
+				terminarCampo();
+				registroIniciado = true;
+			}
+			else if (b == '\n')
+			{
+				if (registroIniciado)
+				{
+					break;
+				}
+			}
+			else if (b == '\r')
+			{
+				retornoPendiente = true;
+			}
+			else
+			{
+				agregarByte(b);
+				registroIniciado = true;
+			}
+		}
+
+		if (!registroIniciado)
+		{
+			return false;
+		}
+
+		terminarCampo();
+		registrosLeidos++;
+		return true;
+	}
+
+	/**
+	 * Retorna el texto de un campo del registro actual
+	 *
+	 * @param campo La posición del campo
+	 * @return El texto del campo
+	 */
+	public String darTexto(int campo)
+	{
+		int inicio = inicioCampo(campo);
+		return new String(datos, inicio, limites[campo + 1] - inicio, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Consulta si un campo del registro actual es igual al texto indicado, sin
+	 * construir una cadena con el campo. El texto debe estar en ASCII.
+	 *
+	 * @param campo La posición del campo
+	 * @param texto El texto con el que se compara
+	 * @return Retorna true si el campo es igual al texto
+	 */
+	public boolean esIgual(int campo, String texto)
+	{
+		int inicio = inicioCampo(campo);
+		int longitud = limites[campo + 1] - inicio;
+		if (longitud != texto.length())
+		{
+			return false;
+		}
+		for (int i = 0; i < longitud; i++)
+		{
+			if (datos[inicio + i] != texto.charAt(i))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Convierte un campo del registro actual en un número entero
+	 *
+	 * @param campo La posición del campo
+	 * @return El valor del campo
+	 * @throws NumberFormatException Se lanza esta excepción si el campo no es un
+	 *                               número entero
+	 */
+	public int darEntero(int campo)
+	{
+		int inicio = inicioCampo(campo);
+		int fin = limites[campo + 1];
+		int i = inicio;
+		boolean negativo = false;
+		if (i < fin && (datos[i] == '-' || datos[i] == '+'))
+		{
+			negativo = datos[i] == '-';
+			i++;
+		}
+
+		long valor = 0;
+		boolean valido = i < fin && fin - i <= 10;
+		for (; i < fin && valido; i++)
+		{
+			int digito = datos[i] - '0';
+			valido = digito >= 0 && digito <= 9;
+			valor = valor * 10 + digito;
+		}
+		valor = negativo ? -valor : valor;
+
+		if (!valido || valor < Integer.MIN_VALUE || valor > Integer.MAX_VALUE)
+		{
+			// El caso general produce el mismo resultado o el mismo error que antes
+			return Integer.parseInt(darTextoAscii(inicio, fin));
+		}
+		return (int) valor;
+	}
+
+	/**
+	 * Convierte un campo del registro actual en un número decimal.
+	 *
+	 * Los números cortos sin exponente, como los de las calificaciones, se
+	 * convierten directamente desde los bytes: si la mantisa y la potencia de 10
+	 * se pueden representar exactamente, una sola operación da el double más
+	 * cercano, que es el mismo que produce Double.parseDouble. Los demás casos se
+	 * le delegan a Double.parseDouble.
+	 *
+	 * @param campo La posición del campo
+	 * @return El valor del campo
+	 * @throws NumberFormatException Se lanza esta excepción si el campo no es un
+	 *                               número
+	 */
+	public double darDouble(int campo)
+	{
+		int inicio = inicioCampo(campo);
+		int fin = limites[campo + 1];
+		int i = inicio;
+		boolean negativo = false;
+		if (i < fin && (datos[i] == '-' || datos[i] == '+'))
+		{
+			negativo = datos[i] == '-';
+			i++;
+		}
+
+		long mantisa = 0;
+		int decimales = 0;
+		int digitos = 0;
+		boolean enDecimales = false;
+		boolean valido = i < fin;
+		for (; i < fin && valido; i++)
+		{
+			byte b = datos[i];
+			if (b == '.' && !enDecimales)
+			{
+				enDecimales = true;
+			}
+			else if (b >= '0' && b <= '9')
+			{
+				mantisa = mantisa * 10 + (b - '0');
+				digitos++;
+				decimales += enDecimales ? 1 : 0;
+				valido = digitos <= 15;
+			}
+			else
+			{
+				valido = false;
+			}
+		}
+
+		if (!valido || digitos == 0 || mantisa >= MAXIMA_MANTISA_EXACTA || decimales >= POTENCIAS_10.length)
+		{
+			return Double.parseDouble(darTextoAscii(inicio, fin));
+		}
+
+		double valor = mantisa / POTENCIAS_10[decimales];
+		return negativo ? -valor : valor;
+	}
+
+	/**
+	 * Cierra el archivo
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		if (canal != null)
+		{
+			canal.close();
+		}
+	}
+
+	/**
+	 * Vuelve a llenar el buffer con los siguientes bytes del canal
+	 *
+	 * @return Retorna true si se leyeron bytes; false si no quedan más datos
+	 * @throws IOException Se lanza esta excepción si hay algún problema leyendo del
+	 *                     archivo
+	 */
+	private boolean llenarBuffer() throws IOException
+	{
+		if (canal == null)
+		{
+			return false;
+		}
+		buffer.clear();
+		int leidos = canal.read(buffer);
+		while (leidos == 0)
+		{
+			leidos = canal.read(buffer);
+		}
+		buffer.flip();
+		return leidos > 0;
+	}
+
+	/**
+	 * Agrega un byte al campo que se está leyendo
+	 *
+	 * @param b El byte
+	 */
+	private void agregarByte(byte b)
+	{
+		if (longitudDatos == datos.length)
+		{
+			datos = Arrays.copyOf(datos, datos.length * 2);
+		}
+		datos[longitudDatos++] = b;
+	}
+
+	/**
+	 * Termina el campo que se está leyendo y empieza el siguiente
+	 */
+	private void terminarCampo()
+	{
+		cantidadCampos++;
+		if (cantidadCampos + 1 > limites.length)
+		{
+			limites = Arrays.copyOf(limites, limites.length * 2);
+		}
+		limites[cantidadCampos] = longitudDatos;
+	}
+
+	/**
+	 * Retorna la posición donde empieza un campo, verificando que exista
+	 *
+	 * @param campo La posición del campo
+	 * @return La posición del primer byte del campo en el arreglo 'datos'
+	 */
+	private int inicioCampo(int campo)
+	{
+		if (campo < 0 || campo >= cantidadCampos)
+		{
+			throw new IndexOutOfBoundsException(
+					"El registro " + registrosLeidos + " no tiene el campo " + campo);
+		}
+		return limites[campo];
+	}
+
+	/**
+	 * Construye una cadena con los bytes indicados, que se esperan en ASCII
+	 *
+	 * @param inicio Posición del primer byte
+	 * @param fin    Posición siguiente al último byte
+	 * @return La cadena
+	 */
+	private String darTextoAscii(int inicio, int fin)
+	{
+		return new String(datos, inicio, fin - inicio, StandardCharsets.ISO_8859_1);
+	}
+
+}
@@ -0,0 +1,227 @@
+package uniandes.dpoo.taller1.modelo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LectorCSVTest
+{
+	@TempDir
+	Path carpeta;
+
+	private static LectorCSV crearLector(String contenido)
+	{
+		return new LectorCSV(ByteBuffer.wrap(contenido.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Lee todos los registros de un lector, cada uno como una lista de textos
+	 */
+	private static List<List<String>> leerTodo(LectorCSV lector) throws IOException
+	{
+		List<List<String>> registros = new ArrayList<List<String>>();
+		while (lector.siguienteRegistro())
+		{
+			List<String> campos = new ArrayList<String>();
+			for (int i = 0; i < lector.contarCampos(); i++)
+			{
+				campos.add(lector.darTexto(i));
+			}
+			registros.add(campos);
+		}
+		return registros;
+	}
+
+	private static List<List<String>> leerTodo(String contenido) throws IOException
+	{
+		return leerTodo(crearLector(contenido));
+	}
+
+	@Test
+	void testCamposSimples() throws IOException
+	{
+		assertEquals(List.of(List.of("Titulo", "Autor"), List.of("Cien años", "García"), List.of("", "x", "")),
+				leerTodo("Titulo,Autor\nCien años,García\n,x,\n"));
+
+		// La última línea no necesita salto de línea, y las líneas vacías se ignoran
+		assertEquals(List.of(List.of("a"), List.of("b")), leerTodo("\na\n\n\nb"));
+		assertEquals(List.of(), leerTodo(""));
+	}
+
+	@Test
+	void testCamposEntreComillas() throws IOException
+	{
+		assertEquals(List.of(List.of("Uno, dos", "tres")), leerTodo("\"Uno, dos\",tres\n"));
+		assertEquals(List.of(List.of("Dijo \"hola\"", "")), leerTodo("\"Dijo \"\"hola\"\"\",\"\"\n"));
+
+		// Una comilla en medio de un campo sin comillas se toma literal
+		assertEquals(List.of(List.of("5\" de alto")), leerTodo("5\" de alto\n"));
+	}
+
+	@Test
+	void testSaltosDeLineaEntreComillas() throws IOException
+	{
+		assertEquals(List.of(List.of("Primera\nsegunda", "x"), List.of("y")),
+				leerTodo("\"Primera\nsegunda\",x\ny\n"));
+		assertEquals(List.of(List.of("Primera\r\nsegunda", "x"), List.of("y")),
+				leerTodo("\"Primera\r\nsegunda\",x\r\ny\r\n"));
+		assertEquals(List.of(List.of("Retorno\rsolo")), leerTodo("\"Retorno\rsolo\"\r\n"));
+	}
+
+	@Test
+	void testFinDeLineaCRLF() throws IOException
+	{
+		assertEquals(List.of(List.of("a", "b"), List.of("c", "d")), leerTodo("a,b\r\nc,d\r\n"));
+		assertEquals(List.of(List.of("a", "b"), List.of("c")), leerTodo("a,\"b\"\r\n\r\nc"));
+
+		// Un CR que no está seguido de un LF es parte del campo
+		assertEquals(List.of(List.of("a\rb", "c\r", "d")), leerTodo("a\rb,c\r,d\r\n"));
+		assertEquals(List.of(List.of("a", "b\r")), leerTodo("a,b\r"));
+	}
+
+	@Test
+	void testComillaSinCerrar() throws IOException
+	{
+		LectorCSV lector = crearLector("Titulo,Autor\n\"Sin cerrar,x\ny,z\n");
+		assertTrue(lector.siguienteRegistro());
+		assertThrows(EOFException.class, () -> lector.siguienteRegistro());
+
+		assertThrows(EOFException.class, () -> leerTodo("a,\""));
+	}
+
+	@Test
+	void testEsIgual() throws IOException
+	{
+		LectorCSV lector = crearLector("true,True,\"true\",truee\n");
+		assertTrue(lector.siguienteRegistro());
+		assertTrue(lector.esIgual(0, "true"));
+		assertFalse(lector.esIgual(1, "true"));
+		assertTrue(lector.esIgual(2, "true"));
+		assertFalse(lector.esIgual(3, "true"));
+		assertThrows(IndexOutOfBoundsException.class, () -> lector.esIgual(4, "true"));
+	}
+
+	@Test
+	void testDarEntero() throws IOException
+	{
+		LectorCSV lector = crearLector("85,-7,+12,0,2147483647,-2147483648,007\n");
+		assertTrue(lector.siguienteRegistro());
+		int[] esperados = { 85, -7, 12, 0, Integer.MAX_VALUE, Integer.MIN_VALUE, 7 };
+		for (int i = 0; i < esperados.length; i++)
+		{
+			assertEquals(esperados[i], lector.darEntero(i));
+		}
+	}
+
+	/**
+	 * Los campos que no pasan por el camino rápido producen el mismo error que
+	 * Integer.parseInt
+	 */
+	@Test
+	void testDarEnteroInvalido() throws IOException
+	{
+		LectorCSV lector = crearLector("2147483648,99999999999,12a,,-, 5,1.0\n");
+		assertTrue(lector.siguienteRegistro());
+		for (int i = 0; i < lector.contarCampos(); i++)
+		{
+			int campo = i;
+			assertThrows(NumberFormatException.class, () -> lector.darEntero(campo), lector.darTexto(i));
+		}
+	}
+
+	@Test
+	void testDarDouble() throws IOException
+	{
+		// Los primeros se convierten desde los bytes y los demás se delegan a
+		// Double.parseDouble; todos deben dar el mismo double
+		String[] textos = { "4.23", "0.1", "-3.5", "+2", ".5", "5.", "0.000000000000001", "123456789012345",
+				"1e3", "2.5E-2", "1234567890123456789", "0.30000000000000004", "NaN", "-Infinity", " 4.5" };
+		LectorCSV lector = crearLector(String.join(",", textos) + "\n");
+		assertTrue(lector.siguienteRegistro());
+		for (int i = 0; i < textos.length; i++)
+		{
+			assertEquals(Double.parseDouble(textos[i]), lector.darDouble(i), 0.0, textos[i]);
+		}
+	}
+
+	@Test
+	void testDarDoubleIgualAParseDouble() throws IOException
+	{
+		Random azar = new Random(7);
+		StringBuilder contenido = new StringBuilder();
+		List<String> textos = new ArrayList<String>();
+		for (int i = 0; i < 5000; i++)
+		{
+			int decimales = azar.nextInt(8);
+			long mantisa = (long) (azar.nextDouble() * Math.pow(10, 1 + azar.nextInt(14)));
+			String texto = decimales == 0 ? Long.toString(mantisa)
+					: mantisa / (long) Math.pow(10, decimales) + "."
+							+ String.format("%0" + decimales + "d", mantisa % (long) Math.pow(10, decimales));
+			textos.add(texto);
+			contenido.append(texto).append('\n');
+		}
+
+		LectorCSV lector = crearLector(contenido.toString());
+		for (String texto : textos)
+		{
+			assertTrue(lector.siguienteRegistro());
+			assertEquals(Double.doubleToLongBits(Double.parseDouble(texto)),
+					Double.doubleToLongBits(lector.darDouble(0)), texto);
+		}
+		assertFalse(lector.siguienteRegistro());
+	}
+
+	@Test
+	void testDarDoubleInvalido() throws IOException
+	{
+		LectorCSV lector = crearLector("4.2.1,abc,,-,1,5\n");
+		assertTrue(lector.siguienteRegistro());
+		for (int i = 0; i < 4; i++)
+		{
+			int campo = i;
+			assertThrows(NumberFormatException.class, () -> lector.darDouble(campo), lector.darTexto(i));
+		}
+	}
+
+	/**
+	 * Un archivo más grande que el buffer de lectura, con registros CRLF y
+	 * campos entre comillas que quedan partidos entre dos lecturas del canal
+	 */
+	@Test
+	void testArchivoMasGrandeQueElBuffer() throws IOException
+	{
+		StringBuilder contenido = new StringBuilder("Titulo,Autor,Calificacion\r\n");
+		List<List<String>> esperados = new ArrayList<List<String>>();
+		esperados.add(List.of("Titulo", "Autor", "Calificacion"));
+		for (int i = 0; i < 20000; i++)
+		{
+			String titulo = i % 3 == 0 ? "Libro, tomo " + i : "Libro " + i;
+			String autor = i % 5 == 0 ? "Autor\r\ncon \"apodo\" " + i : "Autor " + i;
+			esperados.add(Arrays.asList(titulo, autor, (i % 50) / 10.0 + ""));
+			contenido.append('"').append(titulo).append("\",\"").append(autor.replace("\"", "\"\"")).append("\",")
+					.append((i % 50) / 10.0).append("\r\n");
+		}
+		Path archivo = carpeta.resolve("libros.csv");
+		Files.write(archivo, contenido.toString().getBytes(StandardCharsets.UTF_8));
+
+		try (LectorCSV lector = new LectorCSV(archivo.toString()))
+		{
+			assertEquals(esperados, leerTodo(lector));
+			assertEquals(Files.size(archivo), lector.darBytesLeidos());
+			assertEquals(esperados.size(), lector.darRegistrosLeidos());
+		}
+	}
+
+}
@@ -1,14 +1,20 @@
 package uniandes.dpoo.taller1.modelo;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 
-import javax.swing.JOptionPane;
+import uniandes.dpoo.taller1.eventos.EventoCargaLibreria;
+import uniandes.dpoo.taller1.eventos.EventoConsultaLibreria;
+import uniandes.dpoo.taller1.eventos.EventoFaseCarga;
+import uniandes.dpoo.taller1.eventos.EventoModificacionLibreria;
 
 /**
  * Esta clase agrupa toda la información de una librería: las categorías que se
@@ -19,24 +25,87 @@ import javax.swing.JOptionPane;
  */
 public class Libreria
 {
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Cada cuántos libros leídos se informa el avance de la carga
+	 */
+	private static final int LIBROS_POR_AVANCE = 8192;
+
+	/**
+	 * La distancia entre los órdenes de dos libros seguidos del catálogo recién
+	 * cargado. Los huecos permiten ubicar los libros que se agregan al aplicar
+	 * una diferencia sin cambiar el orden de los demás. Con esta distancia el
+	 * orden alcanza para catálogos de hasta 134 millones de libros.
+	 */
+	private static final int SEPARACION_ORDEN = 16;
+
+	/**
+	 * La menor distancia entre órdenes que se acepta al volver a repartir los
+	 * órdenes de una parte del catálogo
+	 */
+	private static final int SEPARACION_MINIMA = SEPARACION_ORDEN / 2;
+
 	// ************************************************************************
 	// Atributos
 	// ************************************************************************
 
 	/**
-	 * El arreglo con las categorías que hay en la librería
+	 * El registro con las categorías que hay en la librería
 	 */
-	private Categoria[] categorias;
+	private RegistroCategorias categorias;
 
 	/**
 	 * Una lista con los libros disponibles en la librería
 	 */
 	private ArrayList<Libro> catalogo;
 
+	/**
+	 * Índice que permite encontrar los libros del catálogo por su título
+	 */
+	private IndiceTitulos indiceTitulos;
+
+	/**
+	 * Índice que permite buscar los libros del catálogo por su autor
+	 */
+	private IndiceAutores indiceAutores;
+
+	/**
+	 * Diccionario con el que se evitan copias repetidas de los autores y de las
+	 * portadas durante la carga. Al terminar la carga solamente conserva sus
+	 * cifras.
+	 */
+	private DiccionarioCarga diccionario;
+
+	/**
+	 * Almacén por columnas con los datos de los libros, o null si cada libro
+	 * guarda sus propios datos
+	 */
+	private AlmacenColumnar almacen;
+
+	/**
+	 * Permite saber qué archivos de portadas existen dentro de la carpeta "data"
+	 */
+	private DirectorioPortadas portadas;
+
 	/**
 	 * Una lista con las categorias agregadas al cargar el catlogo
 	 */
 	private ArrayList<Categoria> categoriasAgregadas;
+
+	/**
+	 * El notificador que recibe los avisos de la librería, o null si nadie los
+	 * recibe
+	 */
+	private NotificadorLibreria notificador;
+
+	/**
+	 * Las métricas donde se registran las mediciones de la librería, o null si
+	 * no se mide nada
+	 */
+	private MetricasLibreria metricas;
 	
 	// ************************************************************************
 	// Constructores
@@ -54,10 +123,162 @@ public class Libreria
 	 *                     archivo
 	 */
 	public Libreria(String nombreArchivoCategorias, String nombreArchivoLibros) throws IOException
+	{
+		this(nombreArchivoCategorias, nombreArchivoLibros, new OpcionesCarga());
+	}
+
+	/**
+	 * Construye una nueva librería a partir de la información contenida en los
+	 * archivos, cargándola de acuerdo con las opciones indicadas.
+	 * 
+	 * @param nombreArchivoCategorias El nombre del archivo CSV que tiene la
+	 *                                información sobre las categorías de libros
+	 * @param nombreArchivoLibros     El nombre del archivo CSV que tiene la
+	 *                                información sobre los libros
+	 * @param opciones                Las opciones que controlan la carga
+	 * @throws IOException Lanza esta excepción si hay algún problema leyendo un
+	 *                     archivo
+	 */
+	public Libreria(String nombreArchivoCategorias, String nombreArchivoLibros, OpcionesCarga opciones)
+			throws IOException
 	{
 		this.categoriasAgregadas = new ArrayList<Categoria>();
+		this.portadas = new DirectorioPortadas("./data");
+		this.catalogo = new ArrayList<Libro>();
+		this.indiceTitulos = new IndiceTitulos();
+		this.indiceAutores = new IndiceAutores();
+		this.almacen = opciones.esAlmacenColumnar() ? new AlmacenColumnar() : null;
+		this.diccionario = new DiccionarioCarga();
+		this.notificador = opciones.darNotificador();
+		this.metricas = opciones.darMetricas();
+		long inicioCarga = iniciarMedicion();
+		EventoCargaLibreria eventoCarga = EventoCargaLibreria.iniciar(nombreArchivoCategorias, nombreArchivoLibros);
+		if (metricas != null)
+		{
+			metricas.iniciarCarga();
+		}
+
+		String archivoCopia = opciones.darArchivoCopia();
+		SnapshotCatalogo copia = null;
+		if (archivoCopia != null)
+		{
+			copia = SnapshotCatalogo.abrirVigente(archivoCopia, nombreArchivoCategorias, nombreArchivoLibros);
+		}
+
+		if (copia != null)
+		{
+			long inicio = iniciarMedicion();
+			EventoFaseCarga evento = EventoFaseCarga.iniciar();
+			cargarCopia(copia, Files.size(Paths.get(archivoCopia)), opciones);
+			registrarFase("copia.lectura", inicio, evento);
+			diccionario.liberar();
+			if (opciones.esVerificacionPortadas())
+			{
+				verificarPortadas();
+			}
+			terminarCarga(inicioCarga, eventoCarga, "copia");
+			notificarCategoriasAgregadas();
+			return;
+		}
+
+		SnapshotCatalogo.Huella huella = new SnapshotCatalogo.Huella(nombreArchivoCategorias, nombreArchivoLibros);
+		EventoFaseCarga eventoCategorias = EventoFaseCarga.iniciar();
 		this.categorias = cargarCategorias(nombreArchivoCategorias);
-		this.catalogo = cargarCatalogo(nombreArchivoLibros);
+		eventoCategorias.terminar("categorias", categorias.darCantidad());
+
+		boolean paralela = opciones.esCargaParalela() && CargadorParalelo.puedeProcesar(nombreArchivoLibros);
+		EventoFaseCarga eventoLibros = EventoFaseCarga.iniciar();
+		categorias.darEstadisticas().iniciarLote();
+		try
+		{
+			if (paralela)
+			{
+				cargarCatalogoParalelo(nombreArchivoLibros, opciones);
+			}
+			else
+			{
+				cargarCatalogo(nombreArchivoLibros, opciones);
+			}
+		}
+		finally
+		{
+			categorias.darEstadisticas().terminarLote();
+		}
+		eventoLibros.terminar("libros", catalogo.size());
+		if (almacen != null)
+		{
+			almacen.ajustarCapacidad();
+		}
+		diccionario.liberar();
+		if (opciones.esVerificacionPortadas())
+		{
+			verificarPortadas();
+		}
+
+		if (archivoCopia != null)
+		{
+			long inicio = iniciarMedicion();
+			EventoFaseCarga evento = EventoFaseCarga.iniciar();
+			escribirCopia(archivoCopia, huella);
+			registrarFase("copia.escritura", inicio, evento);
+		}
+		terminarCarga(inicioCarga, eventoCarga, paralela ? "paralela" : "secuencial");
+		notificarCategoriasAgregadas();
+	}
+
+	/**
+	 * Construye una copia independiente de una librería, con categorías, libros
+	 * e índices nuevos. Los cambios que se hagan sobre la copia no afectan a la
+	 * original, ni al revés.
+	 * 
+	 * Las categorías conservan su orden y sus identificadores, y los libros
+	 * conservan su orden, pero son objetos distintos.
+	 * La copia usa el mismo notificador que la original.
+	 * 
+	 * @param original La librería que se va a copiar. No se modifica.
+	 */
+	Libreria(Libreria original)
+	{
+		this.categoriasAgregadas = new ArrayList<Categoria>();
+		this.portadas = original.portadas;
+		this.catalogo = new ArrayList<Libro>(original.catalogo.size());
+		this.indiceTitulos = new IndiceTitulos();
+		this.indiceAutores = new IndiceAutores();
+		this.almacen = original.almacen != null ? new AlmacenColumnar() : null;
+		this.diccionario = new DiccionarioCarga();
+		this.notificador = original.notificador;
+		this.metricas = original.metricas;
+		this.categorias = new RegistroCategorias();
+
+		HashSet<Categoria> agregadasOriginal = new HashSet<Categoria>(original.categoriasAgregadas);
+		categorias.darEstadisticas().iniciarLote();
+		for (Categoria laCategoria : original.darCategorias())
+		{
+			Categoria copiaCategoria = new Categoria(laCategoria.darNombre(), laCategoria.esFiccion());
+			categorias.agregar(copiaCategoria);
+			if (agregadasOriginal.contains(laCategoria))
+			{
+				categoriasAgregadas.add(copiaCategoria);
+			}
+		}
+
+		for (Libro libro : original.catalogo)
+		{
+			Categoria laCategoria = categorias.darCategoria(libro.darCategoria().darId());
+			Libro nuevo = crearLibro(libro.darId(), libro.darTitulo(), libro.darAutor(), libro.darCalificacion(),
+					laCategoria);
+			registrarLibro(nuevo, libro.darOrden());
+			if (libro.tienePortada())
+			{
+				nuevo.cambiarPortada(diccionario.internarImagen(libro.darPortada()));
+			}
+		}
+		categorias.darEstadisticas().terminarLote();
+		if (almacen != null)
+		{
+			almacen.ajustarCapacidad();
+		}
+		diccionario.liberar();
 	}
 
 	// ************************************************************************
@@ -71,7 +292,7 @@ public class Libreria
 	 */
 	public Categoria[] darCategorias()
 	{
-		return categorias;
+		return categorias.darCategorias();
 	}
 
 	/**
@@ -84,6 +305,89 @@ public class Libreria
 		return catalogo;
 	}
 
+	/**
+	 * Retorna el diccionario que se usó para cargar el catálogo, con las cifras
+	 * de cuántos autores y portadas estaban repetidos
+	 * 
+	 * @return diccionario
+	 */
+	public DiccionarioCarga darDiccionarioCarga()
+	{
+		return diccionario;
+	}
+
+	/**
+	 * Retorna las categorías que no estaban en el archivo de categorías y se
+	 * agregaron al cargar los libros, en el orden en el que aparecieron
+	 * 
+	 * @return Una copia de la lista de categorías agregadas
+	 */
+	public ArrayList<Categoria> darCategoriasAgregadas()
+	{
+		return new ArrayList<Categoria>(categoriasAgregadas);
+	}
+
+	/**
+	 * Cambia el notificador que recibe los avisos de la librería
+	 * 
+	 * @param elNotificador El notificador, o null para no recibir avisos
+	 */
+	public void cambiarNotificador(NotificadorLibreria elNotificador)
+	{
+		this.notificador = elNotificador;
+	}
+
+	/**
+	 * Retorna las métricas donde se registran las mediciones de la librería
+	 * 
+	 * @return metricas, o null si no se mide nada
+	 */
+	public MetricasLibreria darMetricas()
+	{
+		return metricas;
+	}
+
+	/**
+	 * Cuenta las categorías sin construir el arreglo de categorías, para que las
+	 * métricas puedan consultarlo desde otro hilo
+	 * 
+	 * @return La cantidad de categorías
+	 */
+	int contarCategorias()
+	{
+		return categorias.darCantidad();
+	}
+
+	/**
+	 * Cuenta los autores que tienen libros en el catálogo
+	 * 
+	 * @return La cantidad de autores
+	 */
+	int contarAutores()
+	{
+		return indiceAutores.contarAutores();
+	}
+
+	/**
+	 * Retorna las estadísticas del catálogo
+	 * 
+	 * @return Las estadísticas del registro de categorías
+	 */
+	EstadisticasCatalogo darEstadisticas()
+	{
+		return categorias.darEstadisticas();
+	}
+
+	/**
+	 * Retorna el directorio con el que se verifica si existen las portadas
+	 * 
+	 * @return portadas
+	 */
+	DirectorioPortadas darDirectorioPortadas()
+	{
+		return portadas;
+	}
+
 	// ************************************************************************
 	// Otros métodos
 	// ************************************************************************
@@ -91,264 +395,1067 @@ public class Libreria
 	/**
 	 * Carga la información sobre las categorías disponibles a partir de un archivo
 	 * 
-	 * @param nombreArchivoCategorias El nombre del archivo CSV que contiene la
-	 *                                información de las categorías
-	 * @return Un arreglo con las categorías que se encontraron en el archivo
-	 * @throws IOException Se lanza esta excepción si hay algún problema leyendo del
-	 *                     archivo
+	 * @param nombreArchivoCategorias El nombre del archivo CSV que contiene la
+	 *                                información de las categorías
+	 * @return Un registro con las categorías que se encontraron en el archivo
+	 * @throws IOException Se lanza esta excepción si hay algún problema leyendo del
+	 *                     archivo
+	 */
+	private RegistroCategorias cargarCategorias(String nombreArchivoCategorias) throws IOException
+	{
+		RegistroCategorias registro = new RegistroCategorias();
+
+		CronometroCarga cronometro = crearCronometro(1);
+		try (LectorCSV lector = new LectorCSV(nombreArchivoCategorias))
+		{
+			lector.siguienteRegistro(); // Ignorar la primera línea porque tiene los títulos
+
+			cronometro.iniciar();
+			cronometro.iniciarFila();
+			while (lector.siguienteRegistro())
+			{
+				cronometro.marcar(CronometroCarga.LECTURA);
+				String nombreCat = lector.darTexto(0);
+				boolean esFiccion = lector.esIgual(1, "true");
+				cronometro.marcar(CronometroCarga.CONVERSION);
+
+				// Crear una nueva categoría y agregarla al registro. Si el nombre está
+				// repetido se conserva la primera categoría, que es la que se
+				// encontraría al buscarla por nombre.
+				if (!registro.existe(nombreCat))
+				{
+					registro.agregar(new Categoria(nombreCat, esFiccion));
+				}
+				cronometro.marcar(CronometroCarga.CATEGORIAS);
+				cronometro.iniciarFila();
+			}
+			cronometro.terminar();
+		}
+		registrarFases("categorias", cronometro);
+
+		return registro;
+	}
+
+	/**
+	 * Carga la información sobre los libros disponibles en la librería.
+	 * 
+	 * Se deben haber cargado antes las categorías e inicializado el atributo
+	 * 'categorias'. Los libros cargados se agregan al catálogo y a sus índices.
+	 * 
+	 * @param nombreArchivoLibros El nombre del archivo CSV que contiene la
+	 *                            información de los libros
+	 * @param opciones            Las opciones de la carga, a las que se informa el
+	 *                            avance
+	 * @throws IOException Se lanza esta excepción si hay algún problema leyendo del
+	 *                     archivo, o una InterruptedIOException si se canceló la
+	 *                     carga
+	 */
+	private void cargarCatalogo(String nombreArchivoLibros, OpcionesCarga opciones) throws IOException
+	{
+		long tamanoArchivo = Files.size(Paths.get(nombreArchivoLibros));
+		LectorCSV lector = new LectorCSV(nombreArchivoLibros);
+		try
+		{
+			leerLibros(lector, tamanoArchivo, opciones);
+		}
+		finally
+		{
+			lector.close();
+		}
+		opciones.informarAvance(catalogo.size(), tamanoArchivo, tamanoArchivo);
+	}
+
+	/**
+	 * Lee los libros de un archivo CSV ya abierto y los agrega al catálogo
+	 * 
+	 * @param lector        El lector del archivo, ubicado al comienzo
+	 * @param tamanoArchivo El tamaño del archivo en bytes
+	 * @param opciones      Las opciones de la carga, a las que se informa el avance
+	 * @throws IOException Se lanza esta excepción si hay algún problema leyendo del
+	 *                     archivo, o una InterruptedIOException si se canceló la
+	 *                     carga
+	 */
+	private void leerLibros(LectorCSV lector, long tamanoArchivo, OpcionesCarga opciones) throws IOException
+	{
+		lector.siguienteRegistro(); // Ignorar la primera línea porque tiene los títulos:
+									// Titulo,Autor,Calificacion,Categoria,Portada,Ancho,Alto
+
+		CronometroCarga cronometro = crearCronometro(MetricasLibreria.MUESTREO_CARGA);
+		cronometro.iniciar();
+		cronometro.iniciarFila();
+		while (lector.siguienteRegistro())
+		{
+			cronometro.marcar(CronometroCarga.LECTURA);
+			String elTitulo = lector.darTexto(0);
+			String elAutor = lector.darTexto(1);
+			double laCalificacion = lector.darDouble(2);
+			String nombreCategoria = lector.darTexto(3);
+			String archivoPortada = lector.darTexto(4);
+			int ancho = lector.darEntero(5);
+			int alto = lector.darEntero(6);
+			cronometro.marcar(CronometroCarga.CONVERSION);
+
+			Categoria laCategoria = buscarCategoria(nombreCategoria);
+			cronometro.marcar(CronometroCarga.CATEGORIAS);
+
+			// Crear un nuevo libro
+			Libro nuevo = crearLibro(elTitulo, elAutor, laCalificacion, laCategoria);
+			registrarLibro(nuevo, ordenDeFila(catalogo.size()));
+			cronometro.marcar(CronometroCarga.REGISTRO);
+
+			// Si existe el archivo de la portada, ponérselo al libro
+			if (existeArchivo(archivoPortada))
+			{
+				Imagen portada = diccionario.internarImagen(new Imagen(archivoPortada, ancho, alto));
+				nuevo.cambiarPortada(portada);
+			}
+			cronometro.marcar(CronometroCarga.PORTADAS);
+
+			if (catalogo.size() % LIBROS_POR_AVANCE == 0)
+			{
+				opciones.informarAvance(catalogo.size(), lector.darBytesLeidos(), tamanoArchivo);
+			}
+			cronometro.iniciarFila();
+		}
+		cronometro.terminar();
+		registrarFases("libros", cronometro);
+	}
+
+	/**
+	 * Carga la información sobre los libros disponibles en la librería,
+	 * procesando el archivo por partes en paralelo.
+	 * 
+	 * Las filas de cada parte se convierten en libros en el orden del archivo, y
+	 * las categorías que no existían se crean en ese mismo orden, así que el
+	 * resultado es idéntico al de cargarCatalogo.
+	 * 
+	 * @param nombreArchivoLibros El nombre del archivo CSV que contiene la
+	 *                            información de los libros
+	 * @param opciones            Las opciones de la carga, a las que se informa el
+	 *                            avance
+	 * @throws IOException Se lanza esta excepción si hay algún problema leyendo del
+	 *                     archivo, o una InterruptedIOException si se canceló la
+	 *                     carga
+	 */
+	private void cargarCatalogoParalelo(String nombreArchivoLibros, OpcionesCarga opciones) throws IOException
+	{
+		CargadorParalelo cargador = new CargadorParalelo(categorias, this::existeArchivo, opciones);
+
+		// La lectura, la conversión y la verificación de las portadas ocurren en
+		// paralelo dentro del cargador, así que se miden juntas como una sola fase.
+		long inicio = iniciarMedicion();
+		EventoFaseCarga evento = EventoFaseCarga.iniciar();
+		ArrayList<ArrayList<CargadorParalelo.FilaLibro>> partes = cargador.leerFilas(nombreArchivoLibros);
+		registrarFase("libros.lecturaParalela", inicio, evento);
+
+		CronometroCarga cronometro = crearCronometro(MetricasLibreria.MUESTREO_CARGA);
+		cronometro.iniciar();
+		for (ArrayList<CargadorParalelo.FilaLibro> parte : partes)
+		{
+			for (CargadorParalelo.FilaLibro fila : parte)
+			{
+				cronometro.iniciarFila();
+				Categoria laCategoria = fila.categoria;
+				if (laCategoria == null)
+				{
+					laCategoria = buscarCategoria(fila.nombreCategoria);
+				}
+				cronometro.marcar(CronometroCarga.CATEGORIAS);
+
+				Libro nuevo = crearLibro(fila.titulo, fila.autor, fila.calificacion, laCategoria);
+				registrarLibro(nuevo, ordenDeFila(catalogo.size()));
+				cronometro.marcar(CronometroCarga.REGISTRO);
+
+				if (fila.tienePortada)
+				{
+					nuevo.cambiarPortada(diccionario.internarImagen(new Imagen(fila.portada, fila.ancho, fila.alto)));
+				}
+				cronometro.marcar(CronometroCarga.PORTADAS);
+			}
+		}
+		cronometro.terminar();
+		registrarFases("libros", cronometro);
+	}
+
+	/**
+	 * Carga las categorías y los libros de una copia binaria del catálogo. El
+	 * resultado es el mismo que se obtuvo al cargar los archivos CSV de los que
+	 * salió la copia.
+	 * 
+	 * @param copia       La copia del catálogo
+	 * @param tamanoCopia El tamaño del archivo de la copia en bytes
+	 * @param opciones    Las opciones de la carga, a las que se informa el avance
+	 * @throws IOException Se lanza una InterruptedIOException si se canceló la
+	 *                     carga
+	 */
+	private void cargarCopia(SnapshotCatalogo copia, long tamanoCopia, OpcionesCarga opciones) throws IOException
+	{
+		categorias = new RegistroCategorias();
+		categorias.darEstadisticas().iniciarLote();
+		try
+		{
+			leerCopia(copia, tamanoCopia, opciones);
+		}
+		finally
+		{
+			categorias.darEstadisticas().terminarLote();
+		}
+		if (almacen != null)
+		{
+			almacen.ajustarCapacidad();
+		}
+		opciones.informarAvance(catalogo.size(), tamanoCopia, tamanoCopia);
+	}
+
+	/**
+	 * Crea las categorías y los libros que están en una copia binaria del
+	 * catálogo
+	 * 
+	 * @param copia       La copia del catálogo
+	 * @param tamanoCopia El tamaño del archivo de la copia en bytes
+	 * @param opciones    Las opciones de la carga, a las que se informa el avance
+	 * @throws IOException Se lanza una InterruptedIOException si se canceló la
+	 *                     carga
+	 */
+	private void leerCopia(SnapshotCatalogo copia, long tamanoCopia, OpcionesCarga opciones) throws IOException
+	{
+		for (int i = 0; i < copia.darCantidadCategorias(); i++)
+		{
+			Categoria laCategoria = new Categoria(copia.darNombreCategoria(i), copia.esFiccion(i));
+			categorias.agregar(laCategoria);
+			if (copia.esAgregada(i))
+			{
+				categoriasAgregadas.add(laCategoria);
+			}
+		}
+
+		catalogo.ensureCapacity(copia.darCantidadLibros());
+		for (int i = 0; i < copia.darCantidadLibros(); i++)
+		{
+			Categoria laCategoria = categorias.darCategoria(copia.darCategoria(i));
+			Libro nuevo = crearLibro(copia.darTitulo(i), copia.darAutor(i), copia.darCalificacion(i), laCategoria);
+			registrarLibro(nuevo, ordenDeFila(catalogo.size()));
+
+			if (copia.tienePortada(i))
+			{
+				nuevo.cambiarPortada(diccionario.internarImagen(
+						new Imagen(copia.darRutaPortada(i), copia.darAnchoPortada(i), copia.darAltoPortada(i))));
+			}
+
+			if ((i + 1) % LIBROS_POR_AVANCE == 0)
+			{
+				opciones.informarAvance(i + 1, tamanoCopia * (i + 1) / copia.darCantidadLibros(), tamanoCopia);
+			}
+		}
+	}
+
+	/**
+	 * Escribe una copia binaria del catálogo recién cargado. La huella incluye
+	 * las carpetas de portadas que se revisaron, para que la copia se descarte si
+	 * aparece o desaparece alguna portada.
+	 * 
+	 * Si la copia no se puede escribir, la librería sigue funcionando y la
+	 * próxima vez el catálogo se vuelve a cargar de los archivos CSV.
+	 * 
+	 * @param archivoCopia La ruta del archivo donde se escribe la copia
+	 * @param huella       La huella de los archivos CSV, tomada antes de leerlos
+	 */
+	private void escribirCopia(String archivoCopia, SnapshotCatalogo.Huella huella)
+	{
+		for (Path carpeta : portadas.darCarpetasLeidas())
+		{
+			huella.agregar(carpeta);
+		}
+		try
+		{
+			SnapshotCatalogo.escribir(archivoCopia, huella, categorias.darCategorias(), categoriasAgregadas,
+					catalogo);
+		}
+		catch (IOException e)
+		{
+			// La copia es solamente una forma de acelerar la próxima carga
+		}
+	}
+
+	/**
+	 * Crea un libro sin portada, con el autor tomado del diccionario de carga. Los
+	 * datos del libro se guardan en el almacén por columnas si la librería usa
+	 * uno.
+	 * 
+	 * @param elTitulo       Título del libro
+	 * @param elAutor        Autor o autores del libro
+	 * @param laCalificacion Calificación del libro
+	 * @param laCategoria    Categoría a la que pertenece el libro
+	 * @return El libro creado
+	 */
+	private Libro crearLibro(String elTitulo, String elAutor, double laCalificacion, Categoria laCategoria)
+	{
+		return crearLibro(Libro.generarId(), elTitulo, elAutor, laCalificacion, laCategoria);
+	}
+
+	/**
+	 * Crea un libro sin portada con un identificador dado. Se usa al copiar una
+	 * librería, para que cada libro conserve su identificador en la copia.
+	 * 
+	 * @param elId           Identificador del libro
+	 * @param elTitulo       Título del libro
+	 * @param elAutor        Autor o autores del libro
+	 * @param laCalificacion Calificación del libro
+	 * @param laCategoria    Categoría a la que pertenece el libro
+	 * @return El libro creado
+	 */
+	private Libro crearLibro(long elId, String elTitulo, String elAutor, double laCalificacion, Categoria laCategoria)
+	{
+		elAutor = diccionario.internarAutor(elAutor);
+		if (almacen != null)
+		{
+			return new LibroColumnar(almacen, elId, elTitulo, elAutor, laCalificacion, laCategoria);
+		}
+		return new LibroSimple(elId, elTitulo, elAutor, laCalificacion, laCategoria);
+	}
+
+	/**
+	 * Pasa los libros del catálogo a un almacén por columnas nuevo cuando más de
+	 * la mitad de las posiciones del almacén actual son de libros que ya no están
+	 * en el catálogo (eliminados, o reemplazados al aplicar diferencias). Así los
+	 * títulos, las columnas y las tablas de autores y portadas de esos libros se
+	 * pueden liberar. Como se copia el almacén completo solamente cuando se ha
+	 * llenado de libros eliminados, el costo de copiar se reparte entre esas
+	 * eliminaciones.
+	 * 
+	 * Los libros eliminados conservan el almacén anterior, así que quien todavía
+	 * los tenga puede seguir consultando sus datos.
+	 */
+	private void compactarAlmacen()
+	{
+		if (almacen == null || catalogo.size() >= almacen.darCantidad() / 2)
+		{
+			return;
+		}
+
+		AlmacenColumnar nuevo = new AlmacenColumnar();
+		for (Libro libro : catalogo)
+		{
+			((LibroColumnar) libro).mover(nuevo);
+		}
+		nuevo.ajustarCapacidad();
+		almacen = nuevo;
+	}
+
+	/**
+	 * Calcula el orden del libro de una fila del archivo de libros al cargar el
+	 * catálogo, dejando un hueco entre cada libro y el siguiente
+	 * 
+	 * @param posicion La posición de la fila en el archivo de libros
+	 * @return El orden del libro
+	 */
+	private static int ordenDeFila(int posicion)
+	{
+		return posicion * SEPARACION_ORDEN;
+	}
+
+	/**
+	 * Agrega un libro al final del catálogo y a los índices de la librería. El
+	 * orden del libro depende de la posición de su fila en el archivo de libros
+	 * (ver ordenDeFila), así que no depende de cuántas librerías se hayan creado
+	 * antes. Si el orden no es el mayor del catálogo, quien llama debe volver a
+	 * ordenar el catálogo y la categoría del libro; los índices ya lo ubican
+	 * según su orden.
+	 * 
+	 * @param libro El libro que se va a agregar
+	 * @param orden El orden del libro en el catálogo
+	 */
+	private void registrarLibro(Libro libro, int orden)
+	{
+		libro.asignarOrden(orden);
+		catalogo.add(libro);
+		indiceTitulos.agregar(libro);
+		indiceAutores.agregar(libro);
+	}
+
+	/**
+	 * Le avisa al notificador, si hay uno, cuáles categorías se agregaron al
+	 * cargar los libros
+	 */
+	private void notificarCategoriasAgregadas()
+	{
+		if (notificador != null)
+		{
+			notificador.categoriasAgregadas(darCategoriasAgregadas());
+		}
+	}
+
+	/**
+	 * Toma el momento en el que empieza algo que se va a medir
+	 * 
+	 * @return El valor de System.nanoTime, o 0 si la librería no tiene métricas
+	 */
+	private long iniciarMedicion()
+	{
+		return metricas == null ? 0 : System.nanoTime();
+	}
+
+	/**
+	 * Registra en las métricas, si hay, la duración de una invocación de una
+	 * operación
+	 * 
+	 * @param operacion La operación, una de las constantes de MetricasLibreria
+	 * @param inicio    El valor de iniciarMedicion al empezar la operación
+	 */
+	private void registrarOperacion(int operacion, long inicio)
+	{
+		if (metricas != null)
+		{
+			metricas.registrar(operacion, inicio);
+		}
+	}
+
+	/**
+	 * Registra en las métricas, si hay, la duración de una invocación de una
+	 * consulta, y termina su evento de Flight Recorder
+	 * 
+	 * @param operacion  La operación, una de las constantes de MetricasLibreria
+	 * @param inicio     El valor de iniciarMedicion al empezar la operación
+	 * @param evento     El evento de la invocación
+	 * @param parametro  El parámetro de la consulta, o null si no tiene
+	 * @param resultados La cantidad de resultados, o 1 si la consulta calcula un
+	 *                   solo valor
+	 */
+	private void terminarConsulta(int operacion, long inicio, EventoConsultaLibreria evento, String parametro,
+			int resultados)
+	{
+		registrarOperacion(operacion, inicio);
+		evento.terminar(MetricasLibreria.darNombreOperacion(operacion), parametro, resultados);
+	}
+
+	/**
+	 * Registra en las métricas, si hay, la duración de una invocación de una
+	 * modificación, y termina su evento de Flight Recorder
+	 * 
+	 * @param operacion La operación, una de las constantes de MetricasLibreria
+	 * @param inicio    El valor de iniciarMedicion al empezar la operación
+	 * @param evento    El evento de la invocación
+	 * @param parametro El parámetro de la modificación, o null si no tiene
+	 * @param afectados La cantidad de libros afectados, o 1 o 0 según si se hizo
+	 *                  la modificación
+	 */
+	private void terminarModificacion(int operacion, long inicio, EventoModificacionLibreria evento,
+			String parametro, int afectados)
+	{
+		registrarOperacion(operacion, inicio);
+		evento.terminar(MetricasLibreria.darNombreOperacion(operacion), parametro, afectados);
+	}
+
+	/**
+	 * Registra en las métricas, si hay, la duración de una fase de la carga, y
+	 * termina su evento de Flight Recorder
+	 * 
+	 * @param fase   El nombre de la fase
+	 * @param inicio El valor de iniciarMedicion al empezar la fase
+	 * @param evento El evento de la fase
+	 */
+	private void registrarFase(String fase, long inicio, EventoFaseCarga evento)
+	{
+		if (metricas != null)
+		{
+			metricas.registrarFase(fase, System.nanoTime() - inicio);
+		}
+		evento.terminar(fase, catalogo.size());
+	}
+
+	/**
+	 * Registra en las métricas, si hay, las fases medidas por un cronómetro
+	 * 
+	 * @param prefijo    El prefijo de los nombres de las fases
+	 * @param cronometro El cronómetro
+	 */
+	private void registrarFases(String prefijo, CronometroCarga cronometro)
+	{
+		if (metricas != null)
+		{
+			metricas.registrarFases(prefijo, cronometro);
+		}
+	}
+
+	/**
+	 * Crea el cronómetro con el que se miden las fases de cada fila de un
+	 * archivo. Si la librería no tiene métricas el cronómetro queda inactivo.
+	 * 
+	 * @param muestreo Cada cuántas filas se mide una
+	 * @return El cronómetro
+	 */
+	private CronometroCarga crearCronometro(int muestreo)
+	{
+		return new CronometroCarga(metricas == null ? 0 : muestreo);
+	}
+
+	/**
+	 * Registra en las métricas, si hay, que terminó la carga, y las deja
+	 * leyendo los tamaños de esta librería. También termina el evento de Flight
+	 * Recorder de la carga.
+	 * 
+	 * @param inicioCarga El valor de iniciarMedicion al empezar la carga
+	 * @param evento      El evento de la carga
+	 * @param modo        De dónde se cargaron los libros: "secuencial",
+	 *                    "paralela" o "copia"
+	 */
+	private void terminarCarga(long inicioCarga, EventoCargaLibreria evento, String modo)
+	{
+		evento.terminar(modo, almacen != null, catalogo.size(), categoriasAgregadas.size());
+		if (metricas != null)
+		{
+			metricas.terminarCarga(System.nanoTime() - inicioCarga);
+			metricas.vigilar(this);
+		}
+	}
+
+	/**
+	 * Corrige el tamaño de las portadas como parte de la carga
+	 */
+	private void verificarPortadas()
+	{
+		long inicio = iniciarMedicion();
+		EventoFaseCarga evento = EventoFaseCarga.iniciar();
+		reemplazarPortadas();
+		registrarFase("portadas.verificacion", inicio, evento);
+	}
+	
+	/**
+	 * Busca una categoría a partir de su nombre
+	 * 
+	 * @param nombreCategoria El nombre de la categoría buscada
+	 * @return La categoría que tiene el nombre dado
+	 */
+	private Categoria buscarCategoria(String nombreCategoria)
+	{
+		Categoria laCategoria = categorias.buscar(nombreCategoria);
+
+		if (laCategoria == null) {
+			laCategoria = agregarCategoria(nombreCategoria);
+		}
+		
+		return laCategoria;
+	}
+	
+	/**
+	 * Agrega una nueva categoría a partir de su nombre con un valor de 
+	 * ficcin igual a falso
+	 * 
+	 * @param nombreCategoria El nombre de la categoría a agregar
+	 * @return La categoría con el nombre dado
+	 */
+	private Categoria agregarCategoria(String nombreCategoria) {
+		Categoria nuevaCategoria = new Categoria(nombreCategoria, true);
+		categorias.agregar(nuevaCategoria);
+		categoriasAgregadas.add(nuevaCategoria);
+		
+		return nuevaCategoria;
+	}
+
+	/**
+	 * Verifica si existe el archivo con el nombre indicado dentro de la carpeta
+	 * "data".
+	 * 
+	 * Cada carpeta se lee una sola vez, así que cargar el catálogo no requiere una
+	 * consulta al sistema de archivos por cada libro.
+	 * 
+	 * @param nombreArchivo El nombre del archivo que se va a buscar.
+	 * @return Retorna true si el archivo existe
+	 */
+	private boolean existeArchivo(String nombreArchivo)
+	{
+		return portadas.existe(nombreArchivo);
+	}
+	
+	/**
+	 * Verifica si todos los autores tienen libros registrados en la librera.
+	 * 
+	 * @param nombresAutores Los nombres de los autores separados por comas.
+	 * @return HashMap<String, String> Mapa con los autores que no tienen libros registrados.
+	 */
+	public HashMap<String, String> existenAutores(String nombresAutores)
+	{
+		long inicio = iniciarMedicion();
+		EventoConsultaLibreria evento = EventoConsultaLibreria.iniciar();
+		HashMap<String, String> mapaAutoresNoExisten = new HashMap<String, String>();
+		String[] listaAutores = nombresAutores.split(",");
+		
+		for (String autor : listaAutores)
+		{
+			if (!indiceAutores.existe(autor))
+			{
+				mapaAutoresNoExisten.put(autor,autor);
+			}
+		}
+		
+		terminarConsulta(MetricasLibreria.EXISTEN_AUTORES, inicio, evento, nombresAutores, mapaAutoresNoExisten.size());
+		return mapaAutoresNoExisten;
+	}
+	
+	/**
+	 *	Elimina todos los libros de los autores.
+	 * 
+	 * @param nombresAutores Los nombres de los autores separados por comas.
+	 * @return int Nmero de libros eliminados.
+	 */
+	public int eliminarLibros(String nombresAutores)
+	{
+		long inicio = iniciarMedicion();
+		EventoModificacionLibreria evento = EventoModificacionLibreria.iniciar();
+		int numLibrosEliminados = 0;
+		for (int cantidad : eliminarLibrosDeAutores(nombresAutores).values())
+		{
+			numLibrosEliminados += cantidad;
+		}
+		
+		terminarModificacion(MetricasLibreria.ELIMINAR_LIBROS, inicio, evento, nombresAutores, numLibrosEliminados);
+		return numLibrosEliminados;
+	}
+
+	/**
+	 * Elimina todos los libros de los autores y cuenta cuántos libros se
+	 * eliminaron de cada uno.
+	 * 
+	 * Los autores se buscan una sola vez en el índice de autores. Luego el catálogo
+	 * y cada una de las categorías afectadas se compactan en una sola pasada, y los
+	 * índices se actualizan por autor en lugar de libro por libro.
+	 * 
+	 * @param nombresAutores Los nombres de los autores separados por comas.
+	 * @return Un mapa con la cantidad de libros eliminados de cada autor. Los
+	 *         autores que no tenían libros aparecen con 0.
+	 */
+	public HashMap<String, Integer> eliminarLibrosPorAutor(String nombresAutores)
+	{
+		long inicio = iniciarMedicion();
+		EventoModificacionLibreria evento = EventoModificacionLibreria.iniciar();
+		HashMap<String, Integer> eliminadosPorAutor = eliminarLibrosDeAutores(nombresAutores);
+		terminarModificacion(MetricasLibreria.ELIMINAR_LIBROS_POR_AUTOR, inicio, evento, nombresAutores,
+				contarEliminados(eliminadosPorAutor));
+		return eliminadosPorAutor;
+	}
+
+	/**
+	 * Suma la cantidad de libros eliminados de cada autor
+	 * 
+	 * @param eliminadosPorAutor La cantidad de libros eliminados de cada autor
+	 * @return El total de libros eliminados
+	 */
+	private static int contarEliminados(HashMap<String, Integer> eliminadosPorAutor)
+	{
+		int total = 0;
+		for (int cantidad : eliminadosPorAutor.values())
+		{
+			total += cantidad;
+		}
+		return total;
+	}
+
+	/**
+	 * Elimina todos los libros de los autores, sin registrar la operación en las
+	 * métricas
+	 * 
+	 * @param nombresAutores Los nombres de los autores separados por comas.
+	 * @return Un mapa con la cantidad de libros eliminados de cada autor
 	 */
-	private Categoria[] cargarCategorias(String nombreArchivoCategorias) throws IOException
+	private HashMap<String, Integer> eliminarLibrosDeAutores(String nombresAutores)
 	{
-		ArrayList<Categoria> listaCategorias = new ArrayList<Categoria>();
-
-		BufferedReader br = new BufferedReader(new FileReader(nombreArchivoCategorias));
-		String linea = br.readLine(); // Ignorar la primera línea porque tiene los títulos
+		HashMap<String, Integer> eliminadosPorAutor = new HashMap<String, Integer>();
+		HashSet<String> autores = new HashSet<String>();
+		HashSet<Categoria> categoriasAfectadas = new HashSet<Categoria>();
+		ArrayList<Libro> librosEliminados = new ArrayList<Libro>();
 
-		linea = br.readLine();
-		while (linea != null)
+		for (String autor : nombresAutores.split(","))
 		{
-			String[] partes = linea.trim().split(",");
-			String nombreCat = partes[0];
-			boolean esFiccion = partes[1].equals("true");
+			if (autores.add(autor))
+			{
+				ArrayList<Libro> librosAutor = indiceAutores.darLibros(autor);
+				eliminadosPorAutor.put(autor, librosAutor.size());
+				librosEliminados.addAll(librosAutor);
+				categoriasAfectadas.addAll(indiceAutores.buscarCategorias(autor));
+			}
+		}
 
-			// Crear una nueva categoría y agregarla a la lista
-			listaCategorias.add(new Categoria(nombreCat, esFiccion));
+		if (!librosEliminados.isEmpty())
+		{
+			catalogo.removeIf(libro -> autores.contains(libro.darAutor()));
+			for (Categoria categoria : categoriasAfectadas)
+			{
+				categoria.eliminarLibrosDeAutores(autores);
+			}
 
-			linea = br.readLine();
+			for (Libro libro : librosEliminados)
+			{
+				indiceTitulos.eliminar(libro);
+			}
+			for (String autor : autores)
+			{
+				indiceAutores.eliminarAutor(autor);
+			}
 		}
 
-		br.close();
-
-		// Convertir la lista de categorías a un arreglo
-		Categoria[] arregloCategorias = new Categoria[listaCategorias.size()];
-		for (int i = 0; i < listaCategorias.size(); i++)
+		compactarAlmacen();
+		if (notificador != null)
 		{
-			arregloCategorias[i] = listaCategorias.get(i);
+			notificador.librosEliminados(eliminadosPorAutor);
 		}
-
-		return arregloCategorias;
+		return eliminadosPorAutor;
 	}
-
+	
 	/**
-	 * Carga la información sobre los libros disponibles en la librería.
+	 * Aplica sobre la librería los cambios que hubo en sus archivos CSV, sin
+	 * volver a cargarla. Solamente se crean los libros de las filas nuevas: los
+	 * libros cambiados siguen siendo los mismos objetos, con sus datos nuevos.
 	 * 
-	 * Se deben haber cargado antes las categorías e inicializado el atributo
-	 * 'categorias'.
+	 * El catálogo, las categorías y los libros de cada autor quedan en el orden
+	 * de las filas del archivo nuevo, así que la librería queda igual que si se
+	 * hubiera vuelto a cargar, salvo por los valores de darOrden. La excepción
+	 * son las categorías nuevas, que se agregan después de las que ya existían.
 	 * 
-	 * @param nombreArchivoLibros El nombre del archivo CSV que contiene la
-	 *                            información de los libros
-	 * @return Una lista con los libros que se cargaron a partir del archivo
-	 * @throws IOException Se lanza esta excepción si hay algún problema leyendo del
-	 *                     archivo
+	 * Los libros que siguen en el archivo conservan su orden aunque su fila haya
+	 * cambiado de posición, y los libros nuevos toman órdenes de los huecos que
+	 * hay entre sus vecinos, así que agregar o eliminar filas solamente cambia
+	 * los órdenes de unos pocos libros cerca de las filas agregadas. Solamente
+	 * cuando las filas que siguen quedan en otro orden entre ellas se vuelve a
+	 * ordenar todo el catálogo.
+	 * 
+	 * Los libros se buscan por la clave de su fila (el título, el autor y cuántos
+	 * libros anteriores tienen ese título y autor), así que aplicar dos veces la
+	 * misma diferencia deja la librería igual que aplicarla una vez. Las
+	 * categorías de los libros que no existían se crean como al cargar la
+	 * librería y quedan entre las categorías agregadas.
+	 * 
+	 * @param diferencia Los cambios calculados entre el contenido de los archivos
+	 *                   que corresponde a esta librería y su contenido actual
+	 * @return Los libros que se eliminaron del catálogo
 	 */
-	private ArrayList<Libro> cargarCatalogo(String nombreArchivoLibros) throws IOException
+	public ArrayList<Libro> aplicarDiferencia(DiferenciaCatalogo diferencia)
 	{
-		ArrayList<Libro> libros = new ArrayList<Libro>();
+		long inicio = iniciarMedicion();
+		EventoModificacionLibreria evento = EventoModificacionLibreria.iniciar();
+		int agregadasAntes = categoriasAgregadas.size();
 
-		BufferedReader br = new BufferedReader(new FileReader(nombreArchivoLibros));
-		String linea = br.readLine(); // Ignorar la primera línea porque tiene los títulos:
-										// Titulo,Autor,Calificacion,Categoria,Portada,Ancho,Alto
-
-		linea = br.readLine();
-		while (linea != null)
+		// Las portadas nuevas suelen llegar junto con el archivo que las menciona
+		portadas.olvidar();
+		ArrayList<Libro> eliminados;
+		categorias.darEstadisticas().iniciarLote();
+		try
 		{
-			String[] partes = linea.trim().split(",");
-			String elTitulo = partes[0];
-			String elAutor = partes[1];
-			double laCalificacion = Double.parseDouble(partes[2]);
-			String nombreCategoria = partes[3];
-			Categoria laCategoria = buscarCategoria(nombreCategoria);
-			String archivoPortada = partes[4];
-			int ancho = Integer.parseInt(partes[5]);
-			int alto = Integer.parseInt(partes[6]);
-
-			// Crear un nuevo libro
-			Libro nuevo = new Libro(elTitulo, elAutor, laCalificacion, laCategoria);
-			libros.add(nuevo);
+			for (Map.Entry<String, Boolean> nueva : diferencia.darCategoriasNuevas().entrySet())
+			{
+				if (!categorias.existe(nueva.getKey()))
+				{
+					categorias.agregar(new Categoria(nueva.getKey(), nueva.getValue()));
+				}
+			}
 
-			// Si existe el archivo de la portada, ponérselo al libro
-			if (existeArchivo(archivoPortada))
+			// Las filas eliminadas tienen las claves del archivo anterior, así que se
+			// retiran antes de aplicar las demás, que tienen las del archivo nuevo.
+			eliminados = eliminarFilas(diferencia.darEliminadas());
+			if (diferencia.hayFilasReordenadas())
 			{
-				Imagen portada = new Imagen(archivoPortada, ancho, alto);
-				nuevo.cambiarPortada(portada);
+				reordenarLibros(diferencia);
 			}
 
-			linea = br.readLine();
+			HashSet<Categoria> categoriasDesordenadas = new HashSet<Categoria>();
+			for (ContenidoArchivos.Fila fila : diferencia.darCambiadas())
+			{
+				aplicarFila(fila, 0, categoriasDesordenadas);
+			}
+			agregarFilas(diferencia, categoriasDesordenadas);
+			for (Categoria categoria : categoriasDesordenadas)
+			{
+				categoria.ordenarLibros();
+			}
 		}
+		finally
+		{
+			categorias.darEstadisticas().terminarLote();
+		}
+		diccionario.liberar();
+		compactarAlmacen();
 
-		br.close();
-		mensajeCategoriasAgregadas();
-
-		return libros;
+		if (notificador != null)
+		{
+			notificador.catalogoActualizado(diferencia,
+					new ArrayList<Categoria>(categoriasAgregadas.subList(agregadasAntes, categoriasAgregadas.size())));
+		}
+		terminarModificacion(MetricasLibreria.APLICAR_DIFERENCIA, inicio, evento, null, diferencia.contarCambios());
+		return eliminados;
 	}
-	
+
 	/**
-	 * Muestra un cuadro de dalogo en el cual informa cuales categorias se
-	 * agregaron cargando los libros.
+	 * Elimina del catálogo, de sus categorías y de los índices los libros de
+	 * unas filas. Las filas que no tienen libro se ignoran.
+	 * 
+	 * @param filas Las filas de los libros que se van a eliminar
+	 * @return Los libros eliminados
 	 */
-	private void mensajeCategoriasAgregadas() {
-		String mensaje = "Las categorias agregadas cargando los libros fueron:" + System.lineSeparator();
-		for (Categoria catAgregada: categoriasAgregadas) {
-			String nombreCat = catAgregada.darNombre();
-			String numLibros = Integer.toString(catAgregada.contarLibrosEnCategoria());
-			String infoCat = nombreCat + " con " + numLibros + " libros." + System.lineSeparator();
-			mensaje += infoCat;
+	private ArrayList<Libro> eliminarFilas(List<ContenidoArchivos.Fila> filas)
+	{
+		// Se buscan todos los libros antes de eliminar alguno, porque la clave
+		// depende de los libros con el mismo título y autor
+		ArrayList<Libro> eliminados = new ArrayList<Libro>();
+		for (ContenidoArchivos.Fila fila : filas)
+		{
+			Libro libro = buscarLibroDeFila(fila);
+			if (libro != null)
+			{
+				eliminados.add(libro);
+			}
+		}
+		if (eliminados.isEmpty())
+		{
+			return eliminados;
+		}
+
+		HashSet<Libro> conjunto = new HashSet<Libro>(eliminados);
+		HashSet<Categoria> categoriasAfectadas = new HashSet<Categoria>();
+		for (Libro libro : eliminados)
+		{
+			categoriasAfectadas.add(libro.darCategoria());
+		}
+		catalogo.removeIf(conjunto::contains);
+		for (Categoria categoria : categoriasAfectadas)
+		{
+			categoria.eliminarLibros(conjunto);
+		}
+		for (Libro libro : eliminados)
+		{
+			indiceTitulos.eliminar(libro);
+			indiceAutores.eliminar(libro);
 		}
-		JOptionPane.showMessageDialog(null,mensaje);
+		return eliminados;
 	}
 
 	/**
-	 * Busca una categoría a partir de su nombre
+	 * Cambia el orden de todos los libros que siguen en el archivo por el de la
+	 * posición de su fila en el archivo nuevo y vuelve a ordenar el catálogo, las
+	 * categorías y los índices. Solamente se usa cuando esos libros quedaron en
+	 * otro orden entre ellos.
 	 * 
-	 * @param nombreCategoria El nombre de la categoría buscada
-	 * @return La categoría que tiene el nombre dado
+	 * @param diferencia La diferencia que se está aplicando, después de eliminar
+	 *                   sus filas eliminadas
 	 */
-	private Categoria buscarCategoria(String nombreCategoria)
+	private void reordenarLibros(DiferenciaCatalogo diferencia)
 	{
-		boolean existeCategoria = false;
-		Categoria laCategoria = null;
-		for (int i = 0; i < categorias.length && laCategoria == null; i++)
+		// Los libros que no tienen fila (porque se eliminaron del archivo y se
+		// volvieron a agregar a mano) quedan al final, en el orden que tenían
+		int[] posiciones = diferencia.darContenido().calcularPosiciones(catalogo);
+		int siguiente = diferencia.darContenido().darFilas().size();
+		for (int i = 0; i < posiciones.length; i++)
 		{
-			if (categorias[i].darNombre().equals(nombreCategoria)) 
-			{
-				laCategoria = categorias[i];
-				existeCategoria = true;
-			}
+			catalogo.get(i).asignarOrden(ordenDeFila(posiciones[i] >= 0 ? posiciones[i] : siguiente++));
 		}
 
-		if (!existeCategoria) {
-			laCategoria = agregarCategoria(nombreCategoria);
+		catalogo.sort(Libro.ORDEN_CATALOGO);
+		for (Categoria categoria : categorias.darCategorias())
+		{
+			categoria.ordenarLibros();
+		}
+		indiceAutores.ordenar();
+		indiceTitulos = new IndiceTitulos();
+		for (Libro libro : catalogo)
+		{
+			indiceTitulos.agregar(libro);
 		}
-		
-		return laCategoria;
 	}
-	
+
 	/**
-	 * Agrega una nueva categoría a partir de su nombre con un valor de 
-	 * ficcin igual a falso
+	 * Agrega los libros de las filas agregadas. Cada grupo de filas agregadas
+	 * seguidas en el archivo se ubica en el catálogo después del libro de la fila
+	 * anterior al grupo, con órdenes tomados del hueco que hay entre ese libro y
+	 * el siguiente (ver reservarOrdenes).
 	 * 
-	 * @param nombreCategoria El nombre de la categoría a agregar
-	 * @return La categoría con el nombre dado
+	 * @param diferencia             La diferencia que se está aplicando, después
+	 *                               de eliminar sus filas eliminadas
+	 * @param categoriasDesordenadas Las categorías a las que se agregó un libro,
+	 *                               que se deben ordenar después
 	 */
-	private Categoria agregarCategoria(String nombreCategoria) {
-		Categoria nuevaCategoria = new Categoria(nombreCategoria, true);
-		Categoria[] nuevoArregloCategorias = new Categoria[categorias.length + 1];
-		for (int i = 0; i < categorias.length; i++)
+	private void agregarFilas(DiferenciaCatalogo diferencia, HashSet<Categoria> categoriasDesordenadas)
+	{
+		List<ContenidoArchivos.Fila> filas = diferencia.darContenido().darFilas();
+		List<ContenidoArchivos.Fila> agregadas = diferencia.darAgregadas();
+		int inicio = 0;
+		while (inicio < agregadas.size())
 		{
-			nuevoArregloCategorias[i] = categorias[i];
+			int fin = inicio + 1;
+			while (fin < agregadas.size()
+					&& agregadas.get(fin).darPosicion() == agregadas.get(fin - 1).darPosicion() + 1)
+			{
+				fin++;
+			}
+
+			// Las filas anteriores al grupo ya tienen libro, salvo las que se
+			// ignoraron al aplicar una diferencia anterior
+			int posicion = 0;
+			for (int i = agregadas.get(inicio).darPosicion() - 1; i >= 0 && posicion == 0; i--)
+			{
+				Libro anterior = buscarLibroDeFila(filas.get(i));
+				if (anterior != null)
+				{
+					posicion = Collections.binarySearch(catalogo, anterior, Libro.ORDEN_CATALOGO) + 1;
+				}
+			}
+
+			int[] ordenes = reservarOrdenes(posicion, fin - inicio);
+			ArrayList<Libro> nuevos = new ArrayList<Libro>(fin - inicio);
+			for (int i = inicio; i < fin; i++)
+			{
+				Libro nuevo = aplicarFila(agregadas.get(i), ordenes[i - inicio], categoriasDesordenadas);
+				if (nuevo != null)
+				{
+					nuevos.add(nuevo);
+				}
+			}
+			catalogo.addAll(posicion, nuevos);
+			inicio = fin;
 		}
-		
-		nuevoArregloCategorias[categorias.length] = nuevaCategoria;
-		this.categorias = nuevoArregloCategorias;
-		categoriasAgregadas.add(nuevaCategoria);
-		
-		return nuevaCategoria;
 	}
 
 	/**
-	 * Verifica si existe el archivo con el nombre indicado dentro de la carpeta
-	 * "data".
+	 * Reserva los órdenes de unos libros que se van a agregar en una posición del
+	 * catálogo. Si no caben en el hueco que hay entre el libro anterior y el
+	 * siguiente, se vuelven a repartir los órdenes de los libros cercanos, en una
+	 * parte del catálogo que crece al doble cada vez hasta que los libros quedan
+	 * separados al menos por SEPARACION_MINIMA. Los libros no cambian de lugar
+	 * entre ellos, así que el catálogo, las categorías y los índices siguen
+	 * ordenados.
 	 * 
-	 * @param nombreArchivo El nombre del archivo que se va a buscar.
-	 * @return
+	 * @param posicion La posición del catálogo donde se van a agregar los libros
+	 * @param cantidad La cantidad de libros que se van a agregar
+	 * @return Los órdenes de los libros que se van a agregar, de menor a mayor
 	 */
-	private boolean existeArchivo(String nombreArchivo)
+	private int[] reservarOrdenes(int posicion, int cantidad)
 	{
-		File archivo = new File("./data/" + nombreArchivo);
-		return archivo.exists();
+		// La parte que se reparte es la de los libros entre desde y hasta - 1
+		int desde = posicion;
+		int hasta = posicion;
+		long menor;
+		long mayor;
+		long separacion;
+		while (true)
+		{
+			int libros = hasta - desde + cantidad;
+			menor = desde > 0 ? catalogo.get(desde - 1).darOrden() : Long.MIN_VALUE;
+			mayor = hasta < catalogo.size() ? catalogo.get(hasta).darOrden() : Long.MIN_VALUE;
+			if (menor == Long.MIN_VALUE && mayor == Long.MIN_VALUE)
+			{
+				menor = -SEPARACION_ORDEN;
+				mayor = menor + (long) (libros + 1) * SEPARACION_ORDEN;
+			}
+			else if (menor == Long.MIN_VALUE)
+			{
+				menor = mayor - (long) (libros + 1) * SEPARACION_ORDEN;
+			}
+			else if (mayor == Long.MIN_VALUE)
+			{
+				mayor = menor + (long) (libros + 1) * SEPARACION_ORDEN;
+			}
+			separacion = (mayor - menor) / (libros + 1);
+			boolean alcanza = desde == hasta ? separacion >= 1 : separacion >= SEPARACION_MINIMA;
+			if (alcanza)
+			{
+				break;
+			}
+			int tamano = Math.max(1, hasta - desde);
+			desde = Math.max(0, desde - tamano);
+			hasta = Math.min(catalogo.size(), hasta + tamano);
+		}
+
+		int[] ordenes = new int[cantidad];
+		long orden = menor;
+		for (int i = desde; i < posicion; i++)
+		{
+			orden += separacion;
+			catalogo.get(i).asignarOrden((int) orden);
+		}
+		for (int i = 0; i < cantidad; i++)
+		{
+			orden += separacion;
+			ordenes[i] = (int) orden;
+		}
+		for (int i = posicion; i < hasta; i++)
+		{
+			orden += separacion;
+			catalogo.get(i).asignarOrden((int) orden);
+		}
+		return ordenes;
 	}
-	
+
 	/**
-	 * Verifica si todos los autores tienen libros registrados en la librera.
+	 * Deja en la librería el libro de una fila con los datos de la fila: si ya
+	 * hay un libro con la clave de la fila, le cambia los datos; si no, lo agrega
+	 * a los índices con el orden dado. Quien llama debe agregar el libro nuevo al
+	 * catálogo en el lugar que le corresponde.
 	 * 
-	 * @param nombresAutores Los nombres de los autores separados por comas.
-	 * @return HashMap<String, String> Mapa con los autores que no tienen libros registrados.
+	 * @param fila                   La fila con los datos del libro
+	 * @param orden                  El orden del libro si es nuevo
+	 * @param categoriasDesordenadas Las categorías a las que se agregó un libro,
+	 *                               que se deben ordenar después. Aquí se agrega
+	 *                               la categoría del libro si cambió.
+	 * @return El libro creado, o null si la fila ya tenía libro
 	 */
-	public HashMap<String, String> existenAutores(String nombresAutores)
+	private Libro aplicarFila(ContenidoArchivos.Fila fila, int orden, HashSet<Categoria> categoriasDesordenadas)
 	{
-		HashMap<String, String> mapaAutoresNoExisten = new HashMap<String, String>();
-		String[] listaAutores = nombresAutores.split(",");
-		
-		for (String autor : listaAutores)
+		Categoria laCategoria = buscarCategoria(fila.darCategoria());
+		Libro libro = buscarLibroDeFila(fila);
+		Libro nuevo = null;
+		if (libro == null)
 		{
-			mapaAutoresNoExisten.put(autor,autor);
+			libro = crearLibro(fila.darTitulo(), fila.darAutor(), fila.darCalificacion(), laCategoria);
+			libro.asignarOrden(orden);
+			indiceTitulos.agregar(libro);
+			indiceAutores.agregar(libro);
+			categoriasDesordenadas.add(laCategoria);
+			nuevo = libro;
 		}
-		
-		for (Libro libro: catalogo)
+		else
 		{
-			String nombreAutor = libro.darAutor();
-			for (String autor : listaAutores)
+			Categoria anterior = libro.darCategoria();
+			libro.cambiarDatos(fila.darCalificacion(), laCategoria);
+			indiceAutores.cambioCategoria(libro, anterior);
+			if (anterior != laCategoria)
 			{
-				if (nombreAutor.equals(autor))
-				{
-					mapaAutoresNoExisten.remove(autor);
-				}
+				categoriasDesordenadas.add(laCategoria);
 			}
 		}
-		
-		return mapaAutoresNoExisten;
+
+		Imagen portada = null;
+		if (existeArchivo(fila.darPortada()))
+		{
+			portada = diccionario.internarImagen(new Imagen(fila.darPortada(), fila.darAncho(), fila.darAlto()));
+		}
+		libro.cambiarPortada(portada);
+		return nuevo;
 	}
-	
+
 	/**
-	 *	Elimina todos los libros de los autores.
+	 * Busca el libro que corresponde a una fila de los archivos. Los libros con
+	 * el mismo título y autor están entre los libros del autor en el mismo orden
+	 * que sus filas en el archivo.
 	 * 
-	 * @param nombresAutores Los nombres de los autores separados por comas.
-	 * @return int Nmero de libros eliminados.
+	 * @param fila La fila
+	 * @return El libro con la clave de la fila, o null si no hay ninguno
 	 */
-	public int eliminarLibros(String nombresAutores)
+	private Libro buscarLibroDeFila(ContenidoArchivos.Fila fila)
 	{
-		int numLibrosEliminados = 0;
-		String[] listaAutores = nombresAutores.split(",");
-		
-		for (int i = 0; i < catalogo.size(); i++)
-		{
-			Libro libro = catalogo.get(i);
-			String titulo = libro.darTitulo();
-			String nombreAutor = libro.darAutor();
-			Categoria categoria = libro.darCategoria();
-			double calificacion = libro.darCalificacion();
-			
-			try {
-				for (String autor : listaAutores)
-				{	
-					if (nombreAutor.equals(autor))
-					{
-						ArrayList<Libro> listaLibros = categoria.darLibros();
-				
-						boolean eliminado = false;
-						
-						for (int j = 0; j < listaLibros.size() && !eliminado; j++)
-						{
-							Libro libroCategoria = listaLibros.get(j);
-							
-							if(libroCategoria.equals(libro))
-							{
-								listaLibros.remove(j);
-							}
-						}
-						
-						catalogo.remove(i);
-						numLibrosEliminados += 1;
-						i--;
-					}
+		int ocurrencia = 0;
+		for (Libro libro : indiceAutores.darLibros(fila.darAutor()))
+		{
+			if (libro.tieneTitulo(fila.darTitulo()))
+			{
+				if (ocurrencia == fila.darOcurrencia())
+				{
+					return libro;
 				}
-			}
-			catch(Exception e) {
-				String mensaje = "No se pudo borrar el siguiente libro:" + System.lineSeparator();
-				mensaje += "Titulo: " + titulo + System.lineSeparator();
-				mensaje += "Autor: " + nombreAutor + System.lineSeparator();
-				mensaje += "Categora: " + categoria.darNombre() + System.lineSeparator();
-				mensaje += "Calificacin: " + String.valueOf(calificacion);
-				JOptionPane.showMessageDialog(null,mensaje);
-				System.out.println(e.getMessage());
+				ocurrencia++;
 			}
 		}
-		
-		return numLibrosEliminados;
+		return null;
 	}
-	
+
 	/**
-	 * Retorna la posicin de la categora ingresada por el usuario en el arreglo
+	 * Retorna la posición de la categoría ingresada por el usuario en el arreglo
 	 * de la librera.
 	 * 
 	 * Si no se encuentra la categora, entonces se retorna -1.
@@ -358,17 +1465,11 @@ public class Libreria
 	 */
 	public int buscarPosCategoria(String nombreCategoria)
 	{
-		int posCategoria = -1;
-		
-		for (int i = 0; i < categorias.length && posCategoria == -1; i++)
-		{
-			if (categorias[i].darNombre().equals(nombreCategoria)) 
-			{
-				posCategoria = i;
-			}
-		}
-		
-		return posCategoria;
+		long inicio = iniciarMedicion();
+		EventoConsultaLibreria evento = EventoConsultaLibreria.iniciar();
+		int posicion = categorias.darPosicion(nombreCategoria);
+		terminarConsulta(MetricasLibreria.BUSCAR_POS_CATEGORIA, inicio, evento, nombreCategoria, posicion < 0 ? 0 : 1);
+		return posicion;
 	}
 	
 	/**
@@ -380,17 +1481,7 @@ public class Libreria
 	 */
 	private boolean existeCategoria(String NuevoNombreCat)
 	{
-		boolean cambio = true;
-		
-		for(Categoria categoria: categorias)
-		{
-			if (categoria.darNombre().equals(NuevoNombreCat)) 
-			{
-				cambio = false;
-			}
-		}
-		
-		return cambio;
+		return !categorias.existe(NuevoNombreCat);
 	}
 	
 	/**
@@ -407,42 +1498,23 @@ public class Libreria
 	 */
 	public boolean renombrarCategoria(int posCategoria, String NuevoNombreCat) 
 	{
+		long inicio = iniciarMedicion();
+		EventoModificacionLibreria evento = EventoModificacionLibreria.iniciar();
 		boolean cambio = existeCategoria(NuevoNombreCat);
 		
 		if (cambio) 
 		{
-			Categoria viejaCategoria = categorias[posCategoria];
-			String nomViejaCategoria = viejaCategoria.darNombre();
-			boolean FiccionCategoria = viejaCategoria.esFiccion();
-			Categoria nuevaCategoria = new Categoria(NuevoNombreCat, FiccionCategoria);
-			categorias[posCategoria] = nuevaCategoria;
-			
-			ArrayList<Libro> nuevosLibros = new ArrayList<Libro>();
-			
-			for (Libro libroViejo: catalogo) 
-			{
-				String elTitulo = libroViejo.darTitulo();
-				String elAutor = libroViejo.darAutor();
-				double laCalificacion = libroViejo.darCalificacion();
-				Categoria laCategoria = libroViejo.darCategoria();
-				Imagen laPortada = libroViejo.darPortada();
-
-				if (laCategoria.darNombre().equals(nomViejaCategoria))
-				{
-					Libro nuevoLibro = new Libro(elTitulo, elAutor, laCalificacion, nuevaCategoria);
-					nuevoLibro.cambiarPortada(laPortada);
-					nuevosLibros.add(nuevoLibro);
-				}
-				else
-				{
-					Libro nuevoLibro = new Libro(elTitulo, elAutor, laCalificacion, laCategoria);
-					nuevoLibro.cambiarPortada(laPortada);
-					nuevosLibros.add(nuevoLibro);
-				}		
+			// Los libros y los índices guardan referencias a la categoría y no a su
+			// nombre, así que basta con cambiar el nombre en el registro.
+			Categoria laCategoria = categorias.darCategoria(posCategoria);
+			String nombreAnterior = laCategoria.darNombre();
+			categorias.renombrar(posCategoria, NuevoNombreCat);
+			if (notificador != null)
+			{
+				notificador.categoriaRenombrada(nombreAnterior, laCategoria);
 			}
-			
-			this.catalogo = nuevosLibros;
 		}
+		terminarModificacion(MetricasLibreria.RENOMBRAR_CATEGORIA, inicio, evento, NuevoNombreCat, cambio ? 1 : 0);
 		return cambio;
 	}
 
@@ -455,19 +1527,17 @@ public class Libreria
 	 */
 	public ArrayList<Libro> darLibros(String nombreCategoria)
 	{
-		boolean encontreCategoria = false;
-
+		long inicio = iniciarMedicion();
+		EventoConsultaLibreria evento = EventoConsultaLibreria.iniciar();
 		ArrayList<Libro> seleccionados = new ArrayList<Libro>();
 
-		for (int i = 0; i < categorias.length && !encontreCategoria; i++)
+		Categoria laCategoria = categorias.buscar(nombreCategoria);
+		if (laCategoria != null)
 		{
-			if (categorias[i].darNombre().equals(nombreCategoria))
-			{
-				encontreCategoria = true;
-				seleccionados.addAll(categorias[i].darLibros());
-			}
+			seleccionados.addAll(laCategoria.darLibros());
 		}
 
+		terminarConsulta(MetricasLibreria.DAR_LIBROS_CATEGORIA, inicio, evento, nombreCategoria, seleccionados.size());
 		return seleccionados;
 	}
 	
@@ -480,16 +1550,11 @@ public class Libreria
 	 */
 	public Libro buscarLibro(String tituloLibro)
 	{
-		Libro libroBuscado = null;
-
-		for (int i = 0; i < catalogo.size() && libroBuscado == null; i++)
-		{
-			Libro unLibro = catalogo.get(i);
-			if (unLibro.darTitulo().equals(tituloLibro))
-				libroBuscado = unLibro;
-		}
-
-		return libroBuscado;
+		long inicio = iniciarMedicion();
+		EventoConsultaLibreria evento = EventoConsultaLibreria.iniciar();
+		Libro libro = indiceTitulos.buscar(tituloLibro);
+		terminarConsulta(MetricasLibreria.BUSCAR_LIBRO, inicio, evento, tituloLibro, libro == null ? 0 : 1);
+		return libro;
 	}
 
 	/**
@@ -506,18 +1571,11 @@ public class Libreria
 	 */
 	public ArrayList<Libro> buscarLibrosAutor(String cadenaAutor)
 	{
-		ArrayList<Libro> librosAutor = new ArrayList<Libro>();
-
-		for (int i = 0; i < categorias.length; i++)
-		{
-			ArrayList<Libro> librosCategoria = categorias[i].buscarLibrosDeAutor(cadenaAutor);
-			if (!librosCategoria.isEmpty())
-			{
-				librosAutor.addAll(librosCategoria);
-			}
-		}
-
-		return librosAutor;
+		long inicio = iniciarMedicion();
+		EventoConsultaLibreria evento = EventoConsultaLibreria.iniciar();
+		ArrayList<Libro> libros = indiceAutores.buscarLibros(cadenaAutor);
+		terminarConsulta(MetricasLibreria.BUSCAR_LIBROS_AUTOR, inicio, evento, cadenaAutor, libros.size());
+		return libros;
 	}
 
 	/**
@@ -533,17 +1591,11 @@ public class Libreria
 	 */
 	public ArrayList<Categoria> buscarCategoriasAutor(String nombreAutor)
 	{
-		ArrayList<Categoria> resultado = new ArrayList<Categoria>();
-
-		for (int i = 0; i < categorias.length; i++)
-		{
-			if (categorias[i].hayLibroDeAutor(nombreAutor))
-			{
-				resultado.add(categorias[i]);
-			}
-		}
-
-		return resultado;
+		long inicio = iniciarMedicion();
+		EventoConsultaLibreria evento = EventoConsultaLibreria.iniciar();
+		ArrayList<Categoria> lasCategorias = indiceAutores.buscarCategorias(nombreAutor);
+		terminarConsulta(MetricasLibreria.BUSCAR_CATEGORIAS_AUTOR, inicio, evento, nombreAutor, lasCategorias.size());
+		return lasCategorias;
 	}
 
 	/**
@@ -554,14 +1606,11 @@ public class Libreria
 	 */
 	public double calificacionPromedio()
 	{
-		double total = 0;
-
-		for (Libro libro : catalogo)
-		{
-			total += libro.darCalificacion();
-		}
-
-		return total / (double) catalogo.size();
+		long inicio = iniciarMedicion();
+		EventoConsultaLibreria evento = EventoConsultaLibreria.iniciar();
+		double promedio = categorias.darEstadisticas().calificacionPromedio();
+		terminarConsulta(MetricasLibreria.CALIFICACION_PROMEDIO, inicio, evento, null, 1);
+		return promedio;
 	}
 
 	/**
@@ -573,19 +1622,11 @@ public class Libreria
 	 */
 	public Categoria categoriaConMasLibros()
 	{
-		int mayorCantidad = -1;
-		Categoria categoriaGanadora = null;
-
-		for (int i = 0; i < categorias.length; i++)
-		{
-			Categoria cat = categorias[i];
-			if (cat.contarLibrosEnCategoria() > mayorCantidad)
-			{
-				mayorCantidad = cat.contarLibrosEnCategoria();
-				categoriaGanadora = cat;
-			}
-		}
-		return categoriaGanadora;
+		long inicio = iniciarMedicion();
+		EventoConsultaLibreria evento = EventoConsultaLibreria.iniciar();
+		Categoria laCategoria = categorias.darEstadisticas().categoriaConMasLibros();
+		terminarConsulta(MetricasLibreria.CATEGORIA_CON_MAS_LIBROS, inicio, evento, null, laCategoria == null ? 0 : 1);
+		return laCategoria;
 	}
 
 	/**
@@ -596,20 +1637,11 @@ public class Libreria
 	 */
 	public Categoria categoriaConMejoresLibros()
 	{
-		double mejorPromedio = -1;
-		Categoria categoriaGanadora = null;
-
-		for (int i = 0; i < categorias.length; i++)
-		{
-			Categoria cat = categorias[i];
-			double promedioCat = cat.calificacionPromedio();
-			if (promedioCat > mejorPromedio)
-			{
-				mejorPromedio = promedioCat;
-				categoriaGanadora = cat;
-			}
-		}
-		return categoriaGanadora;
+		long inicio = iniciarMedicion();
+		EventoConsultaLibreria evento = EventoConsultaLibreria.iniciar();
+		Categoria laCategoria = categorias.darEstadisticas().categoriaConMejoresLibros();
+		terminarConsulta(MetricasLibreria.CATEGORIA_CON_MEJORES_LIBROS, inicio, evento, null, laCategoria == null ? 0 : 1);
+		return laCategoria;
 	}
 
 	/**
@@ -619,53 +1651,109 @@ public class Libreria
 	 */
 	public int contarLibrosSinPortada()
 	{
-		int cantidad = 0;
+		long inicio = iniciarMedicion();
+		EventoConsultaLibreria evento = EventoConsultaLibreria.iniciar();
+		int cantidad = categorias.darEstadisticas().darLibrosSinPortada();
+		terminarConsulta(MetricasLibreria.CONTAR_LIBROS_SIN_PORTADA, inicio, evento, null, 1);
+		return cantidad;
+	}
+
+	/**
+	 * Compara el tamaño de las portadas del catálogo con el que dice el
+	 * encabezado de cada archivo. Cada archivo se lee una sola vez y los archivos
+	 * se leen en paralelo. No se modifica ningún libro.
+	 * 
+	 * @return Las portadas cuyo tamaño no coincide con el real, cada una asociada
+	 *         a una imagen con el tamaño real
+	 */
+	public HashMap<Imagen, Imagen> revisarPortadas()
+	{
+		long inicio = iniciarMedicion();
+		EventoConsultaLibreria evento = EventoConsultaLibreria.iniciar();
+		HashMap<Imagen, Imagen> corregidas = compararPortadas();
+		terminarConsulta(MetricasLibreria.REVISAR_PORTADAS, inicio, evento, null, corregidas.size());
+		return corregidas;
+	}
+
+	/**
+	 * Compara el tamaño de las portadas del catálogo con el real, sin registrar
+	 * la operación en las métricas
+	 * 
+	 * @return Las portadas cuyo tamaño no coincide con el real, cada una asociada
+	 *         a una imagen con el tamaño real
+	 */
+	private HashMap<Imagen, Imagen> compararPortadas()
+	{
+		HashSet<Imagen> declaradas = new HashSet<Imagen>();
 		for (Libro libro : catalogo)
 		{
-			if (!libro.tienePortada())
+			if (libro.tienePortada())
 			{
-				cantidad++;
+				declaradas.add(libro.darPortada());
 			}
 		}
-		return cantidad;
+		return new SondaImagenes("./data").revisar(declaradas);
 	}
 
 	/**
-	 * Consulta si hay algún autor que tenga un libro en más de una categoría
+	 * Corrige el tamaño de las portadas del catálogo que no coincide con el que
+	 * dice el encabezado de cada archivo. Los libros que comparten una portada
+	 * quedan compartiendo la portada corregida.
 	 * 
-	 * @return Retorna true si hay algún autor que tenga al menos un libro en dos
-	 *         categorías diferentes. Retorna false en caso contrario.
+	 * @return La cantidad de libros cuya portada se corrigió
 	 */
-	public boolean hayAutorEnVariasCategorias()
+	public int corregirPortadas()
 	{
-		boolean hayAutorEnVariasCategorias = false;
-
-		HashMap<String, HashSet<String>> categoriasAutores = new HashMap<>();
+		long inicio = iniciarMedicion();
+		EventoModificacionLibreria evento = EventoModificacionLibreria.iniciar();
+		int cantidad = reemplazarPortadas();
+		terminarModificacion(MetricasLibreria.CORREGIR_PORTADAS, inicio, evento, null, cantidad);
+		return cantidad;
+	}
 
-		for (int i = 0; i < catalogo.size() && !hayAutorEnVariasCategorias; i++)
+	/**
+	 * Corrige el tamaño de las portadas del catálogo, sin registrar la operación
+	 * en las métricas
+	 * 
+	 * @return La cantidad de libros cuya portada se corrigió
+	 */
+	private int reemplazarPortadas()
+	{
+		HashMap<Imagen, Imagen> corregidas = compararPortadas();
+		if (corregidas.isEmpty())
 		{
-			Libro libro = catalogo.get(i);
-			String autor = libro.darAutor();
-			String nombreCategoria = libro.darCategoria().darNombre();
+			return 0;
+		}
 
-			if (!categoriasAutores.containsKey(autor))
-			{
-				HashSet<String> categoriasAutor = new HashSet<String>();
-				categoriasAutor.add(nombreCategoria);
-				categoriasAutores.put(autor, categoriasAutor);
-			}
-			else
+		int cantidad = 0;
+		for (Libro libro : catalogo)
+		{
+			if (libro.tienePortada())
 			{
-				HashSet<String> categoriasAutor = categoriasAutores.get(autor);
-				if (!categoriasAutor.contains(nombreCategoria))
+				Imagen real = corregidas.get(libro.darPortada());
+				if (real != null)
 				{
-					categoriasAutor.add(nombreCategoria);
-					hayAutorEnVariasCategorias = true;
+					libro.cambiarPortada(real);
+					cantidad++;
 				}
 			}
 		}
+		return cantidad;
+	}
 
-		return hayAutorEnVariasCategorias;
+	/**
+	 * Consulta si hay algún autor que tenga un libro en más de una categoría
+	 * 
+	 * @return Retorna true si hay algún autor que tenga al menos un libro en dos
+	 *         categorías diferentes. Retorna false en caso contrario.
+	 */
+	public boolean hayAutorEnVariasCategorias()
+	{
+		long inicio = iniciarMedicion();
+		EventoConsultaLibreria evento = EventoConsultaLibreria.iniciar();
+		boolean hay = indiceAutores.hayAutorEnVariasCategorias();
+		terminarConsulta(MetricasLibreria.HAY_AUTOR_EN_VARIAS_CATEGORIAS, inicio, evento, null, 1);
+		return hay;
 	}
 
 }
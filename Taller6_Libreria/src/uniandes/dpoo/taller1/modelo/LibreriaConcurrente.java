@@ -0,0 +1,484 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Esta clase permite consultar y modificar una librería desde varios hilos a la
+ * vez.
+ *
+ * Las consultas se hacen sobre la versión publicada de la librería, que nunca se
+ * modifica: cada consulta lee la referencia a la versión actual una sola vez y
+ * trabaja sobre ella sin tomar ningún candado, así que las consultas no se
+ * bloquean entre sí ni esperan a las modificaciones.
+ *
+ * Las modificaciones se encolan y se aplican por lotes sobre una copia de la
+ * versión actual. Cuando el lote termina, la copia se publica como la nueva
+ * versión. Copiar la librería cuesta lo mismo que cargarla de una copia
+ * binaria, así que conviene agrupar los cambios: todos los cambios que se
+ * encolan mientras se aplica un lote quedan en el siguiente, y los métodos
+ * encolar* permiten armar un lote a propósito antes de publicarlo.
+ *
+ * Solamente un hilo aplica lotes a la vez. Los libros y las categorías de una
+ * versión son objetos distintos a los de las demás versiones.
+ */
+public class LibreriaConcurrente
+{
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * La versión publicada de la librería, junto con su número. No se modifica
+	 * después de publicarse.
+	 */
+	private volatile Version publicada;
+
+	/**
+	 * Los cambios encolados que todavía no se han aplicado
+	 */
+	private ConcurrentLinkedQueue<Cambio<?>> pendientes;
+
+	/**
+	 * Candado que garantiza que solamente un hilo aplica lotes a la vez
+	 */
+	private ReentrantLock escritura;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye una librería concurrente cuya primera versión es la librería
+	 * dada. Desde ese momento la librería le pertenece a esta clase y no se debe
+	 * modificar directamente.
+	 *
+	 * @param inicial La librería que se publica como primera versión
+	 */
+	public LibreriaConcurrente(Libreria inicial)
+	{
+		this.pendientes = new ConcurrentLinkedQueue<Cambio<?>>();
+		this.escritura = new ReentrantLock();
+		inicial.darCategorias();
+		this.publicada = new Version(inicial, 1);
+	}
+
+	// ************************************************************************
+	// Métodos de consulta
+	// ************************************************************************
+
+	/**
+	 * Consulta el número de la versión publicada. Aumenta en uno cada vez que se
+	 * publica un lote de cambios.
+	 *
+	 * @return El número de la versión publicada. La primera versión es la 1.
+	 */
+	public long darNumeroVersion()
+	{
+		return publicada.numero;
+	}
+
+	/**
+	 * Hace una consulta compuesta sobre una sola versión de la librería, de modo
+	 * que todos sus pasos vean los mismos datos aunque mientras tanto se publique
+	 * otra versión.
+	 *
+	 * @param <T>      El tipo del resultado
+	 * @param consulta La consulta. Solamente puede usar los métodos de consulta
+	 *                 de la librería, nunca los que la modifican.
+	 * @return El resultado de la consulta
+	 */
+	public <T> T consultar(Function<Libreria, T> consulta)
+	{
+		return consulta.apply(publicada.libreria);
+	}
+
+	/**
+	 * Hace una consulta compuesta sobre una sola versión de la librería, como
+	 * consultar, y además le entrega a la consulta el número de esa versión
+	 *
+	 * @param <T>      El tipo del resultado
+	 * @param consulta La consulta, que recibe el número de la versión y la
+	 *                 librería. Solamente puede usar los métodos de consulta de
+	 *                 la librería.
+	 * @return El resultado de la consulta
+	 */
+	public <T> T consultarVersion(BiFunction<Long, Libreria, T> consulta)
+	{
+		Version version = publicada;
+		return consulta.apply(version.numero, version.libreria);
+	}
+
+	/**
+	 * Retorna las categorías de la versión publicada
+	 *
+	 * @return Una copia del arreglo de categorías
+	 */
+	public Categoria[] darCategorias()
+	{
+		return publicada.libreria.darCategorias().clone();
+	}
+
+	/**
+	 * Retorna el catálogo completo de la versión publicada
+	 *
+	 * @return Una lista que no se puede modificar
+	 */
+	public List<Libro> darLibros()
+	{
+		return Collections.unmodifiableList(publicada.libreria.darLibros());
+	}
+
+	/**
+	 * Retorna los libros de una categoría en la versión publicada
+	 *
+	 * @param nombreCategoria El nombre de la categoría
+	 * @return Una lista nueva con los libros de la categoría
+	 */
+	public ArrayList<Libro> darLibros(String nombreCategoria)
+	{
+		return publicada.libreria.darLibros(nombreCategoria);
+	}
+
+	/**
+	 * Busca un libro por su título en la versión publicada
+	 *
+	 * @param tituloLibro El título del libro
+	 * @return El libro o null si no existe
+	 */
+	public Libro buscarLibro(String tituloLibro)
+	{
+		return publicada.libreria.buscarLibro(tituloLibro);
+	}
+
+	/**
+	 * Busca en la versión publicada los libros cuyo autor contiene la cadena
+	 *
+	 * @param cadenaAutor La cadena que se busca en el nombre de los autores
+	 * @return Una lista nueva con los libros encontrados
+	 */
+	public ArrayList<Libro> buscarLibrosAutor(String cadenaAutor)
+	{
+		return publicada.libreria.buscarLibrosAutor(cadenaAutor);
+	}
+
+	/**
+	 * Busca en la versión publicada las categorías con libros del autor
+	 *
+	 * @param nombreAutor El nombre del autor
+	 * @return Una lista nueva con las categorías
+	 */
+	public ArrayList<Categoria> buscarCategoriasAutor(String nombreAutor)
+	{
+		return publicada.libreria.buscarCategoriasAutor(nombreAutor);
+	}
+
+	/**
+	 * Busca en la versión publicada cuáles de los autores no existen
+	 *
+	 * @param nombresAutores Los nombres de los autores separados por comas
+	 * @return Un mapa con los autores que no existen
+	 */
+	public HashMap<String, String> existenAutores(String nombresAutores)
+	{
+		return publicada.libreria.existenAutores(nombresAutores);
+	}
+
+	/**
+	 * Calcula la calificación promedio de los libros de la versión publicada
+	 *
+	 * @return La calificación promedio
+	 */
+	public double calificacionPromedio()
+	{
+		return publicada.libreria.calificacionPromedio();
+	}
+
+	/**
+	 * Busca la categoría con más libros en la versión publicada
+	 *
+	 * @return La categoría con más libros
+	 */
+	public Categoria categoriaConMasLibros()
+	{
+		return publicada.libreria.categoriaConMasLibros();
+	}
+
+	/**
+	 * Busca la categoría con la mejor calificación promedio en la versión
+	 * publicada
+	 *
+	 * @return La categoría con los mejores libros
+	 */
+	public Categoria categoriaConMejoresLibros()
+	{
+		return publicada.libreria.categoriaConMejoresLibros();
+	}
+
+	/**
+	 * Cuenta los libros sin portada de la versión publicada
+	 *
+	 * @return La cantidad de libros sin portada
+	 */
+	public int contarLibrosSinPortada()
+	{
+		return publicada.libreria.contarLibrosSinPortada();
+	}
+
+	/**
+	 * Consulta si en la versión publicada hay algún autor con libros en varias
+	 * categorías
+	 *
+	 * @return Retorna true si hay algún autor en varias categorías
+	 */
+	public boolean hayAutorEnVariasCategorias()
+	{
+		return publicada.libreria.hayAutorEnVariasCategorias();
+	}
+
+	// ************************************************************************
+	// Métodos de modificación
+	// ************************************************************************
+
+	/**
+	 * Encola la eliminación de los libros de unos autores. El cambio se aplica en
+	 * el siguiente lote que se publique.
+	 *
+	 * @param nombresAutores Los nombres de los autores separados por comas
+	 * @return Un resultado que se completa con la cantidad de libros eliminados
+	 *         cuando se publique el lote
+	 */
+	public CompletableFuture<Integer> encolarEliminacion(String nombresAutores)
+	{
+		return encolar(libreria -> libreria.eliminarLibros(nombresAutores));
+	}
+
+	/**
+	 * Encola el cambio de nombre de una categoría. La categoría se busca por
+	 * nombre cuando se aplica el cambio. El cambio se aplica en el siguiente lote
+	 * que se publique.
+	 *
+	 * @param nombreCategoria El nombre actual de la categoría
+	 * @param nuevoNombre     El nuevo nombre
+	 * @return Un resultado que se completa cuando se publique el lote: true si se
+	 *         cambió el nombre, false si no existe la categoría o ya hay otra con
+	 *         el nuevo nombre
+	 */
+	public CompletableFuture<Boolean> encolarRenombrado(String nombreCategoria, String nuevoNombre)
+	{
+		return encolar(libreria -> {
+			int posicion = libreria.buscarPosCategoria(nombreCategoria);
+			return posicion >= 0 && libreria.renombrarCategoria(posicion, nuevoNombre);
+		});
+	}
+
+	/**
+	 * Elimina los libros de unos autores y espera a que se publique el lote con el
+	 * cambio
+	 *
+	 * @param nombresAutores Los nombres de los autores separados por comas
+	 * @return La cantidad de libros eliminados
+	 */
+	public int eliminarLibros(String nombresAutores)
+	{
+		CompletableFuture<Integer> resultado = encolarEliminacion(nombresAutores);
+		publicar();
+		return resultado.join();
+	}
+
+	/**
+	 * Le cambia el nombre a una categoría y espera a que se publique el lote con
+	 * el cambio
+	 *
+	 * @param nombreCategoria El nombre actual de la categoría
+	 * @param nuevoNombre     El nuevo nombre
+	 * @return true si se cambió el nombre, false si no existe la categoría o ya
+	 *         hay otra con el nuevo nombre
+	 */
+	public boolean renombrarCategoria(String nombreCategoria, String nuevoNombre)
+	{
+		CompletableFuture<Boolean> resultado = encolarRenombrado(nombreCategoria, nuevoNombre);
+		publicar();
+		return resultado.join();
+	}
+
+	/**
+	 * Aplica todos los cambios encolados sobre una copia de la versión publicada
+	 * y publica la copia como la nueva versión. Si otro hilo está publicando, se
+	 * espera a que termine; los cambios que ese hilo no alcanzó a tomar se aplican
+	 * en este lote.
+	 *
+	 * Cuando este método termina, todos los cambios encolados antes de invocarlo
+	 * están publicados.
+	 *
+	 * @return La cantidad de cambios aplicados en este lote
+	 */
+	public int publicar()
+	{
+		escritura.lock();
+		try
+		{
+			if (pendientes.isEmpty())
+			{
+				return 0;
+			}
+
+			Libreria nueva = new Libreria(publicada.libreria);
+			ArrayList<Cambio<?>> lote = new ArrayList<Cambio<?>>();
+			Cambio<?> cambio = pendientes.poll();
+			while (cambio != null)
+			{
+				cambio.aplicar(nueva);
+				lote.add(cambio);
+				cambio = pendientes.poll();
+			}
+
+			// Se construyen los datos que la librería calcula de forma perezosa
+			// antes de publicarla, para que las consultas no los modifiquen.
+			nueva.darCategorias();
+			publicada = new Version(nueva, publicada.numero + 1);
+			MetricasLibreria metricas = nueva.darMetricas();
+			if (metricas != null)
+			{
+				metricas.vigilar(nueva);
+			}
+
+			for (Cambio<?> aplicado : lote)
+			{
+				aplicado.avisar();
+			}
+			return lote.size();
+		}
+		finally
+		{
+			escritura.unlock();
+		}
+	}
+
+	/**
+	 * Encola un cambio
+	 *
+	 * @param <T>       El tipo del resultado del cambio
+	 * @param operacion La operación que aplica el cambio sobre la copia
+	 * @return El resultado del cambio, que se completa al publicarse
+	 */
+	private <T> CompletableFuture<T> encolar(Function<Libreria, T> operacion)
+	{
+		Cambio<T> cambio = new Cambio<T>(operacion);
+		pendientes.add(cambio);
+		return cambio.resultado;
+	}
+
+	// ************************************************************************
+	// Clases anidadas
+	// ************************************************************************
+
+	/**
+	 * Una versión publicada de la librería con su número. Se publican juntos para
+	 * que una consulta nunca vea el número de una versión con la librería de otra.
+	 */
+	private static final class Version
+	{
+		/**
+		 * La librería de la versión
+		 */
+		private final Libreria libreria;
+
+		/**
+		 * El número de la versión
+		 */
+		private final long numero;
+
+		/**
+		 * Construye una versión
+		 *
+		 * @param laLibreria La librería de la versión
+		 * @param elNumero   El número de la versión
+		 */
+		private Version(Libreria laLibreria, long elNumero)
+		{
+			this.libreria = laLibreria;
+			this.numero = elNumero;
+		}
+	}
+
+	/**
+	 * Un cambio encolado y su resultado
+	 *
+	 * @param <T> El tipo del resultado del cambio
+	 */
+	private static final class Cambio<T>
+	{
+		/**
+		 * La operación que aplica el cambio
+		 */
+		private final Function<Libreria, T> operacion;
+
+		/**
+		 * El resultado que reciben quienes encolaron el cambio
+		 */
+		private final CompletableFuture<T> resultado;
+
+		/**
+		 * El valor que produjo la operación
+		 */
+		private T valor;
+
+		/**
+		 * El error que produjo la operación, o null si no hubo error
+		 */
+		private RuntimeException error;
+
+		/**
+		 * Construye un cambio
+		 *
+		 * @param laOperacion La operación que aplica el cambio
+		 */
+		private Cambio(Function<Libreria, T> laOperacion)
+		{
+			this.operacion = laOperacion;
+			this.resultado = new CompletableFuture<T>();
+		}
+
+		/**
+		 * Aplica el cambio sobre una librería y guarda su valor o su error, sin
+		 * avisarle todavía a quien lo encoló
+		 *
+		 * @param libreria La copia sobre la que se aplica el lote
+		 */
+		private void aplicar(Libreria libreria)
+		{
+			try
+			{
+				valor = operacion.apply(libreria);
+			}
+			catch (RuntimeException e)
+			{
+				error = e;
+			}
+		}
+
+		/**
+		 * Completa el resultado del cambio. Se invoca después de publicar el lote.
+		 */
+		private void avisar()
+		{
+			if (error != null)
+			{
+				resultado.completeExceptionally(error);
+			}
+			else
+			{
+				resultado.complete(valor);
+			}
+		}
+	}
+
+}
@@ -1,105 +1,129 @@
 package uniandes.dpoo.taller1.modelo;
 
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
- * Esta clase agrupa la información sobre un libro disponible en la librería
+ * Esta clase agrupa la información sobre un libro disponible en la librería.
+ *
+ * Los datos del libro se pueden guardar en el mismo objeto (ver LibroSimple) o
+ * en un almacén por columnas compartido por todo el catálogo (ver
+ * LibroColumnar). Esta clase solamente guarda la categoría, que es la misma
+ * en los dos casos, y define las operaciones comunes.
+ *
+ * Cada libro tiene un identificador que no cambia mientras exista. Dos libros
+ * son iguales si tienen el mismo identificador, aunque tengan los mismos datos
+ * que otro libro. Las copias de una librería (ver LibreriaConcurrente)
+ * conservan los identificadores, así que un libro es igual a su copia en la
+ * versión siguiente. El orden del libro (ver darOrden) es su posición en el
+ * catálogo y puede cambiar, así que no sirve para identificarlo.
  */
-public class Libro
+public abstract class Libro
 {
 
 	// ************************************************************************
-	// Atributos
+	// Constantes
 	// ************************************************************************
 
 	/**
-	 * Título del libro
+	 * Ordena los libros según su posición en el orden del catálogo
 	 */
-	private String titulo;
+	static final Comparator<Libro> ORDEN_CATALOGO = Comparator.comparingInt(Libro::darOrden);
 
 	/**
-	 * Autor o autores del libro
+	 * El identificador del próximo libro que se cree. Es un long para que no se
+	 * agote aunque un proceso cree libros durante mucho tiempo.
 	 */
-	private String autor;
+	private static final AtomicLong SIGUIENTE_ID = new AtomicLong();
 
-	/**
-	 * Calificación obtenida por el libro en el sitio bookdepository.com
-	 */
-	private double calificacion;
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
 
 	/**
 	 * Categoría a la que pertenece el libro
 	 */
 	private Categoria categoria;
 
-	/**
-	 * Imagen con la portada del libro
-	 */
-	private Imagen portada;
-
 	// ************************************************************************
 	// Constructores
 	// ************************************************************************
 
 	/**
-	 * Construye un nuevo libro, sin portada, a partir de los parámetros.
-	 * 
-	 * La portada se inicializa en null.
-	 * 
-	 * Además de inicializar los atributos del libro, agrega el libro que se está
-	 * creando a la categoría usando el método agregarLibro de la clase Categoría.
-	 * 
-	 * @param elTitulo       Título del libro
-	 * @param elAutor        Autor o autores del libro
-	 * @param laCalificacion Calificación obtenida por el libro en
-	 *                       bookdepository.com
-	 * @param laCategoria    Categoría a la que pertenece el libro
-	 */
-	public Libro(String elTitulo, String elAutor, double laCalificacion, Categoria laCategoria)
+	 * Inicializa la categoría del libro. El libro no se agrega a la categoría
+	 * aquí: cada subclase lo agrega al final de su constructor, cuando ya se
+	 * pueden consultar su calificación y su portada.
+	 *
+	 * @param laCategoria Categoría a la que pertenece el libro
+	 */
+	protected Libro(Categoria laCategoria)
+	{
+		this.categoria = laCategoria;
+	}
+
+	/**
+	 * Genera el identificador de un libro nuevo
+	 *
+	 * @return Un identificador que no tiene ningún otro libro
+	 */
+	static long generarId()
 	{
-		titulo = elTitulo;
-		autor = elAutor;
-		calificacion = laCalificacion;
-		portada = null;
-		categoria = laCategoria;
-		categoria.agregarLibro(this);
+		return SIGUIENTE_ID.getAndIncrement();
 	}
 
 	// ************************************************************************
 	// Métodos para consultar los atributos
 	// ************************************************************************
 
+	/**
+	 * Consulta el identificador del libro
+	 *
+	 * @return id
+	 */
+	public abstract long darId();
+
+	/**
+	 * Consulta la posición del libro en el orden del catálogo. Los libros que
+	 * están después en el catálogo tienen un orden mayor. Vale -1 mientras el
+	 * libro no se haya agregado a un catálogo.
+	 *
+	 * @return orden
+	 */
+	public abstract int darOrden();
+
+	/**
+	 * Cambia la posición del libro en el orden del catálogo. Solamente la usa la
+	 * librería al agregar el libro a su catálogo.
+	 *
+	 * @param nuevoOrden La posición del libro en el orden del catálogo
+	 */
+	abstract void asignarOrden(int nuevoOrden);
+
 	/**
 	 * Consulta el título del libro
-	 * 
+	 *
 	 * @return titulo
 	 */
-	public String darTitulo()
-	{
-		return titulo;
-	}
+	public abstract String darTitulo();
 
 	/**
 	 * Consulta el autor del libro
-	 * 
+	 *
 	 * @return autor
 	 */
-	public String darAutor()
-	{
-		return autor;
-	}
+	public abstract String darAutor();
 
 	/**
 	 * Consulta la calificación del libro en bookdepository.com
-	 * 
+	 *
 	 * @return calificacion
 	 */
-	public double darCalificacion()
-	{
-		return calificacion;
-	}
+	public abstract double darCalificacion();
 
 	/**
 	 * Consulta la categoría del libro
-	 * 
+	 *
 	 * @return categoria
 	 */
 	public Categoria darCategoria()
@@ -111,58 +135,134 @@ public class Libro
 	 * Consulta la imagen con la portada del libro. Si el libro no tiene una portada
 	 * debe retornar la imagen por defecto de 85x85 pixeles que se encuentra en el
 	 * archivo "data/missing.png"
-	 * 
+	 *
 	 * @return La portada del libro o un objeto de tipo Imagen con la imagen del
 	 *         archivo "./imagenes/missing.png"
 	 */
 	public Imagen darPortada()
 	{
-		Imagen laPortada = portada;
+		Imagen laPortada = darPortadaGuardada();
 		if (laPortada == null)
 		{
-			laPortada = new Imagen("./imagenes/missing.png", 85, 85);
+			laPortada = Imagen.PORTADA_FALTANTE;
 		}
 
 		return laPortada;
 	}
 
+	/**
+	 * Consulta la portada guardada para el libro
+	 *
+	 * @return La portada del libro o null si no tiene
+	 */
+	protected abstract Imagen darPortadaGuardada();
+
 	// ************************************************************************
 	// Otros métodos
 	// ************************************************************************
 
+	/**
+	 * Verifica si el libro tiene el título indicado. Los índices usan este método
+	 * en lugar de comparar el resultado de darTitulo, porque algunos libros
+	 * pueden comparar su título sin construir una cadena.
+	 *
+	 * @param elTitulo El título con el que se compara
+	 * @return Retorna true si el título del libro es igual al indicado
+	 */
+	public boolean tieneTitulo(String elTitulo)
+	{
+		return darTitulo().equals(elTitulo);
+	}
+
 	/**
 	 * Modifica la portada del libro
-	 * 
+	 *
 	 * @param nuevaPortada Nueva portada para el libro
 	 */
 	public void cambiarPortada(Imagen nuevaPortada)
 	{
-		this.portada = nuevaPortada;
+		boolean teniaPortada = tienePortada();
+		guardarPortada(nuevaPortada);
+		categoria.cambioPortada(teniaPortada, tienePortada());
+	}
+
+	/**
+	 * Guarda una nueva portada para el libro, sin avisarle a la categoría
+	 *
+	 * @param nuevaPortada Nueva portada para el libro, o null para quitarla
+	 */
+	protected abstract void guardarPortada(Imagen nuevaPortada);
+
+	/**
+	 * Guarda una nueva calificación para el libro, sin avisarle a la categoría
+	 *
+	 * @param nuevaCalificacion La nueva calificación del libro
+	 */
+	protected abstract void guardarCalificacion(double nuevaCalificacion);
+
+	/**
+	 * Modifica la calificación y la categoría del libro, y mueve el libro a su
+	 * nueva categoría si cambió. Los índices de la librería no se actualizan
+	 * aquí: solamente la librería usa este método, y ella se encarga de ellos.
+	 *
+	 * @param nuevaCalificacion La nueva calificación del libro
+	 * @param nuevaCategoria    La nueva categoría del libro. Ya debe estar
+	 *                          registrada en la librería.
+	 */
+	void cambiarDatos(double nuevaCalificacion, Categoria nuevaCategoria)
+	{
+		Categoria anterior = categoria;
+		double calificacionAnterior = darCalificacion();
+		if (nuevaCategoria != anterior)
+		{
+			anterior.eliminarLibros(Collections.singleton(this));
+		}
+
+		guardarCalificacion(nuevaCalificacion);
+		this.categoria = nuevaCategoria;
+
+		if (nuevaCategoria != anterior)
+		{
+			nuevaCategoria.agregarLibro(this);
+		}
+		else
+		{
+			categoria.cambioCalificacion(calificacionAnterior, nuevaCalificacion);
+		}
 	}
 
 	/**
 	 * Permite saber si este libro tiene portada.
-	 * 
+	 *
 	 * @return Retorna true si el libro tiene una portada. Retorna false en caso
 	 *         contrario.
 	 */
-	public boolean tienePortada()
+	public abstract boolean tienePortada();
+
+	@Override
+	public final boolean equals(Object otro)
 	{
-		return portada != null;
+		if (this == otro)
+		{
+			return true;
+		}
+		if (!(otro instanceof Libro))
+		{
+			return false;
+		}
+		return darId() == ((Libro) otro).darId();
 	}
 
 	@Override
-	public String toString()
+	public final int hashCode()
 	{
-		return titulo + " (" + autor + ")";
+		return Long.hashCode(darId());
 	}
-	
+
 	@Override
-	public boolean equals(Object obj)
+	public String toString()
 	{
-		Libro otroLibro = (Libro) obj;
-				
-		return this.titulo.equals(otroLibro.titulo);
+		return darTitulo() + " (" + darAutor() + ")";
 	}
-	
+
 }
@@ -0,0 +1,158 @@
+package uniandes.dpoo.taller1.modelo;
+
+/**
+ * Un libro cuyos datos se guardan en un almacén por columnas. El objeto es
+ * solamente una vista sobre la posición del libro en el almacén: además de la
+ * categoría, que guarda la clase Libro, no tiene más atributos que el almacén y
+ * la posición. Cuando la librería compacta su almacén, el libro pasa a otro
+ * almacén y a otra posición (ver mover).
+ */
+public class LibroColumnar extends Libro
+{
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * Almacén en el que están los datos del libro
+	 */
+	private AlmacenColumnar almacen;
+
+	/**
+	 * Posición del libro en el almacén
+	 */
+	private int posicion;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye un nuevo libro, sin portada, cuyos datos se guardan en un almacén
+	 * por columnas.
+	 *
+	 * Además de inicializar el libro, lo agrega a la categoría usando el método
+	 * agregarLibro de la clase Categoría.
+	 *
+	 * @param elAlmacen      Almacén en el que se guardan los datos del libro
+	 * @param elTitulo       Título del libro
+	 * @param elAutor        Autor o autores del libro
+	 * @param laCalificacion Calificación obtenida por el libro en
+	 *                       bookdepository.com
+	 * @param laCategoria    Categoría a la que pertenece el libro
+	 */
+	public LibroColumnar(AlmacenColumnar elAlmacen, String elTitulo, String elAutor, double laCalificacion,
+			Categoria laCategoria)
+	{
+		this(elAlmacen, Libro.generarId(), elTitulo, elAutor, laCalificacion, laCategoria);
+	}
+
+	/**
+	 * Construye un libro, sin portada, con un identificador dado. La librería lo
+	 * usa para copiar un libro conservando su identificador.
+	 *
+	 * @param elAlmacen      Almacén en el que se guardan los datos del libro
+	 * @param elId           Identificador del libro
+	 * @param elTitulo       Título del libro
+	 * @param elAutor        Autor o autores del libro
+	 * @param laCalificacion Calificación obtenida por el libro en
+	 *                       bookdepository.com
+	 * @param laCategoria    Categoría a la que pertenece el libro
+	 */
+	LibroColumnar(AlmacenColumnar elAlmacen, long elId, String elTitulo, String elAutor, double laCalificacion,
+			Categoria laCategoria)
+	{
+		super(laCategoria);
+		almacen = elAlmacen;
+		posicion = almacen.agregar(elId, elTitulo, elAutor, laCalificacion);
+		laCategoria.agregarLibro(this);
+	}
+
+	// ************************************************************************
+	// Métodos para consultar los atributos
+	// ************************************************************************
+
+	@Override
+	public long darId()
+	{
+		return almacen.darId(posicion);
+	}
+
+	@Override
+	public int darOrden()
+	{
+		return almacen.darOrden(posicion);
+	}
+
+	@Override
+	void asignarOrden(int nuevoOrden)
+	{
+		almacen.cambiarOrden(posicion, nuevoOrden);
+	}
+
+	@Override
+	public String darTitulo()
+	{
+		return almacen.darTitulo(posicion);
+	}
+
+	@Override
+	public String darAutor()
+	{
+		return almacen.darAutor(posicion);
+	}
+
+	@Override
+	public double darCalificacion()
+	{
+		return almacen.darCalificacion(posicion);
+	}
+
+	@Override
+	protected Imagen darPortadaGuardada()
+	{
+		return almacen.darPortada(posicion);
+	}
+
+	@Override
+	public boolean tienePortada()
+	{
+		return almacen.tienePortada(posicion);
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	@Override
+	public boolean tieneTitulo(String elTitulo)
+	{
+		return almacen.tieneTitulo(posicion, elTitulo);
+	}
+
+	@Override
+	protected void guardarPortada(Imagen nuevaPortada)
+	{
+		almacen.cambiarPortada(posicion, nuevaPortada);
+	}
+
+	@Override
+	protected void guardarCalificacion(double nuevaCalificacion)
+	{
+		almacen.cambiarCalificacion(posicion, nuevaCalificacion);
+	}
+
+	/**
+	 * Copia los datos del libro a otro almacén y desde ahora los consulta allí.
+	 * Solamente la usa la librería al compactar su almacén.
+	 *
+	 * @param nuevoAlmacen El almacén al que pasa el libro
+	 */
+	void mover(AlmacenColumnar nuevoAlmacen)
+	{
+		posicion = nuevoAlmacen.copiar(almacen, posicion);
+		almacen = nuevoAlmacen;
+	}
+
+}
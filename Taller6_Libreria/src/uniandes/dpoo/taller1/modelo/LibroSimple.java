@@ -0,0 +1,158 @@
+package uniandes.dpoo.taller1.modelo;
+
+/**
+ * Un libro que guarda todos sus datos en sus propios atributos
+ */
+public class LibroSimple extends Libro
+{
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * Identificador del libro
+	 */
+	private final long id;
+
+	/**
+	 * Posición del libro en el orden del catálogo al que pertenece, o -1 si
+	 * todavía no se ha agregado a un catálogo
+	 */
+	private int orden;
+
+	/**
+	 * Título del libro
+	 */
+	private String titulo;
+
+	/**
+	 * Autor o autores del libro
+	 */
+	private String autor;
+
+	/**
+	 * Calificación obtenida por el libro en el sitio bookdepository.com
+	 */
+	private double calificacion;
+
+	/**
+	 * Imagen con la portada del libro
+	 */
+	private Imagen portada;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye un nuevo libro, sin portada, a partir de los parámetros.
+	 *
+	 * La portada se inicializa en null.
+	 *
+	 * Además de inicializar los atributos del libro, agrega el libro que se está
+	 * creando a la categoría usando el método agregarLibro de la clase Categoría.
+	 *
+	 * @param elTitulo       Título del libro
+	 * @param elAutor        Autor o autores del libro
+	 * @param laCalificacion Calificación obtenida por el libro en
+	 *                       bookdepository.com
+	 * @param laCategoria    Categoría a la que pertenece el libro
+	 */
+	public LibroSimple(String elTitulo, String elAutor, double laCalificacion, Categoria laCategoria)
+	{
+		this(Libro.generarId(), elTitulo, elAutor, laCalificacion, laCategoria);
+	}
+
+	/**
+	 * Construye un libro, sin portada, con un identificador dado. La librería lo
+	 * usa para copiar un libro conservando su identificador.
+	 *
+	 * @param elId           Identificador del libro
+	 * @param elTitulo       Título del libro
+	 * @param elAutor        Autor o autores del libro
+	 * @param laCalificacion Calificación obtenida por el libro en
+	 *                       bookdepository.com
+	 * @param laCategoria    Categoría a la que pertenece el libro
+	 */
+	LibroSimple(long elId, String elTitulo, String elAutor, double laCalificacion, Categoria laCategoria)
+	{
+		super(laCategoria);
+		id = elId;
+		orden = -1;
+		titulo = elTitulo;
+		autor = elAutor;
+		calificacion = laCalificacion;
+		portada = null;
+		laCategoria.agregarLibro(this);
+	}
+
+	// ************************************************************************
+	// Métodos para consultar los atributos
+	// ************************************************************************
+
+	@Override
+	public long darId()
+	{
+		return id;
+	}
+
+	@Override
+	public int darOrden()
+	{
+		return orden;
+	}
+
+	@Override
+	void asignarOrden(int nuevoOrden)
+	{
+		this.orden = nuevoOrden;
+	}
+
+	@Override
+	public String darTitulo()
+	{
+		return titulo;
+	}
+
+	@Override
+	public String darAutor()
+	{
+		return autor;
+	}
+
+	@Override
+	public double darCalificacion()
+	{
+		return calificacion;
+	}
+
+	@Override
+	protected Imagen darPortadaGuardada()
+	{
+		return portada;
+	}
+
+	@Override
+	public boolean tienePortada()
+	{
+		return portada != null;
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	@Override
+	protected void guardarPortada(Imagen nuevaPortada)
+	{
+		this.portada = nuevaPortada;
+	}
+
+	@Override
+	protected void guardarCalificacion(double nuevaCalificacion)
+	{
+		this.calificacion = nuevaCalificacion;
+	}
+
+}
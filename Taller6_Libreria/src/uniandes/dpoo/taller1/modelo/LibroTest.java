@@ -0,0 +1,90 @@
+package uniandes.dpoo.taller1.modelo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LibroTest
+{
+	private static final String ENCABEZADO = "Titulo,Autor,Calificacion,Categoria,Portada,Ancho,Alto\n";
+
+	@TempDir
+	Path carpeta;
+
+	private String archivoCategorias;
+
+	private String archivoLibros;
+
+	@BeforeEach
+	void setUp() throws Exception
+	{
+		archivoCategorias = carpeta.resolve("categorias.csv").toString();
+		archivoLibros = carpeta.resolve("libros.csv").toString();
+		Files.write(Path.of(archivoCategorias),
+				"Categoria,ficcion\nNovela,true\nHistoria,false\n".getBytes(StandardCharsets.UTF_8));
+		Files.write(Path.of(archivoLibros), (ENCABEZADO + "Alba,Ana Ruiz,4.0,Novela,,0,0\n"
+				+ "Bruma,Beatriz Gil,3.0,Historia,,0,0\n" + "Cauce,Ana Ruiz,5.0,Historia,,0,0\n")
+						.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void testLibrosConLosMismosDatos()
+	{
+		Categoria categoria = new Categoria("Pruebas", false);
+		Libro uno = new LibroSimple("Rayuela", "Julio Cortázar", 4.5, categoria);
+		Libro otro = new LibroSimple("Rayuela", "Julio Cortázar", 4.5, categoria);
+
+		// Dos libros con los mismos datos son libros distintos
+		assertNotEquals(uno.darId(), otro.darId());
+		assertNotEquals(uno, otro);
+		assertEquals(uno, uno);
+
+		AlmacenColumnar almacen = new AlmacenColumnar();
+		Libro columnar = new LibroColumnar(almacen, "Rayuela", "Julio Cortázar", 4.5, categoria);
+		assertNotEquals(uno, columnar);
+		assertEquals(columnar, new LibroColumnar(almacen, columnar.darId(), "Rayuela", "Julio Cortázar", 4.5,
+				categoria));
+	}
+
+	/**
+	 * Cada libro de la copia de una librería es igual al libro original, aunque
+	 * sean objetos distintos
+	 */
+	private void verificarCopia(boolean columnar) throws Exception
+	{
+		Libreria original = new Libreria(archivoCategorias, archivoLibros,
+				new OpcionesCarga().cambiarAlmacenColumnar(columnar));
+		Libreria copia = new Libreria(original);
+
+		for (String titulo : new String[] { "Alba", "Bruma", "Cauce" })
+		{
+			Libro libro = original.buscarLibro(titulo);
+			Libro copiado = copia.buscarLibro(titulo);
+			assertNotSame(libro, copiado);
+			assertEquals(libro, copiado);
+			assertEquals(libro.hashCode(), copiado.hashCode());
+		}
+		assertNotEquals(original.buscarLibro("Alba"), copia.buscarLibro("Cauce"));
+	}
+
+	@Test
+	void testCopiaConservaIdentificadores() throws Exception
+	{
+		verificarCopia(false);
+		verificarCopia(true);
+	}
+
+	@Test
+	void testBuscarTituloNulo() throws Exception
+	{
+		Libreria libreria = new Libreria(archivoCategorias, archivoLibros);
+		assertNull(libreria.buscarLibro(null));
+	}
+
+}
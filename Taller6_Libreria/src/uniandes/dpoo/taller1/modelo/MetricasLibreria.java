@@ -0,0 +1,368 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Esta clase reúne las métricas de una librería: cuánto tardó cada fase de la
+ * carga, cuántas veces se invocó cada consulta y modificación y cuánto tardó,
+ * el tamaño del catálogo y qué tan bien funcionaron los diccionarios de la
+ * carga.
+ *
+ * Una librería solamente toma medidas si se le asigna un objeto de esta clase
+ * en las opciones de carga. Sin él, cada operación cuesta una comparación
+ * adicional. Con él, cada operación cuesta dos lecturas del reloj y un par de
+ * operaciones atómicas, y la carga mide una de cada {@link #MUESTREO_CARGA}
+ * filas.
+ *
+ * Las métricas se pueden publicar por JMX con {@link #registrar(String)}. Los
+ * tamaños se leen de la última librería vigilada sin sincronizarse con ella,
+ * así que mientras se modifica pueden estar levemente desactualizados.
+ */
+public class MetricasLibreria implements MetricasLibreriaMXBean
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Durante la carga se mide una de cada tantas filas
+	 */
+	static final int MUESTREO_CARGA = 64;
+
+	/**
+	 * El dominio del nombre con el que se registran las métricas en JMX
+	 */
+	public static final String DOMINIO_JMX = "uniandes.dpoo.taller1";
+
+	// Las operaciones que se miden. Cada una es la posición de su nombre en
+	// OPERACIONES y de su histograma.
+	static final int BUSCAR_LIBRO = 0;
+	static final int BUSCAR_LIBROS_AUTOR = 1;
+	static final int BUSCAR_CATEGORIAS_AUTOR = 2;
+	static final int DAR_LIBROS_CATEGORIA = 3;
+	static final int BUSCAR_POS_CATEGORIA = 4;
+	static final int EXISTEN_AUTORES = 5;
+	static final int CALIFICACION_PROMEDIO = 6;
+	static final int CATEGORIA_CON_MAS_LIBROS = 7;
+	static final int CATEGORIA_CON_MEJORES_LIBROS = 8;
+	static final int CONTAR_LIBROS_SIN_PORTADA = 9;
+	static final int HAY_AUTOR_EN_VARIAS_CATEGORIAS = 10;
+	static final int REVISAR_PORTADAS = 11;
+	static final int CORREGIR_PORTADAS = 12;
+	static final int ELIMINAR_LIBROS = 13;
+	static final int ELIMINAR_LIBROS_POR_AUTOR = 14;
+	static final int RENOMBRAR_CATEGORIA = 15;
+	static final int APLICAR_DIFERENCIA = 16;
+
+	/**
+	 * Los nombres de las operaciones, en el orden de sus constantes. Son los
+	 * nombres de los métodos de la librería.
+	 */
+	private static final String[] OPERACIONES = { "buscarLibro", "buscarLibrosAutor", "buscarCategoriasAutor",
+			"darLibros", "buscarPosCategoria", "existenAutores", "calificacionPromedio", "categoriaConMasLibros",
+			"categoriaConMejoresLibros", "contarLibrosSinPortada", "hayAutorEnVariasCategorias", "revisarPortadas",
+			"corregirPortadas", "eliminarLibros", "eliminarLibrosPorAutor", "renombrarCategoria",
+			"aplicarDiferencia" };
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * El histograma de cada operación, en el orden de sus constantes
+	 */
+	private HistogramaLatencias[] histogramas;
+
+	/**
+	 * La última librería vigilada, de la que se leen los tamaños
+	 */
+	private volatile Libreria vigilada;
+
+	/**
+	 * Cantidad de cargas terminadas
+	 */
+	private long cargas;
+
+	/**
+	 * La duración de la última carga terminada, en nanosegundos
+	 */
+	private long nanosUltimaCarga;
+
+	/**
+	 * Las fases de la última carga terminada, con su duración en nanosegundos
+	 */
+	private Map<String, Long> fasesUltimaCarga;
+
+	/**
+	 * Las fases de la carga en curso, con su duración en nanosegundos
+	 */
+	private LinkedHashMap<String, Long> fasesEnCurso;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye unas métricas vacías
+	 */
+	public MetricasLibreria()
+	{
+		this.histogramas = new HistogramaLatencias[OPERACIONES.length];
+		for (int i = 0; i < histogramas.length; i++)
+		{
+			histogramas[i] = new HistogramaLatencias();
+		}
+		this.fasesUltimaCarga = Collections.emptyMap();
+		this.fasesEnCurso = new LinkedHashMap<String, Long>();
+	}
+
+	// ************************************************************************
+	// Métodos para consultar los atributos
+	// ************************************************************************
+
+	@Override
+	public int getLibros()
+	{
+		Libreria libreria = vigilada;
+		return libreria == null ? 0 : libreria.darLibros().size();
+	}
+
+	@Override
+	public int getCategorias()
+	{
+		Libreria libreria = vigilada;
+		return libreria == null ? 0 : libreria.contarCategorias();
+	}
+
+	@Override
+	public int getAutores()
+	{
+		Libreria libreria = vigilada;
+		return libreria == null ? 0 : libreria.contarAutores();
+	}
+
+	@Override
+	public int getLibrosSinPortada()
+	{
+		Libreria libreria = vigilada;
+		return libreria == null ? 0 : libreria.darEstadisticas().darLibrosSinPortada();
+	}
+
+	@Override
+	public synchronized long getCargas()
+	{
+		return cargas;
+	}
+
+	@Override
+	public synchronized double getUltimaCargaMilis()
+	{
+		return nanosUltimaCarga / 1e6;
+	}
+
+	@Override
+	public synchronized Map<String, Double> getFasesUltimaCargaMilis()
+	{
+		LinkedHashMap<String, Double> fases = new LinkedHashMap<String, Double>();
+		for (Map.Entry<String, Long> fase : fasesUltimaCarga.entrySet())
+		{
+			fases.put(fase.getKey(), fase.getValue() / 1e6);
+		}
+		return fases;
+	}
+
+	@Override
+	public double getAciertosDiccionarioAutores()
+	{
+		Libreria libreria = vigilada;
+		if (libreria == null)
+		{
+			return 0;
+		}
+		DiccionarioCarga diccionario = libreria.darDiccionarioCarga();
+		return calcularProporcion(diccionario.darAciertosAutores(), diccionario.darConsultasAutores());
+	}
+
+	@Override
+	public double getAciertosDiccionarioPortadas()
+	{
+		Libreria libreria = vigilada;
+		if (libreria == null)
+		{
+			return 0;
+		}
+		DiccionarioCarga diccionario = libreria.darDiccionarioCarga();
+		return calcularProporcion(diccionario.darAciertosImagenes(), diccionario.darConsultasImagenes());
+	}
+
+	@Override
+	public double getAciertosDirectorioPortadas()
+	{
+		Libreria libreria = vigilada;
+		if (libreria == null)
+		{
+			return 0;
+		}
+		DirectorioPortadas directorio = libreria.darDirectorioPortadas();
+		long consultas = directorio.darConsultas();
+		return calcularProporcion(consultas - directorio.darLecturas(), consultas);
+	}
+
+	@Override
+	public Map<String, ResumenLatencias> getOperaciones()
+	{
+		LinkedHashMap<String, ResumenLatencias> operaciones = new LinkedHashMap<String, ResumenLatencias>();
+		for (int i = 0; i < OPERACIONES.length; i++)
+		{
+			operaciones.put(OPERACIONES[i], new ResumenLatencias(histogramas[i]));
+		}
+		return operaciones;
+	}
+
+	@Override
+	public String describirHistograma(String operacion)
+	{
+		for (int i = 0; i < OPERACIONES.length; i++)
+		{
+			if (OPERACIONES[i].equals(operacion))
+			{
+				return histogramas[i].describir(1000.0, "us");
+			}
+		}
+		return "No hay una operación llamada " + operacion;
+	}
+
+	@Override
+	public void reiniciar()
+	{
+		for (HistogramaLatencias histograma : histogramas)
+		{
+			histograma.reiniciar();
+		}
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	/**
+	 * Publica estas métricas en el servidor JMX de la máquina virtual
+	 *
+	 * @param nombre El nombre que distingue a esta librería de otras en la misma
+	 *               máquina virtual
+	 * @return El nombre con el que quedaron registradas
+	 * @throws JMException Si ya hay unas métricas registradas con ese nombre
+	 */
+	public ObjectName registrar(String nombre) throws JMException
+	{
+		ObjectName nombreJmx = new ObjectName(
+				DOMINIO_JMX + ":type=" + MetricasLibreria.class.getSimpleName() + ",name=" + ObjectName.quote(nombre));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, nombreJmx);
+		return nombreJmx;
+	}
+
+	/**
+	 * Consulta el nombre de una operación
+	 *
+	 * @param operacion La operación, una de las constantes de esta clase
+	 * @return El nombre del método de la librería
+	 */
+	static String darNombreOperacion(int operacion)
+	{
+		return OPERACIONES[operacion];
+	}
+
+	/**
+	 * Indica de qué librería se leen los tamaños del catálogo
+	 *
+	 * @param libreria La librería
+	 */
+	void vigilar(Libreria libreria)
+	{
+		vigilada = libreria;
+	}
+
+	/**
+	 * Registra la duración de una invocación de una operación
+	 *
+	 * @param operacion La operación, una de las constantes de esta clase
+	 * @param inicio    El valor de System.nanoTime al empezar la operación
+	 */
+	void registrar(int operacion, long inicio)
+	{
+		histogramas[operacion].registrar(System.nanoTime() - inicio);
+	}
+
+	/**
+	 * Indica que empieza una carga, y olvida las fases de una carga anterior que
+	 * no haya terminado
+	 */
+	synchronized void iniciarCarga()
+	{
+		fasesEnCurso = new LinkedHashMap<String, Long>();
+	}
+
+	/**
+	 * Suma tiempo a una fase de la carga en curso
+	 *
+	 * @param fase  El nombre de la fase
+	 * @param nanos La duración en nanosegundos
+	 */
+	synchronized void registrarFase(String fase, long nanos)
+	{
+		fasesEnCurso.merge(fase, nanos, Long::sum);
+	}
+
+	/**
+	 * Suma a la carga en curso el tiempo total de un cronómetro y el de cada
+	 * una de sus fases
+	 *
+	 * @param prefijo    El prefijo de los nombres de las fases, que indica qué
+	 *                   archivo se estaba procesando
+	 * @param cronometro El cronómetro
+	 */
+	void registrarFases(String prefijo, CronometroCarga cronometro)
+	{
+		registrarFase(prefijo + ".total", cronometro.darTotalNanos());
+		for (int i = 0; i < CronometroCarga.NOMBRES.length; i++)
+		{
+			long nanos = cronometro.estimarNanos(i);
+			if (nanos > 0)
+			{
+				registrarFase(prefijo + "." + CronometroCarga.NOMBRES[i], nanos);
+			}
+		}
+	}
+
+	/**
+	 * Indica que terminó la carga en curso, y la convierte en la última carga
+	 *
+	 * @param nanos La duración total de la carga en nanosegundos
+	 */
+	synchronized void terminarCarga(long nanos)
+	{
+		cargas++;
+		nanosUltimaCarga = nanos;
+		fasesUltimaCarga = fasesEnCurso;
+		fasesEnCurso = new LinkedHashMap<String, Long>();
+	}
+
+	/**
+	 * Calcula una proporción
+	 *
+	 * @param parte La parte
+	 * @param total El total
+	 * @return La proporción, o 0 si el total es 0
+	 */
+	private static double calcularProporcion(long parte, long total)
+	{
+		return total == 0 ? 0 : (double) parte / total;
+	}
+
+}
@@ -0,0 +1,86 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.util.Map;
+
+/**
+ * Las métricas de una librería que se publican por JMX, para verlas con
+ * JConsole o con cualquier otra herramienta que consulte la máquina virtual.
+ *
+ * JMX deduce los atributos de los métodos get, así que esta interfaz no sigue
+ * la convención dar* del resto del proyecto. Los tiempos están en milisegundos
+ * o microsegundos, según se indique en el nombre.
+ */
+public interface MetricasLibreriaMXBean
+{
+	/**
+	 * @return La cantidad de libros del catálogo
+	 */
+	int getLibros();
+
+	/**
+	 * @return La cantidad de categorías
+	 */
+	int getCategorias();
+
+	/**
+	 * @return La cantidad de autores distintos con libros en el catálogo
+	 */
+	int getAutores();
+
+	/**
+	 * @return La cantidad de libros sin portada
+	 */
+	int getLibrosSinPortada();
+
+	/**
+	 * @return La cantidad de cargas terminadas
+	 */
+	long getCargas();
+
+	/**
+	 * @return La duración total de la última carga, en milisegundos
+	 */
+	double getUltimaCargaMilis();
+
+	/**
+	 * @return La duración de cada fase de la última carga, en milisegundos
+	 */
+	Map<String, Double> getFasesUltimaCargaMilis();
+
+	/**
+	 * @return La proporción de nombres de autores que ya estaban en el
+	 *         diccionario de la última carga
+	 */
+	double getAciertosDiccionarioAutores();
+
+	/**
+	 * @return La proporción de portadas que ya estaban en el diccionario de la
+	 *         última carga
+	 */
+	double getAciertosDiccionarioPortadas();
+
+	/**
+	 * @return La proporción de consultas sobre la existencia de una portada que
+	 *         se respondieron sin leer la carpeta
+	 */
+	double getAciertosDirectorioPortadas();
+
+	/**
+	 * @return El resumen de las mediciones de cada operación
+	 */
+	Map<String, ResumenLatencias> getOperaciones();
+
+	/**
+	 * Describe el histograma de una operación
+	 *
+	 * @param operacion El nombre de la operación
+	 * @return Los intervalos con mediciones, en microsegundos, o un mensaje si la
+	 *         operación no existe
+	 */
+	String describirHistograma(String operacion);
+
+	/**
+	 * Borra las mediciones de las operaciones
+	 */
+	void reiniciar();
+}
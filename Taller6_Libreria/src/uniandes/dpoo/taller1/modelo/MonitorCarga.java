@@ -0,0 +1,29 @@
+package uniandes.dpoo.taller1.modelo;
+
+/**
+ * Un monitor recibe el avance de la carga de una librería y puede pedir que la
+ * carga se cancele.
+ *
+ * Los métodos se invocan desde el hilo que está cargando la librería, que por lo
+ * general no es el hilo de eventos de la interfaz.
+ */
+public interface MonitorCarga
+{
+	/**
+	 * Informa cuánto se ha avanzado en la lectura del catálogo
+	 *
+	 * @param filas        La cantidad de libros leídos hasta el momento
+	 * @param bytes        La cantidad de bytes leídos hasta el momento. Al cargar
+	 *                     de una copia binaria es una estimación proporcional a
+	 *                     los libros leídos.
+	 * @param bytesTotales El tamaño del archivo del que se está cargando
+	 */
+	void avanzar(long filas, long bytes, long bytesTotales);
+
+	/**
+	 * Consulta si se pidió cancelar la carga
+	 *
+	 * @return Retorna true si la carga se debe detener
+	 */
+	boolean estaCancelada();
+}
@@ -0,0 +1,48 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Un notificador recibe los avisos que produce una librería cuando cambia, para
+ * que quien la usa decida cómo mostrarlos: en un cuadro de diálogo, en la
+ * consola o en un registro.
+ *
+ * La librería nunca muestra los avisos por sí misma, así que se puede usar sin
+ * interfaz gráfica.
+ */
+public interface NotificadorLibreria
+{
+	/**
+	 * Avisa que terminó la carga de la librería y cuáles categorías se agregaron
+	 * porque aparecían en el archivo de libros pero no en el de categorías
+	 *
+	 * @param agregadas Las categorías agregadas, en el orden en el que aparecieron.
+	 *                  Puede estar vacía.
+	 */
+	void categoriasAgregadas(List<Categoria> agregadas);
+
+	/**
+	 * Avisa que se eliminaron los libros de unos autores
+	 *
+	 * @param eliminadosPorAutor La cantidad de libros eliminados de cada autor
+	 */
+	void librosEliminados(Map<String, Integer> eliminadosPorAutor);
+
+	/**
+	 * Avisa que se le cambió el nombre a una categoría
+	 *
+	 * @param nombreAnterior El nombre que tenía la categoría
+	 * @param categoria      La categoría, ya con el nombre nuevo
+	 */
+	void categoriaRenombrada(String nombreAnterior, Categoria categoria);
+
+	/**
+	 * Avisa que se aplicaron sobre la librería los cambios de sus archivos CSV
+	 *
+	 * @param diferencia Los cambios que se aplicaron
+	 * @param agregadas  Las categorías que se agregaron porque aparecían en las
+	 *                   filas de libros nuevas o cambiadas. Puede estar vacía.
+	 */
+	void catalogoActualizado(DiferenciaCatalogo diferencia, List<Categoria> agregadas);
+}
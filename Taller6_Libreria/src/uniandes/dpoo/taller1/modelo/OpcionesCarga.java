@@ -0,0 +1,270 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Esta clase agrupa las opciones que controlan cómo una librería carga su
+ * catálogo a partir de los archivos.
+ *
+ * Las opciones por defecto corresponden a la carga secuencial de siempre.
+ */
+public class OpcionesCarga
+{
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * Indica si el archivo de libros se debe procesar en paralelo, por partes
+	 */
+	private boolean cargaParalela;
+
+	/**
+	 * Ruta del archivo con la copia binaria del catálogo, o null si no se usa una
+	 * copia
+	 */
+	private String archivoCopia;
+
+	/**
+	 * Indica si los datos de los libros se guardan por columnas en un
+	 * AlmacenColumnar, en lugar de en cada objeto Libro
+	 */
+	private boolean almacenColumnar;
+
+	/**
+	 * Indica si el tamaño de las portadas se debe verificar con el encabezado de
+	 * cada archivo, en lugar de creer el que dice el archivo de libros
+	 */
+	private boolean verificacionPortadas;
+
+	/**
+	 * El monitor que recibe el avance de la carga, o null si nadie lo sigue
+	 */
+	private MonitorCarga monitor;
+
+	/**
+	 * El notificador que recibe los avisos de la librería, o null si nadie los
+	 * recibe
+	 */
+	private NotificadorLibreria notificador;
+
+	/**
+	 * Las métricas donde la librería registra sus mediciones, o null si no se
+	 * mide nada
+	 */
+	private MetricasLibreria metricas;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye unas opciones con los valores por defecto
+	 */
+	public OpcionesCarga()
+	{
+		this.cargaParalela = false;
+		this.archivoCopia = null;
+		this.almacenColumnar = false;
+		this.verificacionPortadas = false;
+		this.monitor = null;
+		this.notificador = null;
+		this.metricas = null;
+	}
+
+	// ************************************************************************
+	// Métodos para consultar y modificar los atributos
+	// ************************************************************************
+
+	/**
+	 * Consulta si el archivo de libros se procesa en paralelo
+	 *
+	 * @return cargaParalela
+	 */
+	public boolean esCargaParalela()
+	{
+		return cargaParalela;
+	}
+
+	/**
+	 * Cambia la forma en la que se procesa el archivo de libros
+	 *
+	 * @param paralela Indica si el archivo se debe procesar en paralelo
+	 * @return Estas mismas opciones, para poder encadenar los cambios
+	 */
+	public OpcionesCarga cambiarCargaParalela(boolean paralela)
+	{
+		this.cargaParalela = paralela;
+		return this;
+	}
+
+	/**
+	 * Consulta la ruta del archivo con la copia binaria del catálogo
+	 *
+	 * @return archivoCopia
+	 */
+	public String darArchivoCopia()
+	{
+		return archivoCopia;
+	}
+
+	/**
+	 * Cambia la ruta del archivo con la copia binaria del catálogo. Si la copia
+	 * corresponde a los archivos CSV, el catálogo se carga de ella; si no, se
+	 * carga de los CSV y luego se escribe una copia nueva.
+	 *
+	 * @param rutaArchivo La ruta del archivo, o null para no usar una copia
+	 * @return Estas mismas opciones, para poder encadenar los cambios
+	 */
+	public OpcionesCarga cambiarArchivoCopia(String rutaArchivo)
+	{
+		this.archivoCopia = rutaArchivo;
+		return this;
+	}
+
+	/**
+	 * Consulta si los datos de los libros se guardan por columnas
+	 *
+	 * @return almacenColumnar
+	 */
+	public boolean esAlmacenColumnar()
+	{
+		return almacenColumnar;
+	}
+
+	/**
+	 * Cambia la forma en la que se guardan los datos de los libros. Guardarlos
+	 * por columnas ocupa mucha menos memoria en catálogos grandes, a cambio de
+	 * construir una cadena nueva cada vez que se consulta un título.
+	 *
+	 * @param columnar Indica si los datos se deben guardar por columnas
+	 * @return Estas mismas opciones, para poder encadenar los cambios
+	 */
+	public OpcionesCarga cambiarAlmacenColumnar(boolean columnar)
+	{
+		this.almacenColumnar = columnar;
+		return this;
+	}
+
+	/**
+	 * Consulta si el tamaño de las portadas se verifica al cargar
+	 *
+	 * @return verificacionPortadas
+	 */
+	public boolean esVerificacionPortadas()
+	{
+		return verificacionPortadas;
+	}
+
+	/**
+	 * Cambia si el tamaño de las portadas se verifica al cargar. La verificación
+	 * lee el encabezado de cada archivo de portada una vez, y corrige los libros
+	 * cuyo ancho o alto no coincide con el real.
+	 *
+	 * @param verificar Indica si se debe verificar el tamaño de las portadas
+	 * @return Estas mismas opciones, para poder encadenar los cambios
+	 */
+	public OpcionesCarga cambiarVerificacionPortadas(boolean verificar)
+	{
+		this.verificacionPortadas = verificar;
+		return this;
+	}
+
+	/**
+	 * Consulta el monitor que recibe el avance de la carga
+	 *
+	 * @return monitor
+	 */
+	public MonitorCarga darMonitor()
+	{
+		return monitor;
+	}
+
+	/**
+	 * Cambia el monitor que recibe el avance de la carga y que puede cancelarla
+	 *
+	 * @param elMonitor El monitor, o null para no seguir la carga
+	 * @return Estas mismas opciones, para poder encadenar los cambios
+	 */
+	public OpcionesCarga cambiarMonitor(MonitorCarga elMonitor)
+	{
+		this.monitor = elMonitor;
+		return this;
+	}
+
+	/**
+	 * Consulta el notificador que recibe los avisos de la librería
+	 *
+	 * @return notificador
+	 */
+	public NotificadorLibreria darNotificador()
+	{
+		return notificador;
+	}
+
+	/**
+	 * Cambia el notificador que recibe los avisos de la librería, empezando por
+	 * el aviso de las categorías agregadas al terminar la carga
+	 *
+	 * @param elNotificador El notificador, o null para no recibir avisos
+	 * @return Estas mismas opciones, para poder encadenar los cambios
+	 */
+	public OpcionesCarga cambiarNotificador(NotificadorLibreria elNotificador)
+	{
+		this.notificador = elNotificador;
+		return this;
+	}
+
+	/**
+	 * Consulta las métricas donde la librería registra sus mediciones
+	 *
+	 * @return metricas
+	 */
+	public MetricasLibreria darMetricas()
+	{
+		return metricas;
+	}
+
+	/**
+	 * Cambia las métricas donde la librería registra sus mediciones, empezando
+	 * por las fases de la carga
+	 *
+	 * @param lasMetricas Las métricas, o null para no medir nada
+	 * @return Estas mismas opciones, para poder encadenar los cambios
+	 */
+	public OpcionesCarga cambiarMetricas(MetricasLibreria lasMetricas)
+	{
+		this.metricas = lasMetricas;
+		return this;
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	/**
+	 * Le informa al monitor el avance de la carga y revisa si se pidió
+	 * cancelarla. Si no hay monitor no hace nada.
+	 *
+	 * @param filas        La cantidad de libros leídos hasta el momento
+	 * @param bytes        La cantidad de bytes leídos hasta el momento
+	 * @param bytesTotales El tamaño del archivo del que se está cargando
+	 * @throws InterruptedIOException Se lanza esta excepción si el monitor pidió
+	 *                                cancelar la carga
+	 */
+	public void informarAvance(long filas, long bytes, long bytesTotales) throws InterruptedIOException
+	{
+		if (monitor == null)
+		{
+			return;
+		}
+		monitor.avanzar(filas, bytes, bytesTotales);
+		if (monitor.estaCancelada())
+		{
+			InterruptedIOException cancelada = new InterruptedIOException("Se canceló la carga del catálogo");
+			cancelada.bytesTransferred = (int) Math.min(bytes, Integer.MAX_VALUE);
+			throw cancelada;
+		}
+	}
+
+}
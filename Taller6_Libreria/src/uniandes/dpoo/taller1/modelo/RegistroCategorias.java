@@ -0,0 +1,233 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.util.HashMap;
+
+/**
+ * Esta clase guarda las categorías de una librería en el orden en el que se
+ * registraron y permite encontrarlas por su nombre sin recorrerlas todas.
+ *
+ * Cada categoría recibe un identificador entero que corresponde a su posición
+ * dentro del registro. Como las categorías nunca se retiran del registro, el
+ * identificador de una categoría no cambia durante la vida de la librería.
+ */
+public class RegistroCategorias
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Capacidad inicial del arreglo de categorías
+	 */
+	private static final int CAPACIDAD_INICIAL = 16;
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * Arreglo con las categorías registradas. Solamente las primeras
+	 * 'cantidad' posiciones están ocupadas; el resto es espacio libre para
+	 * agregar categorías sin tener que copiar el arreglo cada vez.
+	 */
+	private Categoria[] categorias;
+
+	/**
+	 * Cantidad de categorías registradas
+	 */
+	private int cantidad;
+
+	/**
+	 * Mapa que relaciona el nombre de cada categoría con su posición en el
+	 * arreglo
+	 */
+	private HashMap<String, Integer> posiciones;
+
+	/**
+	 * Copia del arreglo de categorías con el tamaño exacto. Se construye cuando
+	 * alguien la pide y se descarta cuando se agrega una nueva categoría.
+	 */
+	private Categoria[] arregloExacto;
+
+	/**
+	 * Estadísticas del catálogo formado por los libros de las categorías
+	 * registradas
+	 */
+	private EstadisticasCatalogo estadisticas;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye un registro de categorías vacío
+	 */
+	public RegistroCategorias()
+	{
+		this.categorias = new Categoria[CAPACIDAD_INICIAL];
+		this.cantidad = 0;
+		this.posiciones = new HashMap<String, Integer>();
+		this.arregloExacto = null;
+		this.estadisticas = new EstadisticasCatalogo();
+	}
+
+	// ************************************************************************
+	// Métodos para consultar los atributos
+	// ************************************************************************
+
+	/**
+	 * Consulta la cantidad de categorías registradas
+	 *
+	 * @return cantidad
+	 */
+	public int darCantidad()
+	{
+		return cantidad;
+	}
+
+	/**
+	 * Retorna las estadísticas del catálogo formado por los libros de las
+	 * categorías registradas
+	 *
+	 * @return estadisticas
+	 */
+	public EstadisticasCatalogo darEstadisticas()
+	{
+		return estadisticas;
+	}
+
+	/**
+	 * Retorna la categoría que se encuentra en la posición indicada
+	 *
+	 * @param posicion La posición (o identificador) de la categoría
+	 * @return La categoría en la posición indicada
+	 */
+	public Categoria darCategoria(int posicion)
+	{
+		if (posicion < 0 || posicion >= cantidad)
+		{
+			throw new IndexOutOfBoundsException("No hay una categoría en la posición " + posicion);
+		}
+		return categorias[posicion];
+	}
+
+	/**
+	 * Retorna un arreglo con las categorías registradas, en el orden en el que se
+	 * registraron.
+	 *
+	 * El arreglo se reutiliza mientras no se agreguen categorías, así que no debe
+	 * modificarse.
+	 *
+	 * @return Un arreglo con todas las categorías
+	 */
+	public Categoria[] darCategorias()
+	{
+		Categoria[] resultado = arregloExacto;
+		if (resultado == null)
+		{
+			resultado = new Categoria[cantidad];
+			System.arraycopy(categorias, 0, resultado, 0, cantidad);
+			arregloExacto = resultado;
+		}
+		return resultado;
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	/**
+	 * Busca una categoría a partir de su nombre
+	 *
+	 * @param nombreCategoria El nombre de la categoría buscada
+	 * @return La categoría con el nombre indicado o null si no hay ninguna
+	 */
+	public Categoria buscar(String nombreCategoria)
+	{
+		Integer posicion = posiciones.get(nombreCategoria);
+		return posicion == null ? null : categorias[posicion];
+	}
+
+	/**
+	 * Retorna la posición de la categoría con el nombre indicado
+	 *
+	 * @param nombreCategoria El nombre de la categoría
+	 * @return La posición de la categoría o -1 si no hay ninguna con ese nombre
+	 */
+	public int darPosicion(String nombreCategoria)
+	{
+		Integer posicion = posiciones.get(nombreCategoria);
+		return posicion == null ? -1 : posicion;
+	}
+
+	/**
+	 * Consulta si hay una categoría registrada con el nombre indicado
+	 *
+	 * @param nombreCategoria El nombre de la categoría
+	 * @return Retorna true si ya existe una categoría con ese nombre
+	 */
+	public boolean existe(String nombreCategoria)
+	{
+		return posiciones.containsKey(nombreCategoria);
+	}
+
+	/**
+	 * Registra una nueva categoría al final del registro y le asigna su
+	 * identificador.
+	 *
+	 * Si el arreglo está lleno se duplica su capacidad, de modo que agregar n
+	 * categorías cuesta O(n) en total.
+	 *
+	 * @param nuevaCategoria La categoría que se va a registrar. No puede haber
+	 *                       otra categoría registrada con el mismo nombre.
+	 * @return La posición en la que quedó la categoría
+	 */
+	public int agregar(Categoria nuevaCategoria)
+	{
+		String nombre = nuevaCategoria.darNombre();
+		if (posiciones.containsKey(nombre))
+		{
+			throw new IllegalArgumentException("Ya existe una categoría con el nombre " + nombre);
+		}
+
+		if (cantidad == categorias.length)
+		{
+			Categoria[] nuevoArreglo = new Categoria[categorias.length * 2];
+			System.arraycopy(categorias, 0, nuevoArreglo, 0, cantidad);
+			categorias = nuevoArreglo;
+		}
+
+		int posicion = cantidad;
+		categorias[posicion] = nuevaCategoria;
+		posiciones.put(nombre, posicion);
+		nuevaCategoria.asignarId(posicion);
+		nuevaCategoria.asignarEstadisticas(estadisticas);
+		cantidad++;
+		arregloExacto = null;
+
+		return posicion;
+	}
+
+	/**
+	 * Cambia el nombre de la categoría que se encuentra en la posición indicada.
+	 * La categoría conserva su posición, su identificador y sus libros.
+	 *
+	 * @param posicion    La posición de la categoría que se va a renombrar
+	 * @param nuevoNombre El nuevo nombre. No puede haber otra categoría registrada
+	 *                    con ese nombre.
+	 */
+	public void renombrar(int posicion, String nuevoNombre)
+	{
+		Categoria categoria = darCategoria(posicion);
+		Integer posicionNombre = posiciones.get(nuevoNombre);
+		if (posicionNombre != null && posicionNombre != posicion)
+		{
+			throw new IllegalArgumentException("Ya existe una categoría con el nombre " + nuevoNombre);
+		}
+
+		posiciones.remove(categoria.darNombre());
+		posiciones.put(nuevoNombre, posicion);
+		categoria.cambiarNombre(nuevoNombre);
+	}
+
+}
@@ -0,0 +1,141 @@
+package uniandes.dpoo.taller1.modelo;
+
+/**
+ * Esta clase resume las mediciones de una operación de la librería: cuántas
+ * veces se invocó y cuánto tardó, en microsegundos.
+ *
+ * Es la forma en la que las métricas se muestran en JMX: cada resumen aparece
+ * como un registro con un campo por cada método get. Por eso sus métodos no
+ * siguen la convención dar* del resto del proyecto.
+ */
+public class ResumenLatencias
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Cantidad de nanosegundos en un microsegundo
+	 */
+	private static final double NANOS_POR_MICRO = 1000.0;
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * Cantidad de invocaciones medidas
+	 */
+	private long llamadas;
+
+	/**
+	 * Duración promedio
+	 */
+	private double promedio;
+
+	/**
+	 * Mediana de la duración
+	 */
+	private double p50;
+
+	/**
+	 * Percentil 90 de la duración
+	 */
+	private double p90;
+
+	/**
+	 * Percentil 99 de la duración
+	 */
+	private double p99;
+
+	/**
+	 * Percentil 99,9 de la duración
+	 */
+	private double p999;
+
+	/**
+	 * Mayor duración
+	 */
+	private double maximo;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye el resumen de un histograma
+	 *
+	 * @param histograma El histograma de la operación
+	 */
+	public ResumenLatencias(HistogramaLatencias histograma)
+	{
+		this.llamadas = histograma.contar();
+		this.promedio = llamadas == 0 ? 0 : histograma.darSuma() / NANOS_POR_MICRO / llamadas;
+		this.p50 = histograma.calcularPercentil(50) / NANOS_POR_MICRO;
+		this.p90 = histograma.calcularPercentil(90) / NANOS_POR_MICRO;
+		this.p99 = histograma.calcularPercentil(99) / NANOS_POR_MICRO;
+		this.p999 = histograma.calcularPercentil(99.9) / NANOS_POR_MICRO;
+		this.maximo = histograma.darMaximo() / NANOS_POR_MICRO;
+	}
+
+	// ************************************************************************
+	// Métodos para consultar los atributos
+	// ************************************************************************
+
+	/**
+	 * @return llamadas
+	 */
+	public long getLlamadas()
+	{
+		return llamadas;
+	}
+
+	/**
+	 * @return La duración promedio en microsegundos
+	 */
+	public double getPromedioMicros()
+	{
+		return promedio;
+	}
+
+	/**
+	 * @return La mediana de la duración en microsegundos
+	 */
+	public double getP50Micros()
+	{
+		return p50;
+	}
+
+	/**
+	 * @return El percentil 90 de la duración en microsegundos
+	 */
+	public double getP90Micros()
+	{
+		return p90;
+	}
+
+	/**
+	 * @return El percentil 99 de la duración en microsegundos
+	 */
+	public double getP99Micros()
+	{
+		return p99;
+	}
+
+	/**
+	 * @return El percentil 99,9 de la duración en microsegundos
+	 */
+	public double getP999Micros()
+	{
+		return p999;
+	}
+
+	/**
+	 * @return La mayor duración en microsegundos
+	 */
+	public double getMaximoMicros()
+	{
+		return maximo;
+	}
+
+}
@@ -0,0 +1,761 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Esta clase lee y escribe una copia binaria del catálogo de una librería, para
+ * no tener que procesar los archivos CSV cada vez que se abre la aplicación.
+ *
+ * El archivo empieza con la huella de los archivos de los que salió el
+ * catálogo (ruta, tamaño y fecha de modificación de los CSV y de las carpetas
+ * de portadas que se revisaron). Después vienen una tabla con todas las cadenas
+ * distintas y las columnas de las categorías y de los libros, en las que cada
+ * cadena se guarda como su posición en la tabla. Todas las columnas tienen un
+ * ancho fijo, así que el archivo se mapea en memoria y se consulta sin
+ * procesarlo.
+ *
+ * Si algún archivo de la huella cambió, la copia ya no está vigente y el
+ * catálogo se debe volver a cargar de los CSV.
+ */
+public class SnapshotCatalogo
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Número con el que empiezan los archivos de este formato ("LIBS")
+	 */
+	private static final int MAGIA = 0x4C494253;
+
+	/**
+	 * Versión del formato. Se debe cambiar cada vez que cambie el contenido del
+	 * archivo, para que las copias viejas se descarten.
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * Valor de la columna de portadas para los libros que no tienen portada
+	 */
+	private static final int SIN_PORTADA = -1;
+
+	/**
+	 * Marca de las categorías de ficción
+	 */
+	private static final byte MARCA_FICCION = 1;
+
+	/**
+	 * Marca de las categorías que se agregaron al cargar los libros
+	 */
+	private static final byte MARCA_AGREGADA = 2;
+
+	/**
+	 * Columnas de enteros de los libros, en el orden en que aparecen en el
+	 * archivo. Después de ellas está la columna de calificaciones.
+	 */
+	private static final int COLUMNA_TITULO = 0;
+
+	private static final int COLUMNA_AUTOR = 1;
+
+	private static final int COLUMNA_CATEGORIA = 2;
+
+	private static final int COLUMNA_PORTADA = 3;
+
+	private static final int COLUMNA_ANCHO = 4;
+
+	private static final int COLUMNA_ALTO = 5;
+
+	private static final int COLUMNAS_ENTERAS = 6;
+
+	/**
+	 * Cantidad de bytes que ocupa cada libro sumando todas las columnas
+	 */
+	private static final int BYTES_POR_LIBRO = COLUMNAS_ENTERAS * 4 + 8;
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * Los bytes del archivo, mapeados en memoria
+	 */
+	private ByteBuffer datos;
+
+	/**
+	 * La huella de los archivos de los que salió el catálogo
+	 */
+	private Huella huella;
+
+	/**
+	 * La tabla de cadenas
+	 */
+	private String[] cadenas;
+
+	/**
+	 * Cantidad de categorías
+	 */
+	private int cantidadCategorias;
+
+	/**
+	 * Posición donde empieza la columna de nombres de las categorías. Le sigue la
+	 * columna de marcas, con un byte por categoría.
+	 */
+	private int inicioCategorias;
+
+	/**
+	 * Cantidad de libros
+	 */
+	private int cantidadLibros;
+
+	/**
+	 * Posición donde empiezan las columnas de los libros
+	 */
+	private int inicioLibros;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye la vista de una copia a partir de sus bytes, validando el
+	 * encabezado, los tamaños de las columnas y los valores que se usan como
+	 * posiciones. Así una copia dañada se descubre al abrirla y no cuando la
+	 * librería ya está construyendo el catálogo.
+	 *
+	 * @param losDatos Los bytes del archivo
+	 * @throws IOException Se lanza esta excepción si los bytes no tienen el
+	 *                     formato esperado
+	 */
+	private SnapshotCatalogo(ByteBuffer losDatos) throws IOException
+	{
+		this.datos = losDatos;
+		try
+		{
+			if (datos.getInt() != MAGIA || datos.getInt() != VERSION)
+			{
+				throw new IOException("El archivo no es una copia del catálogo con la versión " + VERSION);
+			}
+			this.huella = Huella.leer(datos);
+			this.cadenas = leerCadenas(datos);
+
+			this.cantidadCategorias = datos.getInt();
+			this.inicioCategorias = datos.position();
+			if (cantidadCategorias < 0 || (long) cantidadCategorias * 5 > datos.remaining())
+			{
+				throw new IOException("La cantidad de categorías de la copia no es válida");
+			}
+			datos.position(inicioCategorias + cantidadCategorias * 5);
+
+			this.cantidadLibros = datos.getInt();
+			this.inicioLibros = datos.position();
+			if (cantidadLibros < 0
+					|| (long) inicioLibros + (long) cantidadLibros * BYTES_POR_LIBRO != datos.limit())
+			{
+				throw new IOException("El tamaño de la copia del catálogo no corresponde con su contenido");
+			}
+			validarPosiciones();
+		}
+		catch (RuntimeException e)
+		{
+			throw new IOException("La copia del catálogo está dañada", e);
+		}
+	}
+
+	// ************************************************************************
+	// Métodos para consultar los atributos
+	// ************************************************************************
+
+	/**
+	 * Consulta la cantidad de categorías de la copia
+	 *
+	 * @return cantidadCategorias
+	 */
+	public int darCantidadCategorias()
+	{
+		return cantidadCategorias;
+	}
+
+	/**
+	 * Consulta el nombre de una categoría
+	 *
+	 * @param posicion La posición de la categoría en la librería
+	 * @return El nombre de la categoría
+	 */
+	public String darNombreCategoria(int posicion)
+	{
+		return cadenas[datos.getInt(inicioCategorias + posicion * 4)];
+	}
+
+	/**
+	 * Consulta si una categoría es de ficción
+	 *
+	 * @param posicion La posición de la categoría en la librería
+	 * @return Retorna true si la categoría es de ficción
+	 */
+	public boolean esFiccion(int posicion)
+	{
+		return (marcasCategoria(posicion) & MARCA_FICCION) != 0;
+	}
+
+	/**
+	 * Consulta si una categoría se agregó al cargar los libros, porque no estaba
+	 * en el archivo de categorías
+	 *
+	 * @param posicion La posición de la categoría en la librería
+	 * @return Retorna true si la categoría se agregó al cargar los libros
+	 */
+	public boolean esAgregada(int posicion)
+	{
+		return (marcasCategoria(posicion) & MARCA_AGREGADA) != 0;
+	}
+
+	/**
+	 * Consulta la cantidad de libros de la copia
+	 *
+	 * @return cantidadLibros
+	 */
+	public int darCantidadLibros()
+	{
+		return cantidadLibros;
+	}
+
+	/**
+	 * Consulta el título de un libro
+	 *
+	 * @param posicion La posición del libro en el catálogo
+	 * @return El título del libro
+	 */
+	public String darTitulo(int posicion)
+	{
+		return cadenas[columnaEntera(COLUMNA_TITULO, posicion)];
+	}
+
+	/**
+	 * Consulta el autor de un libro
+	 *
+	 * @param posicion La posición del libro en el catálogo
+	 * @return El autor del libro
+	 */
+	public String darAutor(int posicion)
+	{
+		return cadenas[columnaEntera(COLUMNA_AUTOR, posicion)];
+	}
+
+	/**
+	 * Consulta la calificación de un libro
+	 *
+	 * @param posicion La posición del libro en el catálogo
+	 * @return La calificación del libro
+	 */
+	public double darCalificacion(int posicion)
+	{
+		return datos.getDouble(inicioLibros + cantidadLibros * 4 * COLUMNAS_ENTERAS + posicion * 8);
+	}
+
+	/**
+	 * Consulta la categoría de un libro
+	 *
+	 * @param posicion La posición del libro en el catálogo
+	 * @return La posición de la categoría del libro en la librería
+	 */
+	public int darCategoria(int posicion)
+	{
+		return columnaEntera(COLUMNA_CATEGORIA, posicion);
+	}
+
+	/**
+	 * Consulta si un libro tiene portada
+	 *
+	 * @param posicion La posición del libro en el catálogo
+	 * @return Retorna true si el libro tiene portada
+	 */
+	public boolean tienePortada(int posicion)
+	{
+		return columnaEntera(COLUMNA_PORTADA, posicion) != SIN_PORTADA;
+	}
+
+	/**
+	 * Consulta la ruta de la portada de un libro
+	 *
+	 * @param posicion La posición del libro en el catálogo
+	 * @return La ruta del archivo de la portada o null si el libro no tiene
+	 *         portada
+	 */
+	public String darRutaPortada(int posicion)
+	{
+		int cadena = columnaEntera(COLUMNA_PORTADA, posicion);
+		return cadena == SIN_PORTADA ? null : cadenas[cadena];
+	}
+
+	/**
+	 * Consulta el ancho de la portada de un libro
+	 *
+	 * @param posicion La posición del libro en el catálogo
+	 * @return El ancho de la portada
+	 */
+	public int darAnchoPortada(int posicion)
+	{
+		return columnaEntera(COLUMNA_ANCHO, posicion);
+	}
+
+	/**
+	 * Consulta el alto de la portada de un libro
+	 *
+	 * @param posicion La posición del libro en el catálogo
+	 * @return El alto de la portada
+	 */
+	public int darAltoPortada(int posicion)
+	{
+		return columnaEntera(COLUMNA_ALTO, posicion);
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	/**
+	 * Abre una copia del catálogo si existe y todavía corresponde a los archivos
+	 * indicados
+	 *
+	 * @param rutaCopia               La ruta del archivo con la copia
+	 * @param nombreArchivoCategorias El nombre del archivo CSV de categorías
+	 * @param nombreArchivoLibros     El nombre del archivo CSV de libros
+	 * @return La copia del catálogo o null si no existe, está dañada, es de otra
+	 *         versión o alguno de los archivos cambió desde que se escribió
+	 */
+	public static SnapshotCatalogo abrirVigente(String rutaCopia, String nombreArchivoCategorias,
+			String nombreArchivoLibros)
+	{
+		try
+		{
+			SnapshotCatalogo copia = abrir(rutaCopia);
+			if (copia.huella.esDe(nombreArchivoCategorias, nombreArchivoLibros) && copia.huella.estaVigente())
+			{
+				return copia;
+			}
+		}
+		catch (IOException e)
+		{
+			// Si no se puede usar la copia, el catálogo se carga de los CSV
+		}
+		return null;
+	}
+
+	/**
+	 * Abre una copia del catálogo mapeando el archivo en memoria
+	 *
+	 * @param rutaCopia La ruta del archivo con la copia
+	 * @return La copia del catálogo
+	 * @throws IOException Se lanza esta excepción si no se puede leer el archivo
+	 *                     o no tiene el formato esperado
+	 */
+	public static SnapshotCatalogo abrir(String rutaCopia) throws IOException
+	{
+		try (FileChannel canal = FileChannel.open(Paths.get(rutaCopia), StandardOpenOption.READ))
+		{
+			if (canal.size() > Integer.MAX_VALUE)
+			{
+				throw new IOException("La copia del catálogo es demasiado grande");
+			}
+			return new SnapshotCatalogo(canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()));
+		}
+	}
+
+	/**
+	 * Escribe una copia del catálogo. El archivo se escribe primero con otro
+	 * nombre y luego se reemplaza, así que nunca queda una copia a medio escribir.
+	 *
+	 * @param rutaCopia   La ruta del archivo donde se escribe la copia
+	 * @param laHuella    La huella de los archivos de los que salió el catálogo
+	 * @param categorias  Las categorías de la librería, en orden
+	 * @param agregadas   Las categorías que se agregaron al cargar los libros
+	 * @param libros      Los libros del catálogo, en orden
+	 * @throws IOException Se lanza esta excepción si hay algún problema
+	 *                     escribiendo el archivo
+	 */
+	public static void escribir(String rutaCopia, Huella laHuella, Categoria[] categorias,
+			Collection<Categoria> agregadas, List<Libro> libros) throws IOException
+	{
+		TablaCadenas tabla = new TablaCadenas();
+		HashSet<Categoria> lasAgregadas = new HashSet<Categoria>(agregadas);
+
+		int[] nombresCategorias = new int[categorias.length];
+		byte[] marcasCategorias = new byte[categorias.length];
+		for (int i = 0; i < categorias.length; i++)
+		{
+			nombresCategorias[i] = tabla.posicion(categorias[i].darNombre());
+			marcasCategorias[i] = (byte) ((categorias[i].esFiccion() ? MARCA_FICCION : 0)
+					| (lasAgregadas.contains(categorias[i]) ? MARCA_AGREGADA : 0));
+		}
+
+		int n = libros.size();
+		int[] titulos = new int[n];
+		int[] autores = new int[n];
+		int[] categoriasLibros = new int[n];
+		int[] portadas = new int[n];
+		int[] anchos = new int[n];
+		int[] altos = new int[n];
+		for (int i = 0; i < n; i++)
+		{
+			Libro libro = libros.get(i);
+			titulos[i] = tabla.posicion(libro.darTitulo());
+			autores[i] = tabla.posicion(libro.darAutor());
+			categoriasLibros[i] = libro.darCategoria().darId();
+			portadas[i] = SIN_PORTADA;
+			if (libro.tienePortada())
+			{
+				Imagen portada = libro.darPortada();
+				portadas[i] = tabla.posicion(portada.darRutaArchivo());
+				anchos[i] = portada.darAncho();
+				altos[i] = portada.darAlto();
+			}
+		}
+
+		Path destino = Paths.get(rutaCopia);
+		Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+		try (DataOutputStream salida = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(temporal), 1 << 16)))
+		{
+			salida.writeInt(MAGIA);
+			salida.writeInt(VERSION);
+			laHuella.escribir(salida);
+			tabla.escribir(salida);
+
+			salida.writeInt(categorias.length);
+			escribirColumna(salida, nombresCategorias);
+			salida.write(marcasCategorias);
+
+			salida.writeInt(n);
+			escribirColumna(salida, titulos);
+			escribirColumna(salida, autores);
+			escribirColumna(salida, categoriasLibros);
+			escribirColumna(salida, portadas);
+			escribirColumna(salida, anchos);
+			escribirColumna(salida, altos);
+			for (Libro libro : libros)
+			{
+				salida.writeDouble(libro.darCalificacion());
+			}
+		}
+		Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Verifica que todos los valores de las columnas que se usan como posiciones
+	 * estén dentro de su rango: las cadenas de los nombres, títulos, autores y
+	 * portadas deben estar en la tabla de cadenas, las categorías de los libros
+	 * deben existir y los tamaños de las portadas no pueden ser negativos.
+	 *
+	 * @throws IOException Se lanza esta excepción si algún valor está fuera de su
+	 *                     rango
+	 */
+	private void validarPosiciones() throws IOException
+	{
+		for (int i = 0; i < cantidadCategorias; i++)
+		{
+			validarRango(datos.getInt(inicioCategorias + i * 4), 0, cadenas.length, "nombre de categoría", i);
+		}
+		for (int i = 0; i < cantidadLibros; i++)
+		{
+			validarRango(columnaEntera(COLUMNA_TITULO, i), 0, cadenas.length, "título", i);
+			validarRango(columnaEntera(COLUMNA_AUTOR, i), 0, cadenas.length, "autor", i);
+			validarRango(columnaEntera(COLUMNA_CATEGORIA, i), 0, cantidadCategorias, "categoría", i);
+			validarRango(columnaEntera(COLUMNA_PORTADA, i), SIN_PORTADA, cadenas.length, "portada", i);
+			validarRango(columnaEntera(COLUMNA_ANCHO, i), 0, Integer.MAX_VALUE, "ancho de portada", i);
+			validarRango(columnaEntera(COLUMNA_ALTO, i), 0, Integer.MAX_VALUE, "alto de portada", i);
+		}
+	}
+
+	/**
+	 * Verifica que un valor de una columna esté en el rango [minimo, limite)
+	 *
+	 * @param valor    El valor leído de la columna
+	 * @param minimo   El menor valor permitido
+	 * @param limite   El primer valor que ya no se permite
+	 * @param columna  El nombre de la columna, para el mensaje de error
+	 * @param posicion La posición de la fila, para el mensaje de error
+	 * @throws IOException Se lanza esta excepción si el valor está fuera del
+	 *                     rango
+	 */
+	private static void validarRango(int valor, int minimo, int limite, String columna, int posicion)
+			throws IOException
+	{
+		if (valor < minimo || valor >= limite)
+		{
+			throw new IOException("La columna de " + columna + " de la copia tiene el valor " + valor
+					+ " en la posición " + posicion);
+		}
+	}
+
+	/**
+	 * Consulta las marcas de una categoría
+	 *
+	 * @param posicion La posición de la categoría
+	 * @return Las marcas de la categoría
+	 */
+	private byte marcasCategoria(int posicion)
+	{
+		return datos.get(inicioCategorias + cantidadCategorias * 4 + posicion);
+	}
+
+	/**
+	 * Consulta el valor de un libro en una de las columnas de enteros
+	 *
+	 * @param columna  El número de la columna
+	 * @param posicion La posición del libro
+	 * @return El valor de la columna para el libro
+	 */
+	private int columnaEntera(int columna, int posicion)
+	{
+		return datos.getInt(inicioLibros + cantidadLibros * 4 * columna + posicion * 4);
+	}
+
+	/**
+	 * Escribe una columna de enteros
+	 *
+	 * @param salida  El flujo en el que se escribe
+	 * @param columna Los valores de la columna
+	 * @throws IOException Se lanza esta excepción si hay algún problema
+	 *                     escribiendo
+	 */
+	private static void escribirColumna(DataOutputStream salida, int[] columna) throws IOException
+	{
+		for (int valor : columna)
+		{
+			salida.writeInt(valor);
+		}
+	}
+
+	/**
+	 * Lee la tabla de cadenas. La tabla tiene la cantidad de cadenas, la posición
+	 * donde termina cada una y luego los bytes en UTF-8 de todas las cadenas
+	 * seguidas.
+	 *
+	 * @param datos Los bytes de la copia, ubicados al inicio de la tabla
+	 * @return Las cadenas de la tabla
+	 */
+	private static String[] leerCadenas(ByteBuffer datos)
+	{
+		int cantidad = datos.getInt();
+		if (cantidad < 0 || cantidad > datos.remaining() / 4)
+		{
+			// Se revisa antes de reservar el arreglo, para que una cantidad dañada no
+			// agote la memoria
+			throw new IllegalStateException("La cantidad de cadenas no es válida: " + cantidad);
+		}
+		int[] finales = new int[cantidad];
+		for (int i = 0; i < cantidad; i++)
+		{
+			finales[i] = datos.getInt();
+		}
+		for (int i = 0; i < cantidad; i++)
+		{
+			if (finales[i] < (i == 0 ? 0 : finales[i - 1]))
+			{
+				throw new IllegalStateException("Los finales de la tabla de cadenas no están en orden");
+			}
+		}
+		byte[] bytes = new byte[cantidad == 0 ? 0 : finales[cantidad - 1]];
+		datos.get(bytes);
+
+		String[] cadenas = new String[cantidad];
+		int inicio = 0;
+		for (int i = 0; i < cantidad; i++)
+		{
+			cadenas[i] = new String(bytes, inicio, finales[i] - inicio, StandardCharsets.UTF_8);
+			inicio = finales[i];
+		}
+		return cadenas;
+	}
+
+	// ************************************************************************
+	// Clases anidadas
+	// ************************************************************************
+
+	/**
+	 * La ruta, el tamaño y la fecha de modificación de los archivos de los que
+	 * salió un catálogo. Los dos primeros archivos son los CSV de categorías y de
+	 * libros.
+	 */
+	public static final class Huella
+	{
+		private ArrayList<String> rutas = new ArrayList<String>();
+
+		private ArrayList<long[]> estados = new ArrayList<long[]>();
+
+		/**
+		 * Construye la huella de los archivos CSV de un catálogo. Se debe construir
+		 * antes de leerlos, para que un cambio durante la carga deje la copia
+		 * vencida.
+		 *
+		 * @param nombreArchivoCategorias El nombre del archivo CSV de categorías
+		 * @param nombreArchivoLibros     El nombre del archivo CSV de libros
+		 */
+		public Huella(String nombreArchivoCategorias, String nombreArchivoLibros)
+		{
+			agregar(Paths.get(nombreArchivoCategorias));
+			agregar(Paths.get(nombreArchivoLibros));
+		}
+
+		private Huella()
+		{
+		}
+
+		/**
+		 * Agrega un archivo o una carpeta a la huella
+		 *
+		 * @param archivo El archivo o la carpeta
+		 */
+		public void agregar(Path archivo)
+		{
+			String ruta = normalizar(archivo);
+			rutas.add(ruta);
+			estados.add(estado(ruta));
+		}
+
+		/**
+		 * Verifica si la huella corresponde a los archivos CSV indicados
+		 *
+		 * @param nombreArchivoCategorias El nombre del archivo CSV de categorías
+		 * @param nombreArchivoLibros     El nombre del archivo CSV de libros
+		 * @return Retorna true si los dos primeros archivos de la huella son los
+		 *         indicados
+		 */
+		boolean esDe(String nombreArchivoCategorias, String nombreArchivoLibros)
+		{
+			return rutas.size() >= 2 && rutas.get(0).equals(normalizar(Paths.get(nombreArchivoCategorias)))
+					&& rutas.get(1).equals(normalizar(Paths.get(nombreArchivoLibros)));
+		}
+
+		/**
+		 * Verifica si ninguno de los archivos de la huella ha cambiado
+		 *
+		 * @return Retorna true si todos los archivos tienen el mismo tamaño y fecha
+		 *         de modificación que cuando se construyó la huella
+		 */
+		boolean estaVigente()
+		{
+			for (int i = 0; i < rutas.size(); i++)
+			{
+				long[] actual = estado(rutas.get(i));
+				long[] guardado = estados.get(i);
+				if (actual[0] != guardado[0] || actual[1] != guardado[1])
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void escribir(DataOutputStream salida) throws IOException
+		{
+			salida.writeInt(rutas.size());
+			for (int i = 0; i < rutas.size(); i++)
+			{
+				byte[] ruta = rutas.get(i).getBytes(StandardCharsets.UTF_8);
+				salida.writeInt(ruta.length);
+				salida.write(ruta);
+				salida.writeLong(estados.get(i)[0]);
+				salida.writeLong(estados.get(i)[1]);
+			}
+		}
+
+		private static Huella leer(ByteBuffer datos)
+		{
+			Huella huella = new Huella();
+			int cantidad = datos.getInt();
+			for (int i = 0; i < cantidad; i++)
+			{
+				int longitud = datos.getInt();
+				if (longitud < 0 || longitud > datos.remaining())
+				{
+					throw new IllegalStateException("La longitud de una ruta de la huella no es válida");
+				}
+				byte[] ruta = new byte[longitud];
+				datos.get(ruta);
+				huella.rutas.add(new String(ruta, StandardCharsets.UTF_8));
+				huella.estados.add(new long[] { datos.getLong(), datos.getLong() });
+			}
+			return huella;
+		}
+
+		private static String normalizar(Path archivo)
+		{
+			return archivo.toAbsolutePath().normalize().toString();
+		}
+
+		/**
+		 * Consulta el tamaño y la fecha de modificación de un archivo
+		 *
+		 * @param ruta La ruta del archivo
+		 * @return El tamaño y la fecha de modificación en milisegundos, o -1 y -1 si
+		 *         el archivo no existe o no se puede consultar
+		 */
+		private static long[] estado(String ruta)
+		{
+			Path archivo = Paths.get(ruta);
+			try
+			{
+				return new long[] { Files.size(archivo), Files.getLastModifiedTime(archivo).toMillis() };
+			}
+			catch (IOException e)
+			{
+				return new long[] { -1, -1 };
+			}
+		}
+	}
+
+	/**
+	 * Tabla que le asigna una posición a cada cadena distinta, en el orden en que
+	 * aparecen
+	 */
+	private static final class TablaCadenas
+	{
+		private HashMap<String, Integer> posiciones = new HashMap<String, Integer>();
+
+		private ArrayList<byte[]> bytes = new ArrayList<byte[]>();
+
+		int posicion(String cadena)
+		{
+			Integer posicion = posiciones.get(cadena);
+			if (posicion == null)
+			{
+				posicion = bytes.size();
+				posiciones.put(cadena, posicion);
+				bytes.add(cadena.getBytes(StandardCharsets.UTF_8));
+			}
+			return posicion;
+		}
+
+		void escribir(DataOutputStream salida) throws IOException
+		{
+			salida.writeInt(bytes.size());
+			int fin = 0;
+			for (byte[] cadena : bytes)
+			{
+				fin += cadena.length;
+				salida.writeInt(fin);
+			}
+			for (byte[] cadena : bytes)
+			{
+				salida.write(cadena);
+			}
+		}
+	}
+
+}
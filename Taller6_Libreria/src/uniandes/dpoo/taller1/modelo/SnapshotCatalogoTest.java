@@ -0,0 +1,238 @@
+package uniandes.dpoo.taller1.modelo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SnapshotCatalogoTest
+{
+	@TempDir
+	Path carpeta;
+
+	private String archivoCategorias;
+
+	private String archivoLibros;
+
+	private String archivoCopia;
+
+	private ArrayList<Libro> libros;
+
+	@BeforeEach
+	void setUp() throws Exception
+	{
+		archivoCategorias = carpeta.resolve("categorias.csv").toString();
+		archivoLibros = carpeta.resolve("libros.csv").toString();
+		archivoCopia = carpeta.resolve("catalogo.bin").toString();
+		Files.write(Path.of(archivoCategorias),
+				"Categoria,ficcion\nNovela,true\nHistoria,false\n".getBytes(StandardCharsets.UTF_8));
+		Files.write(Path.of(archivoLibros),
+				("Titulo,Autor,Calificacion,Categoria,Portada,Ancho,Alto\n"
+						+ "Rayuela,Julio Cortázar,4.25,Novela,./imagenes/00000.jpg,120,200\n"
+						+ "Bestiario,Julio Cortázar,3.5,Novela,./imagenes/00001.jpg,85,85\n"
+						+ "Historia de Roma,Tito Livio,4.0,Clásicos,./imagenes/00002.jpg,85,85\n")
+						.getBytes(StandardCharsets.UTF_8));
+
+		RegistroCategorias registro = new RegistroCategorias();
+		Categoria novela = new Categoria("Novela", true);
+		Categoria historia = new Categoria("Historia", false);
+		Categoria clasicos = new Categoria("Clásicos", false);
+		registro.agregar(novela);
+		registro.agregar(historia);
+		registro.agregar(clasicos);
+
+		libros = new ArrayList<Libro>();
+		libros.add(new LibroSimple("Rayuela", "Julio Cortázar", 4.25, novela));
+		libros.add(new LibroSimple("Bestiario", "Julio Cortázar", 3.5, novela));
+		libros.add(new LibroSimple("Historia de Roma", "Tito Livio", 4.0, clasicos));
+		libros.get(0).cambiarPortada(new Imagen("./imagenes/00000.jpg", 120, 200));
+
+		SnapshotCatalogo.Huella huella = new SnapshotCatalogo.Huella(archivoCategorias, archivoLibros);
+		SnapshotCatalogo.escribir(archivoCopia, huella, registro.darCategorias(), List.of(clasicos), libros);
+	}
+
+	private SnapshotCatalogo abrirVigente()
+	{
+		return SnapshotCatalogo.abrirVigente(archivoCopia, archivoCategorias, archivoLibros);
+	}
+
+	/**
+	 * Reemplaza un entero de la copia
+	 *
+	 * @param desdeElFinal La cantidad de bytes entre el entero y el final del
+	 *                     archivo
+	 * @param valor        El nuevo valor del entero
+	 */
+	private void escribirEntero(long desdeElFinal, int valor) throws IOException
+	{
+		try (RandomAccessFile archivo = new RandomAccessFile(archivoCopia, "rw"))
+		{
+			archivo.seek(archivo.length() - desdeElFinal);
+			archivo.writeInt(valor);
+		}
+	}
+
+	/**
+	 * Calcula la distancia al final del archivo del valor de un libro en una de
+	 * las columnas de enteros. Después de las seis columnas de enteros está la
+	 * columna de calificaciones.
+	 */
+	private long desdeElFinal(int columna, int posicion)
+	{
+		int n = libros.size();
+		return n * 8 + (6 - columna) * n * 4 - posicion * 4;
+	}
+
+	@Test
+	void testIdaYVuelta()
+	{
+		SnapshotCatalogo copia = abrirVigente();
+		assertNotNull(copia);
+
+		assertEquals(3, copia.darCantidadCategorias());
+		assertEquals("Novela", copia.darNombreCategoria(0));
+		assertTrue(copia.esFiccion(0));
+		assertFalse(copia.esAgregada(0));
+		assertEquals("Clásicos", copia.darNombreCategoria(2));
+		assertFalse(copia.esFiccion(2));
+		assertTrue(copia.esAgregada(2));
+
+		assertEquals(3, copia.darCantidadLibros());
+		for (int i = 0; i < libros.size(); i++)
+		{
+			Libro libro = libros.get(i);
+			assertEquals(libro.darTitulo(), copia.darTitulo(i));
+			assertEquals(libro.darAutor(), copia.darAutor(i));
+			assertEquals(libro.darCalificacion(), copia.darCalificacion(i));
+			assertEquals(libro.darCategoria().darId(), copia.darCategoria(i));
+			assertEquals(libro.tienePortada(), copia.tienePortada(i));
+		}
+		assertEquals("./imagenes/00000.jpg", copia.darRutaPortada(0));
+		assertEquals(120, copia.darAnchoPortada(0));
+		assertEquals(200, copia.darAltoPortada(0));
+		assertNull(copia.darRutaPortada(1));
+	}
+
+	@Test
+	void testCopiaDeOtrosArchivos()
+	{
+		assertNull(SnapshotCatalogo.abrirVigente(archivoCopia, archivoLibros, archivoCategorias));
+		assertNull(SnapshotCatalogo.abrirVigente(carpeta.resolve("no-existe.bin").toString(), archivoCategorias,
+				archivoLibros));
+	}
+
+	@Test
+	void testCopiaVencida() throws IOException
+	{
+		Path libros = Path.of(archivoLibros);
+		Files.setLastModifiedTime(libros, FileTime.fromMillis(Files.getLastModifiedTime(libros).toMillis() + 5000));
+		assertNull(abrirVigente());
+	}
+
+	@Test
+	void testCopiaTruncada() throws IOException
+	{
+		try (RandomAccessFile archivo = new RandomAccessFile(archivoCopia, "rw"))
+		{
+			archivo.setLength(archivo.length() - 1);
+		}
+		assertNull(abrirVigente());
+		assertThrows(IOException.class, () -> SnapshotCatalogo.abrir(archivoCopia));
+	}
+
+	/**
+	 * Los valores que se usan como posiciones se validan al abrir la copia, y no
+	 * cuando la librería ya está construyendo el catálogo
+	 */
+	@Test
+	void testPosicionesFueraDeRango() throws IOException
+	{
+		int[][] casos = { { 0, 1, 99 }, { 1, 2, -1 }, { 2, 0, 3 }, { 2, 1, -1 }, { 3, 0, 99 }, { 3, 1, -2 },
+				{ 4, 0, -120 }, { 5, 2, -1 } };
+		byte[] original = Files.readAllBytes(Path.of(archivoCopia));
+		for (int[] caso : casos)
+		{
+			Files.write(Path.of(archivoCopia), original);
+			escribirEntero(desdeElFinal(caso[0], caso[1]), caso[2]);
+
+			String descripcion = "columna " + caso[0] + ", libro " + caso[1];
+			assertNull(abrirVigente(), descripcion);
+			assertThrows(IOException.class, () -> SnapshotCatalogo.abrir(archivoCopia), descripcion);
+		}
+	}
+
+	/**
+	 * Cambiar cualquier byte de la copia debe dejarla inservible o producir una
+	 * copia cuyos valores se pueden consultar todos sin errores
+	 */
+	@Test
+	void testCopiaDanada() throws IOException
+	{
+		byte[] original = Files.readAllBytes(Path.of(archivoCopia));
+		for (int i = 0; i < original.length; i++)
+		{
+			byte[] danado = original.clone();
+			danado[i] ^= (byte) 0xA5;
+			Files.write(Path.of(archivoCopia), danado);
+
+			SnapshotCatalogo copia;
+			try
+			{
+				copia = SnapshotCatalogo.abrir(archivoCopia);
+			}
+			catch (IOException e)
+			{
+				continue;
+			}
+			for (int c = 0; c < copia.darCantidadCategorias(); c++)
+			{
+				copia.darNombreCategoria(c);
+				copia.esFiccion(c);
+			}
+			for (int l = 0; l < copia.darCantidadLibros(); l++)
+			{
+				copia.darTitulo(l);
+				copia.darAutor(l);
+				copia.darCalificacion(l);
+				assertTrue(copia.darCategoria(l) < copia.darCantidadCategorias(), "byte " + i);
+				copia.darRutaPortada(l);
+				assertTrue(copia.darAnchoPortada(l) >= 0 && copia.darAltoPortada(l) >= 0, "byte " + i);
+			}
+		}
+	}
+
+	/**
+	 * Si la copia está dañada, la librería carga el catálogo de los archivos CSV
+	 * y reemplaza la copia
+	 */
+	@Test
+	void testLibreriaConCopiaDanada() throws IOException
+	{
+		OpcionesCarga opciones = new OpcionesCarga().cambiarArchivoCopia(archivoCopia);
+		Libreria desdeCSV = new Libreria(archivoCategorias, archivoLibros, opciones);
+		assertNotNull(abrirVigente());
+
+		escribirEntero(desdeElFinal(2, 2), 1000);
+		assertNull(abrirVigente());
+		Libreria recargada = new Libreria(archivoCategorias, archivoLibros, opciones);
+		assertEquals(desdeCSV.darLibros().toString(), recargada.darLibros().toString());
+		assertEquals(desdeCSV.darLibros().size(), recargada.darLibros().size());
+		for (int i = 0; i < desdeCSV.darLibros().size(); i++)
+		{
+			assertEquals(desdeCSV.darLibros().get(i).darCategoria().darNombre(),
+					recargada.darLibros().get(i).darCategoria().darNombre());
+		}
+		assertNotNull(abrirVigente());
+	}
+
+}
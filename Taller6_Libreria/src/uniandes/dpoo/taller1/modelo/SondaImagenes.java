@@ -0,0 +1,264 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Esta clase averigua el tamaño real de las imágenes de las portadas leyendo
+ * solamente el encabezado de cada archivo, sin decodificar los pixeles.
+ *
+ * En un archivo PNG el tamaño está en el bloque IHDR, que siempre es el primero.
+ * En un archivo JPEG está en el segmento SOF, al que se llega saltando los
+ * segmentos anteriores según la longitud que declara cada uno. En los dos casos
+ * basta con leer unos cientos de bytes, mientras que decodificar la imagen
+ * requiere leer el archivo completo y reservar la memoria de todos sus pixeles.
+ *
+ * Sirve para revisar los anchos y altos que trae el archivo de libros, que de
+ * otra forma se creen sin verificar.
+ */
+public class SondaImagenes
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Los primeros bytes de todo archivo PNG
+	 */
+	private static final byte[] FIRMA_PNG = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+
+	/**
+	 * Tamaño del buffer con el que se leen los encabezados
+	 */
+	private static final int TAMANO_BUFFER = 1024;
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * La carpeta respecto a la cual se resuelven las rutas de las imágenes
+	 */
+	private Path carpetaBase;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye una sonda de imágenes
+	 *
+	 * @param rutaCarpetaBase La carpeta respecto a la cual se resuelven las rutas
+	 *                        de las imágenes, por ejemplo "./data"
+	 */
+	public SondaImagenes(String rutaCarpetaBase)
+	{
+		this.carpetaBase = Paths.get(rutaCarpetaBase);
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	/**
+	 * Lee el tamaño real de una imagen
+	 *
+	 * @param rutaArchivo La ruta del archivo, relativa a la carpeta base
+	 * @return Una imagen con la misma ruta y el tamaño que dice el encabezado del
+	 *         archivo, o null si el archivo no existe, no se puede leer o no es un
+	 *         JPEG ni un PNG
+	 */
+	public Imagen leer(String rutaArchivo)
+	{
+		Path archivo = carpetaBase.resolve(rutaArchivo);
+		try (DataInputStream entrada = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(archivo), TAMANO_BUFFER)))
+		{
+			int[] tamano = leerTamano(entrada);
+			return tamano == null ? null : new Imagen(rutaArchivo, tamano[0], tamano[1]);
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Revisa en paralelo el tamaño de un grupo de imágenes. Cada archivo se lee
+	 * una sola vez aunque varias de las imágenes tengan la misma ruta.
+	 *
+	 * @param imagenes Las imágenes que se van a revisar, con el tamaño declarado
+	 * @return Las imágenes cuyo tamaño declarado no coincide con el real, cada una
+	 *         asociada a una imagen con el tamaño real. Las imágenes que no se
+	 *         pudieron leer no aparecen.
+	 */
+	public HashMap<Imagen, Imagen> revisar(Collection<Imagen> imagenes)
+	{
+		ConcurrentHashMap<String, Imagen> leidas = new ConcurrentHashMap<String, Imagen>();
+		imagenes.parallelStream().map(Imagen::darRutaArchivo).distinct().forEach(ruta -> {
+			Imagen real = leer(ruta);
+			if (real != null)
+			{
+				leidas.put(ruta, real);
+			}
+		});
+
+		HashMap<Imagen, Imagen> diferentes = new HashMap<Imagen, Imagen>();
+		for (Imagen declarada : imagenes)
+		{
+			Imagen real = leidas.get(declarada.darRutaArchivo());
+			if (real != null && !real.equals(declarada))
+			{
+				diferentes.put(declarada, real);
+			}
+		}
+		return diferentes;
+	}
+
+	/**
+	 * Lee el tamaño de la imagen que empieza en la posición actual de la entrada
+	 *
+	 * @param entrada La entrada con el contenido del archivo
+	 * @return Un arreglo con el ancho y el alto, o null si no es un JPEG ni un PNG
+	 * @throws IOException Si hay un problema leyendo la entrada
+	 */
+	private static int[] leerTamano(DataInputStream entrada) throws IOException
+	{
+		int primero = entrada.readUnsignedByte();
+		int segundo = entrada.readUnsignedByte();
+		if (primero == 0xFF && segundo == 0xD8)
+		{
+			return leerTamanoJpeg(entrada);
+		}
+		if (primero == (FIRMA_PNG[0] & 0xFF) && segundo == FIRMA_PNG[1])
+		{
+			return leerTamanoPng(entrada);
+		}
+		return null;
+	}
+
+	/**
+	 * Lee el tamaño de un JPEG recorriendo sus segmentos hasta encontrar uno de
+	 * tipo SOF. Se supone que ya se leyó el marcador de inicio (FFD8).
+	 *
+	 * @param entrada La entrada, ubicada después del marcador de inicio
+	 * @return Un arreglo con el ancho y el alto, o null si la imagen empieza antes
+	 *         de encontrar un segmento SOF
+	 * @throws IOException Si hay un problema leyendo la entrada
+	 */
+	private static int[] leerTamanoJpeg(DataInputStream entrada) throws IOException
+	{
+		while (true)
+		{
+			if (entrada.readUnsignedByte() != 0xFF)
+			{
+				return null;
+			}
+			int marcador = entrada.readUnsignedByte();
+			while (marcador == 0xFF)
+			{
+				marcador = entrada.readUnsignedByte();
+			}
+
+			if (marcador == 0xD9 || marcador == 0xDA)
+			{
+				// Fin de la imagen o inicio de los datos comprimidos
+				return null;
+			}
+			if (marcador == 0x01 || (marcador >= 0xD0 && marcador <= 0xD7))
+			{
+				// Marcadores sin longitud ni contenido
+				continue;
+			}
+
+			int longitud = entrada.readUnsignedShort();
+			if (esMarcadorSof(marcador))
+			{
+				entrada.readUnsignedByte(); // Precisión de las muestras
+				int alto = entrada.readUnsignedShort();
+				int ancho = entrada.readUnsignedShort();
+				return new int[] { ancho, alto };
+			}
+			saltar(entrada, longitud - 2);
+		}
+	}
+
+	/**
+	 * Indica si un marcador de JPEG corresponde a un segmento SOF (C0 a CF, salvo
+	 * C4, C8 y CC, que son tablas de Huffman, una extensión y tablas
+	 * aritméticas)
+	 *
+	 * @param marcador El marcador
+	 * @return true si el segmento tiene el tamaño de la imagen
+	 */
+	private static boolean esMarcadorSof(int marcador)
+	{
+		return marcador >= 0xC0 && marcador <= 0xCF && marcador != 0xC4 && marcador != 0xC8 && marcador != 0xCC;
+	}
+
+	/**
+	 * Lee el tamaño de un PNG del bloque IHDR. Se supone que ya se leyeron los dos
+	 * primeros bytes de la firma.
+	 *
+	 * @param entrada La entrada, ubicada después de los dos primeros bytes
+	 * @return Un arreglo con el ancho y el alto, o null si el archivo no tiene la
+	 *         firma o el bloque IHDR esperado
+	 * @throws IOException Si hay un problema leyendo la entrada
+	 */
+	private static int[] leerTamanoPng(DataInputStream entrada) throws IOException
+	{
+		for (int i = 2; i < FIRMA_PNG.length; i++)
+		{
+			if (entrada.readByte() != FIRMA_PNG[i])
+			{
+				return null;
+			}
+		}
+		entrada.readInt(); // Longitud del bloque
+		if (entrada.readInt() != 0x49484452) // "IHDR"
+		{
+			return null;
+		}
+		int ancho = entrada.readInt();
+		int alto = entrada.readInt();
+		if (ancho <= 0 || alto <= 0)
+		{
+			return null;
+		}
+		return new int[] { ancho, alto };
+	}
+
+	/**
+	 * Salta una cantidad de bytes de la entrada
+	 *
+	 * @param entrada  La entrada
+	 * @param cantidad La cantidad de bytes que se deben saltar
+	 * @throws IOException Si la entrada termina antes
+	 */
+	private static void saltar(InputStream entrada, long cantidad) throws IOException
+	{
+		while (cantidad > 0)
+		{
+			long saltados = entrada.skip(cantidad);
+			if (saltados <= 0)
+			{
+				if (entrada.read() < 0)
+				{
+					throw new EOFException();
+				}
+				saltados = 1;
+			}
+			cantidad -= saltados;
+		}
+	}
+
+}
@@ -0,0 +1,266 @@
+package uniandes.dpoo.taller1.modelo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Esta clase vigila los archivos CSV de una librería y, cada vez que cambian,
+ * calcula la diferencia con su contenido anterior y se la entrega a un
+ * receptor, que decide cómo aplicarla.
+ *
+ * El sistema operativo avisa los cambios por medio de un WatchService, así que
+ * mientras los archivos no cambian el vigilante no consume nada. Un archivo que
+ * se reescribe produce varios avisos seguidos; el vigilante espera a que pasen
+ * {@link #ESPERA_MILIS} milisegundos sin avisos antes de leerlo, y si el
+ * archivo cambia mientras se lee, descarta la lectura y espera el siguiente
+ * aviso.
+ *
+ * El contenido inicial se lee al construir el vigilante, que empieza a recibir
+ * avisos desde ese momento. Por eso se debe construir antes de cargar la
+ * librería con los mismos archivos: si cambian durante la carga, la diferencia
+ * puede incluir cambios que la librería ya tiene, y aplicarlos otra vez no la
+ * modifica (ver Libreria.aplicarDiferencia).
+ */
+public class VigilanteArchivos implements Closeable
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * Cuántos milisegundos sin avisos se esperan antes de leer los archivos
+	 */
+	public static final long ESPERA_MILIS = 500;
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * El nombre del archivo CSV de categorías
+	 */
+	private String archivoCategorias;
+
+	/**
+	 * El nombre del archivo CSV de libros
+	 */
+	private String archivoLibros;
+
+	/**
+	 * La ruta completa del archivo de categorías, para reconocer sus avisos
+	 */
+	private Path rutaCategorias;
+
+	/**
+	 * La ruta completa del archivo de libros, para reconocer sus avisos
+	 */
+	private Path rutaLibros;
+
+	/**
+	 * El servicio que entrega los avisos de las carpetas de los archivos
+	 */
+	private WatchService servicio;
+
+	/**
+	 * El contenido de los archivos en la última lectura. Solamente lo usa el
+	 * hilo del vigilante, después de construirlo.
+	 */
+	private ContenidoArchivos contenido;
+
+	/**
+	 * El hilo que espera los avisos, o null si no se ha iniciado
+	 */
+	private Thread hilo;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Empieza a vigilar los archivos de una librería y lee su contenido actual.
+	 * Las diferencias no se calculan hasta que se invoque iniciar.
+	 *
+	 * @param nombreArchivoCategorias El nombre del archivo CSV de categorías
+	 * @param nombreArchivoLibros     El nombre del archivo CSV de libros
+	 * @throws IOException Se lanza esta excepción si no se pueden vigilar las
+	 *                     carpetas de los archivos o si hay algún problema
+	 *                     leyéndolos
+	 */
+	public VigilanteArchivos(String nombreArchivoCategorias, String nombreArchivoLibros) throws IOException
+	{
+		this.archivoCategorias = nombreArchivoCategorias;
+		this.archivoLibros = nombreArchivoLibros;
+		this.rutaCategorias = Paths.get(nombreArchivoCategorias).toAbsolutePath().normalize();
+		this.rutaLibros = Paths.get(nombreArchivoLibros).toAbsolutePath().normalize();
+
+		this.servicio = rutaLibros.getFileSystem().newWatchService();
+		try
+		{
+			vigilarCarpeta(rutaLibros.getParent());
+			if (!rutaCategorias.getParent().equals(rutaLibros.getParent()))
+			{
+				vigilarCarpeta(rutaCategorias.getParent());
+			}
+			this.contenido = ContenidoArchivos.leer(archivoCategorias, archivoLibros);
+		}
+		catch (IOException e)
+		{
+			servicio.close();
+			throw e;
+		}
+	}
+
+	// ************************************************************************
+	// Otros métodos
+	// ************************************************************************
+
+	/**
+	 * Empieza a calcular diferencias en un hilo aparte. Las diferencias vacías
+	 * no se entregan.
+	 *
+	 * @param receptor El que recibe cada diferencia, en el hilo del vigilante.
+	 *                 Las diferencias se entregan en orden y cada una parte del
+	 *                 contenido en el que terminó la anterior.
+	 */
+	public synchronized void iniciar(Consumer<DiferenciaCatalogo> receptor)
+	{
+		if (hilo != null)
+		{
+			throw new IllegalStateException("El vigilante ya se inició");
+		}
+		hilo = new Thread(() -> vigilar(receptor), "vigilante-catalogo");
+		hilo.setDaemon(true);
+		hilo.start();
+	}
+
+	/**
+	 * Deja de vigilar los archivos. Una diferencia que se esté calculando todavía
+	 * se puede entregar.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		servicio.close();
+	}
+
+	/**
+	 * Pide los avisos de creación y modificación de los archivos de una carpeta.
+	 * Los archivos que se reemplazan con uno nuevo producen avisos de creación.
+	 *
+	 * @param carpeta La carpeta
+	 * @throws IOException Si no se puede vigilar la carpeta
+	 */
+	private void vigilarCarpeta(Path carpeta) throws IOException
+	{
+		carpeta.register(servicio, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+	}
+
+	/**
+	 * Espera los avisos de cambios y entrega las diferencias hasta que se cierre
+	 * el vigilante. Se ejecuta en el hilo del vigilante.
+	 *
+	 * @param receptor El que recibe las diferencias
+	 */
+	private void vigilar(Consumer<DiferenciaCatalogo> receptor)
+	{
+		try
+		{
+			while (true)
+			{
+				if (!revisarAvisos(servicio.take()))
+				{
+					continue;
+				}
+
+				WatchKey llave = servicio.poll(ESPERA_MILIS, TimeUnit.MILLISECONDS);
+				while (llave != null)
+				{
+					revisarAvisos(llave);
+					llave = servicio.poll(ESPERA_MILIS, TimeUnit.MILLISECONDS);
+				}
+
+				DiferenciaCatalogo diferencia = leerDiferencia();
+				if (diferencia != null && !diferencia.estaVacia())
+				{
+					receptor.accept(diferencia);
+				}
+			}
+		}
+		catch (ClosedWatchServiceException e)
+		{
+			// Se cerró el vigilante
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Revisa los avisos de una carpeta y la deja lista para recibir más
+	 *
+	 * @param llave La llave de la carpeta, con sus avisos
+	 * @return Retorna true si alguno de los avisos es de los archivos vigilados,
+	 *         o si se perdieron avisos
+	 */
+	private boolean revisarAvisos(WatchKey llave)
+	{
+		boolean cambio = false;
+		Path carpeta = (Path) llave.watchable();
+		for (WatchEvent<?> aviso : llave.pollEvents())
+		{
+			if (aviso.kind() == StandardWatchEventKinds.OVERFLOW)
+			{
+				cambio = true;
+			}
+			else
+			{
+				Path archivo = carpeta.resolve((Path) aviso.context());
+				cambio |= archivo.equals(rutaLibros) || archivo.equals(rutaCategorias);
+			}
+		}
+		llave.reset();
+		return cambio;
+	}
+
+	/**
+	 * Lee los archivos y calcula la diferencia con la lectura anterior
+	 *
+	 * @return La diferencia, o null si no se pudieron leer los archivos o si
+	 *         cambiaron mientras se leían. En ese caso se conserva la lectura
+	 *         anterior y se espera el siguiente aviso.
+	 */
+	private DiferenciaCatalogo leerDiferencia()
+	{
+		SnapshotCatalogo.Huella huella = new SnapshotCatalogo.Huella(archivoCategorias, archivoLibros);
+		ContenidoArchivos nuevo;
+		try
+		{
+			nuevo = ContenidoArchivos.leer(archivoCategorias, archivoLibros);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			// El archivo se está reescribiendo o no existe por el momento: un archivo a
+			// medio escribir puede tener una fila incompleta
+			return null;
+		}
+		if (!huella.estaVigente())
+		{
+			return null;
+		}
+
+		DiferenciaCatalogo diferencia = DiferenciaCatalogo.calcular(contenido, nuevo);
+		contenido = nuevo;
+		return diferencia;
+	}
+
+}
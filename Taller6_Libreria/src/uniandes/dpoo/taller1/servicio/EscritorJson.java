@@ -0,0 +1,301 @@
+package uniandes.dpoo.taller1.servicio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Esta clase escribe un documento JSON a medida que se generan sus valores, sin
+ * construirlo antes en memoria.
+ *
+ * Lleva la cuenta de los objetos y arreglos abiertos para poner las comas entre
+ * sus elementos. No verifica que el documento esté bien formado: quien la usa
+ * debe abrir y cerrar los objetos y arreglos en orden, y escribir un nombre
+ * antes de cada valor dentro de un objeto.
+ */
+public class EscritorJson implements Closeable
+{
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * El destino del documento
+	 */
+	private Writer destino;
+
+	/**
+	 * Para cada nivel abierto, indica si todavía no tiene elementos
+	 */
+	private boolean[] vacios;
+
+	/**
+	 * Cantidad de objetos y arreglos abiertos
+	 */
+	private int profundidad;
+
+	/**
+	 * Indica si se acaba de escribir un nombre y falta su valor
+	 */
+	private boolean despuesDeNombre;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye un escritor sobre el destino indicado
+	 *
+	 * @param elDestino El destino del documento. Conviene que tenga buffer.
+	 */
+	public EscritorJson(Writer elDestino)
+	{
+		this.destino = elDestino;
+		this.vacios = new boolean[8];
+		this.profundidad = 0;
+		this.despuesDeNombre = false;
+	}
+
+	// ************************************************************************
+	// Métodos
+	// ************************************************************************
+
+	/**
+	 * Abre un objeto
+	 *
+	 * @return Este escritor, para encadenar las llamadas
+	 * @throws IOException Si hay un problema escribiendo
+	 */
+	public EscritorJson abrirObjeto() throws IOException
+	{
+		antesDeValor();
+		destino.write('{');
+		abrirNivel();
+		return this;
+	}
+
+	/**
+	 * Cierra el último objeto abierto
+	 *
+	 * @return Este escritor, para encadenar las llamadas
+	 * @throws IOException Si hay un problema escribiendo
+	 */
+	public EscritorJson cerrarObjeto() throws IOException
+	{
+		profundidad--;
+		destino.write('}');
+		return this;
+	}
+
+	/**
+	 * Abre un arreglo
+	 *
+	 * @return Este escritor, para encadenar las llamadas
+	 * @throws IOException Si hay un problema escribiendo
+	 */
+	public EscritorJson abrirArreglo() throws IOException
+	{
+		antesDeValor();
+		destino.write('[');
+		abrirNivel();
+		return this;
+	}
+
+	/**
+	 * Cierra el último arreglo abierto
+	 *
+	 * @return Este escritor, para encadenar las llamadas
+	 * @throws IOException Si hay un problema escribiendo
+	 */
+	public EscritorJson cerrarArreglo() throws IOException
+	{
+		profundidad--;
+		destino.write(']');
+		return this;
+	}
+
+	/**
+	 * Escribe el nombre del siguiente valor de un objeto
+	 *
+	 * @param nombre El nombre
+	 * @return Este escritor, para encadenar las llamadas
+	 * @throws IOException Si hay un problema escribiendo
+	 */
+	public EscritorJson nombre(String nombre) throws IOException
+	{
+		antesDeValor();
+		escribirCadena(nombre);
+		destino.write(':');
+		despuesDeNombre = true;
+		return this;
+	}
+
+	/**
+	 * Escribe una cadena
+	 *
+	 * @param texto La cadena, o null para escribir null
+	 * @return Este escritor, para encadenar las llamadas
+	 * @throws IOException Si hay un problema escribiendo
+	 */
+	public EscritorJson valor(String texto) throws IOException
+	{
+		antesDeValor();
+		if (texto == null)
+		{
+			destino.write("null");
+		}
+		else
+		{
+			escribirCadena(texto);
+		}
+		return this;
+	}
+
+	/**
+	 * Escribe un número. Los valores que JSON no puede representar (NaN e
+	 * infinitos) se escriben como null.
+	 *
+	 * @param numero El número
+	 * @return Este escritor, para encadenar las llamadas
+	 * @throws IOException Si hay un problema escribiendo
+	 */
+	public EscritorJson valor(double numero) throws IOException
+	{
+		antesDeValor();
+		destino.write(Double.isNaN(numero) || Double.isInfinite(numero) ? "null" : Double.toString(numero));
+		return this;
+	}
+
+	/**
+	 * Escribe un número entero
+	 *
+	 * @param numero El número
+	 * @return Este escritor, para encadenar las llamadas
+	 * @throws IOException Si hay un problema escribiendo
+	 */
+	public EscritorJson valor(long numero) throws IOException
+	{
+		antesDeValor();
+		destino.write(Long.toString(numero));
+		return this;
+	}
+
+	/**
+	 * Escribe un valor de verdad
+	 *
+	 * @param verdad El valor
+	 * @return Este escritor, para encadenar las llamadas
+	 * @throws IOException Si hay un problema escribiendo
+	 */
+	public EscritorJson valor(boolean verdad) throws IOException
+	{
+		antesDeValor();
+		destino.write(verdad ? "true" : "false");
+		return this;
+	}
+
+	/**
+	 * Escribe null
+	 *
+	 * @return Este escritor, para encadenar las llamadas
+	 * @throws IOException Si hay un problema escribiendo
+	 */
+	public EscritorJson nulo() throws IOException
+	{
+		antesDeValor();
+		destino.write("null");
+		return this;
+	}
+
+	/**
+	 * Termina el documento y cierra el destino
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		destino.close();
+	}
+
+	/**
+	 * Escribe la coma que separa un elemento del anterior, si hace falta
+	 *
+	 * @throws IOException Si hay un problema escribiendo
+	 */
+	private void antesDeValor() throws IOException
+	{
+		if (despuesDeNombre)
+		{
+			despuesDeNombre = false;
+			return;
+		}
+		if (profundidad > 0)
+		{
+			if (vacios[profundidad - 1])
+			{
+				vacios[profundidad - 1] = false;
+			}
+			else
+			{
+				destino.write(',');
+			}
+		}
+	}
+
+	/**
+	 * Registra un nuevo nivel abierto, todavía sin elementos
+	 */
+	private void abrirNivel()
+	{
+		if (profundidad == vacios.length)
+		{
+			vacios = Arrays.copyOf(vacios, profundidad * 2);
+		}
+		vacios[profundidad++] = true;
+	}
+
+	/**
+	 * Escribe una cadena entre comillas, escapando los caracteres que lo
+	 * requieren
+	 *
+	 * @param texto La cadena
+	 * @throws IOException Si hay un problema escribiendo
+	 */
+	private void escribirCadena(String texto) throws IOException
+	{
+		destino.write('"');
+		int inicio = 0;
+		for (int i = 0; i < texto.length(); i++)
+		{
+			char c = texto.charAt(i);
+			if (c == '"' || c == '\\' || c < 0x20)
+			{
+				destino.write(texto, inicio, i - inicio);
+				switch (c)
+				{
+					case '"':
+						destino.write("\\\"");
+						break;
+					case '\\':
+						destino.write("\\\\");
+						break;
+					case '\n':
+						destino.write("\\n");
+						break;
+					case '\r':
+						destino.write("\\r");
+						break;
+					case '\t':
+						destino.write("\\t");
+						break;
+					default:
+						destino.write(String.format("\\u%04x", (int) c));
+				}
+				inicio = i + 1;
+			}
+		}
+		destino.write(texto, inicio, texto.length() - inicio);
+		destino.write('"');
+	}
+
+}
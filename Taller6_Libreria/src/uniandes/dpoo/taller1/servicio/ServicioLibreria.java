@@ -0,0 +1,594 @@
+package uniandes.dpoo.taller1.servicio;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.management.JMException;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import uniandes.dpoo.taller1.modelo.Categoria;
+import uniandes.dpoo.taller1.modelo.Imagen;
+import uniandes.dpoo.taller1.modelo.Libreria;
+import uniandes.dpoo.taller1.modelo.LibreriaConcurrente;
+import uniandes.dpoo.taller1.modelo.Libro;
+import uniandes.dpoo.taller1.modelo.MetricasLibreria;
+import uniandes.dpoo.taller1.modelo.OpcionesCarga;
+
+/**
+ * Esta clase ofrece las consultas de una librería como un servicio HTTP local
+ * que responde en JSON, para que otras herramientas puedan consultar el
+ * catálogo sin la interfaz gráfica.
+ *
+ * Las consultas se hacen sobre una LibreriaConcurrente, así que se pueden
+ * atender muchas peticiones a la vez. Cada petición se atiende en un hilo
+ * virtual si la máquina virtual los ofrece (Java 21 o posterior); si no, en un
+ * pool fijo de hilos. Las respuestas se escriben a medida que se generan.
+ *
+ * Rutas (todas con GET):
+ *
+ * <pre>
+ * /libros?titulo=...          El libro con ese título exacto, o 404
+ * /libros?autor=...           Los libros cuyos autores contienen el texto
+ * /categorias                 Las categorías y cuántos libros tiene cada una
+ * /categorias/libros?nombre=  Los libros de una categoría, o 404
+ * /autores/categorias?autor=  Las categorías con libros de ese autor
+ * /estadisticas               Los cálculos generales sobre el catálogo
+ * </pre>
+ */
+public class ServicioLibreria
+{
+	// ************************************************************************
+	// Constantes
+	// ************************************************************************
+
+	/**
+	 * El puerto por defecto del servicio
+	 */
+	public static final int PUERTO_POR_DEFECTO = 8080;
+
+	/**
+	 * Tamaño del buffer con el que se escriben las respuestas. Las respuestas
+	 * pequeñas se envían en un solo bloque.
+	 */
+	private static final int TAMANO_BUFFER = 8 * 1024;
+
+	/**
+	 * Cantidad de conexiones que pueden esperar a ser aceptadas
+	 */
+	private static final int CONEXIONES_EN_ESPERA = 1024;
+
+	/**
+	 * Cantidad de hilos por procesador cuando no hay hilos virtuales
+	 */
+	private static final int HILOS_POR_PROCESADOR = 4;
+
+	static
+	{
+		// El servidor envía los encabezados y el cuerpo en paquetes separados. Con
+		// el algoritmo de Nagle activo, el cuerpo espera a que el cliente confirme
+		// los encabezados, y cada consulta pequeña tarda unos 40 ms en lugar de
+		// décimas de milisegundo.
+		if (System.getProperty("sun.net.httpserver.nodelay") == null)
+		{
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+	}
+
+	// ************************************************************************
+	// Atributos
+	// ************************************************************************
+
+	/**
+	 * La librería que se consulta
+	 */
+	private LibreriaConcurrente libreria;
+
+	/**
+	 * El servidor HTTP
+	 */
+	private HttpServer servidor;
+
+	/**
+	 * El ejecutor en el que se atienden las peticiones
+	 */
+	private ExecutorService ejecutor;
+
+	// ************************************************************************
+	// Constructores
+	// ************************************************************************
+
+	/**
+	 * Construye el servicio y lo asocia a un puerto de la interfaz local, pero no
+	 * empieza a atender peticiones
+	 *
+	 * @param laLibreria La librería que se consulta
+	 * @param puerto     El puerto, o 0 para que el sistema escoja uno libre
+	 * @throws IOException Si no se puede usar el puerto
+	 */
+	public ServicioLibreria(LibreriaConcurrente laLibreria, int puerto) throws IOException
+	{
+		this.libreria = laLibreria;
+		this.servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto),
+				CONEXIONES_EN_ESPERA);
+		this.ejecutor = crearEjecutor();
+		servidor.setExecutor(ejecutor);
+
+		servidor.createContext("/libros", consulta(this::atenderLibros));
+		servidor.createContext("/categorias", consulta(this::atenderCategorias));
+		servidor.createContext("/categorias/libros", consulta(this::atenderLibrosCategoria));
+		servidor.createContext("/autores/categorias", consulta(this::atenderCategoriasAutor));
+		servidor.createContext("/estadisticas", consulta(this::atenderEstadisticas));
+	}
+
+	// ************************************************************************
+	// Métodos
+	// ************************************************************************
+
+	/**
+	 * Empieza a atender peticiones
+	 */
+	public void iniciar()
+	{
+		servidor.start();
+	}
+
+	/**
+	 * Deja de atender peticiones, esperando a lo sumo el tiempo indicado a que
+	 * terminen las que están en curso
+	 *
+	 * @param segundos Los segundos que se espera
+	 */
+	public void detener(int segundos)
+	{
+		servidor.stop(segundos);
+		ejecutor.shutdown();
+	}
+
+	/**
+	 * Consulta el puerto en el que atiende el servicio
+	 *
+	 * @return El puerto
+	 */
+	public int darPuerto()
+	{
+		return servidor.getAddress().getPort();
+	}
+
+	/**
+	 * Atiende /libros?titulo=... y /libros?autor=...
+	 */
+	private void atenderLibros(HttpExchange intercambio, HashMap<String, String> parametros) throws IOException
+	{
+		String titulo = parametros.get("titulo");
+		String autor = parametros.get("autor");
+		if (titulo != null)
+		{
+			Libro libro = libreria.buscarLibro(titulo);
+			if (libro == null)
+			{
+				responderError(intercambio, 404, "No se encontró un libro con ese título");
+				return;
+			}
+			try (EscritorJson json = responder(intercambio))
+			{
+				escribirLibro(json, libro);
+			}
+		}
+		else if (autor != null)
+		{
+			responderLibros(intercambio, libreria.buscarLibrosAutor(autor));
+		}
+		else
+		{
+			responderError(intercambio, 400, "Falta el parámetro titulo o autor");
+		}
+	}
+
+	/**
+	 * Atiende /categorias
+	 */
+	private void atenderCategorias(HttpExchange intercambio, HashMap<String, String> parametros) throws IOException
+	{
+		try (EscritorJson json = responder(intercambio))
+		{
+			json.abrirArreglo();
+			for (Categoria categoria : libreria.darCategorias())
+			{
+				json.abrirObjeto();
+				json.nombre("nombre").valor(categoria.darNombre());
+				json.nombre("ficcion").valor(categoria.esFiccion());
+				json.nombre("libros").valor(categoria.contarLibrosEnCategoria());
+				json.nombre("calificacionPromedio").valor(categoria.calificacionPromedio());
+				json.cerrarObjeto();
+			}
+			json.cerrarArreglo();
+		}
+	}
+
+	/**
+	 * Atiende /categorias/libros?nombre=...
+	 */
+	private void atenderLibrosCategoria(HttpExchange intercambio, HashMap<String, String> parametros)
+			throws IOException
+	{
+		String nombre = parametros.get("nombre");
+		if (nombre == null)
+		{
+			responderError(intercambio, 400, "Falta el parámetro nombre");
+			return;
+		}
+		ArrayList<Libro> libros = libreria.consultar(
+				version -> version.buscarPosCategoria(nombre) < 0 ? null : version.darLibros(nombre));
+		if (libros == null)
+		{
+			responderError(intercambio, 404, "No existe la categoría");
+			return;
+		}
+		responderLibros(intercambio, libros);
+	}
+
+	/**
+	 * Atiende /autores/categorias?autor=...
+	 */
+	private void atenderCategoriasAutor(HttpExchange intercambio, HashMap<String, String> parametros)
+			throws IOException
+	{
+		String autor = parametros.get("autor");
+		if (autor == null)
+		{
+			responderError(intercambio, 400, "Falta el parámetro autor");
+			return;
+		}
+		try (EscritorJson json = responder(intercambio))
+		{
+			json.abrirArreglo();
+			for (Categoria categoria : libreria.buscarCategoriasAutor(autor))
+			{
+				json.valor(categoria.darNombre());
+			}
+			json.cerrarArreglo();
+		}
+	}
+
+	/**
+	 * Atiende /estadisticas. Todos los valores, incluido el número de versión,
+	 * salen de la misma versión de la librería, y se calculan antes de empezar
+	 * la respuesta para que un error se pueda informar con un código 500.
+	 */
+	private void atenderEstadisticas(HttpExchange intercambio, HashMap<String, String> parametros)
+			throws IOException
+	{
+		Object[] valores = libreria.consultarVersion((version, l) -> new Object[] { version, l.darLibros().size(),
+				l.calificacionPromedio(), darNombre(l.categoriaConMasLibros()),
+				darNombre(l.categoriaConMejoresLibros()), l.contarLibrosSinPortada(), l.hayAutorEnVariasCategorias() });
+
+		try (EscritorJson json = responder(intercambio))
+		{
+			json.abrirObjeto();
+			json.nombre("version").valor((long) valores[0]);
+			json.nombre("libros").valor((int) valores[1]);
+			json.nombre("calificacionPromedio").valor((double) valores[2]);
+			escribirNombre(json.nombre("categoriaConMasLibros"), (String) valores[3]);
+			escribirNombre(json.nombre("categoriaConMejoresLibros"), (String) valores[4]);
+			json.nombre("librosSinPortada").valor((int) valores[5]);
+			json.nombre("autorEnVariasCategorias").valor((boolean) valores[6]);
+			json.cerrarObjeto();
+		}
+	}
+
+	/**
+	 * Consulta el nombre de una categoría que puede no existir
+	 *
+	 * @param categoria La categoría, o null si no hay ninguna
+	 * @return El nombre de la categoría, o null si no hay ninguna
+	 */
+	private static String darNombre(Categoria categoria)
+	{
+		return categoria == null ? null : categoria.darNombre();
+	}
+
+	/**
+	 * Escribe un nombre que puede faltar
+	 *
+	 * @param json   El escritor, justo después del nombre del campo
+	 * @param nombre El nombre, o null para escribir null
+	 * @throws IOException Si hay un problema escribiendo la respuesta
+	 */
+	private static void escribirNombre(EscritorJson json, String nombre) throws IOException
+	{
+		if (nombre == null)
+		{
+			json.nulo();
+		}
+		else
+		{
+			json.valor(nombre);
+		}
+	}
+
+	/**
+	 * Responde con una lista de libros
+	 *
+	 * @param intercambio La petición
+	 * @param libros      Los libros
+	 * @throws IOException Si hay un problema escribiendo la respuesta
+	 */
+	private void responderLibros(HttpExchange intercambio, List<Libro> libros) throws IOException
+	{
+		try (EscritorJson json = responder(intercambio))
+		{
+			json.abrirArreglo();
+			for (Libro libro : libros)
+			{
+				escribirLibro(json, libro);
+			}
+			json.cerrarArreglo();
+		}
+	}
+
+	/**
+	 * Escribe un libro como un objeto JSON
+	 *
+	 * @param json  El escritor
+	 * @param libro El libro
+	 * @throws IOException Si hay un problema escribiendo
+	 */
+	private static void escribirLibro(EscritorJson json, Libro libro) throws IOException
+	{
+		json.abrirObjeto();
+		json.nombre("titulo").valor(libro.darTitulo());
+		json.nombre("autor").valor(libro.darAutor());
+		json.nombre("calificacion").valor(libro.darCalificacion());
+		json.nombre("categoria").valor(libro.darCategoria().darNombre());
+		json.nombre("portada");
+		if (libro.tienePortada())
+		{
+			Imagen portada = libro.darPortada();
+			json.abrirObjeto();
+			json.nombre("ruta").valor(portada.darRutaArchivo());
+			json.nombre("ancho").valor(portada.darAncho());
+			json.nombre("alto").valor(portada.darAlto());
+			json.cerrarObjeto();
+		}
+		else
+		{
+			json.nulo();
+		}
+		json.cerrarObjeto();
+	}
+
+	/**
+	 * Envía los encabezados de una respuesta exitosa y retorna el escritor con el
+	 * que se escribe el cuerpo. El cuerpo se envía por partes (chunked), así que
+	 * no hace falta conocer su tamaño de antemano.
+	 *
+	 * @param intercambio La petición
+	 * @return El escritor del cuerpo. Al cerrarlo termina la respuesta.
+	 * @throws IOException Si hay un problema enviando los encabezados
+	 */
+	private static EscritorJson responder(HttpExchange intercambio) throws IOException
+	{
+		intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		intercambio.sendResponseHeaders(200, 0);
+		return new EscritorJson(new BufferedWriter(
+				new OutputStreamWriter(intercambio.getResponseBody(), StandardCharsets.UTF_8), TAMANO_BUFFER));
+	}
+
+	/**
+	 * Responde con un error y un mensaje en JSON
+	 *
+	 * @param intercambio La petición
+	 * @param codigo      El código HTTP del error
+	 * @param mensaje     El mensaje
+	 * @throws IOException Si hay un problema escribiendo la respuesta
+	 */
+	private static void responderError(HttpExchange intercambio, int codigo, String mensaje) throws IOException
+	{
+		// El cuerpo se arma completo antes de enviar los encabezados, porque su
+		// longitud va en ellos
+		StringWriter cuerpo = new StringWriter();
+		try (EscritorJson json = new EscritorJson(cuerpo))
+		{
+			json.abrirObjeto().nombre("error").valor(mensaje).cerrarObjeto();
+		}
+		byte[] bytes = cuerpo.toString().getBytes(StandardCharsets.UTF_8);
+		intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		intercambio.sendResponseHeaders(codigo, bytes.length);
+		intercambio.getResponseBody().write(bytes);
+		intercambio.close();
+	}
+
+	/**
+	 * Convierte una consulta en un manejador de peticiones HTTP. El manejador
+	 * solamente acepta GET sobre la ruta exacta de la consulta, descarta el cuerpo
+	 * de la petición, interpreta los parámetros y responde con un error 500 si la
+	 * consulta falla antes de empezar a responder.
+	 *
+	 * @param consulta La consulta
+	 * @return El manejador
+	 */
+	private static HttpHandler consulta(Consulta consulta)
+	{
+		return intercambio -> {
+			try (InputStream cuerpo = intercambio.getRequestBody())
+			{
+				cuerpo.transferTo(OutputStream.nullOutputStream());
+				if (!intercambio.getRequestURI().getPath().equals(intercambio.getHttpContext().getPath()))
+				{
+					responderError(intercambio, 404, "No existe la ruta");
+					return;
+				}
+				if (!intercambio.getRequestMethod().equals("GET"))
+				{
+					intercambio.getResponseHeaders().set("Allow", "GET");
+					responderError(intercambio, 405, "Solamente se aceptan consultas GET");
+					return;
+				}
+				consulta.atender(intercambio, leerParametros(intercambio.getRequestURI().getRawQuery()));
+			}
+			catch (RuntimeException e)
+			{
+				if (intercambio.getResponseCode() < 0)
+				{
+					responderError(intercambio, 500, String.valueOf(e.getMessage()));
+				}
+				throw e;
+			}
+			finally
+			{
+				intercambio.close();
+			}
+		};
+	}
+
+	/**
+	 * Interpreta los parámetros de una consulta
+	 *
+	 * @param consulta La parte de la URL después de '?', sin decodificar, o null
+	 * @return Los parámetros, decodificados. Si un parámetro se repite se conserva
+	 *         el primero.
+	 */
+	private static HashMap<String, String> leerParametros(String consulta)
+	{
+		HashMap<String, String> parametros = new HashMap<String, String>();
+		if (consulta == null || consulta.isEmpty())
+		{
+			return parametros;
+		}
+		for (String par : consulta.split("&"))
+		{
+			int igual = par.indexOf('=');
+			String nombre = igual < 0 ? par : par.substring(0, igual);
+			String valor = igual < 0 ? "" : par.substring(igual + 1);
+			parametros.putIfAbsent(URLDecoder.decode(nombre, StandardCharsets.UTF_8),
+					URLDecoder.decode(valor, StandardCharsets.UTF_8));
+		}
+		return parametros;
+	}
+
+	/**
+	 * Crea el ejecutor de las peticiones: uno que crea un hilo virtual por
+	 * petición si la máquina virtual lo ofrece, o un pool fijo de hilos si no.
+	 * El método de Java 21 se busca por reflexión para que el proyecto siga
+	 * compilando con versiones anteriores.
+	 *
+	 * @return El ejecutor
+	 */
+	private static ExecutorService crearEjecutor()
+	{
+		try
+		{
+			Method virtuales = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) virtuales.invoke(null);
+		}
+		catch (ReflectiveOperationException e)
+		{
+			int hilos = HILOS_POR_PROCESADOR * Runtime.getRuntime().availableProcessors();
+			return Executors.newFixedThreadPool(hilos, tarea -> {
+				Thread hilo = new Thread(tarea, "ServicioLibreria");
+				hilo.setDaemon(true);
+				return hilo;
+			});
+		}
+	}
+
+	// ************************************************************************
+	// Programa principal
+	// ************************************************************************
+
+	/**
+	 * Carga una librería y la ofrece como servicio HTTP hasta que se detenga el
+	 * proceso
+	 *
+	 * @param args [--puerto=N] [--paralela] [--columnar] [--copia=archivo]
+	 *             [--metricas] categorias.csv libros.csv. Con --metricas las
+	 *             mediciones de la librería se publican por JMX.
+	 * @throws IOException Si no se pueden leer los archivos o usar el puerto
+	 * @throws JMException Si no se pueden publicar las métricas
+	 */
+	public static void main(String[] args) throws IOException, JMException
+	{
+		int puerto = PUERTO_POR_DEFECTO;
+		OpcionesCarga opciones = new OpcionesCarga();
+		ArrayList<String> archivos = new ArrayList<String>();
+		for (String argumento : args)
+		{
+			if (argumento.startsWith("--puerto="))
+			{
+				puerto = Integer.parseInt(argumento.substring("--puerto=".length()));
+			}
+			else if (argumento.equals("--paralela"))
+			{
+				opciones.cambiarCargaParalela(true);
+			}
+			else if (argumento.equals("--columnar"))
+			{
+				opciones.cambiarAlmacenColumnar(true);
+			}
+			else if (argumento.startsWith("--copia="))
+			{
+				opciones.cambiarArchivoCopia(argumento.substring("--copia=".length()));
+			}
+			else if (argumento.equals("--metricas"))
+			{
+				opciones.cambiarMetricas(new MetricasLibreria());
+			}
+			else
+			{
+				archivos.add(argumento);
+			}
+		}
+		if (archivos.size() != 2)
+		{
+			System.err.println("Uso: ServicioLibreria [--puerto=N] [--paralela] [--columnar] [--copia=archivo]"
+					+ " [--metricas] categorias.csv libros.csv");
+			System.exit(2);
+		}
+
+		if (opciones.darMetricas() != null)
+		{
+			opciones.darMetricas().registrar("servicio");
+		}
+		Libreria cargada = new Libreria(archivos.get(0), archivos.get(1), opciones);
+		ServicioLibreria servicio = new ServicioLibreria(new LibreriaConcurrente(cargada), puerto);
+		servicio.iniciar();
+		System.out.println("Atendiendo en http://localhost:" + servicio.darPuerto() + "/");
+	}
+
+	// ************************************************************************
+	// Clases anidadas
+	// ************************************************************************
+
+	/**
+	 * Una consulta que responde una petición a partir de sus parámetros
+	 */
+	private interface Consulta
+	{
+		/**
+		 * Atiende una petición
+		 *
+		 * @param intercambio La petición
+		 * @param parametros  Los parámetros de la petición, ya decodificados
+		 * @throws IOException Si hay un problema escribiendo la respuesta
+		 */
+		void atender(HttpExchange intercambio, HashMap<String, String> parametros) throws IOException;
+	}
+
+}